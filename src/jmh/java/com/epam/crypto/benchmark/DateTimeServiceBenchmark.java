@@ -0,0 +1,53 @@
+package com.epam.crypto.benchmark;
+
+import com.epam.crypto.service.DateTimeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of computation of timestamps of month and day bounds.
+ * Every call takes the next day of year, so results can't be constant-folded
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DateTimeServiceBenchmark {
+
+    private static final int YEAR = 2022;
+
+    private final DateTimeService dateTimeService = new DateTimeService();
+
+    private int day;
+
+    private int nextMonth() {
+        day = day == 335 ? 0 : day + 1;
+        return day / 28 + 1;
+    }
+
+    private int dayOfMonth() {
+        return day % 28 + 1;
+    }
+
+    @Benchmark
+    public long startTimestampOfMonth() {
+        return dateTimeService.getStartTimeStamp(YEAR, nextMonth());
+    }
+
+    @Benchmark
+    public long endTimestampOfMonth() {
+        return dateTimeService.getEndTimeStamp(YEAR, nextMonth());
+    }
+
+    @Benchmark
+    public long startTimestampOfDay() {
+        return dateTimeService.getStartTimeStamp(YEAR, nextMonth(), dayOfMonth());
+    }
+
+    @Benchmark
+    public long endTimestampOfDay() {
+        return dateTimeService.getEndTimeStamp(YEAR, nextMonth(), dayOfMonth());
+    }
+}
@@ -0,0 +1,166 @@
+package com.epam.crypto.benchmark;
+
+import com.epam.crypto.config.PriceCsvLoader;
+import com.epam.crypto.repository.PriceSeries;
+import com.epam.crypto.repository.TieredSeries;
+import com.epam.crypto.repository.TieringPolicy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Generator of synthetic prices for benchmarks.
+ * Every currency gets a random walk of prices (scale 2) with evenly spaced ticks during one year from 2022-01-01,
+ * the first currencies are named like bundled ones. Generated data is the same for the same parameters
+ */
+public class PriceDataGenerator {
+
+    // Timestamp of 2022-01-01 00:00:00.000 UTC+0
+    public static final long START_TIMESTAMP = 1640995200000L;
+
+    private static final long YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    private static final String[] BUNDLED_SYMBOLS = {"BTC", "ETH", "DOGE", "LTC", "XRP"};
+
+    private static final int SCALE = 2;
+
+    private final int symbols;
+
+    private final int ticks;
+
+    private final long step;
+
+    /**
+     * Create generator
+     *
+     * @param symbols number of currencies
+     * @param ticks   number of prices per currency
+     */
+    public PriceDataGenerator(int symbols, int ticks) {
+        this.symbols = symbols;
+        this.ticks = ticks;
+        this.step = Math.max(YEAR_MILLIS / ticks, 1);
+    }
+
+    /**
+     * Create generator by description of data set
+     *
+     * @param dataset number of currencies and number of prices per currency separated by 'x' (e.g. '1000x1000')
+     * @return generator
+     */
+    public static PriceDataGenerator of(String dataset) {
+        String[] sizes = dataset.split("x");
+        return new PriceDataGenerator(Integer.parseInt(sizes[0]), Integer.parseInt(sizes[1]));
+    }
+
+    /**
+     * Get currencies symbols
+     *
+     * @return array of currencies symbols
+     */
+    public String[] getCurrencySymbols() {
+        String[] result = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            result[i] = i < BUNDLED_SYMBOLS.length ? BUNDLED_SYMBOLS[i] : String.format("C%05d", i);
+        }
+        return result;
+    }
+
+    /**
+     * Get timestamp of the last price of every currency
+     *
+     * @return timestamp in milliseconds
+     */
+    public long getEndTimestamp() {
+        return START_TIMESTAMP + (ticks - 1) * step;
+    }
+
+    /**
+     * Generate prices of all currencies
+     *
+     * @param consumer consumer of prices
+     */
+    public void generate(PriceCsvLoader.PriceConsumer consumer) {
+        String[] currencySymbols = getCurrencySymbols();
+        for (int i = 0; i < symbols; i++) {
+            generate(i, currencySymbols[i], consumer);
+        }
+    }
+
+    /**
+     * Generate tree storage (map of currencies symbols to maps of timestamps to prices)
+     *
+     * @return storage
+     */
+    public Map<String, NavigableMap<Long, BigDecimal>> createTreeStorage() {
+        var storage = new ConcurrentHashMap<String, NavigableMap<Long, BigDecimal>>();
+        generate((currencySymbol, timestamp, unscaledPrice, scale) -> storage
+                .computeIfAbsent(currencySymbol, key -> new ConcurrentSkipListMap<>())
+                .put(timestamp, BigDecimal.valueOf(unscaledPrice, scale)));
+        return storage;
+    }
+
+    /**
+     * Generate columnar storage (map of currencies symbols to price series)
+     *
+     * @return storage
+     */
+    public Map<String, PriceSeries> createColumnarStorage() {
+        var builders = new HashMap<String, PriceSeries.Builder>();
+        generate((currencySymbol, timestamp, unscaledPrice, scale) -> builders
+                .computeIfAbsent(currencySymbol, key -> PriceSeries.builder())
+                .add(timestamp, unscaledPrice, scale));
+        var storage = new ConcurrentHashMap<String, PriceSeries>();
+        builders.forEach((currencySymbol, builder) -> storage.put(currencySymbol, builder.build()));
+        return storage;
+    }
+
+    /**
+     * Generate tiered storage (map of currencies symbols to tiered series)
+     *
+     * @param tieringPolicy tiering policy
+     * @return storage
+     */
+    public Map<String, TieredSeries> createTieredStorage(TieringPolicy tieringPolicy) {
+        var storage = new ConcurrentHashMap<String, TieredSeries>();
+        createColumnarStorage().forEach((currencySymbol, series) -> storage.put(currencySymbol, TieredSeries.of(series, tieringPolicy)));
+        return storage;
+    }
+
+    /**
+     * Generate CSV files in the format of bundled ones, a file per currency
+     *
+     * @return CSV files
+     */
+    public Resource[] createCsvFiles() {
+        String[] currencySymbols = getCurrencySymbols();
+        Resource[] files = new Resource[symbols];
+        for (int i = 0; i < symbols; i++) {
+            StringBuilder csv = new StringBuilder("timestamp,symbol,price\n");
+            generate(i, currencySymbols[i], (currencySymbol, timestamp, unscaledPrice, scale) -> csv
+                    .append(timestamp).append(',')
+                    .append(currencySymbol).append(',')
+                    .append(BigDecimal.valueOf(unscaledPrice, scale).toPlainString()).append('\n'));
+            files[i] = new ByteArrayResource(csv.toString().getBytes(StandardCharsets.UTF_8), currencySymbols[i] + "_values.csv");
+        }
+        return files;
+    }
+
+    private void generate(int seed, String currencySymbol, PriceCsvLoader.PriceConsumer consumer) {
+        Random random = new Random(seed);
+        long price = 100 + random.nextInt(10_000_000);
+        for (int i = 0; i < ticks; i++) {
+            // Price changes by up to 1% per tick and never drops below 1.00
+            price = Math.max(100, price + (long) (price * (random.nextDouble() - 0.5) / 50));
+            consumer.accept(currencySymbol, START_TIMESTAMP + i * step, price, SCALE);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.epam.crypto.benchmark;
+
+import com.epam.crypto.repository.*;
+import com.epam.crypto.service.DateTimeService;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of repository queries for all time, month and day.
+ * Every call queries the next currency, so results aren't served from CPU caches of one series
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PriceRepositoryBenchmark {
+
+    private static final int YEAR = 2022;
+    private static final int MONTH = 6;
+    private static final int DAY = 15;
+
+    private static final Set<Aggregate> PRICE_AGGREGATES = EnumSet.of(Aggregate.FIRST, Aggregate.LAST, Aggregate.MIN, Aggregate.MAX);
+
+    private static final long MONTH_START = new DateTimeService().getStartTimeStamp(YEAR, MONTH);
+
+    private static final long MONTH_END = new DateTimeService().getEndTimeStamp(YEAR, MONTH);
+
+    private static final Set<Aggregate> STATISTICS_AGGREGATES = EnumSet.of(Aggregate.MEAN, Aggregate.VARIANCE, Aggregate.RETURN);
+
+    private static final long HOT_WINDOW = Duration.ofDays(30).toMillis();
+
+    private static final int SEGMENT_SIZE = 65536;
+
+    private static final long SEGMENT_CACHE_BUDGET = 64L * 1024 * 1024;
+
+    private static final long COMPRESSED_HOT_WINDOW = Duration.ofDays(1).toMillis();
+
+    private static final int COMPRESSED_SEGMENT_SIZE = 1024;
+
+    private static final long DECODED_CACHE_BUDGET = 16L * 1024 * 1024;
+
+    @Param({"tree", "columnar", "tiered", "compressed"})
+    private String storageType;
+
+    // Number of currencies and number of prices per currency
+    @Param({"5x200000", "1000x1000"})
+    private String dataset;
+
+    private PriceRepository repository;
+
+    private SegmentStore segmentStore;
+
+    private String[] currencySymbols;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        PriceDataGenerator generator = PriceDataGenerator.of(dataset);
+        currencySymbols = generator.getCurrencySymbols();
+        segmentStore = createSegmentStore();
+        repository = createRepository(storageType, generator, segmentStore);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        segmentStore.close();
+    }
+
+    /**
+     * Create store of cold segments in a temporary directory, the store file is deleted when store is closed
+     *
+     * @return store
+     * @throws IOException if store file can't be created
+     */
+    static SegmentStore createSegmentStore() throws IOException {
+        return SegmentStore.create(Files.createTempDirectory("crypto-benchmark"), SEGMENT_CACHE_BUDGET);
+    }
+
+    /**
+     * Create repository of the storage type with generated data
+     *
+     * @param storageType  storage type: 'tree', 'columnar', 'tiered' or 'compressed'
+     * @param generator    generator of data
+     * @param segmentStore store of cold segments for tiered storage
+     * @return repository
+     */
+    static PriceRepository createRepository(String storageType, PriceDataGenerator generator, SegmentStore segmentStore) {
+        DateTimeService dateTimeService = new DateTimeService();
+        return switch (storageType) {
+            case "tree" -> new InMemoryPriceRepository(dateTimeService, generator.createTreeStorage());
+            case "columnar" -> new ColumnarPriceRepository(dateTimeService, generator.createColumnarStorage());
+            case "tiered" -> {
+                TieringPolicy tieringPolicy = new TieringPolicy(segmentStore, HOT_WINDOW, SEGMENT_SIZE);
+                yield new TieredPriceRepository(dateTimeService, generator.createTieredStorage(tieringPolicy), tieringPolicy);
+            }
+            case "compressed" -> {
+                TieringPolicy tieringPolicy = new TieringPolicy(new DecodedSegmentCache(DECODED_CACHE_BUDGET),
+                        COMPRESSED_HOT_WINDOW, COMPRESSED_SEGMENT_SIZE);
+                yield new TieredPriceRepository(dateTimeService, generator.createTieredStorage(tieringPolicy), tieringPolicy);
+            }
+            default -> throw new IllegalArgumentException("Unknown storage type: " + storageType);
+        };
+    }
+
+    private String nextSymbol() {
+        next = next + 1 == currencySymbols.length ? 0 : next + 1;
+        return currencySymbols[next];
+    }
+
+    @Benchmark
+    public Pair<Long, BigDecimal> lowestPriceForAllTime() {
+        return repository.getLowestPrice(nextSymbol());
+    }
+
+    @Benchmark
+    public Pair<Long, BigDecimal> newestPriceForAllTime() {
+        return repository.getNewestPrice(nextSymbol());
+    }
+
+    @Benchmark
+    public BigDecimal normalizedRangeForAllTime() {
+        return repository.getNormalizedRange(nextSymbol());
+    }
+
+    @Benchmark
+    public Pair<Long, BigDecimal> highestPriceForMonth() {
+        return repository.getHighestPrice(nextSymbol(), YEAR, MONTH);
+    }
+
+    @Benchmark
+    public Pair<Long, BigDecimal> oldestPriceForMonth() {
+        return repository.getOldestPrice(nextSymbol(), YEAR, MONTH);
+    }
+
+    @Benchmark
+    public Pair<Long, BigDecimal> lowestPriceForDay() {
+        return repository.getLowestPrice(nextSymbol(), YEAR, MONTH, DAY);
+    }
+
+    @Benchmark
+    public BigDecimal normalizedRangeForDay() {
+        return repository.getNormalizedRange(nextSymbol(), YEAR, MONTH, DAY);
+    }
+
+    @Benchmark
+    public PriceAggregates priceAggregatesForAllTime() {
+        return repository.getAggregates(nextSymbol(), PRICE_AGGREGATES);
+    }
+
+    @Benchmark
+    public PriceAggregates statisticsForMonth() {
+        return repository.getAggregates(nextSymbol(), MONTH_START, MONTH_END, STATISTICS_AGGREGATES);
+    }
+}
@@ -0,0 +1,113 @@
+package com.epam.crypto.benchmark;
+
+import com.epam.crypto.model.CorrelationMatrixDto;
+import com.epam.crypto.model.DailyRangesDto;
+import com.epam.crypto.model.PriceDto;
+import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.repository.SegmentStore;
+import com.epam.crypto.service.DateTimeService;
+import com.epam.crypto.service.PriceService;
+import com.epam.crypto.service.SymbolFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of service operations with and without cache of ranges
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PriceServiceBenchmark {
+
+    private static final LocalDate DATE = LocalDate.of(2022, 6, 15);
+
+    private static final long START_OF_DATE = TimeUnit.DAYS.toMillis(DATE.toEpochDay());
+
+    private static final int TOP_RANGES = 10;
+
+    private static final int DAILY_TOP_SIZE = 10;
+
+    @Param({"tree", "columnar", "tiered", "compressed"})
+    private String storageType;
+
+    // Number of currencies and number of prices per currency
+    @Param({"5x200000", "1000x1000"})
+    private String dataset;
+
+    @Param({"0", "1024"})
+    private int cacheSize;
+
+    // Min number of currencies to fan out per-currency work across cores, 0 - don't fan out
+    @Param({"0", "32"})
+    private int fanOutThreshold;
+
+    private SymbolFanOut symbolFanOut;
+
+    private SegmentStore segmentStore;
+
+    private PriceService priceService;
+
+    private String currencySymbol;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        PriceDataGenerator generator = PriceDataGenerator.of(dataset);
+        currencySymbol = generator.getCurrencySymbols()[0];
+        symbolFanOut = fanOutThreshold > 0
+                ? new SymbolFanOut(Runtime.getRuntime().availableProcessors(), fanOutThreshold)
+                : SymbolFanOut.sequential();
+        segmentStore = PriceRepositoryBenchmark.createSegmentStore();
+        priceService = new PriceService(PriceRepositoryBenchmark.createRepository(storageType, generator, segmentStore),
+                new DateTimeService(), cacheSize, DAILY_TOP_SIZE, new SimpleMeterRegistry(), symbolFanOut);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        symbolFanOut.close();
+        segmentStore.close();
+    }
+
+    @Benchmark
+    public List<RangeDto> ranges() {
+        return priceService.getRanges();
+    }
+
+    @Benchmark
+    public List<RangeDto> topRanges() {
+        return priceService.getRanges(null, null, 0, TOP_RANGES);
+    }
+
+    @Benchmark
+    public List<RangeDto> rangesOfDate() {
+        // Ranges in time window aren't cached, so ranges of all currencies are computed by sweep over identifiers
+        return priceService.getRanges(START_OF_DATE, START_OF_DATE + TimeUnit.DAYS.toMillis(1) - 1);
+    }
+
+    @Benchmark
+    public RangeDto highestRangeOnDate() {
+        return priceService.getHighestRangeOnDate(DATE);
+    }
+
+    @Benchmark
+    public List<DailyRangesDto> highestRangesOfMonth() {
+        return priceService.getHighestRanges(DATE.withDayOfMonth(1), DATE.withDayOfMonth(DATE.lengthOfMonth()), 1);
+    }
+
+    @Benchmark
+    public PriceDto prices() {
+        return priceService.getPrices(currencySymbol);
+    }
+
+    @Benchmark
+    public CorrelationMatrixDto correlationsOfDate() {
+        // All currencies are sampled every 15 minutes, pairs of currencies are correlated in tiles
+        return priceService.getCorrelations(null, START_OF_DATE, START_OF_DATE + TimeUnit.DAYS.toMillis(1) - 1, "15m");
+    }
+}
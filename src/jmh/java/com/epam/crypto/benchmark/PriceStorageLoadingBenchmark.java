@@ -0,0 +1,48 @@
+package com.epam.crypto.benchmark;
+
+import com.epam.crypto.config.PriceStorageConfig;
+import com.epam.crypto.repository.PriceSeries;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of loading CSV files into storages, a file per currency
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PriceStorageLoadingBenchmark {
+
+    @Param({"5", "100"})
+    private int symbols;
+
+    @Param({"100000"})
+    private int ticks;
+
+    private final PriceStorageConfig priceStorageConfig = new PriceStorageConfig();
+
+    private Resource[] csvFiles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        csvFiles = new PriceDataGenerator(symbols, ticks).createCsvFiles();
+    }
+
+    @Benchmark
+    public Map<String, NavigableMap<Long, BigDecimal>> loadTreeStorage() throws IOException {
+        return priceStorageConfig.loadTreeStorage(csvFiles);
+    }
+
+    @Benchmark
+    public Map<String, PriceSeries> loadColumnarStorage() throws IOException {
+        return priceStorageConfig.loadColumnarStorage(csvFiles);
+    }
+}
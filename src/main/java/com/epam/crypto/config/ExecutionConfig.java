@@ -0,0 +1,37 @@
+package com.epam.crypto.config;
+
+import com.epam.crypto.service.SymbolFanOut;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+    @Value("${crypto.execution.fan-out.parallelism:0}")
+    private int fanOutParallelism;
+
+    @Value("${crypto.execution.fan-out.threshold:32}")
+    private int fanOutThreshold;
+
+    @Bean
+    public SymbolFanOut symbolFanOut() {
+        int parallelism = fanOutParallelism > 0 ? fanOutParallelism : Runtime.getRuntime().availableProcessors();
+        return new SymbolFanOut(parallelism, fanOutThreshold);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "crypto.execution.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        log.info("Requests are served on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
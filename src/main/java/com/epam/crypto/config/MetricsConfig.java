@@ -0,0 +1,33 @@
+package com.epam.crypto.config;
+
+import com.epam.crypto.repository.MeteredPriceRepository;
+import com.epam.crypto.repository.PriceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wrap price repository into decorator which records metrics of queries.
+     * Post processor is static to be created before other beans, meter registry is requested lazily for the same reason
+     *
+     * @param meterRegistry provider of meter registry
+     * @return post processor
+     */
+    @Bean
+    public static BeanPostProcessor meteredPriceRepositoryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PriceRepository priceRepository && !(bean instanceof MeteredPriceRepository)) {
+                    return new MeteredPriceRepository(priceRepository, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,433 @@
+package com.epam.crypto.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Streaming loader of price CSV files in 'timestamp,symbol,price' format (the first line is a header).
+ * Lines are parsed directly from bytes without creating strings (except one string per currency symbol),
+ * prices (in plain or exponent notation like 1.2E-5) are parsed to unscaled value and scale,
+ * malformed lines are counted and skipped.
+ * Files are loaded in parallel, every file into its own consumer.
+ */
+@Slf4j
+public class PriceCsvLoader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_SYMBOL_LENGTH = 64;
+
+    private static final int MAX_SCALE = 18;
+
+    private static final int MAX_EXPONENT = 1000;
+
+    private static final int MAX_LOGGED_MALFORMED_LINES = 10;
+
+    private final int parallelism;
+
+    /**
+     * @param parallelism max number of files loaded at the same time
+     */
+    public PriceCsvLoader(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Consumer of parsed prices
+     */
+    @FunctionalInterface
+    public interface PriceConsumer {
+
+        /**
+         * Accept parsed price
+         *
+         * @param currencySymbol currency symbol (the same string instance for all prices of currency in a file)
+         * @param timestamp      timestamp in milliseconds
+         * @param unscaledPrice  unscaled value of price
+         * @param scale          scale of price from 0 to 18
+         */
+        void accept(String currencySymbol, long timestamp, long unscaledPrice, int scale);
+    }
+
+    /**
+     * Load files in parallel, every file into its own consumer
+     *
+     * @param resources       CSV files
+     * @param consumerFactory factory of consumers, called once per file
+     * @param <T>             type of consumer
+     * @return consumers in the same order as files
+     * @throws IOException if some file can't be read
+     */
+    public <T extends PriceConsumer> List<T> load(Resource[] resources, Supplier<T> consumerFactory) throws IOException {
+        long startTime = System.nanoTime();
+        List<T> consumers = new ArrayList<>(resources.length);
+        List<Future<Statistics>> results = new ArrayList<>(resources.length);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, resources.length)));
+        try {
+            for (Resource resource : resources) {
+                T consumer = consumerFactory.get();
+                consumers.add(consumer);
+                results.add(executor.submit(() -> load(resource, consumer)));
+            }
+            Statistics total = new Statistics();
+            for (Future<Statistics> result : results) {
+                total.add(result.get());
+            }
+            long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+            log.info("Loaded {} prices from {} files in {} ms ({} rows/s), {} malformed lines skipped",
+                    total.rows, resources.length, elapsedNanos / 1_000_000,
+                    total.rows * 1_000_000_000L / elapsedNanos, total.malformedLines);
+            return consumers;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IllegalStateException("Failed to load prices", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading of prices was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Load one file
+     *
+     * @param resource CSV file
+     * @param consumer consumer of prices
+     * @return statistics of loading
+     */
+    public Statistics load(Resource resource, PriceConsumer consumer) {
+        try (InputStream inputStream = resource.getInputStream()) {
+            Statistics statistics = parse(inputStream, consumer, true, resource.getDescription());
+            log.debug("Loaded {} prices from {}, {} malformed lines skipped",
+                    statistics.rows, resource.getDescription(), statistics.malformedLines);
+            return statistics;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parse CSV lines from stream
+     *
+     * @param inputStream stream of bytes
+     * @param consumer    consumer of prices
+     * @param skipHeader  true if the first line is a header
+     * @param source      description of source for logging
+     * @return statistics of parsing
+     * @throws IOException if stream can't be read
+     */
+    public Statistics parse(InputStream inputStream, PriceConsumer consumer, boolean skipHeader, String source) throws IOException {
+        LineParser parser = new LineParser(consumer, skipHeader, source);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            parser.parse(buffer, 0, read);
+        }
+        parser.endOfLine();
+        return parser.statistics;
+    }
+
+    /**
+     * Parse complete CSV lines of file starting from the offset.
+     * The last line without line break (it may be still written) is not parsed, it's parsed on next call with its rest
+     *
+     * @param channel  channel of file
+     * @param offset   position of line start in file, the first line (header) is skipped if it's 0
+     * @param consumer consumer of prices
+     * @param source   description of source for logging
+     * @return position after the last parsed line break, the same offset if there are no complete lines
+     * @throws IOException if file can't be read
+     */
+    public long parseCompleteLines(FileChannel channel, long offset, PriceConsumer consumer, String source) throws IOException {
+        LineParser parser = new LineParser(consumer, offset == 0, source);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long position = offset;
+        long end = offset;
+        int read;
+        while ((read = channel.read(buffer.clear(), position)) > 0) {
+            parser.parse(bytes, 0, read);
+            for (int i = read - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    end = position + i + 1;
+                    break;
+                }
+            }
+            position += read;
+        }
+        log.debug("Loaded {} prices from {}, {} malformed lines skipped",
+                parser.statistics.rows, source, parser.statistics.malformedLines);
+        return end;
+    }
+
+    /**
+     * Statistics of loading
+     */
+    public static class Statistics {
+
+        private long rows;
+
+        private long malformedLines;
+
+        /**
+         * Get number of loaded prices
+         *
+         * @return number of prices
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Get number of skipped malformed lines
+         *
+         * @return number of lines
+         */
+        public long getMalformedLines() {
+            return malformedLines;
+        }
+
+        private void add(Statistics other) {
+            rows += other.rows;
+            malformedLines += other.malformedLines;
+        }
+    }
+
+    /**
+     * State machine parsing lines byte by byte, so lines may be split between buffers
+     */
+    private static class LineParser {
+
+        private static final int TIMESTAMP_FIELD = 0;
+        private static final int SYMBOL_FIELD = 1;
+        private static final int PRICE_FIELD = 2;
+
+        private final PriceConsumer consumer;
+
+        private final String source;
+
+        private final Statistics statistics = new Statistics();
+
+        private boolean skipLine;
+
+        private long lineNumber = 1;
+
+        private int lineLength;
+
+        private boolean malformed;
+
+        private int field;
+
+        private long timestamp;
+
+        private boolean timestampNegative;
+
+        private int timestampDigits;
+
+        private final byte[] symbol = new byte[MAX_SYMBOL_LENGTH];
+
+        private int symbolLength;
+
+        private String lastSymbol;
+
+        private final byte[] lastSymbolBytes = new byte[MAX_SYMBOL_LENGTH];
+
+        private int lastSymbolLength;
+
+        private long price;
+
+        private boolean priceNegative;
+
+        private int priceDigits;
+
+        private int scale;
+
+        private boolean pointSeen;
+
+        private boolean exponentSeen;
+
+        private boolean exponentSigned;
+
+        private boolean exponentNegative;
+
+        private int exponentDigits;
+
+        private int exponent;
+
+        private LineParser(PriceConsumer consumer, boolean skipHeader, String source) {
+            this.consumer = consumer;
+            this.skipLine = skipHeader;
+            this.source = source;
+        }
+
+        private void parse(byte[] buffer, int from, int to) {
+            for (int i = from; i < to; i++) {
+                byte current = buffer[i];
+                if (current == '\n') {
+                    endOfLine();
+                } else if (current != '\r') {
+                    lineLength++;
+                    if (!skipLine && !malformed) {
+                        accept(current);
+                    }
+                }
+            }
+        }
+
+        private void accept(byte current) {
+            if (current == ',') {
+                malformed = ++field > PRICE_FIELD;
+                return;
+            }
+            switch (field) {
+                case TIMESTAMP_FIELD -> acceptTimestamp(current);
+                case SYMBOL_FIELD -> acceptSymbol(current);
+                default -> acceptPrice(current);
+            }
+        }
+
+        private void acceptTimestamp(byte current) {
+            if (current == '-' && timestampDigits == 0 && !timestampNegative) {
+                timestampNegative = true;
+            } else if (current >= '0' && current <= '9' && timestamp <= (Long.MAX_VALUE - 9) / 10) {
+                timestamp = timestamp * 10 + (current - '0');
+                timestampDigits++;
+            } else {
+                malformed = true;
+            }
+        }
+
+        private void acceptSymbol(byte current) {
+            if (symbolLength < MAX_SYMBOL_LENGTH) {
+                symbol[symbolLength++] = current;
+            } else {
+                malformed = true;
+            }
+        }
+
+        private void acceptPrice(byte current) {
+            if (exponentSeen) {
+                acceptExponent(current);
+            } else if ((current == 'e' || current == 'E') && priceDigits > 0) {
+                exponentSeen = true;
+            } else if ((current == '-' || current == '+') && priceDigits == 0 && !pointSeen && !priceNegative) {
+                priceNegative = current == '-';
+            } else if (current == '.' && !pointSeen) {
+                pointSeen = true;
+            } else if (current >= '0' && current <= '9' && price <= (Long.MAX_VALUE - 9) / 10 && scale < MAX_SCALE) {
+                price = price * 10 + (current - '0');
+                priceDigits++;
+                scale += pointSeen ? 1 : 0;
+            } else {
+                malformed = true;
+            }
+        }
+
+        private void acceptExponent(byte current) {
+            if ((current == '-' || current == '+') && exponentDigits == 0 && !exponentSigned) {
+                exponentSigned = true;
+                exponentNegative = current == '-';
+            } else if (current >= '0' && current <= '9' && exponent < MAX_EXPONENT) {
+                exponent = exponent * 10 + (current - '0');
+                exponentDigits++;
+            } else {
+                malformed = true;
+            }
+        }
+
+        /**
+         * Move exponent of price into its scale, so the scale stays from 0 to 18
+         *
+         * @return false if exponent has no digits or price doesn't fit into unscaled value and scale
+         */
+        private boolean applyExponent() {
+            if (!exponentSeen) {
+                return true;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+            int adjustedScale = scale + (exponentNegative ? exponent : -exponent);
+            for (; adjustedScale < 0; adjustedScale++) {
+                if (price > Long.MAX_VALUE / 10) {
+                    return false;
+                }
+                price *= 10;
+            }
+            for (; adjustedScale > MAX_SCALE && price % 10 == 0; adjustedScale--) {
+                price /= 10;
+            }
+            if (adjustedScale > MAX_SCALE) {
+                return false;
+            }
+            scale = adjustedScale;
+            return true;
+        }
+
+        private void endOfLine() {
+            if (skipLine) {
+                skipLine = false;
+            } else if (lineLength > 0) {
+                if (!malformed && field == PRICE_FIELD && timestampDigits > 0 && symbolLength > 0 && priceDigits > 0
+                        && applyExponent()) {
+                    consumer.accept(getSymbol(), timestampNegative ? -timestamp : timestamp,
+                            priceNegative ? -price : price, scale);
+                    statistics.rows++;
+                } else {
+                    statistics.malformedLines++;
+                    if (statistics.malformedLines <= MAX_LOGGED_MALFORMED_LINES) {
+                        log.warn("Malformed line {} in {} skipped", lineNumber, source);
+                    }
+                }
+            }
+            lineNumber++;
+            lineLength = 0;
+            malformed = false;
+            field = TIMESTAMP_FIELD;
+            timestamp = 0;
+            timestampNegative = false;
+            timestampDigits = 0;
+            symbolLength = 0;
+            price = 0;
+            priceNegative = false;
+            priceDigits = 0;
+            scale = 0;
+            pointSeen = false;
+            exponentSeen = false;
+            exponentSigned = false;
+            exponentNegative = false;
+            exponentDigits = 0;
+            exponent = 0;
+        }
+
+        /**
+         * Get currency symbol of current line, the string of previous line is reused if symbol is the same
+         */
+        private String getSymbol() {
+            if (lastSymbol == null || !Arrays.equals(symbol, 0, symbolLength, lastSymbolBytes, 0, lastSymbolLength)) {
+                lastSymbol = new String(symbol, 0, symbolLength, StandardCharsets.UTF_8);
+                System.arraycopy(symbol, 0, lastSymbolBytes, 0, symbolLength);
+                lastSymbolLength = symbolLength;
+            }
+            return lastSymbol;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.epam.crypto.config;
+
+import com.epam.crypto.service.PriceService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watcher of directory with price CSV files, which adds prices appended to files and prices of new files.
+ * Only new tail bytes of files are read: the position after the last complete line is remembered for every file.
+ * Prices of every currency from one change of file are added by a single call of repository, which publishes them
+ * at once in every storage type, so readers see all of them or none.
+ * Prices are added through {@link PriceService}, so ranking of ranges follows them too.
+ * <p>
+ * Watcher is created before storage is loaded from the directory and remembers positions of files at that moment,
+ * so lines appended while storage is loaded are read again (prices with the same timestamps are replaced).
+ * Watcher does nothing if the directory is not configured (prices are loaded from classpath)
+ */
+@Slf4j
+@Component
+public class PriceFileWatcher implements SmartLifecycle {
+
+    private static final String CSV_EXTENSION = ".csv";
+
+    private static final int TAIL_BUFFER_SIZE = 4096;
+
+    private final ObjectProvider<PriceService> priceService;
+
+    private final PriceCsvLoader loader = new PriceCsvLoader(1);
+
+    private final Path directory;
+
+    private final Map<Path, Long> offsets = new HashMap<>();
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    private volatile boolean running;
+
+    public PriceFileWatcher(ObjectProvider<PriceService> priceService,
+                            @Value("${crypto.storage.prices.path:}") String pricesPath) throws IOException {
+        this.priceService = priceService;
+        this.directory = pricesPath.isBlank() ? null : Path.of(pricesPath).toAbsolutePath();
+        if (directory == null) {
+            return;
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        for (Path file : getCsvFiles()) {
+            offsets.put(file, getEndOfCompleteLines(file));
+        }
+        log.info("Watching {} files in {}", offsets.size(), directory);
+    }
+
+    @Override
+    public void start() {
+        if (directory == null) {
+            return;
+        }
+        thread = new Thread(this::watch, "price-file-watcher");
+        thread.setDaemon(true);
+        running = true;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Watch service of {} can't be closed", directory, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Wait for changes of directory and read changed files until watcher is stopped
+     */
+    private void watch() {
+        // Files could be changed after positions were remembered and before the watcher was started
+        getCsvFiles().forEach(this::readTail);
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Set<Path> changedFiles = new LinkedHashSet<>();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    changedFiles.addAll(getCsvFiles());
+                } else if (event.context() instanceof Path file && isCsvFile(file)) {
+                    changedFiles.add(directory.resolve(file));
+                }
+            }
+            changedFiles.forEach(this::readTail);
+            if (!key.reset()) {
+                log.warn("Directory {} is not accessible anymore, prices are not watched", directory);
+                break;
+            }
+        }
+        running = false;
+    }
+
+    /**
+     * Read new complete lines of file and add their prices
+     *
+     * @param file CSV file
+     */
+    void readTail(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long offset = offsets.getOrDefault(file, 0L);
+            if (channel.size() < offset) {
+                log.info("File {} was truncated, it's read again", file);
+                offset = 0;
+            }
+            if (channel.size() == offset) {
+                return;
+            }
+            var prices = new LinkedHashMap<String, List<Pair<Long, BigDecimal>>>();
+            long end = loader.parseCompleteLines(channel, offset, (currencySymbol, timestamp, unscaledPrice, scale) ->
+                    prices.computeIfAbsent(currencySymbol, key -> new ArrayList<>())
+                            .add(Pair.of(timestamp, BigDecimal.valueOf(unscaledPrice, scale))), file.toString());
+            offsets.put(file, end);
+            priceService.getObject().addPrices(prices);
+            if (!prices.isEmpty()) {
+                log.info("Added {} prices of {} currencies from {}",
+                        prices.values().stream().mapToInt(List::size).sum(), prices.size(), file);
+            }
+        } catch (NoSuchFileException e) {
+            offsets.remove(file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Prices from {} can't be added", file, e);
+        }
+    }
+
+    /**
+     * Get CSV files of directory
+     *
+     * @return list of files
+     */
+    private List<Path> getCsvFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> isCsvFile(file.getFileName()) && Files.isRegularFile(file)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isCsvFile(Path fileName) {
+        return fileName.toString().endsWith(CSV_EXTENSION);
+    }
+
+    /**
+     * Get position after the last line break of file, the file is read from its end
+     *
+     * @param file file
+     * @return position, 0 if there are no line breaks
+     * @throws IOException if file can't be read
+     */
+    private static long getEndOfCompleteLines(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(TAIL_BUFFER_SIZE);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - TAIL_BUFFER_SIZE);
+                int length = (int) (end - start);
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                    // Read until the chunk is full
+                }
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+}
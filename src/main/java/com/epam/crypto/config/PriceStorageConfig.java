@@ -1,56 +1,365 @@
 package com.epam.crypto.config;
 
 
+import com.epam.crypto.repository.ColdSegment;
+import com.epam.crypto.repository.CompressedSegment;
+import com.epam.crypto.repository.DecodedSegmentCache;
+import com.epam.crypto.repository.PriceSeries;
+import com.epam.crypto.repository.PriceSnapshot;
+import com.epam.crypto.repository.SegmentStore;
+import com.epam.crypto.repository.TieredSeries;
+import com.epam.crypto.repository.TieringPolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.unit.DataSize;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 public class PriceStorageConfig {
 
     private final static String DATA_FOLDER_PATH = "prices";
-    private final static String CSV_DELIMITER = ",";
+
+    /**
+     * Condition of beans of tiered storage, cold segments of which are memory-mapped or compressed
+     */
+    public final static String TIERED_STORAGE_CONDITION =
+            "'${crypto.storage.type:columnar}' == 'tiered' or '${crypto.storage.type:columnar}' == 'compressed'";
+
+    @Value("${crypto.storage.type:columnar}")
+    private String storageType;
+
+    @Value("${crypto.storage.loader.parallelism:0}")
+    private int loaderParallelism;
+
+    @Value("${crypto.storage.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${crypto.storage.prices.path:}")
+    private String pricesPath;
+
+    @Value("${crypto.storage.tiered.path:}")
+    private String tieredPath;
+
+    @Value("${crypto.storage.tiered.hot-window:30d}")
+    private Duration hotWindow;
+
+    @Value("${crypto.storage.tiered.segment-size:65536}")
+    private int segmentSize;
+
+    @Value("${crypto.storage.tiered.cache-size:64MB}")
+    private DataSize cacheSize;
+
+    @Value("${crypto.storage.tiered.max-size:16GB}")
+    private DataSize maxSize;
+
+    @Value("${crypto.storage.compressed.hot-window:1d}")
+    private Duration compressedHotWindow;
+
+    @Value("${crypto.storage.compressed.segment-size:1024}")
+    private int compressedSegmentSize;
+
+    @Value("${crypto.storage.compressed.cache-size:16MB}")
+    private DataSize compressedCacheSize;
 
     @Bean(name = "priceStorage")
-    public Map<String, NavigableMap<Long, BigDecimal>> initPriceStorage() throws IOException {
-        var storage = new HashMap<String, NavigableMap<Long, BigDecimal>>();
-        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-        Resource[] resources = resolver.getResources("classpath:" + DATA_FOLDER_PATH + "/*.csv");
-        for (Resource resource : resources) {
-            readCsvFile(resource).forEach(line -> processCsvLine(line, storage));
+    @DependsOn("priceFileWatcher")
+    @ConditionalOnProperty(name = "crypto.storage.type", havingValue = "tree")
+    public Map<String, NavigableMap<Long, BigDecimal>> initPriceStorage(MeterRegistry meterRegistry) throws IOException {
+        long startTime = System.nanoTime();
+        Map<String, NavigableMap<Long, BigDecimal>> storage = loadTreeStorage(getCsvFiles());
+        long prices = storage.values().stream().mapToLong(Map::size).sum();
+        recordLoad(meterRegistry, "tree", "csv", startTime, prices);
+        return storage;
+    }
+
+    @Bean(name = "columnarPriceStorage")
+    @DependsOn("priceFileWatcher")
+    @ConditionalOnProperty(name = "crypto.storage.type", havingValue = "columnar", matchIfMissing = true)
+    public Map<String, PriceSeries> initColumnarPriceStorage(MeterRegistry meterRegistry) throws IOException {
+        long startTime = System.nanoTime();
+        Resource[] csvFiles = getCsvFiles();
+        if (snapshotPath.isBlank()) {
+            Map<String, PriceSeries> storage = loadColumnarStorage(csvFiles);
+            recordLoad(meterRegistry, "columnar", "csv", startTime, countPrices(storage));
+            return storage;
+        }
+
+        Path snapshot = Path.of(snapshotPath);
+        long fingerprint = getFingerprint(csvFiles);
+        Map<String, PriceSeries> storage = PriceSnapshot.read(snapshot, fingerprint);
+        if (storage != null) {
+            recordLoad(meterRegistry, "columnar", "snapshot", startTime, countPrices(storage));
+            return storage;
+        }
+        storage = loadColumnarStorage(csvFiles);
+        recordLoad(meterRegistry, "columnar", "csv", startTime, countPrices(storage));
+        try {
+            PriceSnapshot.write(snapshot, fingerprint, storage);
+            log.info("Snapshot {} is written", snapshot);
+        } catch (IOException e) {
+            log.warn("Snapshot {} can't be written", snapshot, e);
         }
         return storage;
     }
 
-    private List<String> readCsvFile(Resource csvFile) throws IOException {
-        List<String> result = new LinkedList<>();
-        boolean firstLineSkipped = false;
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(csvFile.getInputStream()))) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                if (firstLineSkipped) {
-                    result.add(line);
-                } else {
-                    firstLineSkipped = true;
+    @Bean
+    @ConditionalOnProperty(name = "crypto.storage.type", havingValue = "tiered")
+    public SegmentStore segmentStore(MeterRegistry meterRegistry) throws IOException {
+        Path directory = tieredPath.isBlank() ? Path.of(System.getProperty("java.io.tmpdir"), "crypto") : Path.of(tieredPath);
+        SegmentStore store = SegmentStore.create(directory, cacheSize.toBytes(), maxSize.toBytes());
+        FunctionCounter.builder("crypto.storage.segments.requests", store, SegmentStore::getHits)
+                .description("Number of accesses to cold segments")
+                .tags("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("crypto.storage.segments.requests", store, SegmentStore::getMisses)
+                .description("Number of accesses to cold segments")
+                .tags("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("crypto.storage.segments.mapped", store, SegmentStore::getCachedBytes)
+                .description("Number of bytes of cold segments mapped into memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("crypto.storage.segments.size", store, SegmentStore::getSize)
+                .description("Size of file of cold segments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        return store;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "crypto.storage.type", havingValue = "tiered")
+    public TieringPolicy tieringPolicy(SegmentStore segmentStore) {
+        return new TieringPolicy(segmentStore, hotWindow.toMillis(), segmentSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "crypto.storage.type", havingValue = "compressed")
+    public DecodedSegmentCache decodedSegmentCache(MeterRegistry meterRegistry) {
+        DecodedSegmentCache cache = new DecodedSegmentCache(compressedCacheSize.toBytes());
+        FunctionCounter.builder("crypto.storage.compressed.requests", cache, DecodedSegmentCache::getHits)
+                .description("Number of accesses to compressed segments")
+                .tags("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("crypto.storage.compressed.requests", cache, DecodedSegmentCache::getMisses)
+                .description("Number of accesses to compressed segments")
+                .tags("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("crypto.storage.compressed.decoded", cache, DecodedSegmentCache::getCachedBytes)
+                .description("Number of bytes of compressed segments decoded into cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        return cache;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "crypto.storage.type", havingValue = "compressed")
+    public TieringPolicy compressedTieringPolicy(DecodedSegmentCache decodedSegmentCache) {
+        return new TieringPolicy(decodedSegmentCache, compressedHotWindow.toMillis(), compressedSegmentSize);
+    }
+
+    @Bean(name = "tieredPriceStorage")
+    @DependsOn("priceFileWatcher")
+    @ConditionalOnExpression(TIERED_STORAGE_CONDITION)
+    public Map<String, TieredSeries> initTieredPriceStorage(MeterRegistry meterRegistry, TieringPolicy tieringPolicy) throws IOException {
+        long startTime = System.nanoTime();
+        Map<String, TieredSeries> storage = loadTieredStorage(getCsvFiles(), tieringPolicy);
+        long prices = storage.values().stream().mapToLong(TieredSeries::size).sum();
+        recordLoad(meterRegistry, storageType, "csv", startTime, prices);
+        if (tieringPolicy.getSegmentCache() != null) {
+            long coldPrices = 0;
+            long bytes = 0;
+            for (TieredSeries series : storage.values()) {
+                for (ColdSegment segment : series.getSegments()) {
+                    coldPrices += segment.size();
+                    if (segment instanceof CompressedSegment compressed) {
+                        bytes += compressed.getDataBytes();
+                    }
                 }
             }
+            log.info("Compressed {} cold prices into {} bytes ({} bytes per price)", coldPrices, bytes,
+                    String.format("%.2f", (double) bytes / Math.max(coldPrices, 1)));
+        }
+        return storage;
+    }
+
+    /**
+     * Load CSV files into tree storage (map of currencies symbols to maps of timestamps to prices)
+     *
+     * @param csvFiles CSV files
+     * @return storage
+     * @throws IOException if any file can't be read
+     */
+    public Map<String, NavigableMap<Long, BigDecimal>> loadTreeStorage(Resource[] csvFiles) throws IOException {
+        var storage = new ConcurrentHashMap<String, NavigableMap<Long, BigDecimal>>();
+        for (TreeStorage fileStorage : createLoader().load(csvFiles, TreeStorage::new)) {
+            fileStorage.storage.forEach((currencySymbol, prices) ->
+                    storage.computeIfAbsent(currencySymbol, key -> new ConcurrentSkipListMap<>()).putAll(prices));
+        }
+        return storage;
+    }
+
+    /**
+     * Load CSV files into columnar storage (map of currencies symbols to price series)
+     *
+     * @param csvFiles CSV files
+     * @return storage
+     * @throws IOException if any file can't be read
+     */
+    public Map<String, PriceSeries> loadColumnarStorage(Resource[] csvFiles) throws IOException {
+        var storage = new ConcurrentHashMap<String, PriceSeries>();
+        loadBuilders(csvFiles).entrySet().parallelStream().forEach(entry -> storage.put(entry.getKey(), entry.getValue().build()));
+        return storage;
+    }
+
+    /**
+     * Load CSV files into tiered storage (map of currencies symbols to tiered series):
+     * prices older than the hot window of every currency are written to cold segments
+     *
+     * @param csvFiles      CSV files
+     * @param tieringPolicy tiering policy
+     * @return storage
+     * @throws IOException if any file can't be read
+     */
+    public Map<String, TieredSeries> loadTieredStorage(Resource[] csvFiles, TieringPolicy tieringPolicy) throws IOException {
+        var storage = new ConcurrentHashMap<String, TieredSeries>();
+        loadBuilders(csvFiles).entrySet().parallelStream().forEach(entry ->
+                storage.put(entry.getKey(), TieredSeries.of(entry.getValue().build(), tieringPolicy)));
+        return storage;
+    }
+
+    /**
+     * Load CSV files into builders of price series
+     *
+     * @param csvFiles CSV files
+     * @return map of currencies symbols to builders
+     * @throws IOException if any file can't be read
+     */
+    private Map<String, PriceSeries.Builder> loadBuilders(Resource[] csvFiles) throws IOException {
+        var builders = new LinkedHashMap<String, PriceSeries.Builder>();
+        for (ColumnarStorage fileStorage : createLoader().load(csvFiles, ColumnarStorage::new)) {
+            fileStorage.builders.forEach((currencySymbol, builder) -> builders.merge(currencySymbol, builder, PriceSeries.Builder::addAll));
         }
-        return result;
+        return builders;
     }
 
-    private void processCsvLine(String line, Map<String, NavigableMap<Long, BigDecimal>> storage) {
-        String[] cells = line.split(CSV_DELIMITER);
-        String currencySymbol = cells[1];
-        String timestamp = cells[0];
-        String price = cells[2];
-        Map<Long, BigDecimal> subStorage = storage.computeIfAbsent(currencySymbol, key -> new TreeMap<>());
-        subStorage.put(Long.valueOf(timestamp), new BigDecimal(price));
+    /**
+     * Record duration of storage loading, number of loaded prices and throughput (prices per second)
+     *
+     * @param meterRegistry meter registry
+     * @param storageType   type of storage
+     * @param source        source of prices (CSV files or snapshot)
+     * @param startTime     time when loading was started (in nanoseconds)
+     * @param prices        number of loaded prices
+     */
+    private void recordLoad(MeterRegistry meterRegistry, String storageType, String source, long startTime, long prices) {
+        long duration = System.nanoTime() - startTime;
+        Timer.builder("crypto.storage.load")
+                .description("Duration of storage loading")
+                .tags("storage", storageType, "source", source)
+                .register(meterRegistry)
+                .record(duration, TimeUnit.NANOSECONDS);
+        Gauge.builder("crypto.storage.load.prices", () -> prices)
+                .description("Number of prices loaded at startup")
+                .tags("storage", storageType, "source", source)
+                .register(meterRegistry);
+        double throughput = prices * 1e9 / Math.max(duration, 1);
+        Gauge.builder("crypto.storage.load.throughput", () -> throughput)
+                .description("Number of prices loaded per second at startup")
+                .tags("storage", storageType, "source", source)
+                .register(meterRegistry);
+        log.info("Loaded {} prices into {} storage from {} in {} ms", prices, storageType, source, duration / 1_000_000);
+    }
+
+    private static long countPrices(Map<String, PriceSeries> storage) {
+        return storage.values().stream().mapToLong(PriceSeries::size).sum();
+    }
+
+    private PriceCsvLoader createLoader() {
+        return new PriceCsvLoader(loaderParallelism > 0 ? loaderParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Get CSV files from the configured directory (it's watched for changes) or from classpath
+     *
+     * @return CSV files
+     * @throws IOException if files can't be listed
+     */
+    private Resource[] getCsvFiles() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        if (!pricesPath.isBlank()) {
+            return resolver.getResources(Path.of(pricesPath).toAbsolutePath().toUri() + "*.csv");
+        }
+        return resolver.getResources("classpath:" + DATA_FOLDER_PATH + "/*.csv");
+    }
+
+    /**
+     * Get fingerprint of CSV files to detect that snapshot is made from other data
+     *
+     * @param csvFiles CSV files
+     * @return fingerprint based on names, sizes and modification times of files
+     * @throws IOException if file properties can't be read
+     */
+    private long getFingerprint(Resource[] csvFiles) throws IOException {
+        long fingerprint = csvFiles.length;
+        for (Resource csvFile : csvFiles) {
+            fingerprint = 31 * fingerprint + Objects.hashCode(csvFile.getFilename());
+            fingerprint = 31 * fingerprint + csvFile.contentLength();
+            fingerprint = 31 * fingerprint + csvFile.lastModified();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Prices of one file in tree storage
+     */
+    private static class TreeStorage implements PriceCsvLoader.PriceConsumer {
+
+        private final Map<String, NavigableMap<Long, BigDecimal>> storage = new HashMap<>();
+
+        @Override
+        public void accept(String currencySymbol, long timestamp, long unscaledPrice, int scale) {
+            storage.computeIfAbsent(currencySymbol, key -> new TreeMap<>()).put(timestamp, BigDecimal.valueOf(unscaledPrice, scale));
+        }
+    }
+
+    /**
+     * Prices of one file in columnar storage builders
+     */
+    private static class ColumnarStorage implements PriceCsvLoader.PriceConsumer {
+
+        private final Map<String, PriceSeries.Builder> builders = new LinkedHashMap<>();
+
+        private String lastCurrencySymbol;
+
+        private PriceSeries.Builder lastBuilder;
+
+        @Override
+        public void accept(String currencySymbol, long timestamp, long unscaledPrice, int scale) {
+            if (!currencySymbol.equals(lastCurrencySymbol)) {
+                lastBuilder = builders.computeIfAbsent(currencySymbol, key -> PriceSeries.builder());
+                lastCurrencySymbol = currencySymbol;
+            }
+            lastBuilder.add(timestamp, unscaledPrice, scale);
+        }
     }
 }
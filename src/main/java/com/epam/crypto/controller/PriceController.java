@@ -1,8 +1,17 @@
 package com.epam.crypto.controller;
 
+import com.epam.crypto.exception.NoDataFoundException;
+import com.epam.crypto.model.CandleDto;
+import com.epam.crypto.model.CorrelationMatrixDto;
+import com.epam.crypto.model.DailyRangesDto;
+import com.epam.crypto.model.PriceBatchItemDto;
 import com.epam.crypto.model.PriceDto;
 import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.model.StatisticsDto;
+import com.epam.crypto.model.TickDto;
 import com.epam.crypto.service.PriceService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -14,34 +23,74 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping(value = "/prices")
 @AllArgsConstructor
-@Tag(name = "Price controller", description = "Endpoints for getting prices and normalized ranges")
+@Tag(name = "Price controller", description = "Endpoints for getting and adding prices and normalized ranges")
 public class PriceController {
 
+    private static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String FORMAT_CSV = "csv";
+
+    private static final MediaType MEDIA_TYPE_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType MEDIA_TYPE_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final String CSV_HEADER = "timestamp,symbol,price";
+
     private PriceService priceService;
 
-    @Operation(summary = "Get ranges for all cryptocurrencies for the whole time")
+    private ObjectMapper objectMapper;
+
+    @Operation(summary = "Get ranges for all cryptocurrencies for the whole time or in the time window, optionally by pages")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
-                    description = "Response was collected with no issues",
+                    description = "Response was collected with no issues, currencies without prices in the time window are skipped",
                     content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = RangeDto.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Time window is empty, offset is negative or limit is not positive",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
             )
     })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+            @Parameter(in = ParameterIn.QUERY, name = "offset", description = "Number of skipped currencies with the highest ranges, nothing is skipped if not defined", schema = @Schema(type = "integer", format = "int32"), example = "0"),
+            @Parameter(in = ParameterIn.QUERY, name = "limit", description = "Max number of currencies, all of them if not defined", schema = @Schema(type = "integer", format = "int32"), example = "10"),
+    })
     @GetMapping("/ranges")
-    ResponseEntity<List<RangeDto>> getRanges() {
-        return ResponseEntity.ok(priceService.getRanges());
+    ResponseEntity<List<RangeDto>> getRanges(@RequestParam(required = false) Long from,
+                                             @RequestParam(required = false) Long to,
+                                             @RequestParam(required = false) Integer offset,
+                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(priceService.getRanges(from, to, offset, limit));
     }
 
     @Operation(summary = "Get highest normalized range on date")
@@ -50,29 +99,350 @@ public class PriceController {
                     responseCode = "200",
                     description = "Response was collected with no issues",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = RangeDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "There are no prices on date",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
             )
     })
     @Parameters({
             @Parameter(in = ParameterIn.QUERY, name = "date", description = "Date in 'YYYY-MM-DD' format", schema = @Schema(type = "string"), example = "2022-01-01"),
+            @Parameter(in = ParameterIn.QUERY, name = "zone", description = "Time zone of date, UTC+0 if not defined", schema = @Schema(type = "string"), example = "America/New_York"),
     })
     @GetMapping("/ranges/highest")
-    ResponseEntity<RangeDto> getHighestRangeOnDate(@RequestParam LocalDate date) {
-        return ResponseEntity.ok(priceService.getHighestRangeOnDate(date));
+    ResponseEntity<RangeDto> getHighestRangeOnDate(@RequestParam LocalDate date,
+                                                   @RequestParam(required = false) ZoneId zone) {
+        return ResponseEntity.ok(priceService.getHighestRangeOnDate(date, zone));
     }
 
-    @Operation(summary = "Get newest, oldest, max and min prices for the currency")
+    @Operation(summary = "Get highest normalized ranges of every day of the period")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Response was collected with no issues, days without prices are skipped",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = DailyRangesDto.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Period is empty or too long for the time zone, or limit is out of bounds",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "First date of the period (inclusive) in 'YYYY-MM-DD' format", schema = @Schema(type = "string"), example = "2022-01-01"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "Last date of the period (inclusive) in 'YYYY-MM-DD' format", schema = @Schema(type = "string"), example = "2022-01-31"),
+            @Parameter(in = ParameterIn.QUERY, name = "limit", description = "Max number of ranges of every day (up to the configured top size), only the highest one if not defined", schema = @Schema(type = "integer", format = "int32"), example = "3"),
+            @Parameter(in = ParameterIn.QUERY, name = "zone", description = "Time zone of dates, UTC+0 if not defined (periods in other zones can't be longer than 366 days)", schema = @Schema(type = "string"), example = "America/New_York"),
+    })
+    @GetMapping("/ranges/highest/daily")
+    ResponseEntity<List<DailyRangesDto>> getHighestRanges(@RequestParam LocalDate from,
+                                                          @RequestParam LocalDate to,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) ZoneId zone) {
+        return ResponseEntity.ok(priceService.getHighestRanges(from, to, limit, zone));
+    }
+
+    @Operation(summary = "Get newest, oldest, max and min prices for the currency for the whole time or in the time window")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "Response was collected with no issues",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = PriceDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Time window is empty",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
             )
     })
     @Parameters({
             @Parameter(in = ParameterIn.QUERY, name = "currencySymbol", description = "Currency symbol", schema = @Schema(type = "string"), example = "BTC"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
     })
     @GetMapping
-    ResponseEntity<PriceDto> getPricesForCurrency(@RequestParam String currencySymbol) {
-        return ResponseEntity.ok(priceService.getPrices(currencySymbol));
+    ResponseEntity<PriceDto> getPricesForCurrency(@RequestParam String currencySymbol,
+                                                  @RequestParam(required = false) Long from,
+                                                  @RequestParam(required = false) Long to) {
+        return ResponseEntity.ok(priceService.getPrices(currencySymbol, from, to));
+    }
+
+    @Operation(summary = "Get newest, oldest, max and min prices for several currencies in the time window")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Response was collected, unknown currencies have errors instead of prices",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = PriceBatchItemDto.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "There are too many currencies or time window is empty",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "currencySymbols", description = "Currencies symbols separated by commas (up to 1000)", schema = @Schema(type = "string"), example = "BTC,ETH"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+    })
+    @GetMapping("/batch")
+    ResponseEntity<List<PriceBatchItemDto>> getPricesForCurrencies(@RequestParam List<String> currencySymbols,
+                                                                   @RequestParam(required = false) Long from,
+                                                                   @RequestParam(required = false) Long to) {
+        return ResponseEntity.ok(priceService.getPrices(currencySymbols, from, to));
+    }
+
+    @Operation(summary = "Get candles (open, high, low and close prices) for the currency in the time window, candles are streamed")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Candles in chronological order, intervals without prices are skipped",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CandleDto.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Interval is malformed or time window is empty",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "currencySymbol", description = "Currency symbol", schema = @Schema(type = "string"), example = "BTC"),
+            @Parameter(in = ParameterIn.QUERY, name = "interval", description = "Length of candle interval with unit 'ms', 's', 'm', 'h' or 'd', intervals are aligned to UTC+0", schema = @Schema(type = "string"), example = "1h"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+    })
+    @GetMapping("/candles")
+    ResponseEntity<StreamingResponseBody> getCandles(@RequestParam String currencySymbol,
+                                                     @RequestParam String interval,
+                                                     @RequestParam(required = false) Long from,
+                                                     @RequestParam(required = false) Long to) {
+        Stream<CandleDto> candles = priceService.getCandles(currencySymbol, from, to, interval);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputStream))) {
+                generator.writeStartArray();
+                for (Iterator<CandleDto> iterator = candles.iterator(); iterator.hasNext(); ) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Get mean, variance, standard deviation and return of prices for the currency for the whole time or in the time window")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Response was collected with no issues, statistics are null if there are no prices in the time window",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StatisticsDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Time window is empty",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "currencySymbol", description = "Currency symbol", schema = @Schema(type = "string"), example = "BTC"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+    })
+    @GetMapping("/statistics")
+    ResponseEntity<StatisticsDto> getStatistics(@RequestParam String currencySymbol,
+                                                @RequestParam(required = false) Long from,
+                                                @RequestParam(required = false) Long to) {
+        return ResponseEntity.ok(priceService.getStatistics(currencySymbol, from, to));
+    }
+
+    @Operation(summary = "Get statistics of prices for the currency in rolling windows (e.g. simple moving average), statistics are streamed")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statistics of windows ending at every step in chronological order, windows without prices are skipped",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = StatisticsDto.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Window or step is malformed, currency is unknown, or time window is empty or has too many rolling windows",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "currencySymbol", description = "Currency symbol", schema = @Schema(type = "string"), example = "BTC"),
+            @Parameter(in = ParameterIn.QUERY, name = "window", description = "Length of rolling window with unit 'ms', 's', 'm', 'h' or 'd'", schema = @Schema(type = "string"), example = "1d"),
+            @Parameter(in = ParameterIn.QUERY, name = "step", description = "Distance between ends of rolling windows with unit 'ms', 's', 'm', 'h' or 'd'", schema = @Schema(type = "string"), example = "1h"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+    })
+    @GetMapping("/statistics/rolling")
+    ResponseEntity<StreamingResponseBody> getRollingStatistics(@RequestParam String currencySymbol,
+                                                               @RequestParam String window,
+                                                               @RequestParam String step,
+                                                               @RequestParam(required = false) Long from,
+                                                               @RequestParam(required = false) Long to) {
+        Stream<StatisticsDto> statistics = priceService.getRollingStatistics(currencySymbol, from, to, window, step);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputStream))) {
+                generator.writeStartArray();
+                for (Iterator<StatisticsDto> iterator = statistics.iterator(); iterator.hasNext(); ) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Get matrix of pairwise correlations of returns of currencies, prices are aligned onto time grid with the interval")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Response was collected with no issues",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CorrelationMatrixDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Interval is malformed, currency is unknown, time window is empty or time grid has less than two or too many points",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Time window is not defined and there are no prices of currencies",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "interval", description = "Distance between points of time grid with unit 'ms', 's', 'm', 'h' or 'd'", schema = @Schema(type = "string"), example = "1h"),
+            @Parameter(in = ParameterIn.QUERY, name = "currencySymbols", description = "Currencies symbols separated by commas, all currencies if not defined", schema = @Schema(type = "string"), example = "BTC,ETH"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price of currencies if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price of currencies if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+    })
+    @GetMapping("/correlations")
+    ResponseEntity<CorrelationMatrixDto> getCorrelations(@RequestParam String interval,
+                                                         @RequestParam(required = false) List<String> currencySymbols,
+                                                         @RequestParam(required = false) Long from,
+                                                         @RequestParam(required = false) Long to) {
+        return ResponseEntity.ok(priceService.getCorrelations(currencySymbols, from, to, interval));
+    }
+
+    @Operation(summary = "Export raw prices (ticks) of the currency in the time window, prices are streamed")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Prices in chronological order as NDJSON (one tick per line) or CSV in the same layout as price files",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = TickDto.class)),
+                            @Content(mediaType = "text/csv", schema = @Schema(type = "string"))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Format is unknown, limit is not positive or time window is empty",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @Parameters({
+            @Parameter(in = ParameterIn.QUERY, name = "currencySymbol", description = "Currency symbol", schema = @Schema(type = "string"), example = "BTC"),
+            @Parameter(in = ParameterIn.QUERY, name = "from", description = "Start of time window in milliseconds (inclusive), the oldest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641009600000"),
+            @Parameter(in = ParameterIn.QUERY, name = "to", description = "End of time window in milliseconds (inclusive), the newest price if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1643659200000"),
+            @Parameter(in = ParameterIn.QUERY, name = "cursor", description = "Timestamp of the last price got before (exclusive) to resume export, start of time window if not defined", schema = @Schema(type = "integer", format = "int64"), example = "1641020400000"),
+            @Parameter(in = ParameterIn.QUERY, name = "limit", description = "Max number of prices, no limit if not defined", schema = @Schema(type = "integer", format = "int32"), example = "100000"),
+            @Parameter(in = ParameterIn.QUERY, name = "format", description = "Format of prices: 'ndjson' or 'csv'", schema = @Schema(type = "string", defaultValue = FORMAT_NDJSON), example = FORMAT_CSV),
+    })
+    @GetMapping("/export")
+    ResponseEntity<StreamingResponseBody> exportPrices(@RequestParam String currencySymbol,
+                                                       @RequestParam(required = false) Long from,
+                                                       @RequestParam(required = false) Long to,
+                                                       @RequestParam(required = false) Long cursor,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(defaultValue = FORMAT_NDJSON) String format) {
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new IllegalArgumentException("Format must be '" + FORMAT_NDJSON + "' or '" + FORMAT_CSV + "'");
+        }
+        Stream<TickDto> ticks = priceService.getTicks(currencySymbol, from, to, cursor, limit);
+        if (FORMAT_CSV.equals(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MEDIA_TYPE_CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(currencySymbol + "_values.csv").build().toString())
+                    .body(outputStream -> writeCsv(ticks, outputStream));
+        }
+        return ResponseEntity.ok()
+                .contentType(MEDIA_TYPE_NDJSON)
+                .body(outputStream -> writeNdjson(ticks, outputStream));
+    }
+
+    /**
+     * Write ticks as JSON objects separated by new lines
+     *
+     * @param ticks        stream of ticks
+     * @param outputStream output stream of response
+     * @throws IOException if ticks can't be written
+     */
+    private void writeNdjson(Stream<TickDto> ticks, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputStream))) {
+            generator.setRootValueSeparator(null);
+            for (Iterator<TickDto> iterator = ticks.iterator(); iterator.hasNext(); ) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Write ticks as CSV lines in 'timestamp,symbol,price' format with header
+     *
+     * @param ticks        stream of ticks
+     * @param outputStream output stream of response
+     * @throws IOException if ticks can't be written
+     */
+    private static void writeCsv(Stream<TickDto> ticks, OutputStream outputStream) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(StreamUtils.nonClosing(outputStream), StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            for (Iterator<TickDto> iterator = ticks.iterator(); iterator.hasNext(); ) {
+                TickDto tick = iterator.next();
+                writer.write(Long.toString(tick.getTimestamp()));
+                writer.write(',');
+                writer.write(tick.getCurrencySymbol());
+                writer.write(',');
+                writer.write(tick.getPrice().toPlainString());
+                writer.write('\n');
+            }
+        }
+    }
+
+    @Operation(summary = "Add prices (ticks) of cryptocurrencies, they are available for other requests right after response")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Prices were added"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Some tick has no timestamp, currency symbol or positive price",
+                    content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    @PostMapping
+    ResponseEntity<Void> addPrices(@RequestBody List<TickDto> ticks) {
+        priceService.addPrices(ticks);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    ResponseEntity<ProblemDetail> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @ExceptionHandler(DateTimeException.class)
+    ResponseEntity<ProblemDetail> handleDateTime(DateTimeException e) {
+        return ResponseEntity.badRequest().body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @ExceptionHandler(NoDataFoundException.class)
+    ResponseEntity<ProblemDetail> handleNoDataFound(NoDataFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage()));
     }
 }
@@ -0,0 +1,11 @@
+package com.epam.crypto.exception;
+
+/**
+ * Exception thrown when there's no data to answer request (e.g. no prices on date)
+ */
+public class NoDataFoundException extends RuntimeException {
+
+    public NoDataFoundException(String message) {
+        super(message);
+    }
+}
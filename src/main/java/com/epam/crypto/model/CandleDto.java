@@ -0,0 +1,30 @@
+package com.epam.crypto.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Builder
+@Getter
+public class CandleDto {
+
+    @Schema(description = "Start of interval in milliseconds", example = "1641009600000")
+    private Long timestamp;
+
+    @Schema(description = "Open (oldest) price of interval", example = "10.127")
+    private BigDecimal open;
+
+    @Schema(description = "Max price of interval", example = "11.123")
+    private BigDecimal high;
+
+    @Schema(description = "Min price of interval", example = "9.988")
+    private BigDecimal low;
+
+    @Schema(description = "Close (newest) price of interval", example = "10.128")
+    private BigDecimal close;
+
+    @Schema(description = "Number of prices in interval", example = "12")
+    private Long count;
+}
@@ -0,0 +1,28 @@
+package com.epam.crypto.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class CorrelationMatrixDto {
+
+    @Schema(description = "Currency symbols in order of rows and columns of matrix", example = "[\"BTC\", \"ETH\"]")
+    private List<String> currencySymbols;
+
+    @Schema(description = "First point of time grid in milliseconds", example = "1641009600000")
+    private Long from;
+
+    @Schema(description = "Last point of time grid in milliseconds", example = "1643659200000")
+    private Long to;
+
+    @Schema(description = "Distance between points of time grid in milliseconds", example = "3600000")
+    private Long interval;
+
+    @Schema(description = "Symmetric matrix of Pearson correlations of returns between points of time grid, \"NaN\" if a pair has less than two common returns or returns of a currency are constant",
+            example = "[[1.0, 0.83], [0.83, 1.0]]")
+    private double[][] correlations;
+}
@@ -0,0 +1,20 @@
+package com.epam.crypto.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+@Getter
+public class DailyRangesDto {
+
+    @Schema(description = "Date (UTC+0)", example = "2022-01-01")
+    private LocalDate date;
+
+    @ArraySchema(arraySchema = @Schema(description = "Highest normalized ranges on date in descending order"))
+    private List<RangeDto> ranges;
+}
@@ -0,0 +1,19 @@
+package com.epam.crypto.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+public class PriceBatchItemDto {
+
+    @Schema(description = "Currency symbol", example = "BTC")
+    private String currencySymbol;
+
+    @Schema(description = "Newest, oldest, max and min prices, null if prices can't be provided")
+    private PriceDto prices;
+
+    @Schema(description = "Reason why prices can't be provided, null if there's no error", example = "Unknown currency symbol")
+    private String error;
+}
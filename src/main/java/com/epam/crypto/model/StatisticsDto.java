@@ -0,0 +1,33 @@
+package com.epam.crypto.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Builder
+@Getter
+public class StatisticsDto {
+
+    @Schema(description = "Currency symbol", example = "BTC")
+    private String currencySymbol;
+
+    @Schema(description = "End of rolling window in milliseconds (inclusive), null for statistics of a single time window", example = "1641095999999")
+    private Long timestamp;
+
+    @Schema(description = "Number of prices in time window", example = "24")
+    private Long count;
+
+    @Schema(description = "Mean price (simple moving average), 16 significant digits", example = "46813.21")
+    private BigDecimal mean;
+
+    @Schema(description = "Population variance of prices, 16 significant digits", example = "98116.3225")
+    private BigDecimal variance;
+
+    @Schema(description = "Standard deviation of prices (square root of variance), 16 significant digits", example = "313.235")
+    private BigDecimal standardDeviation;
+
+    @Schema(description = "Simple return from the oldest price to the newest one: (newest - oldest) / oldest, 16 significant digits", example = "0.01253")
+    private BigDecimal returnRate;
+}
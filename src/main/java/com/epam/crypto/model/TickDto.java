@@ -0,0 +1,23 @@
+package com.epam.crypto.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+
+@Builder
+@Getter
+@Jacksonized
+public class TickDto {
+
+    @Schema(description = "Timestamp in milliseconds", example = "1641009600000")
+    private Long timestamp;
+
+    @Schema(description = "Currency symbol", example = "BTC")
+    private String currencySymbol;
+
+    @Schema(description = "Price", example = "46813.21")
+    private BigDecimal price;
+}
@@ -0,0 +1,52 @@
+package com.epam.crypto.repository;
+
+/**
+ * Aggregates of prices which can be computed for a time window at once
+ */
+public enum Aggregate {
+
+    /**
+     * Oldest price
+     */
+    FIRST,
+
+    /**
+     * Newest price
+     */
+    LAST,
+
+    /**
+     * Lowest price (the oldest one if there are several)
+     */
+    MIN,
+
+    /**
+     * Highest price (the oldest one if there are several)
+     */
+    MAX,
+
+    /**
+     * Number of prices
+     */
+    COUNT,
+
+    /**
+     * Normalized range: (max + min) / min
+     */
+    RANGE,
+
+    /**
+     * Arithmetic mean of prices (simple moving average of the window)
+     */
+    MEAN,
+
+    /**
+     * Population variance of prices, standard deviation is its square root
+     */
+    VARIANCE,
+
+    /**
+     * Simple return: (last - first) / first
+     */
+    RETURN
+}
@@ -0,0 +1,72 @@
+package com.epam.crypto.repository;
+
+/**
+ * Calendar periods (in UTC+0 timezone) for which prices are rolled up.
+ * Every period is identified by its number: days since 1970-01-01 or months since year 0
+ */
+public enum CalendarPeriod {
+
+    DAY {
+        @Override
+        public long periodOf(long timestamp) {
+            return Math.floorDiv(timestamp, DAY_MILLIS);
+        }
+
+        @Override
+        public long startOf(long period) {
+            return period * DAY_MILLIS;
+        }
+    },
+
+    MONTH {
+        @Override
+        public long periodOf(long timestamp) {
+            long epochDay = Math.floorDiv(timestamp, DAY_MILLIS);
+            // Civil from days algorithm (by Howard Hinnant) with years starting on March 1st
+            long shifted = epochDay + DAYS_FROM_YEAR_0_MARCH_TO_EPOCH;
+            long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+            long dayOfEra = shifted - era * DAYS_PER_ERA;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long shiftedMonth = (5 * dayOfYear + 2) / 153;
+            long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+            return year * 12 + month - 1;
+        }
+
+        @Override
+        public long startOf(long period) {
+            long year = Math.floorDiv(period, 12);
+            long month = Math.floorMod(period, 12) + 1;
+            // Days from civil algorithm (by Howard Hinnant) for the first day of month
+            year -= month <= 2 ? 1 : 0;
+            long era = Math.floorDiv(year, 400);
+            long yearOfEra = year - era * 400;
+            long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5;
+            long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+            return (era * DAYS_PER_ERA + dayOfEra - DAYS_FROM_YEAR_0_MARCH_TO_EPOCH) * DAY_MILLIS;
+        }
+    };
+
+    public static final long DAY_MILLIS = 86_400_000L;
+
+    private static final long DAYS_PER_ERA = 146_097L;
+
+    private static final long DAYS_FROM_YEAR_0_MARCH_TO_EPOCH = 719_468L;
+
+    /**
+     * Get number of period which contains timestamp
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return number of period
+     */
+    public abstract long periodOf(long timestamp);
+
+    /**
+     * Get timestamp of start of period
+     *
+     * @param period number of period
+     * @return milliseconds
+     */
+    public abstract long startOf(long period);
+}
@@ -0,0 +1,265 @@
+package com.epam.crypto.repository;
+
+import java.util.Arrays;
+
+/**
+ * Rollup of price series by calendar periods (days or months in UTC+0 timezone).
+ * For every period which has prices it keeps indexes of open (oldest), close (newest), low and high prices.
+ * Periods are kept sparse (sorted numbers of periods with prices), so an outlier timestamp far away from other prices
+ * takes one cell instead of cells for every empty period in between. Periods of series without gaps are found
+ * with one array lookup, other periods with binary search.
+ * <p>
+ * Rollup is immutable for readers. Closed periods are kept in arrays, the last (open) period is kept in fields,
+ * so appending a price returns a new rollup which shares arrays with the previous one
+ * and writes only cells after the closed periods of the previous one
+ */
+public class CalendarRollup {
+
+    private static final int NO_PRICE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CalendarPeriod calendarPeriod;
+
+    private final long[] periods;
+
+    private final int[] opens;
+
+    private final int[] closes;
+
+    private final int[] lows;
+
+    private final int[] highs;
+
+    private final int closedPeriods;
+
+    private final long lastPeriod;
+
+    private final int lastOpen;
+
+    private final int lastClose;
+
+    private final int lastLow;
+
+    private final int lastHigh;
+
+    private CalendarRollup(CalendarPeriod calendarPeriod, long[] periods, int[] opens, int[] closes, int[] lows,
+                           int[] highs, int closedPeriods, long lastPeriod, int lastOpen, int lastClose, int lastLow,
+                           int lastHigh) {
+        this.calendarPeriod = calendarPeriod;
+        this.periods = periods;
+        this.opens = opens;
+        this.closes = closes;
+        this.lows = lows;
+        this.highs = highs;
+        this.closedPeriods = closedPeriods;
+        this.lastPeriod = lastPeriod;
+        this.lastOpen = lastOpen;
+        this.lastClose = lastClose;
+        this.lastLow = lastLow;
+        this.lastHigh = lastHigh;
+    }
+
+    /**
+     * Build rollup for the price series columns
+     *
+     * @param calendarPeriod calendar period to roll up by
+     * @param timestamps     sorted column of timestamps
+     * @param prices         column of prices
+     * @param size           number of prices in columns
+     * @param index          index of minimum and maximum prices
+     * @return rollup
+     */
+    public static CalendarRollup build(CalendarPeriod calendarPeriod, long[] timestamps, long[] prices, int size,
+                                       RangeExtremumIndex index) {
+        if (size == 0) {
+            return new CalendarRollup(calendarPeriod, new long[0], new int[0], new int[0], new int[0], new int[0],
+                    0, 0, NO_PRICE, NO_PRICE, NO_PRICE, NO_PRICE);
+        }
+        long[] periods = new long[INITIAL_CAPACITY];
+        int[] opens = new int[INITIAL_CAPACITY];
+        int[] closes = new int[INITIAL_CAPACITY];
+        int[] lows = new int[INITIAL_CAPACITY];
+        int[] highs = new int[INITIAL_CAPACITY];
+        int count = 0;
+        int from = 0;
+        long period;
+        int to;
+        while (true) {
+            period = calendarPeriod.periodOf(timestamps[from]);
+            to = lowerBound(timestamps, from, size, calendarPeriod.startOf(period + 1));
+            if (to == size) {
+                break;
+            }
+            if (count == periods.length) {
+                int capacity = count + (count >> 1);
+                periods = Arrays.copyOf(periods, capacity);
+                opens = Arrays.copyOf(opens, capacity);
+                closes = Arrays.copyOf(closes, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                highs = Arrays.copyOf(highs, capacity);
+            }
+            periods[count] = period;
+            opens[count] = from;
+            closes[count] = to - 1;
+            lows[count] = index.indexOfMin(prices, from, to);
+            highs[count] = index.indexOfMax(prices, from, to);
+            count++;
+            from = to;
+        }
+        return new CalendarRollup(calendarPeriod, periods, opens, closes, lows, highs, count, period,
+                from, to - 1, index.indexOfMin(prices, from, to), index.indexOfMax(prices, from, to));
+    }
+
+    /**
+     * Get rollup after a price was appended to the series
+     *
+     * @param timestamps column of timestamps, appended timestamp must be greater than all previous ones
+     * @param prices     column of prices
+     * @param index      index of appended price
+     * @return new rollup
+     */
+    public CalendarRollup append(long[] timestamps, long[] prices, int index) {
+        long period = calendarPeriod.periodOf(timestamps[index]);
+        if (lastOpen == NO_PRICE) {
+            return new CalendarRollup(calendarPeriod, new long[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+                    new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+                    0, period, index, index, index, index);
+        }
+        if (period == lastPeriod) {
+            return new CalendarRollup(calendarPeriod, periods, opens, closes, lows, highs, closedPeriods,
+                    lastPeriod,
+                    lastOpen,
+                    index,
+                    prices[index] < prices[lastLow] ? index : lastLow,
+                    prices[index] > prices[lastHigh] ? index : lastHigh);
+        }
+        int capacity = closedPeriods + 1;
+        long[] newPeriods = periods.length >= capacity ? periods : Arrays.copyOf(periods, grow(periods.length, capacity));
+        int[] newOpens = ensureCapacity(opens, capacity);
+        int[] newCloses = ensureCapacity(closes, capacity);
+        int[] newLows = ensureCapacity(lows, capacity);
+        int[] newHighs = ensureCapacity(highs, capacity);
+        newPeriods[closedPeriods] = lastPeriod;
+        newOpens[closedPeriods] = lastOpen;
+        newCloses[closedPeriods] = lastClose;
+        newLows[closedPeriods] = lastLow;
+        newHighs[closedPeriods] = lastHigh;
+        return new CalendarRollup(calendarPeriod, newPeriods, newOpens, newCloses, newLows, newHighs,
+                capacity, period, index, index, index, index);
+    }
+
+    /**
+     * Get rollup of the first prices of the series. Arrays of closed periods are copied without recomputation,
+     * only low and high prices of the new last period are found with the index
+     *
+     * @param timestamps column of timestamps
+     * @param prices     column of prices
+     * @param size       number of the first prices, not more than number of prices of this rollup
+     * @param index      index of minimum and maximum prices
+     * @return new rollup
+     */
+    public CalendarRollup truncate(long[] timestamps, long[] prices, int size, RangeExtremumIndex index) {
+        if (size == 0) {
+            return build(calendarPeriod, timestamps, prices, 0, index);
+        }
+        long period = calendarPeriod.periodOf(timestamps[size - 1]);
+        int position = Arrays.binarySearch(periods, 0, closedPeriods, period);
+        int open = position >= 0 ? opens[position] : lastOpen;
+        return new CalendarRollup(calendarPeriod, periods.clone(), opens.clone(), closes.clone(), lows.clone(),
+                highs.clone(), position >= 0 ? position : -position - 1, period,
+                open, size - 1, index.indexOfMin(prices, open, size), index.indexOfMax(prices, open, size));
+    }
+
+    /**
+     * Get index of open (oldest) price of the period
+     *
+     * @param timestamp any timestamp of the period
+     * @return index of price, -1 if there are no prices in the period
+     */
+    public int getOpen(long timestamp) {
+        return get(opens, lastOpen, timestamp);
+    }
+
+    /**
+     * Get index of close (newest) price of the period
+     *
+     * @param timestamp any timestamp of the period
+     * @return index of price, -1 if there are no prices in the period
+     */
+    public int getClose(long timestamp) {
+        return get(closes, lastClose, timestamp);
+    }
+
+    /**
+     * Get index of low price of the period
+     *
+     * @param timestamp any timestamp of the period
+     * @return index of price, -1 if there are no prices in the period
+     */
+    public int getLow(long timestamp) {
+        return get(lows, lastLow, timestamp);
+    }
+
+    /**
+     * Get index of high price of the period
+     *
+     * @param timestamp any timestamp of the period
+     * @return index of price, -1 if there are no prices in the period
+     */
+    public int getHigh(long timestamp) {
+        return get(highs, lastHigh, timestamp);
+    }
+
+    private int get(int[] indexes, int last, long timestamp) {
+        long period = calendarPeriod.periodOf(timestamp);
+        if (lastOpen != NO_PRICE && period == lastPeriod) {
+            return last;
+        }
+        int position = positionOf(period);
+        return position >= 0 ? indexes[position] : NO_PRICE;
+    }
+
+    /**
+     * Get position of closed period: its offset from the first period if there are no gaps before it,
+     * otherwise it's binary searched
+     *
+     * @param period number of period
+     * @return position, negative if the period has no prices or isn't closed
+     */
+    private int positionOf(long period) {
+        if (closedPeriods == 0) {
+            return NO_PRICE;
+        }
+        long offset = period - periods[0];
+        if (offset >= 0 && offset < closedPeriods && periods[(int) offset] == period) {
+            return (int) offset;
+        }
+        return Arrays.binarySearch(periods, 0, closedPeriods, period);
+    }
+
+    /**
+     * Get column with enough capacity: the same column or its copy
+     */
+    private static int[] ensureCapacity(int[] column, int capacity) {
+        return column.length >= capacity ? column : Arrays.copyOf(column, grow(column.length, capacity));
+    }
+
+    private static int grow(int length, int capacity) {
+        return Math.max(capacity, length + (length >> 1));
+    }
+
+    private static int lowerBound(long[] timestamps, int from, int to, long timestamp) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,141 @@
+package com.epam.crypto.repository;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded cache with approximate LRU eviction (CLOCK, second chance), it's shared by concurrent readers of segments.
+ * A hit is a lock-free lookup in a concurrent map which marks the entry as referenced.
+ * A miss loads the value outside of the lock (a value may be loaded twice by concurrent readers),
+ * then the entry is added under the lock and entries are evicted in insertion order until their weight fits the budget:
+ * a referenced entry loses its mark and gets a second chance, an entry not referenced since the last pass is evicted
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class ClockCache<K, V> {
+
+    private final long budget;
+
+    private final ToLongFunction<V> weigher;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    // Keys in the order of the clock hand, guarded by this cache
+    private final ArrayDeque<K> clock = new ArrayDeque<>();
+
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create cache
+     *
+     * @param budget  max total weight of values kept at the same time (the newest value is kept anyway)
+     * @param weigher weight of value
+     */
+    ClockCache(long budget, ToLongFunction<V> weigher) {
+        this.budget = budget;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Get value of key, it's loaded and added to cache if it's not cached
+     *
+     * @param key    key
+     * @param loader loader of value
+     * @return value
+     */
+    V get(K key, Function<K, V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        synchronized (this) {
+            Entry<V> loaded = entries.get(key);
+            if (loaded != null) {
+                return loaded.value;
+            }
+            entries.put(key, new Entry<>(value));
+            clock.addLast(key);
+            weight += weigher.applyAsLong(value);
+            while (weight > budget && clock.size() > 1) {
+                K candidate = clock.pollFirst();
+                Entry<V> evicted = entries.get(candidate);
+                if (evicted.referenced) {
+                    evicted.referenced = false;
+                    clock.addLast(candidate);
+                } else {
+                    entries.remove(candidate);
+                    weight -= weigher.applyAsLong(evicted.value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Remove all values
+     */
+    synchronized void clear() {
+        entries.clear();
+        clock.clear();
+        weight = 0;
+    }
+
+    /**
+     * Get number of accesses answered from cache
+     *
+     * @return number of accesses since start
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get number of accesses which loaded a value
+     *
+     * @return number of accesses since start
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get total weight of cached values
+     *
+     * @return weight
+     */
+    synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Cached value with the mark of access since the last pass of the clock hand
+     *
+     * @param <V> type of value
+     */
+    private static final class Entry<V> {
+
+        private final V value;
+
+        // New entries are referenced, so they are evicted after older entries
+        private volatile boolean referenced = true;
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.epam.crypto.repository;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Immutable segment of cold prices of a single currency. Summary of segment (first, last, lowest and highest prices
+ * and sums of prices) is kept in heap as plain fields, so a query whose time window covers the whole segment
+ * or doesn't overlap it never reads segment data. Only segments partially covered by the window
+ * are binary searched and scanned in their {@link Columns}, which implementations read from where they keep data
+ * (memory-mapped file or compressed heap block). Operations reading many prices one by one read them through
+ * a {@link #view()} of segment, so columns are looked up once per operation instead of once per price
+ */
+public abstract class ColdSegment implements SortedPrices {
+
+    private final int size;
+
+    private final int scale;
+
+    private final boolean hasScales;
+
+    private final long firstTimestamp;
+
+    private final long lastTimestamp;
+
+    private final BigDecimal firstPrice;
+
+    private final BigDecimal lastPrice;
+
+    private final int minIndex;
+
+    private final long minTimestamp;
+
+    private final BigDecimal minPrice;
+
+    private final long minUnscaledPrice;
+
+    private final int maxIndex;
+
+    private final long maxTimestamp;
+
+    private final BigDecimal maxPrice;
+
+    private final long maxUnscaledPrice;
+
+    private final PriceSums sums;
+
+    /**
+     * Create summary of prices of the range of indexes of series
+     *
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     */
+    ColdSegment(PriceSeries series, int from, int to) {
+        this.size = to - from;
+        this.scale = series.getScale();
+        this.hasScales = series.getScales() != null;
+        this.firstTimestamp = series.getTimestamp(from);
+        this.lastTimestamp = series.getTimestamp(to - 1);
+        this.firstPrice = series.getPrice(from);
+        this.lastPrice = series.getPrice(to - 1);
+        int min = series.indexOfMin(from, to);
+        int max = series.indexOfMax(from, to);
+        this.minIndex = min - from;
+        this.minTimestamp = series.getTimestamp(min);
+        this.minPrice = series.getPrice(min);
+        this.minUnscaledPrice = series.getUnscaledPrice(min);
+        this.maxIndex = max - from;
+        this.maxTimestamp = series.getTimestamp(max);
+        this.maxPrice = series.getPrice(max);
+        this.maxUnscaledPrice = series.getUnscaledPrice(max);
+        this.sums = series.getSums(from, to);
+    }
+
+    /**
+     * Create segment with the same summary as defined one
+     *
+     * @param segment cold segment
+     */
+    private ColdSegment(ColdSegment segment) {
+        this.size = segment.size;
+        this.scale = segment.scale;
+        this.hasScales = segment.hasScales;
+        this.firstTimestamp = segment.firstTimestamp;
+        this.lastTimestamp = segment.lastTimestamp;
+        this.firstPrice = segment.firstPrice;
+        this.lastPrice = segment.lastPrice;
+        this.minIndex = segment.minIndex;
+        this.minTimestamp = segment.minTimestamp;
+        this.minPrice = segment.minPrice;
+        this.minUnscaledPrice = segment.minUnscaledPrice;
+        this.maxIndex = segment.maxIndex;
+        this.maxTimestamp = segment.maxTimestamp;
+        this.maxPrice = segment.maxPrice;
+        this.maxUnscaledPrice = segment.maxUnscaledPrice;
+        this.sums = segment.sums;
+    }
+
+    /**
+     * Get columns of segment data, every operation reading data gets them once
+     *
+     * @return columns
+     */
+    abstract Columns columns();
+
+    /**
+     * Get view of segment for a single operation: it answers the same as segment, but takes columns of segment data
+     * on the first read and keeps them, so per-price reads don't map segment or look it up in cache again.
+     * View isn't thread-safe and must not outlive the operation
+     *
+     * @return view of segment
+     */
+    ColdSegment view() {
+        return new View(this);
+    }
+
+    /**
+     * Check whether original scales of prices are kept in segment data
+     *
+     * @return true if prices of segment have different scales
+     */
+    boolean hasScales() {
+        return hasScales;
+    }
+
+    /**
+     * Get number of prices in segment
+     *
+     * @return number of prices
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get timestamp of price by index. Timestamps of summary prices are read without reading segment data
+     *
+     * @param index index from 0 to size - 1
+     * @return timestamp in milliseconds
+     */
+    @Override
+    public long getTimestamp(int index) {
+        if (index == 0) {
+            return firstTimestamp;
+        } else if (index == size - 1) {
+            return lastTimestamp;
+        } else if (index == minIndex) {
+            return minTimestamp;
+        } else if (index == maxIndex) {
+            return maxTimestamp;
+        }
+        return columns().getTimestamp(index);
+    }
+
+    /**
+     * Get price by index. Summary prices are read without reading segment data
+     *
+     * @param index index from 0 to size - 1
+     * @return price with the scale it was added with
+     */
+    @Override
+    public BigDecimal getPrice(int index) {
+        if (index == 0) {
+            return firstPrice;
+        } else if (index == size - 1) {
+            return lastPrice;
+        } else if (index == minIndex) {
+            return minPrice;
+        } else if (index == maxIndex) {
+            return maxPrice;
+        }
+        return getPrice(columns(), index);
+    }
+
+    /**
+     * Get unscaled price of the common scale by index. The lowest and the highest prices are read without reading segment data
+     *
+     * @param index index from 0 to size - 1
+     * @return unscaled price
+     */
+    @Override
+    public long getUnscaledPrice(int index) {
+        if (index == minIndex) {
+            return minUnscaledPrice;
+        } else if (index == maxIndex) {
+            return maxUnscaledPrice;
+        }
+        return columns().getUnscaledPrice(index);
+    }
+
+    /**
+     * Get common scale of prices
+     *
+     * @return scale
+     */
+    @Override
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Get index of the first price with timestamp greater than or equal to defined one
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to size (size if there's no such price)
+     */
+    @Override
+    public int lowerBound(long timestamp) {
+        if (timestamp <= firstTimestamp) {
+            return 0;
+        } else if (timestamp > lastTimestamp) {
+            return size;
+        }
+        Columns columns = columns();
+        int low = 1;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (columns.getTimestamp(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get index of the first price with timestamp greater than defined one
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to size (size if there's no such price)
+     */
+    @Override
+    public int upperBound(long timestamp) {
+        if (timestamp < firstTimestamp) {
+            return 0;
+        } else if (timestamp >= lastTimestamp) {
+            return size;
+        }
+        Columns columns = columns();
+        int low = 1;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (columns.getTimestamp(middle) <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get index of the lowest price in the range of indexes, the lowest price of whole segment is taken from summary.
+     * If there are several lowest prices, the oldest one is chosen
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive), must be greater than first index
+     * @return index of the lowest price
+     */
+    @Override
+    public int indexOfMin(int from, int to) {
+        if (from <= minIndex && minIndex < to) {
+            return minIndex;
+        }
+        Columns columns = columns();
+        int result = from;
+        long min = columns.getUnscaledPrice(from);
+        for (int i = from + 1; i < to; i++) {
+            long price = columns.getUnscaledPrice(i);
+            if (price < min) {
+                min = price;
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get index of the highest price in the range of indexes, the highest price of whole segment is taken from summary.
+     * If there are several highest prices, the oldest one is chosen
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive), must be greater than first index
+     * @return index of the highest price
+     */
+    @Override
+    public int indexOfMax(int from, int to) {
+        if (from <= maxIndex && maxIndex < to) {
+            return maxIndex;
+        }
+        Columns columns = columns();
+        int result = from;
+        long max = columns.getUnscaledPrice(from);
+        for (int i = from + 1; i < to; i++) {
+            long price = columns.getUnscaledPrice(i);
+            if (price > max) {
+                max = price;
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get sums of prices in the range of indexes, sums of whole segment are taken from summary
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return exact sums
+     */
+    @Override
+    public PriceSums getSums(int from, int to) {
+        if (from == 0 && to == size) {
+            return sums;
+        } else if (from >= to) {
+            return PriceSums.EMPTY;
+        }
+        Columns columns = columns();
+        BigInteger sum = BigInteger.ZERO;
+        BigInteger sumOfSquares = BigInteger.ZERO;
+        for (int i = from; i < to; i++) {
+            BigInteger price = BigInteger.valueOf(columns.getUnscaledPrice(i));
+            sum = sum.add(price);
+            sumOfSquares = sumOfSquares.add(price.multiply(price));
+        }
+        return new PriceSums(to - from, new BigDecimal(sum, scale), new BigDecimal(sumOfSquares, 2 * scale));
+    }
+
+    /**
+     * Get number of prices compared one by one to find the lowest or the highest price in the range of indexes
+     * (summary is used for whole segment, prices of partially covered segment may be scanned)
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return number of prices
+     */
+    @Override
+    public long scanLength(int from, int to) {
+        return from == 0 && to == size ? 0 : to - from;
+    }
+
+    /**
+     * Add all prices of segment to builder with their original scales
+     *
+     * @param builder builder of price series
+     */
+    void addTo(PriceSeries.Builder builder) {
+        Columns columns = columns();
+        for (int i = 0; i < size; i++) {
+            builder.add(columns.getTimestamp(i), getPrice(columns, i));
+        }
+    }
+
+    private BigDecimal getPrice(Columns columns, int index) {
+        BigDecimal price = BigDecimal.valueOf(columns.getUnscaledPrice(index), scale);
+        return hasScales ? price.setScale(columns.getOriginalScale(index)) : price;
+    }
+
+    /**
+     * View of segment which keeps columns of segment data taken on the first read
+     */
+    private static final class View extends ColdSegment {
+
+        private final ColdSegment segment;
+
+        private Columns columns;
+
+        private View(ColdSegment segment) {
+            super(segment);
+            this.segment = segment;
+        }
+
+        @Override
+        Columns columns() {
+            if (columns == null) {
+                columns = segment.columns();
+            }
+            return columns;
+        }
+
+        @Override
+        ColdSegment view() {
+            return this;
+        }
+    }
+
+    /**
+     * Columns of segment data in the layout of {@link PriceSeries}: timestamps, unscaled prices of the common scale
+     * and original scales of prices (only if segment has scales)
+     */
+    interface Columns {
+
+        /**
+         * Get timestamp of price by index
+         *
+         * @param index index from 0 to size - 1
+         * @return timestamp in milliseconds
+         */
+        long getTimestamp(int index);
+
+        /**
+         * Get unscaled price of the common scale by index
+         *
+         * @param index index from 0 to size - 1
+         * @return unscaled price
+         */
+        long getUnscaledPrice(int index);
+
+        /**
+         * Get original scale of price by index
+         *
+         * @param index index from 0 to size - 1
+         * @return scale the price was added with
+         */
+        int getOriginalScale(int index);
+    }
+}
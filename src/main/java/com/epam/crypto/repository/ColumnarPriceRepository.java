@@ -0,0 +1,772 @@
+package com.epam.crypto.repository;
+
+import com.epam.crypto.service.DateTimeService;
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory implementation for repository layer for working with prices and ranges
+ * based on columnar storage: every currency is stored as {@link PriceSeries},
+ * time ranges are found with binary search and calendar periods are answered from rollups.
+ * Series are immutable, added prices are published by replacing the series of currency in {@link SymbolTable},
+ * so readers never take locks and every query works with a consistent series
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.storage.type", havingValue = "columnar", matchIfMissing = true)
+public class ColumnarPriceRepository implements PriceRepository, StorageStatistics {
+
+    private DateTimeService dateTimeService;
+
+    private SymbolTable<PriceSeries> storage;
+
+    private final StorageVersions versions = new StorageVersions();
+
+    private final LongAdder scannedEntries = new LongAdder();
+
+    public ColumnarPriceRepository(DateTimeService dateTimeService,
+                                   @Qualifier("columnarPriceStorage") Map<String, PriceSeries> storage) {
+        this.dateTimeService = dateTimeService;
+        this.storage = new SymbolTable<>(storage);
+    }
+
+    /**
+     * Get oldest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol) {
+        return getOldestPrice(getSeries(currencySymbol), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get oldest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, int year, int month) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month);
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? null : getPair(series, series.getMonthlyRollup().getOpen(startTimestamp));
+    }
+
+    /**
+     * Get oldest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getOldestPrice(getSeries(currencySymbol), startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Get oldest price of the series in the time range
+     *
+     * @param series         price series
+     * @param startTimestamp start of time range (inclusive)
+     * @param endTimestamp   end of time range (inclusive)
+     * @return pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> getOldestPrice(PriceSeries series, long startTimestamp, long endTimestamp) {
+        if (series == null) {
+            return null;
+        }
+        int from = series.lowerBound(startTimestamp);
+        int to = series.upperBound(endTimestamp);
+        return from < to ? getPair(series, from) : null;
+    }
+
+    /**
+     * Get newest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol) {
+        return getNewestPrice(getSeries(currencySymbol), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get newest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, int year, int month) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month);
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? null : getPair(series, series.getMonthlyRollup().getClose(startTimestamp));
+    }
+
+    /**
+     * Get newest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getNewestPrice(getSeries(currencySymbol), startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Get newest price of the series in the time range
+     *
+     * @param series         price series
+     * @param startTimestamp start of time range (inclusive)
+     * @param endTimestamp   end of time range (inclusive)
+     * @return pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> getNewestPrice(PriceSeries series, long startTimestamp, long endTimestamp) {
+        if (series == null) {
+            return null;
+        }
+        int from = series.lowerBound(startTimestamp);
+        int to = series.upperBound(endTimestamp);
+        return from < to ? getPair(series, to - 1) : null;
+    }
+
+    /**
+     * Get lowest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol) {
+        return getLowestPrice(getSeries(currencySymbol), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get lowest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month);
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? null : getPair(series, series.getMonthlyRollup().getLow(startTimestamp));
+    }
+
+    /**
+     * Get lowest price for the currency for the day
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @param day            day from 1 to 28..31 (validity depends on year and month)
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month, int day) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month, day);
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? null : getPair(series, series.getDailyRollup().getLow(startTimestamp));
+    }
+
+    /**
+     * Get lowest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getLowestPrice(getSeries(currencySymbol), startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Get lowest price of the series in the time range
+     *
+     * @param series         price series
+     * @param startTimestamp start of time range (inclusive)
+     * @param endTimestamp   end of time range (inclusive)
+     * @return pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> getLowestPrice(PriceSeries series, long startTimestamp, long endTimestamp) {
+        if (series == null) {
+            return null;
+        }
+        int from = series.lowerBound(startTimestamp);
+        int to = series.upperBound(endTimestamp);
+        return from < to ? getPair(series, indexOfMin(series, from, to)) : null;
+    }
+
+    /**
+     * Get highest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol) {
+        return getHighestPrice(getSeries(currencySymbol), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get highest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month);
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? null : getPair(series, series.getMonthlyRollup().getHigh(startTimestamp));
+    }
+
+    /**
+     * Get highest price for the currency for the day
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @param day            day from 1 to 28..31 (validity depends on year and month)
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month, int day) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month, day);
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? null : getPair(series, series.getDailyRollup().getHigh(startTimestamp));
+    }
+
+    /**
+     * Get highest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getHighestPrice(getSeries(currencySymbol), startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Get highest price of the series in the time range
+     *
+     * @param series         price series
+     * @param startTimestamp start of time range (inclusive)
+     * @param endTimestamp   end of time range (inclusive)
+     * @return pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> getHighestPrice(PriceSeries series, long startTimestamp, long endTimestamp) {
+        if (series == null) {
+            return null;
+        }
+        int from = series.lowerBound(startTimestamp);
+        int to = series.upperBound(endTimestamp);
+        return from < to ? getPair(series, indexOfMax(series, from, to)) : null;
+    }
+
+    /**
+     * Get normalized range for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return range
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol) {
+        return getNormalizedRange(getSeries(currencySymbol), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get normalized range for the currency for the day
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @param day            day from 1 to 28..31 (validity depends on year and month)
+     * @return range
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, int year, int month, int day) {
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month, day);
+        PriceSeries series = getSeries(currencySymbol);
+        if (series == null) {
+            return null;
+        }
+        CalendarRollup rollup = series.getDailyRollup();
+        return getNormalizedRange(series, rollup.getLow(startTimestamp), rollup.getHigh(startTimestamp));
+    }
+
+    /**
+     * Get normalized range for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getNormalizedRange(getSeries(currencySymbol), startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Get normalized range for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    @Override
+    public BigDecimal getNormalizedRange(int currencyId, long startTimestamp, long endTimestamp) {
+        return getNormalizedRange(this.storage.get(currencyId), startTimestamp, endTimestamp);
+    }
+
+    /**
+     * Get normalized range of the series in the time range
+     *
+     * @param series         price series
+     * @param startTimestamp start of time range (inclusive)
+     * @param endTimestamp   end of time range (inclusive)
+     * @return range
+     */
+    private BigDecimal getNormalizedRange(PriceSeries series, long startTimestamp, long endTimestamp) {
+        if (series == null) {
+            return null;
+        }
+        int from = series.lowerBound(startTimestamp);
+        int to = series.upperBound(endTimestamp);
+        return from < to ? getNormalizedRange(series, indexOfMin(series, from, to), indexOfMax(series, from, to)) : null;
+    }
+
+    /**
+     * Get normalized range of the series by indexes of lowest and highest prices
+     *
+     * @param series   price series
+     * @param minIndex index of lowest price, -1 if there's no price
+     * @param maxIndex index of highest price, -1 if there's no price
+     * @return range
+     */
+    private BigDecimal getNormalizedRange(PriceSeries series, int minIndex, int maxIndex) {
+        if (minIndex < 0 || maxIndex < 0) {
+            return null;
+        }
+        return FixedPoint.normalizedRange(series.getUnscaledPrice(minIndex), series.getUnscaledPrice(maxIndex));
+    }
+
+    /**
+     * Get aggregates of prices for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same series
+     */
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, Set<Aggregate> aggregates) {
+        return getAggregates(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE, aggregates);
+    }
+
+    /**
+     * Get aggregates of prices for the currency in the time window.
+     * The window is found with one binary search per bound, lowest and highest prices with one index probe each,
+     * sums for mean and variance with one lookup of prefix sums per bound
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same series
+     */
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        return getAggregates(getSeries(currencySymbol), startTimestamp, endTimestamp, aggregates);
+    }
+
+    /**
+     * Get aggregates of prices for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same series
+     */
+    @Override
+    public PriceAggregates getAggregates(int currencyId, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        return getAggregates(this.storage.get(currencyId), startTimestamp, endTimestamp, aggregates);
+    }
+
+    /**
+     * Get aggregates of prices of the series in the time window
+     *
+     * @param series         price series, null if currency isn't represented in storage
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates
+     */
+    private PriceAggregates getAggregates(PriceSeries series, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        int from = series == null ? 0 : series.lowerBound(startTimestamp);
+        int to = series == null ? 0 : series.upperBound(endTimestamp);
+        var builder = PriceAggregates.builder();
+        if (aggregates.contains(Aggregate.COUNT)) {
+            builder.count((long) Math.max(to - from, 0));
+        }
+        if (from >= to) {
+            return builder.build();
+        }
+        boolean range = aggregates.contains(Aggregate.RANGE);
+        int minIndex = range || aggregates.contains(Aggregate.MIN) ? indexOfMin(series, from, to) : -1;
+        int maxIndex = range || aggregates.contains(Aggregate.MAX) ? indexOfMax(series, from, to) : -1;
+        if (aggregates.contains(Aggregate.FIRST)) {
+            builder.first(getPair(series, from));
+        }
+        if (aggregates.contains(Aggregate.LAST)) {
+            builder.last(getPair(series, to - 1));
+        }
+        if (aggregates.contains(Aggregate.MIN)) {
+            builder.min(getPair(series, minIndex));
+        }
+        if (aggregates.contains(Aggregate.MAX)) {
+            builder.max(getPair(series, maxIndex));
+        }
+        if (range) {
+            builder.range(getNormalizedRange(series, minIndex, maxIndex));
+        }
+        if (aggregates.contains(Aggregate.MEAN) || aggregates.contains(Aggregate.VARIANCE)) {
+            PriceSums sums = series.getSums(from, to);
+            if (aggregates.contains(Aggregate.MEAN)) {
+                builder.mean(sums.getMean());
+            }
+            if (aggregates.contains(Aggregate.VARIANCE)) {
+                builder.variance(sums.getVariance());
+            }
+        }
+        if (aggregates.contains(Aggregate.RETURN)) {
+            builder.returnRate(FixedPoint.returnRate(series.getPrice(from), series.getPrice(to - 1)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get prices for the currency in the time window.
+     * Prices are read from the state of storage at the moment of call
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return iterator of pair tuples of timestamp and price in chronological order
+     */
+    @Override
+    public Iterator<Pair<Long, BigDecimal>> getPrices(String currencySymbol, long startTimestamp, long endTimestamp) {
+        PriceSeries series = getSeries(currencySymbol);
+        if (series == null) {
+            return Collections.emptyIterator();
+        }
+        int from = series.lowerBound(startTimestamp);
+        int to = series.upperBound(endTimestamp);
+        return new Iterator<>() {
+
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < to;
+            }
+
+            @Override
+            public Pair<Long, BigDecimal> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getPair(series, next++);
+            }
+        };
+    }
+
+    /**
+     * Get candles of prices for the currency in the time window.
+     * Candles are computed from the state of storage at the moment of call
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param interval       length of interval in milliseconds, must be positive
+     * @return iterator of candles in chronological order
+     */
+    @Override
+    public Iterator<PriceCandle> getCandles(String currencySymbol, long startTimestamp, long endTimestamp, long interval) {
+        PriceSeries series = getSeries(currencySymbol);
+        if (series == null) {
+            return Collections.emptyIterator();
+        }
+        return new CandleIterator(series, series.lowerBound(startTimestamp), series.upperBound(endTimestamp), interval);
+    }
+
+    /**
+     * Sample prices of the currency with identifier onto time grid: for every point start + i * interval
+     * the newest price at or before the point is written as double, NaN if there's no such price.
+     * Every point takes one binary search in timestamps column
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp first point of grid in milliseconds
+     * @param interval       distance between points of grid in milliseconds, must be positive
+     * @param samples        array of samples
+     * @param offset         index of the sample of the first point in array
+     * @param count          number of points of grid
+     */
+    @Override
+    public void samplePrices(int currencyId, long startTimestamp, long interval, double[] samples, int offset, int count) {
+        PriceSeries series = this.storage.get(currencyId);
+        for (int i = 0; i < count; i++) {
+            int index = series == null ? -1 : series.upperBound(startTimestamp + i * interval) - 1;
+            samples[offset + i] = index < 0 ? Double.NaN : FixedPoint.toDouble(series.getUnscaledPrice(index), series.getScale());
+        }
+    }
+
+    /**
+     * Get set of all currencies symbols that represented in storage
+     *
+     * @return set of currencies symbols
+     */
+    @Override
+    public Set<String> getCurrencies() {
+        return this.storage.getSymbols();
+    }
+
+    /**
+     * Get identifier of currency, identifiers are assigned when currencies are added to storage
+     *
+     * @param currencySymbol currency symbol
+     * @return identifier, -1 if currency isn't represented in storage
+     */
+    @Override
+    public int getCurrencyId(String currencySymbol) {
+        return this.storage.getId(currencySymbol);
+    }
+
+    /**
+     * Get currency symbol by identifier
+     *
+     * @param currencyId currency identifier from 0 to number of currencies - 1
+     * @return currency symbol
+     */
+    @Override
+    public String getCurrencySymbol(int currencyId) {
+        return this.storage.getSymbol(currencyId);
+    }
+
+    /**
+     * Get number of currencies represented in storage
+     *
+     * @return number of currencies
+     */
+    @Override
+    public int getCurrencyCount() {
+        return this.storage.size();
+    }
+
+    /**
+     * Add prices for the currency (the currency is added if it's not represented in storage yet).
+     * All prices become visible to readers at once. Prices newer than all stored ones are appended
+     * in amortized constant time, older prices are merged with the tail of series after the oldest of them
+     *
+     * @param currencySymbol currency symbol
+     * @param prices         list of pair tuples of timestamp and price
+     */
+    @Override
+    public void addPrices(String currencySymbol, List<Pair<Long, BigDecimal>> prices) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        List<Pair<Long, BigDecimal>> sortedPrices = new ArrayList<>(prices);
+        sortedPrices.sort(Map.Entry.comparingByKey());
+        this.storage.compute(currencySymbol, series -> {
+            if (series == null || series.size() == 0 || sortedPrices.get(0).getKey() <= series.getTimestamp(series.size() - 1)) {
+                PriceSeries.Builder builder = PriceSeries.builder();
+                sortedPrices.forEach(price -> builder.add(price.getKey(), price.getValue()));
+                return series == null ? builder.build() : series.addAll(builder);
+            }
+            PriceSeries result = series;
+            for (Pair<Long, BigDecimal> price : sortedPrices) {
+                result = result.append(price.getKey(), price.getValue());
+            }
+            return result;
+        });
+        this.versions.update();
+    }
+
+    /**
+     * Get version of storage, it's changed every time prices are added
+     *
+     * @return version
+     */
+    @Override
+    public long getVersion() {
+        return this.versions.getVersion();
+    }
+
+    /**
+     * Get total number of price entries compared one by one while answering queries
+     * (entries of partial index blocks)
+     *
+     * @return number of entries since start
+     */
+    @Override
+    public long getScannedEntries() {
+        return this.scannedEntries.sum();
+    }
+
+    /**
+     * Get number of prices of the currency
+     *
+     * @param currencySymbol currency symbol
+     * @return number of prices, 0 if currency isn't represented in storage
+     */
+    @Override
+    public long getPriceCount(String currencySymbol) {
+        PriceSeries series = getSeries(currencySymbol);
+        return series == null ? 0 : series.size();
+    }
+
+    /**
+     * Get index of the lowest price in the range of indexes of series
+     *
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     * @return index of the lowest price
+     */
+    private int indexOfMin(PriceSeries series, int from, int to) {
+        this.scannedEntries.add(RangeExtremumIndex.scanLength(from, to));
+        return series.indexOfMin(from, to);
+    }
+
+    /**
+     * Get index of the highest price in the range of indexes of series
+     *
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     * @return index of the highest price
+     */
+    private int indexOfMax(PriceSeries series, int from, int to) {
+        this.scannedEntries.add(RangeExtremumIndex.scanLength(from, to));
+        return series.indexOfMax(from, to);
+    }
+
+    /**
+     * Return price series for defined currency
+     *
+     * @param currencySymbol currency symbol
+     * @return price series for defined currency
+     */
+    private PriceSeries getSeries(String currencySymbol) {
+        return this.storage.get(currencySymbol);
+    }
+
+    /**
+     * Create pair tuple of timestamp and price for the price of the series
+     *
+     * @param series price series
+     * @param index  index of price in series, -1 if there's no price
+     * @return pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> getPair(PriceSeries series, int index) {
+        return index < 0 ? null : Pair.of(series.getTimestamp(index), series.getPrice(index));
+    }
+
+    /**
+     * Iterator of candles over the range of indexes of series, every candle is computed from consecutive prices
+     */
+    private class CandleIterator implements Iterator<PriceCandle> {
+
+        private final PriceSeries series;
+
+        private final long[] timestamps;
+
+        private final long[] prices;
+
+        private final int to;
+
+        private final long interval;
+
+        private int next;
+
+        private CandleIterator(PriceSeries series, int from, int to, long interval) {
+            this.series = series;
+            this.timestamps = series.getTimestamps();
+            this.prices = series.getPrices();
+            this.to = to;
+            this.interval = interval;
+            this.next = from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < to;
+        }
+
+        @Override
+        public PriceCandle next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int open = next;
+            long intervalStart = Math.floorDiv(timestamps[open], interval) * interval;
+            int low = open;
+            int high = open;
+            int index = open + 1;
+            while (index < to && timestamps[index] - intervalStart < interval) {
+                if (prices[index] < prices[low]) {
+                    low = index;
+                } else if (prices[index] > prices[high]) {
+                    high = index;
+                }
+                index++;
+            }
+            next = index;
+            scannedEntries.add(index - open);
+            return PriceCandle.builder()
+                    .timestamp(intervalStart)
+                    .open(series.getPrice(open))
+                    .high(series.getPrice(high))
+                    .low(series.getPrice(low))
+                    .close(series.getPrice(index - 1))
+                    .count(index - open)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.epam.crypto.repository;
+
+/**
+ * Immutable segment of cold prices of a single currency compressed in heap with {@link GorillaCodec}.
+ * Regular ticks with close prices take a few bytes instead of 16 bytes of {@link PriceSeries} columns.
+ * <p>
+ * Summary of segment is kept in heap uncompressed, so a query whose time window covers the whole segment
+ * or doesn't overlap it never decodes the segment. Segments partially covered by the window are decoded
+ * into {@link DecodedSegmentCache}, so consecutive reads of the same segment decode it once
+ */
+public class CompressedSegment extends ColdSegment {
+
+    private final DecodedSegmentCache cache;
+
+    private final long[] data;
+
+    private CompressedSegment(DecodedSegmentCache cache, long[] data, PriceSeries series, int from, int to) {
+        super(series, from, to);
+        this.cache = cache;
+        this.data = data;
+    }
+
+    /**
+     * Compress prices of the range of indexes of series into a new segment
+     *
+     * @param cache  cache of decoded segments
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     * @return segment
+     */
+    public static CompressedSegment write(DecodedSegmentCache cache, PriceSeries series, int from, int to) {
+        return new CompressedSegment(cache, GorillaCodec.encode(series, from, to), series, from, to);
+    }
+
+    /**
+     * Get number of bytes of compressed data
+     *
+     * @return number of bytes
+     */
+    public long getDataBytes() {
+        return (long) data.length * Long.BYTES;
+    }
+
+    /**
+     * Get columns of segment decoded into cache
+     *
+     * @return columns
+     */
+    @Override
+    Columns columns() {
+        return cache.get(this);
+    }
+
+    /**
+     * Decode segment data into columns
+     *
+     * @return columns
+     */
+    DecodedColumns decode() {
+        var columns = new DecodedColumns(new long[size()], new long[size()], hasScales() ? new byte[size()] : null);
+        GorillaCodec.decode(data, columns.timestamps(), columns.prices(), columns.scales());
+        return columns;
+    }
+
+    /**
+     * Columns of decoded segment data
+     *
+     * @param timestamps timestamps
+     * @param prices     unscaled prices of the common scale
+     * @param scales     original scales of prices, null if all prices have the common scale
+     */
+    record DecodedColumns(long[] timestamps, long[] prices, byte[] scales) implements Columns {
+
+        @Override
+        public long getTimestamp(int index) {
+            return timestamps[index];
+        }
+
+        @Override
+        public long getUnscaledPrice(int index) {
+            return prices[index];
+        }
+
+        @Override
+        public int getOriginalScale(int index) {
+            return scales[index];
+        }
+
+        /**
+         * Get number of bytes taken by columns
+         *
+         * @return number of bytes
+         */
+        long getBytes() {
+            return 2L * Long.BYTES * timestamps.length + (scales == null ? 0 : scales.length);
+        }
+    }
+}
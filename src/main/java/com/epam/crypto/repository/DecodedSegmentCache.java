@@ -0,0 +1,60 @@
+package com.epam.crypto.repository;
+
+/**
+ * Bounded cache of decoded {@link CompressedSegment}s, it's shared by all segments of storage.
+ * Segments are decoded on first access and kept until decoded bytes exceed the budget, then the segments
+ * not accessed recently are evicted (approximate LRU of {@link ClockCache}), so only recently queried cold data
+ * is kept uncompressed. A hit doesn't take a lock and a segment is decoded outside of the lock,
+ * so readers don't wait for each other (a segment may be decoded twice by concurrent readers)
+ */
+public class DecodedSegmentCache {
+
+    // Segments don't override equals, so they are keys by identity
+    private final ClockCache<CompressedSegment, CompressedSegment.DecodedColumns> cache;
+
+    /**
+     * Create cache
+     *
+     * @param cacheBudget max number of bytes of decoded segments kept at the same time
+     */
+    public DecodedSegmentCache(long cacheBudget) {
+        this.cache = new ClockCache<>(cacheBudget, CompressedSegment.DecodedColumns::getBytes);
+    }
+
+    /**
+     * Get columns of decoded segment
+     *
+     * @param segment compressed segment
+     * @return columns
+     */
+    CompressedSegment.DecodedColumns get(CompressedSegment segment) {
+        return cache.get(segment, CompressedSegment::decode);
+    }
+
+    /**
+     * Get number of segment accesses answered from cache of decoded segments
+     *
+     * @return number of accesses since start
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Get number of segment accesses which decoded a segment
+     *
+     * @return number of accesses since start
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Get number of bytes of segments which are decoded by cache
+     *
+     * @return number of bytes
+     */
+    public long getCachedBytes() {
+        return cache.getWeight();
+    }
+}
@@ -0,0 +1,170 @@
+package com.epam.crypto.repository;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic of fixed-point prices, a price is an unscaled long value and a scale (number of decimal digits).
+ * Storage compares prices and computes normalized ranges on unscaled values, {@link BigDecimal} is created
+ * only for the result. Results are exactly equal to the ones computed with {@link BigDecimal}:
+ * when intermediate values don't fit into long, computation falls back to {@link BigDecimal}
+ */
+final class FixedPoint {
+
+    /**
+     * Scale of normalized range
+     */
+    static final int RANGE_SCALE = 6;
+
+    /**
+     * Max scale of price, 10 to the power of max scale fits into long
+     */
+    static final int MAX_SCALE = 18;
+
+    /**
+     * Precision of statistics (mean, variance, return): 16 significant digits rounded half even.
+     * Statistics are computed from exact sums and prices and rounded once, so they are the exact values
+     * correctly rounded to this precision
+     */
+    static final MathContext STATISTICS_CONTEXT = MathContext.DECIMAL64;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    private static final long RANGE_MULTIPLIER;
+
+    // Max dividend and divisor, which can be multiplied by range multiplier without overflow
+    private static final long MAX_MULTIPLICAND;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        RANGE_MULTIPLIER = POWERS_OF_TEN[RANGE_SCALE];
+        MAX_MULTIPLICAND = Long.MAX_VALUE / RANGE_MULTIPLIER;
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Get 10 to the power of exponent
+     *
+     * @param exponent exponent from 0 to max scale
+     * @return power of ten
+     */
+    static long pow10(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Convert price to double (the nearest double if unscaled value has at most 15 digits)
+     *
+     * @param unscaled unscaled value of price
+     * @param scale    scale of price from 0 to max scale
+     * @return price
+     */
+    static double toDouble(long unscaled, int scale) {
+        return unscaled / (double) POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Compare prices of different scales exactly
+     *
+     * @param unscaled      unscaled value of the first price
+     * @param scale         scale of the first price from 0 to max scale
+     * @param otherUnscaled unscaled value of the second price
+     * @param otherScale    scale of the second price from 0 to max scale
+     * @return negative number, zero or positive number if the first price is less than, equal to or greater than the second one
+     */
+    static int compare(long unscaled, int scale, long otherUnscaled, int otherScale) {
+        if (scale == otherScale) {
+            return Long.compare(unscaled, otherUnscaled);
+        } else if (scale > otherScale) {
+            return -compare(otherUnscaled, otherScale, unscaled, scale);
+        }
+        long multiplier = POWERS_OF_TEN[otherScale - scale];
+        long high = Math.multiplyHigh(unscaled, multiplier);
+        long low = unscaled * multiplier;
+        if (high != low >> 63) {
+            // Rescaled value doesn't fit into long, so it's beyond any value of the other price
+            return high < 0 ? -1 : 1;
+        }
+        return Long.compare(low, otherUnscaled);
+    }
+
+    /**
+     * Compute normalized range (max + min) / min of prices of the same scale
+     *
+     * @param minUnscaled unscaled value of the lowest price
+     * @param maxUnscaled unscaled value of the highest price
+     * @return range with scale 6 rounded half up
+     * @throws ArithmeticException if the lowest price is zero
+     */
+    static BigDecimal normalizedRange(long minUnscaled, long maxUnscaled) {
+        if (minUnscaled <= 0 || maxUnscaled < 0 || minUnscaled > MAX_MULTIPLICAND || maxUnscaled > Long.MAX_VALUE - minUnscaled) {
+            return normalizedRange(BigDecimal.valueOf(minUnscaled), BigDecimal.valueOf(maxUnscaled));
+        }
+        long sum = maxUnscaled + minUnscaled;
+        long integer = sum / minUnscaled;
+        if (integer >= MAX_MULTIPLICAND) {
+            return normalizedRange(BigDecimal.valueOf(minUnscaled), BigDecimal.valueOf(maxUnscaled));
+        }
+        long dividend = (sum % minUnscaled) * RANGE_MULTIPLIER;
+        long quotient = integer * RANGE_MULTIPLIER + dividend / minUnscaled;
+        long remainder = dividend % minUnscaled;
+        // Half up: round away from zero if the remainder is at least a half of the divisor
+        return BigDecimal.valueOf(remainder >= minUnscaled - remainder ? quotient + 1 : quotient, RANGE_SCALE);
+    }
+
+    /**
+     * Compute normalized range (max + min) / min of prices of different scales.
+     * Prices are brought to the greater scale
+     *
+     * @param minUnscaled unscaled value of the lowest price
+     * @param minScale    scale of the lowest price from 0 to max scale
+     * @param maxUnscaled unscaled value of the highest price
+     * @param maxScale    scale of the highest price from 0 to max scale
+     * @return range with scale 6 rounded half up
+     * @throws ArithmeticException if the lowest price is zero
+     */
+    static BigDecimal normalizedRange(long minUnscaled, int minScale, long maxUnscaled, int maxScale) {
+        try {
+            if (minScale < maxScale) {
+                return normalizedRange(Math.multiplyExact(minUnscaled, POWERS_OF_TEN[maxScale - minScale]), maxUnscaled);
+            } else if (minScale > maxScale) {
+                return normalizedRange(minUnscaled, Math.multiplyExact(maxUnscaled, POWERS_OF_TEN[minScale - maxScale]));
+            }
+            return normalizedRange(minUnscaled, maxUnscaled);
+        } catch (ArithmeticException e) {
+            if (minUnscaled == 0) {
+                throw e;
+            }
+            return normalizedRange(BigDecimal.valueOf(minUnscaled, minScale), BigDecimal.valueOf(maxUnscaled, maxScale));
+        }
+    }
+
+    /**
+     * Compute normalized range (max + min) / min of {@link BigDecimal} prices
+     *
+     * @param min the lowest price
+     * @param max the highest price
+     * @return range with scale 6 rounded half up
+     * @throws ArithmeticException if the lowest price is zero
+     */
+    static BigDecimal normalizedRange(BigDecimal min, BigDecimal max) {
+        return max.add(min).divide(min, RANGE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Compute simple return (last - first) / first of prices
+     *
+     * @param first the oldest price
+     * @param last  the newest price
+     * @return return rounded to precision of statistics, null if the oldest price is zero
+     */
+    static BigDecimal returnRate(BigDecimal first, BigDecimal last) {
+        return first.signum() == 0 ? null : last.subtract(first).divide(first, STATISTICS_CONTEXT);
+    }
+}
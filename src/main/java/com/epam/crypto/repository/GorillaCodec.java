@@ -0,0 +1,235 @@
+package com.epam.crypto.repository;
+
+import java.util.Arrays;
+
+/**
+ * Compression of price columns into a bit stream in the manner of Gorilla time series encoding.
+ * The first tick is written as is, every next tick is written as:
+ * <ul>
+ * <li>delta of deltas of timestamps, ticks of regular intervals take 1 bit:
+ * '0' - zero, '10' + 7 bits, '110' + 9 bits, '1110' + 12 bits, '1111' + 64 bits of zigzag value;</li>
+ * <li>delta of unscaled prices, close prices take a few bits: '0' - zero, '10' + bits of zigzag value
+ * in the window of significant bits of the previous value, '11' + 6 bits of window length + bits of value
+ * in the new window;</li>
+ * <li>original scale if prices have different scales: '0' - the same as of the previous price, '1' + 5 bits.</li>
+ * </ul>
+ * Arithmetic wraps around, so any longs are restored exactly
+ */
+final class GorillaCodec {
+
+    private static final int SCALE_BITS = 5;
+
+    private static final int WINDOW_LENGTH_BITS = 6;
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * Encode prices of the range of indexes of series
+     *
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     * @return bit stream
+     */
+    static long[] encode(PriceSeries series, int from, int to) {
+        long[] timestamps = series.getTimestamps();
+        long[] prices = series.getPrices();
+        byte[] scales = series.getScales();
+        BitWriter writer = new BitWriter(to - from);
+        writer.write(timestamps[from], Long.SIZE);
+        writer.write(prices[from], Long.SIZE);
+        if (scales != null) {
+            writer.write(scales[from], SCALE_BITS);
+        }
+        long previousDelta = 0;
+        int window = 0;
+        for (int i = from + 1; i < to; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            writeDeltaOfDelta(writer, zigzag(delta - previousDelta));
+            previousDelta = delta;
+            window = writePriceDelta(writer, zigzag(prices[i] - prices[i - 1]), window);
+            if (scales != null) {
+                if (scales[i] == scales[i - 1]) {
+                    writer.write(0, 1);
+                } else {
+                    writer.write(1, 1);
+                    writer.write(scales[i], SCALE_BITS);
+                }
+            }
+        }
+        return writer.toArray();
+    }
+
+    /**
+     * Decode bit stream into columns
+     *
+     * @param data       bit stream
+     * @param timestamps column of timestamps, its length is number of prices
+     * @param prices     column of unscaled prices
+     * @param scales     column of original scales, null if prices have the common scale
+     */
+    static void decode(long[] data, long[] timestamps, long[] prices, byte[] scales) {
+        BitReader reader = new BitReader(data);
+        timestamps[0] = reader.read(Long.SIZE);
+        prices[0] = reader.read(Long.SIZE);
+        if (scales != null) {
+            scales[0] = (byte) reader.read(SCALE_BITS);
+        }
+        long delta = 0;
+        int window = 0;
+        for (int i = 1; i < timestamps.length; i++) {
+            delta += unzigzag(readDeltaOfDelta(reader));
+            timestamps[i] = timestamps[i - 1] + delta;
+            if (reader.read(1) == 0) {
+                prices[i] = prices[i - 1];
+            } else {
+                if (reader.read(1) == 1) {
+                    window = (int) reader.read(WINDOW_LENGTH_BITS) + 1;
+                }
+                prices[i] = prices[i - 1] + unzigzag(reader.read(window));
+            }
+            if (scales != null) {
+                scales[i] = reader.read(1) == 0 ? scales[i - 1] : (byte) reader.read(SCALE_BITS);
+            }
+        }
+    }
+
+    private static void writeDeltaOfDelta(BitWriter writer, long value) {
+        if (value == 0) {
+            writer.write(0, 1);
+        } else if (value >>> 7 == 0) {
+            writer.write(0b10, 2);
+            writer.write(value, 7);
+        } else if (value >>> 9 == 0) {
+            writer.write(0b110, 3);
+            writer.write(value, 9);
+        } else if (value >>> 12 == 0) {
+            writer.write(0b1110, 4);
+            writer.write(value, 12);
+        } else {
+            writer.write(0b1111, 4);
+            writer.write(value, Long.SIZE);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader reader) {
+        if (reader.read(1) == 0) {
+            return 0;
+        } else if (reader.read(1) == 0) {
+            return reader.read(7);
+        } else if (reader.read(1) == 0) {
+            return reader.read(9);
+        } else if (reader.read(1) == 0) {
+            return reader.read(12);
+        }
+        return reader.read(Long.SIZE);
+    }
+
+    /**
+     * Write zigzag delta of prices. Value is written in the previous window of significant bits if it fits
+     * and the window wastes fewer bits than the header of a new window takes
+     *
+     * @param writer bit writer
+     * @param value  zigzag delta
+     * @param window length of the previous window, 0 if there's no window yet
+     * @return length of window of this value
+     */
+    private static int writePriceDelta(BitWriter writer, long value, int window) {
+        if (value == 0) {
+            writer.write(0, 1);
+            return window;
+        }
+        int length = Long.SIZE - Long.numberOfLeadingZeros(value);
+        if (length <= window && window <= length + WINDOW_LENGTH_BITS) {
+            writer.write(0b10, 2);
+            writer.write(value, window);
+            return window;
+        }
+        writer.write(0b11, 2);
+        writer.write(length - 1, WINDOW_LENGTH_BITS);
+        writer.write(value, length);
+        return length;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writer of bits into growing array of longs, bits are written from the most significant one
+     */
+    private static final class BitWriter {
+
+        private long[] words;
+
+        private int position;
+
+        private BitWriter(int size) {
+            // Regular ticks with close prices take about 2 bytes
+            this.words = new long[Math.max(4, size / 4)];
+        }
+
+        /**
+         * Write the lowest bits of value
+         *
+         * @param value value
+         * @param bits  number of bits from 1 to 64
+         */
+        private void write(long value, int bits) {
+            int word = position >>> 6;
+            if (word + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length + (words.length >> 1) + 2);
+            }
+            long masked = bits == Long.SIZE ? value : value & ((1L << bits) - 1);
+            int free = Long.SIZE - (position & 63);
+            if (bits <= free) {
+                words[word] |= masked << (free - bits);
+            } else {
+                words[word] |= masked >>> (bits - free);
+                words[word + 1] |= masked << (Long.SIZE - (bits - free));
+            }
+            position += bits;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(words, (position + 63) >>> 6);
+        }
+    }
+
+    /**
+     * Reader of bits from array of longs
+     */
+    private static final class BitReader {
+
+        private final long[] words;
+
+        private int position;
+
+        private BitReader(long[] words) {
+            this.words = words;
+        }
+
+        /**
+         * Read bits as the lowest bits of value
+         *
+         * @param bits number of bits from 1 to 64
+         * @return value
+         */
+        private long read(int bits) {
+            int word = position >>> 6;
+            int offset = position & 63;
+            int free = Long.SIZE - offset;
+            long result = (words[word] << offset) >>> (Long.SIZE - bits);
+            if (bits > free) {
+                result |= words[word + 1] >>> (Long.SIZE - (bits - free));
+            }
+            position += bits;
+            return result;
+        }
+    }
+}
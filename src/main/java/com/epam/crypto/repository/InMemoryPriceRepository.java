@@ -3,26 +3,38 @@ package com.epam.crypto.repository;
 import com.epam.crypto.service.DateTimeService;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * In-memory implementation for repository layer for working with prices and ranges
  */
 @Component
-public class InMemoryPriceRepository implements PriceRepository {
+@ConditionalOnProperty(name = "crypto.storage.type", havingValue = "tree")
+public class InMemoryPriceRepository implements PriceRepository, StorageStatistics {
 
     private DateTimeService dateTimeService;
 
-    private Map<String, NavigableMap<Long, BigDecimal>> storage;
+    private SymbolTable<NavigableMap<Long, BigDecimal>> storage;
+
+    private final StorageVersions versions = new StorageVersions();
+
+    private final LongAdder scannedEntries = new LongAdder();
+
+    // Sizes of concurrent maps take linear time, so numbers of prices are counted as they are added
+    private final Map<String, LongAdder> priceCounts = new ConcurrentHashMap<>();
 
     public InMemoryPriceRepository(DateTimeService dateTimeService,
                                    @Qualifier("priceStorage") Map<String, NavigableMap<Long, BigDecimal>> storage) {
         this.dateTimeService = dateTimeService;
-        this.storage = storage;
+        this.storage = new SymbolTable<>(storage);
+        storage.forEach((currencySymbol, map) -> getPriceCounter(currencySymbol).add(map.size()));
     }
 
     /**
@@ -52,6 +64,19 @@ public class InMemoryPriceRepository implements PriceRepository {
         return getOldestPrice(currencySymbol, subStorage);
     }
 
+    /**
+     * Get oldest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, EnumSet.of(Aggregate.FIRST)).getFirst();
+    }
+
     /**
      * Get oldest price for the currency from map
      *
@@ -96,6 +121,19 @@ public class InMemoryPriceRepository implements PriceRepository {
         return getNewestPrice(currencySymbol, subStorage);
     }
 
+    /**
+     * Get newest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, EnumSet.of(Aggregate.LAST)).getLast();
+    }
+
     /**
      * Get newest price for the currency from map
      *
@@ -157,6 +195,19 @@ public class InMemoryPriceRepository implements PriceRepository {
         return getLowestPrice(currencySymbol, subStorage);
     }
 
+    /**
+     * Get lowest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, EnumSet.of(Aggregate.MIN)).getMin();
+    }
+
     /**
      * Get lowest price for the currency from map
      *
@@ -165,12 +216,7 @@ public class InMemoryPriceRepository implements PriceRepository {
      * @return pair tuple of timestamp and price
      */
     private Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, NavigableMap<Long, BigDecimal> map) {
-        return Optional.ofNullable(map).stream()
-                .filter(Objects::nonNull)
-                .flatMap(navigableMap -> navigableMap.entrySet().stream())
-                .min(Comparator.comparing(Map.Entry::getValue))
-                .map(entry -> Pair.of(entry.getKey(), entry.getValue()))
-                .orElse(null);
+        return getAggregates(map, EnumSet.of(Aggregate.MIN)).getMin();
     }
 
     /**
@@ -217,6 +263,19 @@ public class InMemoryPriceRepository implements PriceRepository {
         return getHighestPrice(currencySymbol, subStorage);
     }
 
+    /**
+     * Get highest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, EnumSet.of(Aggregate.MAX)).getMax();
+    }
+
     /**
      * Get highest price for the currency from map
      *
@@ -225,12 +284,7 @@ public class InMemoryPriceRepository implements PriceRepository {
      * @return pair tuple of timestamp and price
      */
     private Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, NavigableMap<Long, BigDecimal> map) {
-        return Optional.ofNullable(map).stream()
-                .filter(Objects::nonNull)
-                .flatMap(navigableMap -> navigableMap.entrySet().stream())
-                .max(Comparator.comparing(Map.Entry::getValue))
-                .map(entry -> Pair.of(entry.getKey(), entry.getValue()))
-                .orElse(null);
+        return getAggregates(map, EnumSet.of(Aggregate.MAX)).getMax();
     }
 
     /**
@@ -241,12 +295,7 @@ public class InMemoryPriceRepository implements PriceRepository {
      */
     @Override
     public BigDecimal getNormalizedRange(String currencySymbol) {
-        BigDecimal max = getPriceFromPair(getHighestPrice(currencySymbol));
-        BigDecimal min = getPriceFromPair(getLowestPrice(currencySymbol));
-        if (max == null || min == null) {
-            return null;
-        }
-        return max.add(min).divide(min, 6, RoundingMode.HALF_UP);
+        return getAggregates(currencySymbol, EnumSet.of(Aggregate.RANGE)).getRange();
     }
 
     /**
@@ -260,12 +309,222 @@ public class InMemoryPriceRepository implements PriceRepository {
      */
     @Override
     public BigDecimal getNormalizedRange(String currencySymbol, int year, int month, int day) {
-        BigDecimal max = getPriceFromPair(getHighestPrice(currencySymbol, year, month, day));
-        BigDecimal min = getPriceFromPair(getLowestPrice(currencySymbol, year, month, day));
-        if (max == null || min == null) {
-            return null;
+        long startTimestamp = dateTimeService.getStartTimeStamp(year, month, day);
+        long endTimestamp = dateTimeService.getEndTimeStamp(year, month, day);
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, EnumSet.of(Aggregate.RANGE)).getRange();
+    }
+
+    /**
+     * Get normalized range for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, EnumSet.of(Aggregate.RANGE)).getRange();
+    }
+
+    /**
+     * Get normalized range for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    @Override
+    public BigDecimal getNormalizedRange(int currencyId, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencyId, startTimestamp, endTimestamp, EnumSet.of(Aggregate.RANGE)).getRange();
+    }
+
+    /**
+     * Get aggregates of prices for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed in one pass
+     */
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, Set<Aggregate> aggregates) {
+        return getAggregates(getSubStorage(currencySymbol), aggregates);
+    }
+
+    /**
+     * Get aggregates of prices for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed in one pass
+     */
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        var subStorage = getSubStorage(currencySymbol);
+        return getAggregates(subStorage == null ? null : subStorage.subMap(startTimestamp, true, endTimestamp, true), aggregates);
+    }
+
+    /**
+     * Get aggregates of prices for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed in one pass
+     */
+    @Override
+    public PriceAggregates getAggregates(int currencyId, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        var subStorage = this.storage.get(currencyId);
+        return getAggregates(subStorage == null ? null : subStorage.subMap(startTimestamp, true, endTimestamp, true), aggregates);
+    }
+
+    /**
+     * Get aggregates of prices from map. Oldest and newest prices are taken from the ends of map,
+     * other aggregates (including sums for mean and variance) are computed in one pass over map
+     *
+     * @param map        map of prices where keys are timestamps and values are prices
+     * @param aggregates aggregates to compute
+     * @return aggregates
+     */
+    private PriceAggregates getAggregates(NavigableMap<Long, BigDecimal> map, Set<Aggregate> aggregates) {
+        var builder = PriceAggregates.builder();
+        boolean range = aggregates.contains(Aggregate.RANGE);
+        boolean statistics = aggregates.contains(Aggregate.MEAN) || aggregates.contains(Aggregate.VARIANCE);
+        boolean scan = range || statistics || aggregates.contains(Aggregate.MIN) || aggregates.contains(Aggregate.MAX)
+                || aggregates.contains(Aggregate.COUNT);
+        Map.Entry<Long, BigDecimal> first = null;
+        Map.Entry<Long, BigDecimal> last = null;
+        Map.Entry<Long, BigDecimal> min = null;
+        Map.Entry<Long, BigDecimal> max = null;
+        long count = 0;
+        BigDecimal sum = BigDecimal.ZERO;
+        BigDecimal sumOfSquares = BigDecimal.ZERO;
+        if (map != null && scan) {
+            for (Map.Entry<Long, BigDecimal> entry : map.entrySet()) {
+                if (statistics) {
+                    sum = sum.add(entry.getValue());
+                    sumOfSquares = sumOfSquares.add(entry.getValue().multiply(entry.getValue()));
+                }
+                if (first == null) {
+                    first = entry;
+                }
+                last = entry;
+                if (min == null || entry.getValue().compareTo(min.getValue()) < 0) {
+                    min = entry;
+                }
+                if (max == null || entry.getValue().compareTo(max.getValue()) > 0) {
+                    max = entry;
+                }
+                count++;
+            }
+            this.scannedEntries.add(count);
+        } else if (map != null) {
+            first = map.firstEntry();
+            last = map.lastEntry();
+        }
+
+        if (aggregates.contains(Aggregate.COUNT)) {
+            builder.count(count);
+        }
+        if (aggregates.contains(Aggregate.FIRST)) {
+            builder.first(toPair(first));
+        }
+        if (aggregates.contains(Aggregate.LAST)) {
+            builder.last(toPair(last));
+        }
+        if (aggregates.contains(Aggregate.MIN)) {
+            builder.min(toPair(min));
+        }
+        if (aggregates.contains(Aggregate.MAX)) {
+            builder.max(toPair(max));
+        }
+        if (range && min != null) {
+            builder.range(FixedPoint.normalizedRange(min.getValue(), max.getValue()));
+        }
+        PriceSums sums = new PriceSums(count, sum, sumOfSquares);
+        if (aggregates.contains(Aggregate.MEAN)) {
+            builder.mean(sums.getMean());
+        }
+        if (aggregates.contains(Aggregate.VARIANCE)) {
+            builder.variance(sums.getVariance());
+        }
+        if (aggregates.contains(Aggregate.RETURN) && first != null) {
+            builder.returnRate(FixedPoint.returnRate(first.getValue(), last.getValue()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get prices for the currency in the time window.
+     * Prices added while prices are iterated may be included or not
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return iterator of pair tuples of timestamp and price in chronological order
+     */
+    @Override
+    public Iterator<Pair<Long, BigDecimal>> getPrices(String currencySymbol, long startTimestamp, long endTimestamp) {
+        var subStorage = getSubStorage(currencySymbol);
+        if (subStorage == null) {
+            return Collections.emptyIterator();
+        }
+        var entries = subStorage.subMap(startTimestamp, true, endTimestamp, true).entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Pair<Long, BigDecimal> next() {
+                return toPair(entries.next());
+            }
+        };
+    }
+
+    /**
+     * Get candles of prices for the currency in the time window.
+     * Prices added while candles are iterated may be included or not
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param interval       length of interval in milliseconds, must be positive
+     * @return iterator of candles in chronological order
+     */
+    @Override
+    public Iterator<PriceCandle> getCandles(String currencySymbol, long startTimestamp, long endTimestamp, long interval) {
+        var subStorage = getSubStorage(currencySymbol);
+        if (subStorage == null) {
+            return Collections.emptyIterator();
+        }
+        return new CandleIterator(subStorage.subMap(startTimestamp, true, endTimestamp, true).entrySet().iterator(), interval);
+    }
+
+    /**
+     * Sample prices of the currency with identifier onto time grid: for every point start + i * interval
+     * the newest price at or before the point is written as double, NaN if there's no such price.
+     * Every point takes one lookup of floor entry in map
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp first point of grid in milliseconds
+     * @param interval       distance between points of grid in milliseconds, must be positive
+     * @param samples        array of samples
+     * @param offset         index of the sample of the first point in array
+     * @param count          number of points of grid
+     */
+    @Override
+    public void samplePrices(int currencyId, long startTimestamp, long interval, double[] samples, int offset, int count) {
+        NavigableMap<Long, BigDecimal> map = this.storage.get(currencyId);
+        for (int i = 0; i < count; i++) {
+            Map.Entry<Long, BigDecimal> entry = map == null ? null : map.floorEntry(startTimestamp + i * interval);
+            samples[offset + i] = entry == null ? Double.NaN : entry.getValue().doubleValue();
         }
-        return max.add(min).divide(min, 6, RoundingMode.HALF_UP);
     }
 
     /**
@@ -275,7 +534,111 @@ public class InMemoryPriceRepository implements PriceRepository {
      */
     @Override
     public Set<String> getCurrencies() {
-        return this.storage.keySet();
+        return this.storage.getSymbols();
+    }
+
+    /**
+     * Get identifier of currency, identifiers are assigned when currencies are added to storage
+     *
+     * @param currencySymbol currency symbol
+     * @return identifier, -1 if currency isn't represented in storage
+     */
+    @Override
+    public int getCurrencyId(String currencySymbol) {
+        return this.storage.getId(currencySymbol);
+    }
+
+    /**
+     * Get currency symbol by identifier
+     *
+     * @param currencyId currency identifier from 0 to number of currencies - 1
+     * @return currency symbol
+     */
+    @Override
+    public String getCurrencySymbol(int currencyId) {
+        return this.storage.getSymbol(currencyId);
+    }
+
+    /**
+     * Get number of currencies represented in storage
+     *
+     * @return number of currencies
+     */
+    @Override
+    public int getCurrencyCount() {
+        return this.storage.size();
+    }
+
+    /**
+     * Add prices for the currency (the currency is added if it's not represented in storage yet).
+     * Prices are merged into a copy of the map of currency, which replaces the map at once, so readers see
+     * all prices of the call or none of them. Maps of storage are never changed after they are published,
+     * adding costs time linear in the number of prices of currency
+     *
+     * @param currencySymbol currency symbol
+     * @param prices         list of pair tuples of timestamp and price
+     */
+    @Override
+    public void addPrices(String currencySymbol, List<Pair<Long, BigDecimal>> prices) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        var priceCounter = getPriceCounter(currencySymbol);
+        this.storage.compute(currencySymbol, map -> {
+            NavigableMap<Long, BigDecimal> merged = map == null ? new ConcurrentSkipListMap<>() : new ConcurrentSkipListMap<>(map);
+            long added = 0;
+            for (Pair<Long, BigDecimal> price : prices) {
+                if (merged.put(price.getKey(), price.getValue()) == null) {
+                    added++;
+                }
+            }
+            priceCounter.add(added);
+            return merged;
+        });
+        this.versions.update();
+    }
+
+    /**
+     * Get version of storage, it's changed every time prices are added
+     *
+     * @return version
+     */
+    @Override
+    public long getVersion() {
+        return this.versions.getVersion();
+    }
+
+    /**
+     * Get total number of price entries compared one by one while answering queries
+     * (entries of maps scanned for lowest and highest prices)
+     *
+     * @return number of entries since start
+     */
+    @Override
+    public long getScannedEntries() {
+        return this.scannedEntries.sum();
+    }
+
+    /**
+     * Get number of prices of the currency, it's counted as prices are added
+     *
+     * @param currencySymbol currency symbol
+     * @return number of prices, 0 if currency isn't represented in storage
+     */
+    @Override
+    public long getPriceCount(String currencySymbol) {
+        var priceCounter = this.priceCounts.get(currencySymbol);
+        return priceCounter == null ? 0 : priceCounter.sum();
+    }
+
+    /**
+     * Get counter of prices of the currency, it's created on first use
+     *
+     * @param currencySymbol currency symbol
+     * @return counter
+     */
+    private LongAdder getPriceCounter(String currencySymbol) {
+        return this.priceCounts.computeIfAbsent(currencySymbol, symbol -> new LongAdder());
     }
 
     /**
@@ -288,6 +651,16 @@ public class InMemoryPriceRepository implements PriceRepository {
         return this.storage.get(currencySymbol);
     }
 
+    /**
+     * Convert map entry to pair tuple
+     *
+     * @param entry map entry with timestamp and price
+     * @return pair tuple of timestamp and price, null if entry is null
+     */
+    private Pair<Long, BigDecimal> toPair(Map.Entry<Long, BigDecimal> entry) {
+        return entry == null ? null : Pair.of(entry.getKey(), entry.getValue());
+    }
+
     /**
      * Extract price from pair tuple
      *
@@ -303,4 +676,64 @@ public class InMemoryPriceRepository implements PriceRepository {
                 .findAny()
                 .orElse(null);
     }
+
+    /**
+     * Iterator of candles over entries of map, every candle is computed from consecutive entries
+     */
+    private class CandleIterator implements Iterator<PriceCandle> {
+
+        private final Iterator<Map.Entry<Long, BigDecimal>> entries;
+
+        private final long interval;
+
+        private Map.Entry<Long, BigDecimal> pending;
+
+        private CandleIterator(Iterator<Map.Entry<Long, BigDecimal>> entries, long interval) {
+            this.entries = entries;
+            this.interval = interval;
+            this.pending = entries.hasNext() ? entries.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public PriceCandle next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long intervalStart = Math.floorDiv(pending.getKey(), interval) * interval;
+            BigDecimal open = pending.getValue();
+            BigDecimal low = open;
+            BigDecimal high = open;
+            BigDecimal close = open;
+            long count = 1;
+            pending = null;
+            while (entries.hasNext()) {
+                var entry = entries.next();
+                if (entry.getKey() - intervalStart >= interval) {
+                    pending = entry;
+                    break;
+                }
+                close = entry.getValue();
+                if (close.compareTo(low) < 0) {
+                    low = close;
+                } else if (close.compareTo(high) > 0) {
+                    high = close;
+                }
+                count++;
+            }
+            scannedEntries.add(count);
+            return PriceCandle.builder()
+                    .timestamp(intervalStart)
+                    .open(open)
+                    .high(high)
+                    .low(low)
+                    .close(close)
+                    .count(count)
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,462 @@
+package com.epam.crypto.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator of repository which records metrics: latency of every kind of query (timers with percentiles),
+ * number of prices of every currency and number of scanned entries (if repository provides {@link StorageStatistics}).
+ * Timers are registered in advance and gauges are registered when currency appears,
+ * so recording a query doesn't allocate memory
+ */
+public class MeteredPriceRepository implements PriceRepository {
+
+    static final String QUERY_TIMER = "crypto.repository.query";
+
+    static final String SCANNED_ENTRIES_COUNTER = "crypto.repository.scanned.entries";
+
+    static final String PRICES_GAUGE = "crypto.storage.prices";
+
+    private final PriceRepository delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> meteredCurrencies = ConcurrentHashMap.newKeySet();
+
+    private final Timer oldestPriceForAllTime;
+
+    private final Timer oldestPriceForMonth;
+
+    private final Timer newestPriceForAllTime;
+
+    private final Timer newestPriceForMonth;
+
+    private final Timer lowestPriceForAllTime;
+
+    private final Timer lowestPriceForMonth;
+
+    private final Timer lowestPriceForDay;
+
+    private final Timer highestPriceForAllTime;
+
+    private final Timer highestPriceForMonth;
+
+    private final Timer highestPriceForDay;
+
+    private final Timer rangeForAllTime;
+
+    private final Timer rangeForDay;
+
+    private final Timer oldestPriceForWindow;
+
+    private final Timer newestPriceForWindow;
+
+    private final Timer lowestPriceForWindow;
+
+    private final Timer highestPriceForWindow;
+
+    private final Timer rangeForWindow;
+
+    private final Timer pricesForWindow;
+
+    private final Timer candlesForWindow;
+
+    private final Timer aggregatesForAllTime;
+
+    private final Timer aggregatesForWindow;
+
+    private final Timer samplesForWindow;
+
+    private final Timer addPrices;
+
+    public MeteredPriceRepository(PriceRepository delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.oldestPriceForAllTime = registerTimer("oldest", "all");
+        this.oldestPriceForMonth = registerTimer("oldest", "month");
+        this.newestPriceForAllTime = registerTimer("newest", "all");
+        this.newestPriceForMonth = registerTimer("newest", "month");
+        this.lowestPriceForAllTime = registerTimer("lowest", "all");
+        this.lowestPriceForMonth = registerTimer("lowest", "month");
+        this.lowestPriceForDay = registerTimer("lowest", "day");
+        this.highestPriceForAllTime = registerTimer("highest", "all");
+        this.highestPriceForMonth = registerTimer("highest", "month");
+        this.highestPriceForDay = registerTimer("highest", "day");
+        this.rangeForAllTime = registerTimer("range", "all");
+        this.rangeForDay = registerTimer("range", "day");
+        this.oldestPriceForWindow = registerTimer("oldest", "window");
+        this.newestPriceForWindow = registerTimer("newest", "window");
+        this.lowestPriceForWindow = registerTimer("lowest", "window");
+        this.highestPriceForWindow = registerTimer("highest", "window");
+        this.rangeForWindow = registerTimer("range", "window");
+        this.pricesForWindow = registerTimer("prices", "window");
+        this.candlesForWindow = registerTimer("candles", "window");
+        this.aggregatesForAllTime = registerTimer("aggregates", "all");
+        this.aggregatesForWindow = registerTimer("aggregates", "window");
+        this.samplesForWindow = registerTimer("samples", "window");
+        this.addPrices = registerTimer("add", "all");
+        if (delegate instanceof StorageStatistics statistics) {
+            FunctionCounter.builder(SCANNED_ENTRIES_COUNTER, statistics, StorageStatistics::getScannedEntries)
+                    .description("Number of price entries compared one by one while answering queries")
+                    .register(meterRegistry);
+        }
+        delegate.getCurrencies().forEach(this::registerPricesGauge);
+    }
+
+    /**
+     * Get decorated repository
+     *
+     * @return repository
+     */
+    public PriceRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getOldestPrice(currencySymbol);
+        } finally {
+            record(oldestPriceForAllTime, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, int year, int month) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getOldestPrice(currencySymbol, year, month);
+        } finally {
+            record(oldestPriceForMonth, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNewestPrice(currencySymbol);
+        } finally {
+            record(newestPriceForAllTime, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, int year, int month) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNewestPrice(currencySymbol, year, month);
+        } finally {
+            record(newestPriceForMonth, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getLowestPrice(currencySymbol);
+        } finally {
+            record(lowestPriceForAllTime, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getLowestPrice(currencySymbol, year, month);
+        } finally {
+            record(lowestPriceForMonth, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month, int day) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getLowestPrice(currencySymbol, year, month, day);
+        } finally {
+            record(lowestPriceForDay, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getHighestPrice(currencySymbol);
+        } finally {
+            record(highestPriceForAllTime, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getHighestPrice(currencySymbol, year, month);
+        } finally {
+            record(highestPriceForMonth, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month, int day) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getHighestPrice(currencySymbol, year, month, day);
+        } finally {
+            record(highestPriceForDay, startTime);
+        }
+    }
+
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNormalizedRange(currencySymbol);
+        } finally {
+            record(rangeForAllTime, startTime);
+        }
+    }
+
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, int year, int month, int day) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNormalizedRange(currencySymbol, year, month, day);
+        } finally {
+            record(rangeForDay, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getOldestPrice(currencySymbol, startTimestamp, endTimestamp);
+        } finally {
+            record(oldestPriceForWindow, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNewestPrice(currencySymbol, startTimestamp, endTimestamp);
+        } finally {
+            record(newestPriceForWindow, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getLowestPrice(currencySymbol, startTimestamp, endTimestamp);
+        } finally {
+            record(lowestPriceForWindow, startTime);
+        }
+    }
+
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getHighestPrice(currencySymbol, startTimestamp, endTimestamp);
+        } finally {
+            record(highestPriceForWindow, startTime);
+        }
+    }
+
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNormalizedRange(currencySymbol, startTimestamp, endTimestamp);
+        } finally {
+            record(rangeForWindow, startTime);
+        }
+    }
+
+    @Override
+    public BigDecimal getNormalizedRange(int currencyId, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getNormalizedRange(currencyId, startTimestamp, endTimestamp);
+        } finally {
+            record(rangeForWindow, startTime);
+        }
+    }
+
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, Set<Aggregate> aggregates) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getAggregates(currencySymbol, aggregates);
+        } finally {
+            record(aggregatesForAllTime, startTime);
+        }
+    }
+
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getAggregates(currencySymbol, startTimestamp, endTimestamp, aggregates);
+        } finally {
+            record(aggregatesForWindow, startTime);
+        }
+    }
+
+    @Override
+    public PriceAggregates getAggregates(int currencyId, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.getAggregates(currencyId, startTimestamp, endTimestamp, aggregates);
+        } finally {
+            record(aggregatesForWindow, startTime);
+        }
+    }
+
+    @Override
+    public void samplePrices(int currencyId, long startTimestamp, long interval, double[] samples, int offset, int count) {
+        long startTime = System.nanoTime();
+        try {
+            delegate.samplePrices(currencyId, startTimestamp, interval, samples, offset, count);
+        } finally {
+            record(samplesForWindow, startTime);
+        }
+    }
+
+    @Override
+    public Iterator<Pair<Long, BigDecimal>> getPrices(String currencySymbol, long startTimestamp, long endTimestamp) {
+        long startTime = System.nanoTime();
+        var prices = delegate.getPrices(currencySymbol, startTimestamp, endTimestamp);
+        return new TimedIterator<>(prices, pricesForWindow, System.nanoTime() - startTime);
+    }
+
+    @Override
+    public Iterator<PriceCandle> getCandles(String currencySymbol, long startTimestamp, long endTimestamp, long interval) {
+        long startTime = System.nanoTime();
+        var candles = delegate.getCandles(currencySymbol, startTimestamp, endTimestamp, interval);
+        return new TimedIterator<>(candles, candlesForWindow, System.nanoTime() - startTime);
+    }
+
+    @Override
+    public Set<String> getCurrencies() {
+        return delegate.getCurrencies();
+    }
+
+    @Override
+    public int getCurrencyId(String currencySymbol) {
+        return delegate.getCurrencyId(currencySymbol);
+    }
+
+    @Override
+    public String getCurrencySymbol(int currencyId) {
+        return delegate.getCurrencySymbol(currencyId);
+    }
+
+    @Override
+    public int getCurrencyCount() {
+        return delegate.getCurrencyCount();
+    }
+
+    @Override
+    public void addPrices(String currencySymbol, List<Pair<Long, BigDecimal>> prices) {
+        long startTime = System.nanoTime();
+        try {
+            delegate.addPrices(currencySymbol, prices);
+        } finally {
+            record(addPrices, startTime);
+        }
+        if (!meteredCurrencies.contains(currencySymbol)) {
+            registerPricesGauge(currencySymbol);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    private Timer registerTimer(String query, String period) {
+        return Timer.builder(QUERY_TIMER)
+                .description("Latency of repository queries")
+                .tag("query", query)
+                .tag("period", period)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void registerPricesGauge(String currencySymbol) {
+        if (delegate instanceof StorageStatistics statistics && meteredCurrencies.add(currencySymbol)) {
+            Gauge.builder(PRICES_GAUGE, statistics, storage -> storage.getPriceCount(currencySymbol))
+                    .description("Number of prices of currency")
+                    .tag("currency", currencySymbol)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static void record(Timer timer, long startTime) {
+        timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Iterator of lazily computed results which records time of computing all of them when it's exhausted.
+     * Time of consumer between results is not recorded
+     *
+     * @param <T> type of results
+     */
+    private static class TimedIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> iterator;
+
+        private final Timer timer;
+
+        private long duration;
+
+        private boolean recorded;
+
+        private TimedIterator(Iterator<T> iterator, Timer timer, long duration) {
+            this.iterator = iterator;
+            this.timer = timer;
+            this.duration = duration;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = iterator.hasNext();
+            if (!hasNext && !recorded) {
+                recorded = true;
+                timer.record(duration, TimeUnit.NANOSECONDS);
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            long startTime = System.nanoTime();
+            try {
+                return iterator.next();
+            } finally {
+                duration += System.nanoTime() - startTime;
+            }
+        }
+    }
+}
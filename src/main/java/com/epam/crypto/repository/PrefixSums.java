@@ -0,0 +1,216 @@
+package com.epam.crypto.repository;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Prefix sums of a column for finding sum of values and sum of their squares in any range.
+ * Column is split into blocks of {@value #BLOCK_SIZE} values, sums of all values before every block boundary
+ * are kept as {@link BigInteger}s, so they never overflow and are exact for any number of values.
+ * A query subtracts sums of two boundaries and scans at most two partial blocks, so it takes constant time
+ * (besides arithmetic of big integers), and prefix sums take about 2 bytes per value.
+ * <p>
+ * Prefix sums are immutable for readers: appending values returns new prefix sums which share arrays
+ * with the previous ones and write only cells the previous ones never read.
+ */
+public class PrefixSums {
+
+    private static final int BLOCK_SHIFT = 6;
+
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    // Max absolute value, squares of which can be added up in a partial block without overflow of 128 bits
+    private static final long MAX_SCANNED_VALUE = 1L << 56;
+
+    private static final BigInteger TWO_TO_64 = BigInteger.ONE.shiftLeft(64);
+
+    private final BigInteger[] sums;
+
+    private final BigInteger[] squares;
+
+    private final int blocks;
+
+    private PrefixSums(BigInteger[] sums, BigInteger[] squares, int blocks) {
+        this.sums = sums;
+        this.squares = squares;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Build prefix sums of the column
+     *
+     * @param values column of values
+     * @param size   number of values in column
+     * @return prefix sums
+     */
+    public static PrefixSums build(long[] values, int size) {
+        int blocks = size >> BLOCK_SHIFT;
+        BigInteger[] sums = new BigInteger[blocks + 1];
+        BigInteger[] squares = new BigInteger[blocks + 1];
+        sums[0] = BigInteger.ZERO;
+        squares[0] = BigInteger.ZERO;
+        Accumulator accumulator = new Accumulator();
+        for (int block = 0; block < blocks; block++) {
+            int from = block << BLOCK_SHIFT;
+            accumulator.reset().add(values, from, from + BLOCK_SIZE);
+            sums[block + 1] = sums[block].add(accumulator.sum());
+            squares[block + 1] = squares[block].add(accumulator.squares());
+        }
+        return new PrefixSums(sums, squares, blocks);
+    }
+
+    /**
+     * Get prefix sums of the column after values were appended to it
+     *
+     * @param values column of values (the same or grown copy of the column these sums were built for)
+     * @param size   new number of values in column, not more than {@value #BLOCK_SIZE} values greater than before
+     * @return these prefix sums if no block was completed, new prefix sums otherwise
+     */
+    public PrefixSums append(long[] values, int size) {
+        int block = blocks;
+        if ((size >> BLOCK_SHIFT) == block) {
+            return this;
+        }
+        BigInteger[] newSums = sums;
+        BigInteger[] newSquares = squares;
+        if (block + 1 == sums.length) {
+            int capacity = sums.length + (sums.length >> 1) + 1;
+            newSums = Arrays.copyOf(sums, capacity);
+            newSquares = Arrays.copyOf(squares, capacity);
+        }
+        int from = block << BLOCK_SHIFT;
+        Accumulator accumulator = new Accumulator().add(values, from, from + BLOCK_SIZE);
+        newSums[block + 1] = newSums[block].add(accumulator.sum());
+        newSquares[block + 1] = newSquares[block].add(accumulator.squares());
+        return new PrefixSums(newSums, newSquares, block + 1);
+    }
+
+    /**
+     * Get prefix sums of the first values of the column. Arrays are copied without recomputation,
+     * so values appended after the first ones don't change these prefix sums
+     *
+     * @param size number of the first values, not more than number of values of these prefix sums
+     * @return new prefix sums
+     */
+    public PrefixSums truncate(int size) {
+        return new PrefixSums(sums.clone(), squares.clone(), Math.min(blocks, size >> BLOCK_SHIFT));
+    }
+
+    /**
+     * Get sum of values in the range
+     *
+     * @param values column of values the prefix sums were built for
+     * @param from   first position (inclusive)
+     * @param to     last position (exclusive)
+     * @return exact sum
+     */
+    public BigInteger sum(long[] values, int from, int to) {
+        return query(values, from, to, false);
+    }
+
+    /**
+     * Get sum of squares of values in the range
+     *
+     * @param values column of values the prefix sums were built for
+     * @param from   first position (inclusive)
+     * @param to     last position (exclusive)
+     * @return exact sum of squares
+     */
+    public BigInteger sumOfSquares(long[] values, int from, int to) {
+        return query(values, from, to, true);
+    }
+
+    /**
+     * Get sum of values or of their squares in the range: sums of whole blocks are taken from prefix sums,
+     * values of partial blocks are scanned
+     *
+     * @param values  column of values
+     * @param from    first position (inclusive)
+     * @param to      last position (exclusive)
+     * @param squared whether squares of values are summed
+     * @return exact sum
+     */
+    private BigInteger query(long[] values, int from, int to, boolean squared) {
+        int firstBoundary = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBoundary = to >> BLOCK_SHIFT;
+        Accumulator accumulator = new Accumulator();
+        if (firstBoundary >= lastBoundary) {
+            accumulator.add(values, from, to);
+            return squared ? accumulator.squares() : accumulator.sum();
+        }
+        accumulator.add(values, from, firstBoundary << BLOCK_SHIFT).add(values, lastBoundary << BLOCK_SHIFT, to);
+        BigInteger[] prefixes = squared ? squares : sums;
+        return prefixes[lastBoundary].subtract(prefixes[firstBoundary]).add(squared ? accumulator.squares() : accumulator.sum());
+    }
+
+    /**
+     * Sum of a few values and of their squares. Values are added up in 128-bit arithmetic of longs,
+     * sums are switched to {@link BigInteger} only if a value is too large to be added this way
+     */
+    private static final class Accumulator {
+
+        private long sum;
+
+        private long squaresHigh;
+
+        private long squaresLow;
+
+        private BigInteger bigSum;
+
+        private BigInteger bigSquares;
+
+        private Accumulator reset() {
+            sum = 0;
+            squaresHigh = 0;
+            squaresLow = 0;
+            bigSum = null;
+            bigSquares = null;
+            return this;
+        }
+
+        /**
+         * Add values of the range, there are at most two blocks of values in accumulator
+         *
+         * @param values column of values
+         * @param from   first position (inclusive)
+         * @param to     last position (exclusive)
+         * @return this accumulator
+         */
+        private Accumulator add(long[] values, int from, int to) {
+            for (int i = from; i < to; i++) {
+                long value = values[i];
+                if (bigSum == null && value > -MAX_SCANNED_VALUE && value < MAX_SCANNED_VALUE) {
+                    sum += value;
+                    long low = value * value;
+                    long newLow = squaresLow + low;
+                    squaresHigh += Math.multiplyHigh(value, value) + (Long.compareUnsigned(newLow, squaresLow) < 0 ? 1 : 0);
+                    squaresLow = newLow;
+                } else {
+                    if (bigSum == null) {
+                        bigSum = sum();
+                        bigSquares = squares();
+                    }
+                    BigInteger bigValue = BigInteger.valueOf(value);
+                    bigSum = bigSum.add(bigValue);
+                    bigSquares = bigSquares.add(bigValue.multiply(bigValue));
+                }
+            }
+            return this;
+        }
+
+        private BigInteger sum() {
+            return bigSum != null ? bigSum : BigInteger.valueOf(sum);
+        }
+
+        private BigInteger squares() {
+            if (bigSquares != null) {
+                return bigSquares;
+            }
+            BigInteger low = BigInteger.valueOf(squaresLow);
+            if (squaresLow < 0) {
+                low = low.add(TWO_TO_64);
+            }
+            return squaresHigh == 0 ? low : BigInteger.valueOf(squaresHigh).shiftLeft(64).add(low);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.epam.crypto.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregates of prices for a time window, computed from the same state of storage.
+ * Aggregates which weren't requested or can't be computed (there are no prices in the window) are null.
+ * Statistics (mean, variance and return) are rounded to 16 significant digits
+ */
+@Builder
+@Getter
+public class PriceAggregates {
+
+    /**
+     * Oldest price as pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> first;
+
+    /**
+     * Newest price as pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> last;
+
+    /**
+     * Lowest price as pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> min;
+
+    /**
+     * Highest price as pair tuple of timestamp and price
+     */
+    private Pair<Long, BigDecimal> max;
+
+    /**
+     * Number of prices
+     */
+    private Long count;
+
+    /**
+     * Normalized range
+     */
+    private BigDecimal range;
+
+    /**
+     * Mean price
+     */
+    private BigDecimal mean;
+
+    /**
+     * Population variance of prices
+     */
+    private BigDecimal variance;
+
+    /**
+     * Simple return from the oldest price to the newest one
+     */
+    private BigDecimal returnRate;
+
+    /**
+     * Get population standard deviation of prices: square root of variance
+     *
+     * @return standard deviation rounded to 16 significant digits, null if variance is null
+     */
+    public BigDecimal getStandardDeviation() {
+        return variance == null ? null : variance.sqrt(FixedPoint.STATISTICS_CONTEXT);
+    }
+}
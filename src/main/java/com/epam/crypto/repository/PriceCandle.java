@@ -0,0 +1,44 @@
+package com.epam.crypto.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Candle of prices: open, high, low and close prices in an interval of time
+ */
+@Builder
+@Getter
+public class PriceCandle {
+
+    /**
+     * Start of interval in milliseconds
+     */
+    private long timestamp;
+
+    /**
+     * Open (oldest) price of interval
+     */
+    private BigDecimal open;
+
+    /**
+     * Highest price of interval
+     */
+    private BigDecimal high;
+
+    /**
+     * Lowest price of interval
+     */
+    private BigDecimal low;
+
+    /**
+     * Close (newest) price of interval
+     */
+    private BigDecimal close;
+
+    /**
+     * Number of prices in interval
+     */
+    private long count;
+}
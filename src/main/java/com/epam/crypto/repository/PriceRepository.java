@@ -3,6 +3,8 @@ package com.epam.crypto.repository;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -28,6 +30,16 @@ public interface PriceRepository {
      */
     Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, int year, int month);
 
+    /**
+     * Get oldest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, long startTimestamp, long endTimestamp);
+
     /**
      * Get newest price for the currency for all time
      *
@@ -46,6 +58,16 @@ public interface PriceRepository {
      */
     Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, int year, int month);
 
+    /**
+     * Get newest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, long startTimestamp, long endTimestamp);
+
     /**
      * Get lowest price for the currency for all time
      *
@@ -75,6 +97,16 @@ public interface PriceRepository {
      */
     Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month, int day);
 
+    /**
+     * Get lowest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, long startTimestamp, long endTimestamp);
+
     /**
      * Get highest price for the currency for all time
      *
@@ -104,6 +136,16 @@ public interface PriceRepository {
      */
     Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month, int day);
 
+    /**
+     * Get highest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, long startTimestamp, long endTimestamp);
+
     /**
      * Get normalized range for the currency for all time
      *
@@ -123,10 +165,140 @@ public interface PriceRepository {
      */
     BigDecimal getNormalizedRange(String currencySymbol, int year, int month, int day);
 
+    /**
+     * Get normalized range for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    BigDecimal getNormalizedRange(String currencySymbol, long startTimestamp, long endTimestamp);
+
+    /**
+     * Get normalized range for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    BigDecimal getNormalizedRange(int currencyId, long startTimestamp, long endTimestamp);
+
+    /**
+     * Get aggregates of prices for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same state of storage
+     */
+    PriceAggregates getAggregates(String currencySymbol, Set<Aggregate> aggregates);
+
+    /**
+     * Get aggregates of prices for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same state of storage
+     */
+    PriceAggregates getAggregates(String currencySymbol, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates);
+
+    /**
+     * Get aggregates of prices for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same state of storage
+     */
+    PriceAggregates getAggregates(int currencyId, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates);
+
+    /**
+     * Get prices for the currency in the time window. Prices are read lazily while iterator is advanced,
+     * so any number of them can be read in constant memory
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return iterator of pair tuples of timestamp and price in chronological order, empty if there are no prices in the window
+     */
+    Iterator<Pair<Long, BigDecimal>> getPrices(String currencySymbol, long startTimestamp, long endTimestamp);
+
+    /**
+     * Get candles of prices for the currency in the time window.
+     * Intervals are aligned to the start of epoch in UTC+0 timezone (so days start at midnight), intervals without prices are skipped.
+     * Candles are computed in one pass over prices while iterator is advanced, so they are never collected in memory
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param interval       length of interval in milliseconds, must be positive
+     * @return iterator of candles in chronological order, empty if there are no prices in the window
+     */
+    Iterator<PriceCandle> getCandles(String currencySymbol, long startTimestamp, long endTimestamp, long interval);
+
+    /**
+     * Sample prices of the currency with identifier onto time grid: for every point start + i * interval
+     * the newest price at or before the point is written as double. Samples are written to the caller's array,
+     * so a series is aligned to the grid without creating objects for prices
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp first point of grid in milliseconds
+     * @param interval       distance between points of grid in milliseconds, must be positive
+     * @param samples        array of samples
+     * @param offset         index of the sample of the first point in array
+     * @param count          number of points of grid
+     */
+    void samplePrices(int currencyId, long startTimestamp, long interval, double[] samples, int offset, int count);
+
     /**
      * Get set of all currencies symbols that represented in storage
      *
      * @return set of currencies symbols
      */
     Set<String> getCurrencies();
+
+    /**
+     * Get identifier of currency. Identifiers are dense: they are assigned from 0 as currencies are added to storage
+     * and never change, so work over all currencies is a sweep over identifiers from 0 to number of currencies - 1
+     *
+     * @param currencySymbol currency symbol
+     * @return identifier, -1 if currency isn't represented in storage
+     */
+    int getCurrencyId(String currencySymbol);
+
+    /**
+     * Get currency symbol by identifier
+     *
+     * @param currencyId currency identifier from 0 to number of currencies - 1
+     * @return currency symbol
+     */
+    String getCurrencySymbol(int currencyId);
+
+    /**
+     * Get number of currencies represented in storage
+     *
+     * @return number of currencies
+     */
+    int getCurrencyCount();
+
+    /**
+     * Add prices for the currency (the currency is added if it's not represented in storage yet).
+     * Prices can be added while other prices are read, readers are never blocked.
+     * If there's a price with the same timestamp, it's replaced
+     *
+     * @param currencySymbol currency symbol
+     * @param prices         list of pair tuples of timestamp and price
+     */
+    void addPrices(String currencySymbol, List<Pair<Long, BigDecimal>> prices);
+
+    /**
+     * Get version of storage, it's changed every time prices are added
+     *
+     * @return version
+     */
+    long getVersion();
 }
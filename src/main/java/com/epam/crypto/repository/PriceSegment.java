@@ -0,0 +1,82 @@
+package com.epam.crypto.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Immutable segment of cold prices of a single currency stored in {@link SegmentStore}.
+ * Segment data has the layout of {@link PriceSeries} columns: little-endian timestamps, unscaled prices
+ * of the common scale and optional original scales.
+ * <p>
+ * Summary of segment is kept in heap, so a query whose time window covers the whole segment or doesn't overlap it
+ * never maps segment data. Only segments partially covered by the window are binary searched and scanned in mapped memory
+ */
+public class PriceSegment extends ColdSegment {
+
+    private final SegmentStore store;
+
+    private final long offset;
+
+    private PriceSegment(SegmentStore store, long offset, PriceSeries series, int from, int to) {
+        super(series, from, to);
+        this.store = store;
+        this.offset = offset;
+    }
+
+    /**
+     * Write prices of the range of indexes of series to store as a new segment
+     *
+     * @param store  store of segments
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     * @return segment
+     */
+    public static PriceSegment write(SegmentStore store, PriceSeries series, int from, int to) {
+        int size = to - from;
+        byte[] scales = series.getScales();
+        ByteBuffer data = ByteBuffer.allocate(2 * Long.BYTES * size + (scales == null ? 0 : size))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        data.asLongBuffer().put(series.getTimestamps(), from, size).put(series.getPrices(), from, size);
+        if (scales != null) {
+            data.position(2 * Long.BYTES * size);
+            data.put(scales, from, size);
+        }
+        long offset = store.append(data.position(0));
+        return new PriceSegment(store, offset, series, from, to);
+    }
+
+    /**
+     * Get columns of segment data mapped into memory
+     *
+     * @return columns
+     */
+    @Override
+    Columns columns() {
+        return new MappedColumns(store.map(offset, 2 * Long.BYTES * size() + (hasScales() ? size() : 0)), size());
+    }
+
+    /**
+     * Columns of mapped segment data
+     *
+     * @param data mapped data
+     * @param size number of prices
+     */
+    private record MappedColumns(ByteBuffer data, int size) implements Columns {
+
+        @Override
+        public long getTimestamp(int index) {
+            return data.getLong(index * Long.BYTES);
+        }
+
+        @Override
+        public long getUnscaledPrice(int index) {
+            return data.getLong((size + index) * Long.BYTES);
+        }
+
+        @Override
+        public int getOriginalScale(int index) {
+            return data.get(2 * Long.BYTES * size + index);
+        }
+    }
+}
@@ -0,0 +1,598 @@
+package com.epam.crypto.repository;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Columnar storage of prices for a single currency.
+ * Timestamps and prices are kept in parallel primitive arrays sorted by timestamp,
+ * prices are stored as unscaled values of one common (series) scale,
+ * so a tick costs 16 bytes instead of a tree node with boxed key and {@link BigDecimal} value.
+ * Original scale of every price is kept only if prices of the series have different scales,
+ * so prices are restored exactly as they were added.
+ * Lowest and highest prices of any range are found with {@link RangeExtremumIndex} built over price column,
+ * sums of prices and of their squares in any range (for mean and variance) are found with {@link PrefixSums},
+ * open, close, low and high prices of every day and month are precomputed in {@link CalendarRollup}s.
+ * <p>
+ * Series is immutable for readers, so it can be read without locks while prices are appended.
+ * Appending a price returns a new series which shares columns, index, prefix sums and rollups with the previous one:
+ * the price is written to the column cell after the last one (which the previous series never reads)
+ * and only the affected index block, prefix sum and last rollup periods are recomputed, so an append takes amortized constant time.
+ * Prices older than the newest one are merged with the tail of series after the oldest of them: the prefix before it
+ * is copied without recomputation (columns, index, prefix sums and rollups) and the merged tail is appended,
+ * so a late tick costs a copy of arrays and appends of the tail instead of sorting and indexing the whole series.
+ * Prices with greater scale than the common one rebuild the whole series.
+ * Series must be appended by one writer at a time, and the new series must be published safely
+ * (e.g. through a concurrent map).
+ */
+public class PriceSeries implements SortedPrices {
+
+    private final long[] timestamps;
+
+    private final long[] prices;
+
+    private final byte[] scales;
+
+    private final int scale;
+
+    private final int size;
+
+    private final RangeExtremumIndex index;
+
+    private final PrefixSums sums;
+
+    private final CalendarRollup dailyRollup;
+
+    private final CalendarRollup monthlyRollup;
+
+    /**
+     * Create series from columns which are already sorted by timestamp and brought to the common scale
+     *
+     * @param timestamps sorted timestamps without duplicates
+     * @param prices     unscaled prices of the common scale
+     * @param scales     original scales of prices, null if all prices have the common scale
+     * @param scale      common scale
+     * @param size       number of prices
+     */
+    PriceSeries(long[] timestamps, long[] prices, byte[] scales, int scale, int size) {
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.scales = scales;
+        this.scale = scale;
+        this.size = size;
+        this.index = RangeExtremumIndex.build(prices, size);
+        this.sums = PrefixSums.build(prices, size);
+        this.dailyRollup = CalendarRollup.build(CalendarPeriod.DAY, timestamps, prices, size, index);
+        this.monthlyRollup = CalendarRollup.build(CalendarPeriod.MONTH, timestamps, prices, size, index);
+    }
+
+    private PriceSeries(long[] timestamps, long[] prices, byte[] scales, int scale, int size, RangeExtremumIndex index,
+                        PrefixSums sums, CalendarRollup dailyRollup, CalendarRollup monthlyRollup) {
+        this.timestamps = timestamps;
+        this.prices = prices;
+        this.scales = scales;
+        this.scale = scale;
+        this.size = size;
+        this.index = index;
+        this.sums = sums;
+        this.dailyRollup = dailyRollup;
+        this.monthlyRollup = monthlyRollup;
+    }
+
+    /**
+     * Create builder of price series
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get series with appended price. This series stays unchanged
+     *
+     * @param timestamp timestamp in milliseconds
+     * @param price     price
+     * @return new series
+     */
+    public PriceSeries append(long timestamp, BigDecimal price) {
+        BigDecimal normalized = price.scale() < 0 ? price.setScale(0) : price;
+        return append(timestamp, toLongExact(normalized.unscaledValue()), normalized.scale());
+    }
+
+    /**
+     * Get series with appended price. This series stays unchanged.
+     * If there's a price with the same timestamp, it's replaced
+     *
+     * @param timestamp     timestamp in milliseconds
+     * @param unscaledPrice unscaled value of price
+     * @param priceScale    scale of price from 0 to 18
+     * @return new series
+     */
+    public PriceSeries append(long timestamp, long unscaledPrice, int priceScale) {
+        if (priceScale < 0 || priceScale > FixedPoint.MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported price scale: " + priceScale);
+        }
+        if (size == 0 || timestamp <= timestamps[size - 1] || priceScale > scale) {
+            return addAll(builder().add(timestamp, unscaledPrice, priceScale));
+        }
+        long price = multiplyExact(unscaledPrice, FixedPoint.pow10(scale - priceScale));
+
+        long[] newTimestamps = timestamps;
+        long[] newPrices = prices;
+        byte[] newScales = scales;
+        if (size == timestamps.length) {
+            int capacity = size + (size >> 1) + 1;
+            newTimestamps = Arrays.copyOf(timestamps, capacity);
+            newPrices = Arrays.copyOf(prices, capacity);
+            newScales = scales == null ? null : Arrays.copyOf(scales, capacity);
+        }
+        if (newScales == null && priceScale != scale) {
+            newScales = new byte[newTimestamps.length];
+            Arrays.fill(newScales, 0, size, (byte) scale);
+        }
+        newTimestamps[size] = timestamp;
+        newPrices[size] = price;
+        if (newScales != null) {
+            newScales[size] = (byte) priceScale;
+        }
+        return new PriceSeries(newTimestamps, newPrices, newScales, scale, size + 1,
+                index.append(newPrices, size + 1),
+                sums.append(newPrices, size + 1),
+                dailyRollup.append(newTimestamps, newPrices, size),
+                monthlyRollup.append(newTimestamps, newPrices, size));
+    }
+
+    /**
+     * Get series with added prices of any timestamps. This series stays unchanged.
+     * Prices replace prices with the same timestamps, if several added prices have the same timestamp,
+     * the last added one is kept
+     *
+     * @param added builder with added prices
+     * @return new series
+     */
+    public PriceSeries addAll(Builder added) {
+        if (added.size == 0) {
+            return this;
+        }
+        int[] order = added.sortedOrder();
+        int from = lowerBound(added.timestamps[order[0]]);
+        int maxScale = 0;
+        for (int i = 0; i < added.size; i++) {
+            maxScale = Math.max(maxScale, added.scales[i]);
+        }
+        if (from == 0 || maxScale > scale) {
+            return toBuilder().addAll(added).build();
+        }
+        PriceSeries result = from == size ? this : truncate(from);
+        int next = 0;
+        for (int i = from; i < size || next < added.size; ) {
+            if (next + 1 < added.size && added.timestamps[order[next + 1]] == added.timestamps[order[next]]) {
+                next++;
+            } else if (next == added.size || (i < size && timestamps[i] < added.timestamps[order[next]])) {
+                int priceScale = scales == null ? scale : scales[i];
+                result = result.append(timestamps[i], prices[i] / FixedPoint.pow10(scale - priceScale), priceScale);
+                i++;
+            } else {
+                if (i < size && timestamps[i] == added.timestamps[order[next]]) {
+                    i++;
+                }
+                int index = order[next++];
+                result = result.append(added.timestamps[index], added.prices[index], added.scales[index]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get series of the first prices. Columns, index, prefix sums and rollups of the first prices are copied
+     * without recomputation, so prices can be appended to the new series while this one stays unchanged
+     *
+     * @param newSize number of the first prices, from 1 to size
+     * @return new series
+     */
+    PriceSeries truncate(int newSize) {
+        long[] newTimestamps = copyOfPrefix(timestamps, new long[timestamps.length], newSize);
+        long[] newPrices = copyOfPrefix(prices, new long[prices.length], newSize);
+        byte[] newScales = scales == null ? null : copyOfPrefix(scales, new byte[scales.length], newSize);
+        RangeExtremumIndex newIndex = index.truncate(newSize);
+        return new PriceSeries(newTimestamps, newPrices, newScales, scale, newSize, newIndex, sums.truncate(newSize),
+                dailyRollup.truncate(newTimestamps, newPrices, newSize, newIndex),
+                monthlyRollup.truncate(newTimestamps, newPrices, newSize, newIndex));
+    }
+
+    /**
+     * Get number of prices in series
+     *
+     * @return number of prices
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get timestamp of price by index
+     *
+     * @param index index from 0 to size - 1
+     * @return timestamp in milliseconds
+     */
+    @Override
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * Get price by index
+     *
+     * @param index index from 0 to size - 1
+     * @return price with the scale it was added with
+     */
+    @Override
+    public BigDecimal getPrice(int index) {
+        BigDecimal price = BigDecimal.valueOf(prices[index], scale);
+        return scales == null ? price : price.setScale(scales[index]);
+    }
+
+    /**
+     * Get unscaled price of the common scale by index
+     *
+     * @param index index from 0 to size - 1
+     * @return unscaled price
+     */
+    @Override
+    public long getUnscaledPrice(int index) {
+        return prices[index];
+    }
+
+    /**
+     * Get index of the first price with timestamp greater than or equal to defined one
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to size (size if there's no such price)
+     */
+    @Override
+    public int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get index of the first price with timestamp greater than defined one
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to size (size if there's no such price)
+     */
+    @Override
+    public int upperBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get index of the lowest price in the range of indexes.
+     * If there are several lowest prices, the oldest one is chosen
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive), must be greater than first index
+     * @return index of the lowest price
+     */
+    @Override
+    public int indexOfMin(int from, int to) {
+        return index.indexOfMin(prices, from, to);
+    }
+
+    /**
+     * Get index of the highest price in the range of indexes.
+     * If there are several highest prices, the oldest one is chosen
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive), must be greater than first index
+     * @return index of the highest price
+     */
+    @Override
+    public int indexOfMax(int from, int to) {
+        return index.indexOfMax(prices, from, to);
+    }
+
+    /**
+     * Get sums of prices in the range of indexes. Sums of whole blocks are taken from prefix sums,
+     * so it takes constant time regardless of the length of the range
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return exact sums
+     */
+    @Override
+    public PriceSums getSums(int from, int to) {
+        if (from >= to) {
+            return PriceSums.EMPTY;
+        }
+        return new PriceSums(to - from,
+                new BigDecimal(sums.sum(prices, from, to), scale),
+                new BigDecimal(sums.sumOfSquares(prices, from, to), 2 * scale));
+    }
+
+    /**
+     * Get number of prices compared one by one by the index to find the lowest or the highest price
+     * in the range of indexes (prices of partial index blocks)
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return number of prices
+     */
+    @Override
+    public long scanLength(int from, int to) {
+        return RangeExtremumIndex.scanLength(from, to);
+    }
+
+    /**
+     * Get series with prices of the range of indexes. This series stays unchanged
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return new series which doesn't share columns with this one
+     */
+    public PriceSeries copyOfRange(int from, int to) {
+        return new PriceSeries(
+                Arrays.copyOfRange(timestamps, from, to),
+                Arrays.copyOfRange(prices, from, to),
+                scales == null ? null : Arrays.copyOfRange(scales, from, to),
+                scale,
+                to - from);
+    }
+
+    /**
+     * Get column of timestamps (may be longer than series)
+     *
+     * @return timestamps
+     */
+    long[] getTimestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Get column of unscaled prices (may be longer than series)
+     *
+     * @return unscaled prices of the common scale
+     */
+    long[] getPrices() {
+        return prices;
+    }
+
+    /**
+     * Get column of original scales of prices (may be longer than series)
+     *
+     * @return scales, null if all prices have the common scale
+     */
+    byte[] getScales() {
+        return scales;
+    }
+
+    /**
+     * Get common scale of prices
+     *
+     * @return scale
+     */
+    @Override
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Get rollup of prices by days
+     *
+     * @return daily rollup
+     */
+    public CalendarRollup getDailyRollup() {
+        return dailyRollup;
+    }
+
+    /**
+     * Get rollup of prices by months
+     *
+     * @return monthly rollup
+     */
+    public CalendarRollup getMonthlyRollup() {
+        return monthlyRollup;
+    }
+
+    /**
+     * Create builder with all prices of series with their original scales
+     *
+     * @return builder
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (int i = 0; i < size; i++) {
+            int priceScale = scales == null ? scale : scales[i];
+            builder.add(timestamps[i], prices[i] / FixedPoint.pow10(scale - priceScale), priceScale);
+        }
+        return builder;
+    }
+
+    private static <T> T copyOfPrefix(T source, T destination, int length) {
+        System.arraycopy(source, 0, destination, 0, length);
+        return destination;
+    }
+
+    private static long toLongExact(BigInteger value) {
+        if (value.bitLength() > 63) {
+            throw new IllegalArgumentException("Unsupported price value: " + value);
+        }
+        return value.longValue();
+    }
+
+    private static long multiplyExact(long value, long multiplier) {
+        try {
+            return Math.multiplyExact(value, multiplier);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Unsupported price value: " + value, e);
+        }
+    }
+
+    /**
+     * Builder of price series. Prices can be added in any order,
+     * if several prices are added with the same timestamp, the last added one is kept
+     */
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+
+        private long[] prices = new long[INITIAL_CAPACITY];
+
+        private byte[] scales = new byte[INITIAL_CAPACITY];
+
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Add price to series
+         *
+         * @param timestamp timestamp in milliseconds
+         * @param price     price
+         * @return this builder
+         */
+        public Builder add(long timestamp, BigDecimal price) {
+            BigDecimal normalized = price.scale() < 0 ? price.setScale(0) : price;
+            return add(timestamp, toLongExact(normalized.unscaledValue()), normalized.scale());
+        }
+
+        /**
+         * Add price to series
+         *
+         * @param timestamp     timestamp in milliseconds
+         * @param unscaledPrice unscaled value of price
+         * @param scale         scale of price from 0 to 18
+         * @return this builder
+         */
+        public Builder add(long timestamp, long unscaledPrice, int scale) {
+            if (scale < 0 || scale > FixedPoint.MAX_SCALE) {
+                throw new IllegalArgumentException("Unsupported price scale: " + scale);
+            }
+            if (size == timestamps.length) {
+                int capacity = size + (size >> 1);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+            }
+            timestamps[size] = timestamp;
+            prices[size] = unscaledPrice;
+            scales[size] = (byte) scale;
+            size++;
+            return this;
+        }
+
+        /**
+         * Add all prices of other builder to series (after prices already added to this builder)
+         *
+         * @param other other builder
+         * @return this builder
+         */
+        public Builder addAll(Builder other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.timestamps[i], other.prices[i], other.scales[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Build price series: sort prices by timestamp, remove duplicated timestamps
+         * and bring all prices to the common scale
+         *
+         * @return price series
+         */
+        public PriceSeries build() {
+            int[] order = sortedOrder();
+
+            long[] sortedTimestamps = new long[size];
+            long[] sortedPrices = new long[size];
+            byte[] sortedScales = new byte[size];
+            int count = 0;
+            int maxScale = 0;
+            boolean sameScales = true;
+            for (int i = 0; i < size; i++) {
+                int index = order[i];
+                if (i + 1 < size && timestamps[order[i + 1]] == timestamps[index]) {
+                    continue;
+                }
+                sortedTimestamps[count] = timestamps[index];
+                sortedPrices[count] = prices[index];
+                sortedScales[count] = scales[index];
+                maxScale = Math.max(maxScale, scales[index]);
+                sameScales &= scales[index] == sortedScales[0];
+                count++;
+            }
+
+            for (int i = 0; i < count; i++) {
+                sortedPrices[i] = multiplyExact(sortedPrices[i], FixedPoint.pow10(maxScale - sortedScales[i]));
+            }
+            return new PriceSeries(
+                    Arrays.copyOf(sortedTimestamps, count),
+                    Arrays.copyOf(sortedPrices, count),
+                    sameScales ? null : Arrays.copyOf(sortedScales, count),
+                    maxScale,
+                    count);
+        }
+
+        /**
+         * Get order of added prices sorted by timestamp (stable: prices with the same timestamp keep adding order)
+         *
+         * @return indexes of added prices in sorted order
+         */
+        private int[] sortedOrder() {
+            int[] order = new int[size];
+            boolean sorted = true;
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+                sorted &= i == 0 || timestamps[i - 1] <= timestamps[i];
+            }
+            if (!sorted) {
+                mergeSort(order, new int[size], 0, size);
+            }
+            return order;
+        }
+
+        private void mergeSort(int[] order, int[] buffer, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            mergeSort(order, buffer, from, middle);
+            mergeSort(order, buffer, middle, to);
+            System.arraycopy(order, from, buffer, from, to - from);
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < middle && timestamps[buffer[left]] <= timestamps[buffer[right]])) {
+                    order[i] = buffer[left++];
+                } else {
+                    order[i] = buffer[right++];
+                }
+            }
+        }
+    }
+}
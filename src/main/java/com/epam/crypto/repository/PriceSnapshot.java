@@ -0,0 +1,209 @@
+package com.epam.crypto.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of columnar price storage.
+ * The file starts with a header (magic, format version, fingerprint of source data, directory of currencies)
+ * protected by its own checksum. Every currency has a data section with raw little-endian columns
+ * (timestamps, unscaled prices and optional scales) aligned to 8 bytes and protected by its own checksum.
+ * Data sections are memory-mapped and copied into series columns with bulk operations, so reading a snapshot
+ * is bounded by memory bandwidth instead of parsing. A snapshot is ignored if it's missing, of other version,
+ * made from other source data or corrupted.
+ */
+@Slf4j
+public class PriceSnapshot {
+
+    private static final int MAGIC = 0x43525053;
+
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+
+    private PriceSnapshot() {
+    }
+
+    /**
+     * Write snapshot of storage. The snapshot is written to a temporary file first and then moved to the path,
+     * so readers never see a partially written snapshot
+     *
+     * @param path              path of snapshot file
+     * @param sourceFingerprint fingerprint of data the storage was loaded from
+     * @param storage           storage of price series by currency symbols
+     * @throws IOException if file can't be written
+     */
+    public static void write(Path path, long sourceFingerprint, Map<String, PriceSeries> storage) throws IOException {
+        List<Map.Entry<String, PriceSeries>> entries = new ArrayList<>(storage.entrySet());
+        List<byte[]> symbols = new ArrayList<>(entries.size());
+        int directoryLength = 0;
+        for (Map.Entry<String, PriceSeries> entry : entries) {
+            byte[] symbol = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            symbols.add(symbol);
+            directoryLength += Short.BYTES + symbol.length + 2 + Integer.BYTES + 2 * Long.BYTES;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + directoryLength + Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(sourceFingerprint).putInt(entries.size()).putInt(directoryLength);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = align(header.capacity());
+            for (int i = 0; i < entries.size(); i++) {
+                PriceSeries series = entries.get(i).getValue();
+                ByteBuffer section = toSection(series);
+                header.putShort((short) symbols.get(i).length).put(symbols.get(i))
+                        .put((byte) series.getScale())
+                        .put((byte) (series.getScales() == null ? 0 : 1))
+                        .putInt(series.size())
+                        .putLong(offset)
+                        .putLong(checksum(section.duplicate()));
+                int length = section.remaining();
+                writeFully(channel, section, offset);
+                offset = align(offset + length);
+            }
+            header.putLong(checksum(ByteBuffer.wrap(header.array(), 0, HEADER_SIZE + directoryLength)));
+            writeFully(channel, header.flip(), 0);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read snapshot
+     *
+     * @param path              path of snapshot file
+     * @param sourceFingerprint fingerprint of current source data
+     * @return storage of price series by currency symbols,
+     * null if snapshot is missing, of other version, made from other source data or corrupted
+     */
+    public static Map<String, PriceSeries> read(Path path, long sourceFingerprint) {
+        if (!Files.isRegularFile(path)) {
+            log.info("Snapshot {} is missing", path);
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header == null || header.getInt() != MAGIC) {
+                log.warn("Snapshot {} has unknown format", path);
+                return null;
+            }
+            int version = header.getInt();
+            long fingerprint = header.getLong();
+            if (version != VERSION || fingerprint != sourceFingerprint) {
+                log.info("Snapshot {} is stale (version {}, fingerprint {})", path, version, fingerprint);
+                return null;
+            }
+            int count = header.getInt();
+            int directoryLength = header.getInt();
+            ByteBuffer directory = readFully(channel, HEADER_SIZE, directoryLength + Long.BYTES);
+            if (directory == null || !isHeaderValid(header, directory, directoryLength)) {
+                log.warn("Snapshot {} has corrupted header", path);
+                return null;
+            }
+
+            var storage = new ConcurrentHashMap<String, PriceSeries>();
+            for (int i = 0; i < count; i++) {
+                byte[] symbol = new byte[directory.getShort()];
+                directory.get(symbol);
+                int scale = directory.get();
+                boolean hasScales = directory.get() != 0;
+                int size = directory.getInt();
+                long offset = directory.getLong();
+                long checksum = directory.getLong();
+                PriceSeries series = readSeries(channel, offset, size, scale, hasScales, checksum);
+                if (series == null) {
+                    log.warn("Snapshot {} has corrupted data", path);
+                    return null;
+                }
+                storage.put(new String(symbol, StandardCharsets.UTF_8), series);
+            }
+            return storage;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot {} can't be read", path, e);
+            return null;
+        }
+    }
+
+    private static ByteBuffer toSection(PriceSeries series) {
+        int size = series.size();
+        byte[] scales = series.getScales();
+        ByteBuffer section = ByteBuffer.allocate(2 * Long.BYTES * size + (scales == null ? 0 : size))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        section.asLongBuffer().put(series.getTimestamps(), 0, size).put(series.getPrices(), 0, size);
+        if (scales != null) {
+            section.position(2 * Long.BYTES * size);
+            section.put(scales, 0, size);
+        }
+        return section.position(0);
+    }
+
+    private static PriceSeries readSeries(FileChannel channel, long offset, int size, int scale, boolean hasScales,
+                                          long checksum) throws IOException {
+        long length = 2L * Long.BYTES * size + (hasScales ? size : 0);
+        MappedByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        section.order(ByteOrder.LITTLE_ENDIAN);
+        if (checksum(section.duplicate()) != checksum) {
+            return null;
+        }
+        long[] timestamps = new long[size];
+        long[] prices = new long[size];
+        section.asLongBuffer().get(timestamps).get(prices);
+        byte[] scales = null;
+        if (hasScales) {
+            scales = new byte[size];
+            section.position(2 * Long.BYTES * size);
+            section.get(scales);
+        }
+        return new PriceSeries(timestamps, prices, scales, scale, size);
+    }
+
+    private static boolean isHeaderValid(ByteBuffer header, ByteBuffer directory, int directoryLength) {
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, HEADER_SIZE);
+        crc.update(directory.array(), 0, directoryLength);
+        return crc.getValue() == directory.getLong(directoryLength);
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
@@ -0,0 +1,56 @@
+package com.epam.crypto.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Sums of prices of a time window: number of prices, sum of prices and sum of their squares.
+ * Sums are exact, so sums of adjacent windows (e.g. of storage tiers) are added up without loss of precision
+ * and statistics are rounded only once, when they are computed from sums.
+ * Trailing zeros of statistics are stripped, so their scale doesn't depend on the scale sums are kept with
+ * (storages sum prices with their own scales or with the common scale of series)
+ *
+ * @param count        number of prices
+ * @param sum          sum of prices
+ * @param sumOfSquares sum of squares of prices
+ */
+record PriceSums(long count, BigDecimal sum, BigDecimal sumOfSquares) {
+
+    /**
+     * Sums of no prices
+     */
+    static final PriceSums EMPTY = new PriceSums(0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+    /**
+     * Get sums of prices of both windows
+     *
+     * @param other sums of prices of other window
+     * @return sums
+     */
+    PriceSums add(PriceSums other) {
+        return new PriceSums(count + other.count, sum.add(other.sum), sumOfSquares.add(other.sumOfSquares));
+    }
+
+    /**
+     * Get arithmetic mean of prices: sum / count
+     *
+     * @return mean rounded to precision of statistics without trailing zeros, null if there are no prices
+     */
+    BigDecimal getMean() {
+        return count == 0 ? null : sum.divide(BigDecimal.valueOf(count), FixedPoint.STATISTICS_CONTEXT).stripTrailingZeros();
+    }
+
+    /**
+     * Get population variance of prices: (count * sum of squares - sum^2) / count^2.
+     * Numerator is computed exactly, so there's no cancellation of close large numbers
+     *
+     * @return variance rounded to precision of statistics without trailing zeros, null if there are no prices
+     */
+    BigDecimal getVariance() {
+        if (count == 0) {
+            return null;
+        }
+        BigDecimal count = BigDecimal.valueOf(this.count);
+        return sumOfSquares.multiply(count).subtract(sum.multiply(sum))
+                .divide(count.multiply(count), FixedPoint.STATISTICS_CONTEXT).stripTrailingZeros();
+    }
+}
@@ -0,0 +1,248 @@
+package com.epam.crypto.repository;
+
+import java.util.Arrays;
+
+/**
+ * Index for finding positions of minimum and maximum values in any range of a column.
+ * Column is split into blocks of {@value #BLOCK_SIZE} values, positions of minimum and maximum of every block
+ * are kept in sparse tables (for every block and every power of two - extremum of that many blocks from it).
+ * A query checks two sparse table cells for whole blocks inside the range and scans at most two partial blocks,
+ * so it takes constant time, and the index takes about 2 bytes per value.
+ * If there are several equal extreme values, position of the first one is returned.
+ * <p>
+ * Index is immutable for readers: appending values returns a new index which shares tables with the previous one
+ * and writes only cells the previous one never reads.
+ */
+public class RangeExtremumIndex {
+
+    private static final int BLOCK_SHIFT = 6;
+
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final int[][] minTable;
+
+    private final int[][] maxTable;
+
+    private final int blocks;
+
+    private RangeExtremumIndex(int[][] minTable, int[][] maxTable, int blocks) {
+        this.minTable = minTable;
+        this.maxTable = maxTable;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Build index for the column
+     *
+     * @param values column of values
+     * @param size   number of values in column
+     * @return index
+     */
+    public static RangeExtremumIndex build(long[] values, int size) {
+        int blocks = size >> BLOCK_SHIFT;
+        int levels = levels(blocks);
+        int[][] minTable = new int[levels][];
+        int[][] maxTable = new int[levels][];
+        if (levels > 0) {
+            minTable[0] = new int[blocks];
+            maxTable[0] = new int[blocks];
+            for (int block = 0; block < blocks; block++) {
+                int from = block << BLOCK_SHIFT;
+                minTable[0][block] = scanMin(values, from, from + BLOCK_SIZE);
+                maxTable[0][block] = scanMax(values, from, from + BLOCK_SIZE);
+            }
+        }
+        for (int level = 1; level < levels; level++) {
+            int span = 1 << (level - 1);
+            int count = blocks - (1 << level) + 1;
+            minTable[level] = new int[count];
+            maxTable[level] = new int[count];
+            for (int block = 0; block < count; block++) {
+                minTable[level][block] = min(values, minTable[level - 1][block], minTable[level - 1][block + span]);
+                maxTable[level][block] = max(values, maxTable[level - 1][block], maxTable[level - 1][block + span]);
+            }
+        }
+        return new RangeExtremumIndex(minTable, maxTable, blocks);
+    }
+
+    /**
+     * Get index of the column after values were appended to it
+     *
+     * @param values column of values (the same or grown copy of the column this index was built for)
+     * @param size   new number of values in column, not more than {@value #BLOCK_SIZE} values greater than before
+     * @return this index if no block was completed, new index otherwise
+     */
+    public RangeExtremumIndex append(long[] values, int size) {
+        int block = blocks;
+        if ((size >> BLOCK_SHIFT) == block) {
+            return this;
+        }
+        int levels = levels(block + 1);
+        int[][] newMinTable = Arrays.copyOf(minTable, levels);
+        int[][] newMaxTable = Arrays.copyOf(maxTable, levels);
+        for (int level = 0; level < levels; level++) {
+            int position = block - (1 << level) + 1;
+            newMinTable[level] = ensureCapacity(newMinTable[level], position + 1);
+            newMaxTable[level] = ensureCapacity(newMaxTable[level], position + 1);
+            if (level == 0) {
+                int from = block << BLOCK_SHIFT;
+                newMinTable[0][block] = scanMin(values, from, from + BLOCK_SIZE);
+                newMaxTable[0][block] = scanMax(values, from, from + BLOCK_SIZE);
+            } else {
+                int span = 1 << (level - 1);
+                newMinTable[level][position] = min(values, newMinTable[level - 1][position], newMinTable[level - 1][position + span]);
+                newMaxTable[level][position] = max(values, newMaxTable[level - 1][position], newMaxTable[level - 1][position + span]);
+            }
+        }
+        return new RangeExtremumIndex(newMinTable, newMaxTable, block + 1);
+    }
+
+    /**
+     * Get index of the first values of the column. Tables are copied without recomputation,
+     * so values appended after the first ones don't change this index
+     *
+     * @param size number of the first values, not more than number of values of this index
+     * @return new index
+     */
+    public RangeExtremumIndex truncate(int size) {
+        int newBlocks = Math.min(blocks, size >> BLOCK_SHIFT);
+        int levels = levels(newBlocks);
+        int[][] newMinTable = new int[levels][];
+        int[][] newMaxTable = new int[levels][];
+        for (int level = 0; level < levels; level++) {
+            newMinTable[level] = minTable[level].clone();
+            newMaxTable[level] = maxTable[level].clone();
+        }
+        return new RangeExtremumIndex(newMinTable, newMaxTable, newBlocks);
+    }
+
+    /**
+     * Get position of minimum value in the range
+     *
+     * @param values column of values the index was built for
+     * @param from   first position (inclusive)
+     * @param to     last position (exclusive), must be greater than first position
+     * @return position of the first minimum value
+     */
+    public int indexOfMin(long[] values, int from, int to) {
+        int firstBlock = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBlock = (to >> BLOCK_SHIFT) - 1;
+        if (firstBlock > lastBlock) {
+            return scanMin(values, from, to);
+        }
+        int result = query(minTable, values, firstBlock, lastBlock, true);
+        int head = firstBlock << BLOCK_SHIFT;
+        if (from < head) {
+            result = min(values, scanMin(values, from, head), result);
+        }
+        int tail = (lastBlock + 1) << BLOCK_SHIFT;
+        return tail < to ? min(values, result, scanMin(values, tail, to)) : result;
+    }
+
+    /**
+     * Get position of maximum value in the range
+     *
+     * @param values column of values the index was built for
+     * @param from   first position (inclusive)
+     * @param to     last position (exclusive), must be greater than first position
+     * @return position of the first maximum value
+     */
+    public int indexOfMax(long[] values, int from, int to) {
+        int firstBlock = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBlock = (to >> BLOCK_SHIFT) - 1;
+        if (firstBlock > lastBlock) {
+            return scanMax(values, from, to);
+        }
+        int result = query(maxTable, values, firstBlock, lastBlock, false);
+        int head = firstBlock << BLOCK_SHIFT;
+        if (from < head) {
+            result = max(values, scanMax(values, from, head), result);
+        }
+        int tail = (lastBlock + 1) << BLOCK_SHIFT;
+        return tail < to ? max(values, result, scanMax(values, tail, to)) : result;
+    }
+
+    /**
+     * Get number of values compared one by one (in partial blocks) to find extremum in the range
+     *
+     * @param from first position (inclusive)
+     * @param to   last position (exclusive), must be greater than first position
+     * @return number of values
+     */
+    static int scanLength(int from, int to) {
+        int firstBlock = (from + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int lastBlock = (to >> BLOCK_SHIFT) - 1;
+        if (firstBlock > lastBlock) {
+            return to - from;
+        }
+        return (firstBlock << BLOCK_SHIFT) - from + to - ((lastBlock + 1) << BLOCK_SHIFT);
+    }
+
+    /**
+     * Get position of extremum of whole blocks from sparse table
+     *
+     * @param table      sparse table of minimums or maximums
+     * @param values     column of values
+     * @param firstBlock first block (inclusive)
+     * @param lastBlock  last block (inclusive)
+     * @param minimum    true to find minimum, false to find maximum
+     * @return position of extremum
+     */
+    private static int query(int[][] table, long[] values, int firstBlock, int lastBlock, boolean minimum) {
+        int level = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock + 1);
+        int left = table[level][firstBlock];
+        int right = table[level][lastBlock - (1 << level) + 1];
+        return minimum ? min(values, left, right) : max(values, left, right);
+    }
+
+    private static int levels(int blocks) {
+        return blocks == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(blocks);
+    }
+
+    private static int[] ensureCapacity(int[] table, int capacity) {
+        if (table == null) {
+            return new int[Math.max(capacity, 16)];
+        }
+        return table.length >= capacity ? table : Arrays.copyOf(table, Math.max(capacity, table.length + (table.length >> 1)));
+    }
+
+    /**
+     * Choose position of smaller value, the first position if values are equal
+     */
+    private static int min(long[] values, int first, int second) {
+        if (values[first] != values[second]) {
+            return values[first] < values[second] ? first : second;
+        }
+        return Math.min(first, second);
+    }
+
+    /**
+     * Choose position of greater value, the first position if values are equal
+     */
+    private static int max(long[] values, int first, int second) {
+        if (values[first] != values[second]) {
+            return values[first] > values[second] ? first : second;
+        }
+        return Math.min(first, second);
+    }
+
+    private static int scanMin(long[] values, int from, int to) {
+        int result = from;
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] < values[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private static int scanMax(long[] values, int from, int to) {
+        int result = from;
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > values[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+}
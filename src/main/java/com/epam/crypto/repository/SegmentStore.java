@@ -0,0 +1,165 @@
+package com.epam.crypto.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file of cold price segments with a bounded cache of memory-mapped segments.
+ * Segments are immutable: a segment is written once, and a rewritten segment is appended as a new one
+ * (space of replaced segments is reclaimed when the file is deleted on close), so the file size is capped
+ * and a write beyond the cap fails instead of filling the disk.
+ * <p>
+ * Segments are mapped on first access and kept in the {@link ClockCache} until mapped bytes exceed the budget,
+ * so only recently queried cold data is mapped at the same time, and readers of mapped segments don't wait for each other.
+ * Evicted segments are unmapped by garbage collector once readers release them, and they are mapped again on the next access
+ */
+@Slf4j
+public class SegmentStore implements Closeable {
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final long maxSize;
+
+    private final ClockCache<Long, ByteBuffer> cache;
+
+    private long size;
+
+    private SegmentStore(Path path, FileChannel channel, long cacheBudget, long maxSize) {
+        this.path = path;
+        this.channel = channel;
+        this.maxSize = maxSize;
+        this.cache = new ClockCache<>(cacheBudget, ByteBuffer::capacity);
+    }
+
+    /**
+     * Create store of unlimited size with a new file in the directory, the file is deleted when store is closed
+     *
+     * @param directory   directory of file, it's created if it doesn't exist
+     * @param cacheBudget max number of bytes of segments mapped at the same time
+     * @return store
+     * @throws IOException if file can't be created
+     */
+    public static SegmentStore create(Path directory, long cacheBudget) throws IOException {
+        return create(directory, cacheBudget, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create store with a new file in the directory, the file is deleted when store is closed
+     *
+     * @param directory   directory of file, it's created if it doesn't exist
+     * @param cacheBudget max number of bytes of segments mapped at the same time
+     * @param maxSize     max size of file
+     * @return store
+     * @throws IOException if file can't be created
+     */
+    public static SegmentStore create(Path directory, long cacheBudget, long maxSize) throws IOException {
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, "segments", ".dat");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        log.info("Cold price segments are stored in {}", path);
+        return new SegmentStore(path, channel, cacheBudget, maxSize);
+    }
+
+    /**
+     * Append segment data to file
+     *
+     * @param data segment data
+     * @return offset of data in file
+     * @throws UncheckedIOException if data can't be written or file would exceed max size
+     */
+    synchronized long append(ByteBuffer data) {
+        long offset = size;
+        if (data.remaining() > maxSize - offset) {
+            throw new UncheckedIOException(new IOException("Segment of " + data.remaining() + " bytes exceeds max size "
+                    + maxSize + " of " + path + " (" + offset + " bytes are written)"));
+        }
+        try {
+            long position = offset;
+            while (data.hasRemaining()) {
+                position += channel.write(data, position);
+            }
+            size = (position + Long.BYTES - 1) & -Long.BYTES;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Segment can't be written to " + path, e);
+        }
+        return offset;
+    }
+
+    /**
+     * Get segment data mapped into memory. Callers get it once per operation and read all prices
+     * of the operation from the returned buffer
+     *
+     * @param offset offset of data in file
+     * @param length length of data
+     * @return read-only little-endian buffer of data
+     * @throws UncheckedIOException if data can't be mapped
+     */
+    ByteBuffer map(long offset, int length) {
+        return cache.get(offset, key -> {
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, key, length).order(ByteOrder.LITTLE_ENDIAN);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Segment can't be mapped from " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Get number of segment accesses answered from cache of mapped segments
+     *
+     * @return number of accesses since start
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Get number of segment accesses which mapped a segment
+     *
+     * @return number of accesses since start
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Get number of bytes of segments which are mapped by cache
+     *
+     * @return number of bytes
+     */
+    public long getCachedBytes() {
+        return cache.getWeight();
+    }
+
+    /**
+     * Get size of file
+     *
+     * @return number of bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Close and delete file
+     *
+     * @throws IOException if file can't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        cache.clear();
+        channel.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.epam.crypto.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Prices of a single currency sorted by timestamp without duplicated timestamps and accessed by index.
+ * In-heap series and memory-mapped segments are both read through it, so a query can span storage tiers
+ */
+interface SortedPrices {
+
+    /**
+     * Get number of prices
+     *
+     * @return number of prices
+     */
+    int size();
+
+    /**
+     * Get timestamp of price by index
+     *
+     * @param index index from 0 to size - 1
+     * @return timestamp in milliseconds
+     */
+    long getTimestamp(int index);
+
+    /**
+     * Get price by index
+     *
+     * @param index index from 0 to size - 1
+     * @return price with the scale it was added with
+     */
+    BigDecimal getPrice(int index);
+
+    /**
+     * Get unscaled price by index, prices are compared by unscaled values without creating {@link BigDecimal}
+     *
+     * @param index index from 0 to size - 1
+     * @return unscaled price of the common scale
+     */
+    long getUnscaledPrice(int index);
+
+    /**
+     * Get common scale of unscaled prices
+     *
+     * @return scale
+     */
+    int getScale();
+
+    /**
+     * Get index of the first price with timestamp greater than or equal to defined one
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to size (size if there's no such price)
+     */
+    int lowerBound(long timestamp);
+
+    /**
+     * Get index of the first price with timestamp greater than defined one
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to size (size if there's no such price)
+     */
+    int upperBound(long timestamp);
+
+    /**
+     * Get index of the lowest price in the range of indexes.
+     * If there are several lowest prices, the oldest one is chosen
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive), must be greater than first index
+     * @return index of the lowest price
+     */
+    int indexOfMin(int from, int to);
+
+    /**
+     * Get index of the highest price in the range of indexes.
+     * If there are several highest prices, the oldest one is chosen
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive), must be greater than first index
+     * @return index of the highest price
+     */
+    int indexOfMax(int from, int to);
+
+    /**
+     * Get sums of prices in the range of indexes
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return exact sums
+     */
+    PriceSums getSums(int from, int to);
+
+    /**
+     * Get number of prices compared one by one to find the lowest or the highest price in the range of indexes
+     *
+     * @param from first index (inclusive)
+     * @param to   last index (exclusive)
+     * @return number of prices
+     */
+    long scanLength(int from, int to);
+}
@@ -0,0 +1,23 @@
+package com.epam.crypto.repository;
+
+/**
+ * Statistics of price storage for monitoring. Implementations must keep them cheap to update on every query
+ */
+public interface StorageStatistics {
+
+    /**
+     * Get total number of price entries compared one by one while answering queries
+     * (entries found with binary search, index or rollup lookups are not counted)
+     *
+     * @return number of entries since start
+     */
+    long getScannedEntries();
+
+    /**
+     * Get number of prices of the currency
+     *
+     * @param currencySymbol currency symbol
+     * @return number of prices, 0 if currency isn't represented in storage
+     */
+    long getPriceCount(String currencySymbol);
+}
@@ -0,0 +1,28 @@
+package com.epam.crypto.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of price storage. Version is changed after added prices are published,
+ * so a result computed after reading a version is never older than that version
+ */
+class StorageVersions {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Change version of storage after prices are added
+     */
+    void update() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get version of storage
+     *
+     * @return version
+     */
+    long getVersion() {
+        return version.get();
+    }
+}
@@ -0,0 +1,216 @@
+package com.epam.crypto.repository;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dictionary of currencies symbols with values stored in an array indexed by symbol identifier.
+ * Identifiers are dense: they are assigned from 0 as symbols are added and never change, so a symbol is checked
+ * and resolved with a single lookup, and work over all symbols is a sweep over identifiers.
+ * <p>
+ * Readers are never blocked. Values of one symbol are replaced one at a time, values of different symbols in parallel.
+ * A symbol becomes visible with its first value
+ *
+ * @param <T> type of values
+ */
+public class SymbolTable<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final Set<String> symbols = new SymbolSet();
+
+    private volatile Slot<?>[] slots = new Slot<?>[INITIAL_CAPACITY];
+
+    private volatile int size;
+
+    /**
+     * Create empty table
+     */
+    public SymbolTable() {
+    }
+
+    /**
+     * Create table of loaded values, identifiers are assigned in alphabetical order of symbols
+     *
+     * @param values map of currencies symbols to values
+     */
+    public SymbolTable(Map<String, ? extends T> values) {
+        values.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> add(entry.getKey(), Objects.requireNonNull(entry.getValue())));
+    }
+
+    /**
+     * Get identifier of symbol
+     *
+     * @param symbol currency symbol
+     * @return identifier, -1 if symbol isn't in table
+     */
+    public int getId(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get symbol by identifier
+     *
+     * @param id identifier from 0 to size - 1
+     * @return currency symbol
+     */
+    public String getSymbol(int id) {
+        return slot(id).symbol;
+    }
+
+    /**
+     * Get number of symbols
+     *
+     * @return number of symbols, identifiers are from 0 to number - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get value by symbol
+     *
+     * @param symbol currency symbol
+     * @return value, null if symbol isn't in table
+     */
+    public T get(String symbol) {
+        int id = getId(symbol);
+        return id < 0 ? null : slot(id).value;
+    }
+
+    /**
+     * Get value by identifier
+     *
+     * @param id identifier
+     * @return value, null if there's no symbol with the identifier
+     */
+    public T get(int id) {
+        return id < 0 || id >= size ? null : slot(id).value;
+    }
+
+    /**
+     * Replace value of symbol with computed one, symbol is added if it isn't in table yet.
+     * Computations for the same symbol are serialized
+     *
+     * @param symbol    currency symbol
+     * @param remapping computation of new value from current one (null if symbol isn't in table), must not return null
+     * @return new value
+     */
+    public T compute(String symbol, UnaryOperator<T> remapping) {
+        int id = getId(symbol);
+        if (id < 0) {
+            synchronized (this) {
+                id = getId(symbol);
+                if (id < 0) {
+                    T value = Objects.requireNonNull(remapping.apply(null));
+                    add(symbol, value);
+                    return value;
+                }
+            }
+        }
+        Slot<T> slot = slot(id);
+        synchronized (slot) {
+            T value = Objects.requireNonNull(remapping.apply(slot.value));
+            slot.value = value;
+            return value;
+        }
+    }
+
+    /**
+     * Get set of symbols, it's a read-only view of table iterated in order of identifiers
+     *
+     * @return set of currencies symbols
+     */
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Add symbol with its value. Slot is published before identifier and size, so readers which found
+     * the identifier always see the slot
+     *
+     * @param symbol currency symbol
+     * @param value  value
+     */
+    private synchronized void add(String symbol, T value) {
+        int id = size;
+        Slot<?>[] current = slots;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, id * 2);
+        }
+        current[id] = new Slot<>(symbol, value);
+        slots = current;
+        ids.put(symbol, id);
+        size = id + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Slot<T> slot(int id) {
+        return (Slot<T>) slots[id];
+    }
+
+    /**
+     * Symbol and its value, slot is also the lock of computations of the symbol
+     */
+    private static final class Slot<T> {
+
+        private final String symbol;
+
+        private volatile T value;
+
+        private Slot(String symbol, T value) {
+            this.symbol = symbol;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Read-only view of symbols of table
+     */
+    private class SymbolSet extends AbstractSet<String> {
+
+        @Override
+        public boolean contains(Object symbol) {
+            return symbol instanceof String && ids.containsKey(symbol);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            int end = size;
+            return new Iterator<>() {
+
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return getSymbol(next++);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,805 @@
+package com.epam.crypto.repository;
+
+import com.epam.crypto.config.PriceStorageConfig;
+import com.epam.crypto.service.DateTimeService;
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation for repository layer for working with prices and ranges based on tiered storage:
+ * every currency is stored as {@link TieredSeries}, recent prices are kept in heap
+ * and older prices are kept in cold segments: memory-mapped ('tiered' storage type)
+ * or compressed in heap ('compressed' storage type).
+ * <p>
+ * A query finds parts of series overlapping its time window and combines their results in chronological order,
+ * so it answers the same as in-heap storages regardless of tier boundaries. Segments covered by the window
+ * entirely are answered from their summaries, so most queries never touch cold data. Other segments are read
+ * through their views, so a query looks up data of a segment once.
+ * Series are immutable, added prices are published by replacing the series of currency in {@link SymbolTable},
+ * so readers never take locks and every query works with a consistent series
+ */
+@Component
+@ConditionalOnExpression(PriceStorageConfig.TIERED_STORAGE_CONDITION)
+public class TieredPriceRepository implements PriceRepository, StorageStatistics {
+
+    private static final Set<Aggregate> FIRST = EnumSet.of(Aggregate.FIRST);
+
+    private static final Set<Aggregate> LAST = EnumSet.of(Aggregate.LAST);
+
+    private static final Set<Aggregate> MIN = EnumSet.of(Aggregate.MIN);
+
+    private static final Set<Aggregate> MAX = EnumSet.of(Aggregate.MAX);
+
+    private static final Set<Aggregate> RANGE = EnumSet.of(Aggregate.RANGE);
+
+    private DateTimeService dateTimeService;
+
+    private SymbolTable<TieredSeries> storage;
+
+    private TieringPolicy tieringPolicy;
+
+    private final StorageVersions versions = new StorageVersions();
+
+    private final LongAdder scannedEntries = new LongAdder();
+
+    public TieredPriceRepository(DateTimeService dateTimeService,
+                                 @Qualifier("tieredPriceStorage") Map<String, TieredSeries> storage,
+                                 TieringPolicy tieringPolicy) {
+        this.dateTimeService = dateTimeService;
+        this.storage = new SymbolTable<>(storage);
+        this.tieringPolicy = tieringPolicy;
+    }
+
+    /**
+     * Get oldest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol) {
+        return getOldestPrice(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get oldest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, int year, int month) {
+        return getOldestPrice(currencySymbol, dateTimeService.getStartTimeStamp(year, month),
+                dateTimeService.getEndTimeStamp(year, month));
+    }
+
+    /**
+     * Get oldest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getOldestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, FIRST).getFirst();
+    }
+
+    /**
+     * Get newest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol) {
+        return getNewestPrice(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get newest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, int year, int month) {
+        return getNewestPrice(currencySymbol, dateTimeService.getStartTimeStamp(year, month),
+                dateTimeService.getEndTimeStamp(year, month));
+    }
+
+    /**
+     * Get newest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getNewestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, LAST).getLast();
+    }
+
+    /**
+     * Get lowest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol) {
+        return getLowestPrice(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get lowest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month) {
+        return getLowestPrice(currencySymbol, dateTimeService.getStartTimeStamp(year, month),
+                dateTimeService.getEndTimeStamp(year, month));
+    }
+
+    /**
+     * Get lowest price for the currency for the day
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @param day            day from 1 to 28..31 (validity depends on year and month)
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, int year, int month, int day) {
+        return getLowestPrice(currencySymbol, dateTimeService.getStartTimeStamp(year, month, day),
+                dateTimeService.getEndTimeStamp(year, month, day));
+    }
+
+    /**
+     * Get lowest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getLowestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, MIN).getMin();
+    }
+
+    /**
+     * Get highest price for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol) {
+        return getHighestPrice(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get highest price for the currency for the month
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month) {
+        return getHighestPrice(currencySymbol, dateTimeService.getStartTimeStamp(year, month),
+                dateTimeService.getEndTimeStamp(year, month));
+    }
+
+    /**
+     * Get highest price for the currency for the day
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @param day            day from 1 to 28..31 (validity depends on year and month)
+     * @return pair tuple of timestamp and price
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, int year, int month, int day) {
+        return getHighestPrice(currencySymbol, dateTimeService.getStartTimeStamp(year, month, day),
+                dateTimeService.getEndTimeStamp(year, month, day));
+    }
+
+    /**
+     * Get highest price for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return pair tuple of timestamp and price, null if there are no prices in the window
+     */
+    @Override
+    public Pair<Long, BigDecimal> getHighestPrice(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, MAX).getMax();
+    }
+
+    /**
+     * Get normalized range for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @return range
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol) {
+        return getNormalizedRange(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get normalized range for the currency for the day
+     *
+     * @param currencySymbol currency symbol
+     * @param year           year from -999999999 to 999999999
+     * @param month          month from 1 to 12
+     * @param day            day from 1 to 28..31 (validity depends on year and month)
+     * @return range
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, int year, int month, int day) {
+        return getNormalizedRange(currencySymbol, dateTimeService.getStartTimeStamp(year, month, day),
+                dateTimeService.getEndTimeStamp(year, month, day));
+    }
+
+    /**
+     * Get normalized range for the currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    @Override
+    public BigDecimal getNormalizedRange(String currencySymbol, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencySymbol, startTimestamp, endTimestamp, RANGE).getRange();
+    }
+
+    /**
+     * Get normalized range for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return range, null if there are no prices in the window
+     */
+    @Override
+    public BigDecimal getNormalizedRange(int currencyId, long startTimestamp, long endTimestamp) {
+        return getAggregates(currencyId, startTimestamp, endTimestamp, RANGE).getRange();
+    }
+
+    /**
+     * Get aggregates of prices for the currency for all time
+     *
+     * @param currencySymbol currency symbol
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same series
+     */
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, Set<Aggregate> aggregates) {
+        return getAggregates(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE, aggregates);
+    }
+
+    /**
+     * Get aggregates of prices for the currency in the time window.
+     * Aggregates of every part overlapping the window are combined, so lowest and highest prices
+     * (as well as sums for mean and variance) cost one summary lookup per covered segment
+     * and one index probe or partial scan per boundary part
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same series
+     */
+    @Override
+    public PriceAggregates getAggregates(String currencySymbol, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        return getAggregates(getSeries(currencySymbol), startTimestamp, endTimestamp, aggregates);
+    }
+
+    /**
+     * Get aggregates of prices for the currency with identifier in the time window
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates computed from the same series
+     */
+    @Override
+    public PriceAggregates getAggregates(int currencyId, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        return getAggregates(this.storage.get(currencyId), startTimestamp, endTimestamp, aggregates);
+    }
+
+    /**
+     * Get aggregates of prices of the series in the time window
+     *
+     * @param series         tiered series, null if currency isn't represented in storage
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param aggregates     aggregates to compute
+     * @return aggregates
+     */
+    private PriceAggregates getAggregates(TieredSeries series, long startTimestamp, long endTimestamp, Set<Aggregate> aggregates) {
+        List<Slice> slices = getSlices(series, startTimestamp, endTimestamp);
+        var builder = PriceAggregates.builder();
+        if (aggregates.contains(Aggregate.COUNT)) {
+            long count = 0;
+            for (Slice slice : slices) {
+                count += slice.to - slice.from;
+            }
+            builder.count(count);
+        }
+        if (slices.isEmpty()) {
+            return builder.build();
+        }
+        boolean range = aggregates.contains(Aggregate.RANGE);
+        Extremum min = range || aggregates.contains(Aggregate.MIN) ? getLowestPrice(slices) : null;
+        Extremum max = range || aggregates.contains(Aggregate.MAX) ? getHighestPrice(slices) : null;
+        if (aggregates.contains(Aggregate.FIRST)) {
+            Slice first = slices.get(0);
+            builder.first(getPair(first.prices, first.from));
+        }
+        if (aggregates.contains(Aggregate.LAST)) {
+            Slice last = slices.get(slices.size() - 1);
+            builder.last(getPair(last.prices, last.to - 1));
+        }
+        if (aggregates.contains(Aggregate.MIN)) {
+            builder.min(getPair(min.prices(), min.index()));
+        }
+        if (aggregates.contains(Aggregate.MAX)) {
+            builder.max(getPair(max.prices(), max.index()));
+        }
+        if (range) {
+            builder.range(FixedPoint.normalizedRange(min.unscaledPrice(), min.prices().getScale(),
+                    max.unscaledPrice(), max.prices().getScale()));
+        }
+        if (aggregates.contains(Aggregate.MEAN) || aggregates.contains(Aggregate.VARIANCE)) {
+            PriceSums sums = PriceSums.EMPTY;
+            for (Slice slice : slices) {
+                sums = sums.add(slice.prices.getSums(slice.from, slice.to));
+            }
+            if (aggregates.contains(Aggregate.MEAN)) {
+                builder.mean(sums.getMean());
+            }
+            if (aggregates.contains(Aggregate.VARIANCE)) {
+                builder.variance(sums.getVariance());
+            }
+        }
+        if (aggregates.contains(Aggregate.RETURN)) {
+            Slice first = slices.get(0);
+            Slice last = slices.get(slices.size() - 1);
+            builder.returnRate(FixedPoint.returnRate(first.prices.getPrice(first.from), last.prices.getPrice(last.to - 1)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get prices for the currency in the time window.
+     * Prices are read from the state of storage at the moment of call
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return iterator of pair tuples of timestamp and price in chronological order
+     */
+    @Override
+    public Iterator<Pair<Long, BigDecimal>> getPrices(String currencySymbol, long startTimestamp, long endTimestamp) {
+        List<Slice> slices = getSlices(getSeries(currencySymbol), startTimestamp, endTimestamp);
+        if (slices.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return new Iterator<>() {
+
+            private int slice;
+
+            private int next = slices.get(0).from;
+
+            @Override
+            public boolean hasNext() {
+                return slice < slices.size();
+            }
+
+            @Override
+            public Pair<Long, BigDecimal> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Slice current = slices.get(slice);
+                Pair<Long, BigDecimal> price = getPair(current.prices, next++);
+                if (next == current.to && ++slice < slices.size()) {
+                    next = slices.get(slice).from;
+                }
+                return price;
+            }
+        };
+    }
+
+    /**
+     * Get candles of prices for the currency in the time window.
+     * Candles are computed from the state of storage at the moment of call
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @param interval       length of interval in milliseconds, must be positive
+     * @return iterator of candles in chronological order
+     */
+    @Override
+    public Iterator<PriceCandle> getCandles(String currencySymbol, long startTimestamp, long endTimestamp, long interval) {
+        List<Slice> slices = getSlices(getSeries(currencySymbol), startTimestamp, endTimestamp);
+        if (slices.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return new CandleIterator(slices, interval);
+    }
+
+    /**
+     * Sample prices of the currency with identifier onto time grid: for every point start + i * interval
+     * the newest price at or before the point is written as double, NaN if there's no such price.
+     * Points are walked through parts in chronological order, so every point takes one binary search in a single part
+     *
+     * @param currencyId     currency identifier
+     * @param startTimestamp first point of grid in milliseconds
+     * @param interval       distance between points of grid in milliseconds, must be positive
+     * @param samples        array of samples
+     * @param offset         index of the sample of the first point in array
+     * @param count          number of points of grid
+     */
+    @Override
+    public void samplePrices(int currencyId, long startTimestamp, long interval, double[] samples, int offset, int count) {
+        TieredSeries series = this.storage.get(currencyId);
+        List<SortedPrices> parts = series == null ? List.of() : series.getParts();
+        int part = 0;
+        SortedPrices prices = null;
+        for (int i = 0; i < count; i++) {
+            long timestamp = startTimestamp + i * interval;
+            while (part + 1 < parts.size() && parts.get(part + 1).size() > 0 && parts.get(part + 1).getTimestamp(0) <= timestamp) {
+                part++;
+                prices = null;
+            }
+            if (prices == null && part < parts.size()) {
+                // Every part is viewed once, so columns of a segment are looked up once for all its points
+                prices = view(parts.get(part));
+            }
+            int index = prices == null ? -1 : prices.upperBound(timestamp) - 1;
+            samples[offset + i] = index < 0 ? Double.NaN : FixedPoint.toDouble(prices.getUnscaledPrice(index), prices.getScale());
+        }
+    }
+
+    /**
+     * Get set of all currencies symbols that represented in storage
+     *
+     * @return set of currencies symbols
+     */
+    @Override
+    public Set<String> getCurrencies() {
+        return this.storage.getSymbols();
+    }
+
+    /**
+     * Get identifier of currency, identifiers are assigned when currencies are added to storage
+     *
+     * @param currencySymbol currency symbol
+     * @return identifier, -1 if currency isn't represented in storage
+     */
+    @Override
+    public int getCurrencyId(String currencySymbol) {
+        return this.storage.getId(currencySymbol);
+    }
+
+    /**
+     * Get currency symbol by identifier
+     *
+     * @param currencyId currency identifier from 0 to number of currencies - 1
+     * @return currency symbol
+     */
+    @Override
+    public String getCurrencySymbol(int currencyId) {
+        return this.storage.getSymbol(currencyId);
+    }
+
+    /**
+     * Get number of currencies represented in storage
+     *
+     * @return number of currencies
+     */
+    @Override
+    public int getCurrencyCount() {
+        return this.storage.size();
+    }
+
+    /**
+     * Add prices for the currency (the currency is added if it's not represented in storage yet).
+     * All prices become visible to readers at once. Prices newer than all cold prices are added to hot series,
+     * which moves full segments of prices older than the hot window to cold storage
+     *
+     * @param currencySymbol currency symbol
+     * @param prices         list of pair tuples of timestamp and price
+     */
+    @Override
+    public void addPrices(String currencySymbol, List<Pair<Long, BigDecimal>> prices) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        List<Pair<Long, BigDecimal>> sortedPrices = new ArrayList<>(prices);
+        sortedPrices.sort(Map.Entry.comparingByKey());
+        this.storage.compute(currencySymbol, series -> {
+            if (series == null) {
+                PriceSeries.Builder builder = PriceSeries.builder();
+                sortedPrices.forEach(price -> builder.add(price.getKey(), price.getValue()));
+                return TieredSeries.of(builder.build(), tieringPolicy);
+            }
+            return series.add(sortedPrices, tieringPolicy);
+        });
+        this.versions.update();
+    }
+
+    /**
+     * Get version of storage, it's changed every time prices are added
+     *
+     * @return version
+     */
+    @Override
+    public long getVersion() {
+        return this.versions.getVersion();
+    }
+
+    /**
+     * Get total number of price entries compared one by one while answering queries
+     * (entries of partial index blocks and partially covered segments)
+     *
+     * @return number of entries since start
+     */
+    @Override
+    public long getScannedEntries() {
+        return this.scannedEntries.sum();
+    }
+
+    /**
+     * Get number of prices of the currency in all tiers
+     *
+     * @param currencySymbol currency symbol
+     * @return number of prices, 0 if currency isn't represented in storage
+     */
+    @Override
+    public long getPriceCount(String currencySymbol) {
+        TieredSeries series = getSeries(currencySymbol);
+        return series == null ? 0 : series.size();
+    }
+
+    /**
+     * Get slices of parts of series which have prices in the time range, in chronological order
+     *
+     * @param series         tiered series, may be null
+     * @param startTimestamp start of time range (inclusive)
+     * @param endTimestamp   end of time range (inclusive)
+     * @return list of slices, empty if there are no prices in the range
+     */
+    private List<Slice> getSlices(TieredSeries series, long startTimestamp, long endTimestamp) {
+        if (series == null) {
+            return List.of();
+        }
+        List<SortedPrices> parts = series.getParts();
+        List<Slice> slices = new ArrayList<>(2);
+        for (int i = series.firstPart(startTimestamp); i < parts.size(); i++) {
+            SortedPrices part = view(parts.get(i));
+            int from = part.lowerBound(startTimestamp);
+            int to = part.upperBound(endTimestamp);
+            if (to == 0) {
+                // All prices of this and next parts are newer than the range
+                break;
+            }
+            if (from < to) {
+                slices.add(new Slice(part, from, to));
+            }
+        }
+        return slices;
+    }
+
+    /**
+     * Get lowest price of slices. If there are several lowest prices, the oldest one is chosen.
+     * Prices of slices are compared by unscaled values, since common scales of parts may differ
+     *
+     * @param slices list of slices in chronological order
+     * @return lowest price
+     */
+    private Extremum getLowestPrice(List<Slice> slices) {
+        Extremum min = null;
+        for (Slice slice : slices) {
+            this.scannedEntries.add(slice.prices.scanLength(slice.from, slice.to));
+            int index = slice.prices.indexOfMin(slice.from, slice.to);
+            long price = slice.prices.getUnscaledPrice(index);
+            if (min == null || FixedPoint.compare(price, slice.prices.getScale(), min.unscaledPrice(), min.prices().getScale()) < 0) {
+                min = new Extremum(slice.prices, index, price);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Get highest price of slices. If there are several highest prices, the oldest one is chosen.
+     * Prices of slices are compared by unscaled values, since common scales of parts may differ
+     *
+     * @param slices list of slices in chronological order
+     * @return highest price
+     */
+    private Extremum getHighestPrice(List<Slice> slices) {
+        Extremum max = null;
+        for (Slice slice : slices) {
+            this.scannedEntries.add(slice.prices.scanLength(slice.from, slice.to));
+            int index = slice.prices.indexOfMax(slice.from, slice.to);
+            long price = slice.prices.getUnscaledPrice(index);
+            if (max == null || FixedPoint.compare(price, slice.prices.getScale(), max.unscaledPrice(), max.prices().getScale()) > 0) {
+                max = new Extremum(slice.prices, index, price);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Return tiered series for defined currency
+     *
+     * @param currencySymbol currency symbol
+     * @return tiered series for defined currency
+     */
+    TieredSeries getSeries(String currencySymbol) {
+        return this.storage.get(currencySymbol);
+    }
+
+    /**
+     * Get view of part of series for a single operation, cold segments are read through their views
+     *
+     * @param part part of series
+     * @return view of cold segment or the part itself
+     */
+    private static SortedPrices view(SortedPrices part) {
+        return part instanceof ColdSegment segment ? segment.view() : part;
+    }
+
+    /**
+     * Create pair tuple of timestamp and price for the price of the part
+     *
+     * @param prices part of series
+     * @param index  index of price in part
+     * @return pair tuple of timestamp and price
+     */
+    private static Pair<Long, BigDecimal> getPair(SortedPrices prices, int index) {
+        return Pair.of(prices.getTimestamp(index), prices.getPrice(index));
+    }
+
+    /**
+     * Range of indexes of a part of series
+     */
+    private static class Slice {
+
+        private final SortedPrices prices;
+
+        private final int from;
+
+        private final int to;
+
+        private Slice(SortedPrices prices, int from, int to) {
+            this.prices = prices;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Lowest or highest price of slices
+     *
+     * @param prices        part of series
+     * @param index         index of price in part
+     * @param unscaledPrice unscaled price of the common scale of part
+     */
+    private record Extremum(SortedPrices prices, int index, long unscaledPrice) {
+    }
+
+    /**
+     * Iterator of candles over slices of series. A candle is computed from the prices of its interval in every slice:
+     * lowest and highest prices of a slice are found with its index or summary, so prices aren't compared one by one
+     * unless the interval partially covers a segment
+     */
+    private class CandleIterator implements Iterator<PriceCandle> {
+
+        private final List<Slice> slices;
+
+        private final long interval;
+
+        private int slice;
+
+        private int next;
+
+        private CandleIterator(List<Slice> slices, long interval) {
+            this.slices = slices;
+            this.interval = interval;
+            this.next = slices.get(0).from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slice < slices.size();
+        }
+
+        @Override
+        public PriceCandle next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Slice current = slices.get(slice);
+            long intervalStart = Math.floorDiv(current.prices.getTimestamp(next), interval) * interval;
+            long intervalEnd = intervalStart > Long.MAX_VALUE - (interval - 1) ? Long.MAX_VALUE : intervalStart + (interval - 1);
+            BigDecimal open = current.prices.getPrice(next);
+            Extremum low = null;
+            Extremum high = null;
+            BigDecimal close = null;
+            long count = 0;
+            while (slice < slices.size()) {
+                current = slices.get(slice);
+                int end = Math.min(current.to, current.prices.upperBound(intervalEnd));
+                if (end <= next) {
+                    break;
+                }
+                scannedEntries.add(2 * current.prices.scanLength(next, end));
+                int lowIndex = current.prices.indexOfMin(next, end);
+                int highIndex = current.prices.indexOfMax(next, end);
+                long sliceLow = current.prices.getUnscaledPrice(lowIndex);
+                long sliceHigh = current.prices.getUnscaledPrice(highIndex);
+                int scale = current.prices.getScale();
+                if (low == null || FixedPoint.compare(sliceLow, scale, low.unscaledPrice(), low.prices().getScale()) < 0) {
+                    low = new Extremum(current.prices, lowIndex, sliceLow);
+                }
+                if (high == null || FixedPoint.compare(sliceHigh, scale, high.unscaledPrice(), high.prices().getScale()) > 0) {
+                    high = new Extremum(current.prices, highIndex, sliceHigh);
+                }
+                close = current.prices.getPrice(end - 1);
+                count += end - next;
+                next = end;
+                if (next < current.to) {
+                    break;
+                }
+                if (++slice < slices.size()) {
+                    next = slices.get(slice).from;
+                }
+            }
+            return PriceCandle.builder()
+                    .timestamp(intervalStart)
+                    .open(open)
+                    .high(high.prices().getPrice(high.index()))
+                    .low(low.prices().getPrice(low.index()))
+                    .close(close)
+                    .count(count)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.epam.crypto.repository;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prices of a single currency split into tiers: {@link ColdSegment}s with older prices (memory-mapped or compressed in heap,
+ * as defined by {@link TieringPolicy}) and hot in-heap {@link PriceSeries} with prices of the hot window
+ * (relative to the newest price of currency).
+ * Segments are chronological and don't overlap, all their prices are older than prices of hot series.
+ * <p>
+ * Series is immutable for readers like {@link PriceSeries}: adding prices returns a new series
+ * which shares unchanged segments with the previous one. New prices are appended to hot series,
+ * and once hot series has a full segment of prices older than the hot window, they are moved to a new segment.
+ * Prices older than the newest cold price rewrite only the segments they fall into.
+ * Series must be changed by one writer at a time, and the new series must be published safely
+ */
+public class TieredSeries {
+
+    private final List<ColdSegment> segments;
+
+    private final PriceSeries hot;
+
+    private final List<SortedPrices> parts;
+
+    private TieredSeries(List<ColdSegment> segments, PriceSeries hot) {
+        this.segments = segments;
+        this.hot = hot;
+        List<SortedPrices> allParts = new ArrayList<>(segments.size() + 1);
+        allParts.addAll(segments);
+        if (hot.size() > 0) {
+            allParts.add(hot);
+        }
+        this.parts = Collections.unmodifiableList(allParts);
+    }
+
+    /**
+     * Create tiered series from price series: all prices older than the hot window are moved to segments
+     *
+     * @param series price series
+     * @param policy tiering policy
+     * @return tiered series
+     */
+    public static TieredSeries of(PriceSeries series, TieringPolicy policy) {
+        return new TieredSeries(List.of(), series).compact(policy, true);
+    }
+
+    /**
+     * Get series with added prices. This series stays unchanged.
+     * If there's a price with the same timestamp, it's replaced
+     *
+     * @param sortedPrices list of pair tuples of timestamp and price sorted by timestamp
+     * @param policy       tiering policy
+     * @return new series
+     */
+    public TieredSeries add(List<Pair<Long, BigDecimal>> sortedPrices, TieringPolicy policy) {
+        int split = 0;
+        if (!segments.isEmpty()) {
+            ColdSegment lastSegment = segments.get(segments.size() - 1);
+            long lastColdTimestamp = lastSegment.getTimestamp(lastSegment.size() - 1);
+            while (split < sortedPrices.size() && sortedPrices.get(split).getKey() <= lastColdTimestamp) {
+                split++;
+            }
+        }
+        List<ColdSegment> newSegments = split == 0 ? segments : rewriteSegments(sortedPrices.subList(0, split), policy);
+        PriceSeries newHot = addToHot(sortedPrices.subList(split, sortedPrices.size()));
+        return new TieredSeries(newSegments, newHot).compact(policy, false);
+    }
+
+    /**
+     * Get parts of series in chronological order: segments and hot series (if it isn't empty)
+     *
+     * @return list of parts
+     */
+    List<SortedPrices> getParts() {
+        return parts;
+    }
+
+    /**
+     * Get index of the first part which has prices with timestamp greater than or equal to defined one.
+     * Parts are binary searched by their newest prices which are kept in heap
+     *
+     * @param timestamp timestamp in milliseconds
+     * @return index from 0 to number of parts (number of parts if there's no such part)
+     */
+    int firstPart(long timestamp) {
+        int low = 0;
+        int high = parts.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            SortedPrices part = parts.get(middle);
+            if (part.getTimestamp(part.size() - 1) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get cold segments in chronological order
+     *
+     * @return list of segments
+     */
+    public List<ColdSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Get hot series
+     *
+     * @return series with prices of the hot window
+     */
+    public PriceSeries getHot() {
+        return hot;
+    }
+
+    /**
+     * Get number of prices in all tiers
+     *
+     * @return number of prices
+     */
+    public long size() {
+        long size = hot.size();
+        for (ColdSegment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Move prices of hot series older than the hot window to new segments
+     *
+     * @param policy tiering policy
+     * @param all    move all such prices, otherwise only full segments are moved
+     * @return new series, or this series if there's nothing to move
+     */
+    private TieredSeries compact(TieringPolicy policy, boolean all) {
+        int size = hot.size();
+        if (size == 0) {
+            return this;
+        }
+        long newest = hot.getTimestamp(size - 1);
+        long window = policy.getHotWindow();
+        long boundary = newest < Long.MIN_VALUE + window ? Long.MIN_VALUE : newest - window;
+        int cold = hot.lowerBound(boundary);
+        if (!all) {
+            cold -= cold % policy.getSegmentSize();
+        }
+        if (cold == 0) {
+            return this;
+        }
+        List<ColdSegment> newSegments = new ArrayList<>(segments);
+        newSegments.addAll(writeSegments(hot, 0, cold, policy));
+        return new TieredSeries(List.copyOf(newSegments), hot.copyOfRange(cold, size));
+    }
+
+    /**
+     * Rewrite segments which prices older than the newest cold price fall into.
+     * A price falls into the first segment whose newest price isn't older than it
+     *
+     * @param sortedPrices list of pair tuples of timestamp and price sorted by timestamp
+     * @param policy       tiering policy
+     * @return new list of segments
+     */
+    private List<ColdSegment> rewriteSegments(List<Pair<Long, BigDecimal>> sortedPrices, TieringPolicy policy) {
+        List<ColdSegment> newSegments = new ArrayList<>(segments.size() + 1);
+        int next = 0;
+        for (ColdSegment segment : segments) {
+            int end = next;
+            long lastTimestamp = segment.getTimestamp(segment.size() - 1);
+            while (end < sortedPrices.size() && sortedPrices.get(end).getKey() <= lastTimestamp) {
+                end++;
+            }
+            if (end == next) {
+                newSegments.add(segment);
+                continue;
+            }
+            PriceSeries.Builder builder = PriceSeries.builder();
+            segment.addTo(builder);
+            sortedPrices.subList(next, end).forEach(price -> builder.add(price.getKey(), price.getValue()));
+            PriceSeries series = builder.build();
+            newSegments.addAll(writeSegments(series, 0, series.size(), policy));
+            next = end;
+        }
+        return List.copyOf(newSegments);
+    }
+
+    /**
+     * Add prices newer than the newest cold price to hot series.
+     * Prices newer than all hot prices are appended, otherwise they are merged with the tail of hot series
+     *
+     * @param sortedPrices list of pair tuples of timestamp and price sorted by timestamp
+     * @return new hot series
+     */
+    private PriceSeries addToHot(List<Pair<Long, BigDecimal>> sortedPrices) {
+        if (sortedPrices.isEmpty()) {
+            return hot;
+        }
+        if (hot.size() == 0 || sortedPrices.get(0).getKey() <= hot.getTimestamp(hot.size() - 1)) {
+            PriceSeries.Builder builder = PriceSeries.builder();
+            sortedPrices.forEach(price -> builder.add(price.getKey(), price.getValue()));
+            return hot.addAll(builder);
+        }
+        PriceSeries result = hot;
+        for (Pair<Long, BigDecimal> price : sortedPrices) {
+            result = result.append(price.getKey(), price.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Write prices of the range of indexes of series to segments of max size
+     *
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive)
+     * @param policy tiering policy
+     * @return list of segments
+     */
+    private static List<ColdSegment> writeSegments(PriceSeries series, int from, int to, TieringPolicy policy) {
+        List<ColdSegment> result = new ArrayList<>();
+        for (int start = from; start < to; start += policy.getSegmentSize()) {
+            int end = (int) Math.min(to, (long) start + policy.getSegmentSize());
+            result.add(policy.writeSegment(series, start, end));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package com.epam.crypto.repository;
+
+import lombok.Getter;
+
+/**
+ * Policy of tiered storage: which prices stay in heap and how cold prices are stored.
+ * Cold prices are written either to memory-mapped segments of {@link SegmentStore}
+ * or to segments compressed in heap, which are decoded into {@link DecodedSegmentCache}
+ */
+@Getter
+public class TieringPolicy {
+
+    /**
+     * Store of cold segments, null if cold segments are compressed in heap
+     */
+    private final SegmentStore store;
+
+    /**
+     * Cache of decoded compressed segments, null if cold segments are memory-mapped
+     */
+    private final DecodedSegmentCache segmentCache;
+
+    /**
+     * Length of hot window in milliseconds: prices newer than the newest price of currency minus window stay in heap
+     */
+    private final long hotWindow;
+
+    /**
+     * Max number of prices in one cold segment
+     */
+    private final int segmentSize;
+
+    /**
+     * Create policy of memory-mapped cold segments
+     *
+     * @param store       store of cold segments
+     * @param hotWindow   length of hot window in milliseconds
+     * @param segmentSize max number of prices in one cold segment
+     */
+    public TieringPolicy(SegmentStore store, long hotWindow, int segmentSize) {
+        this(store, null, hotWindow, segmentSize);
+    }
+
+    /**
+     * Create policy of cold segments compressed in heap
+     *
+     * @param segmentCache cache of decoded segments
+     * @param hotWindow    length of hot window in milliseconds
+     * @param segmentSize  max number of prices in one cold segment
+     */
+    public TieringPolicy(DecodedSegmentCache segmentCache, long hotWindow, int segmentSize) {
+        this(null, segmentCache, hotWindow, segmentSize);
+    }
+
+    private TieringPolicy(SegmentStore store, DecodedSegmentCache segmentCache, long hotWindow, int segmentSize) {
+        if (hotWindow < 0) {
+            throw new IllegalArgumentException("Hot window must not be negative: " + hotWindow);
+        }
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE / (2 * Long.BYTES + 1)) {
+            throw new IllegalArgumentException("Unsupported segment size: " + segmentSize);
+        }
+        this.store = store;
+        this.segmentCache = segmentCache;
+        this.hotWindow = hotWindow;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Write prices of the range of indexes of series as a new cold segment
+     *
+     * @param series price series
+     * @param from   first index (inclusive)
+     * @param to     last index (exclusive), must be greater than first index
+     * @return segment
+     */
+    ColdSegment writeSegment(PriceSeries series, int from, int to) {
+        if (store != null) {
+            return PriceSegment.write(store, series, from, to);
+        }
+        return CompressedSegment.write(segmentCache, series, from, to);
+    }
+}
@@ -0,0 +1,296 @@
+package com.epam.crypto.service;
+
+import com.epam.crypto.repository.PriceRepository;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pairwise correlation of returns of currencies. Prices of every currency are sampled onto a common time grid
+ * into one flat buffer of doubles and turned into simple returns centred on their mean, then Pearson correlation is computed for every pair
+ * of currencies, which have returns at the same points of grid. Both phases are fork/join tasks: sampling is split
+ * by currencies, correlation is split by tiles of {@value #TILE} x {@value #TILE} pairs of currencies, so rows of
+ * a tile stay in cache while it's computed.
+ * <p>
+ * Buffer of samples is reused by requests: a request takes it and puts it back when done,
+ * concurrent requests allocate their own buffers
+ */
+public class CorrelationMatrix {
+
+    /**
+     * Max number of points of time grid
+     */
+    public static final int MAX_POINTS = 10_000;
+
+    /**
+     * Max number of samples (number of currencies multiplied by number of points of time grid)
+     */
+    public static final int MAX_SAMPLES = 1 << 22;
+
+    private static final int TILE = 32;
+
+    // Number of currencies sampled by one task
+    private static final int SAMPLING_BATCH = 8;
+
+    // Number of tiles computed by one task
+    private static final int TILES_BATCH = 2;
+
+    private final PriceRepository priceRepository;
+
+    private final SymbolFanOut symbolFanOut;
+
+    private final AtomicReference<double[]> buffer = new AtomicReference<>();
+
+    /**
+     * Create correlation matrix
+     *
+     * @param priceRepository repository of prices
+     * @param symbolFanOut    fan-out of sampling and correlation of currencies
+     */
+    public CorrelationMatrix(PriceRepository priceRepository, SymbolFanOut symbolFanOut) {
+        this.priceRepository = priceRepository;
+        this.symbolFanOut = symbolFanOut;
+    }
+
+    /**
+     * Compute correlation matrix of returns of currencies. Price of currency at a point of grid is its newest price
+     * at or before the point, return at a point is price change since the previous point relative to the previous price.
+     * Correlation of a pair is computed from returns at points where both currencies have returns
+     *
+     * @param currencyIds    identifiers of currencies
+     * @param startTimestamp first point of grid in milliseconds
+     * @param interval       distance between points of grid in milliseconds, must be positive
+     * @param points         number of points of grid
+     * @return symmetric matrix of correlations in order of identifiers, NaN if a pair has less than two returns
+     * or returns of any currency of a pair are constant
+     * @throws IllegalArgumentException if there are more points or samples than allowed
+     */
+    public double[][] compute(int[] currencyIds, long startTimestamp, long interval, int points) {
+        if (points > MAX_POINTS) {
+            throw new IllegalArgumentException("Time grid must have at most " + MAX_POINTS + " points");
+        }
+        if ((long) currencyIds.length * points > MAX_SAMPLES) {
+            throw new IllegalArgumentException("Number of currencies multiplied by number of points of time grid must be at most " + MAX_SAMPLES);
+        }
+        int size = currencyIds.length * points;
+        double[] samples = buffer.getAndSet(null);
+        if (samples == null || samples.length < size) {
+            samples = new double[size];
+        }
+        try {
+            int[] starts = new int[currencyIds.length];
+            double[][] correlations = new double[currencyIds.length][currencyIds.length];
+            symbolFanOut.invoke(currencyIds.length,
+                    new Sampling(currencyIds, startTimestamp, interval, points, samples, starts, 0, currencyIds.length));
+            int tiles = (currencyIds.length + TILE - 1) / TILE;
+            symbolFanOut.invoke(currencyIds.length,
+                    new Correlation(samples, starts, points, correlations, tiles, 0, tiles * (tiles + 1) / 2));
+            return correlations;
+        } finally {
+            buffer.set(samples);
+        }
+    }
+
+    /**
+     * Turn prices of a row into simple returns in place: return at a point replaces price at it,
+     * the first point and points without the previous price get NaN
+     *
+     * @param samples buffer of samples
+     * @param offset  index of the first sample of row
+     * @param points  number of points of grid
+     * @return index of the first point with return, number of points if there are no returns
+     */
+    static int toReturns(double[] samples, int offset, int points) {
+        int start = points;
+        double previous = Double.NaN;
+        for (int i = 0; i < points; i++) {
+            double price = samples[offset + i];
+            samples[offset + i] = price / previous - 1;
+            if (start == points && !Double.isNaN(previous)) {
+                start = i;
+            }
+            previous = price;
+        }
+        return start;
+    }
+
+    /**
+     * Subtract mean of returns of a row from them. Correlation doesn't change when a row is shifted,
+     * but sums of centred returns and of their products don't cancel out, when returns are close to a large mean
+     *
+     * @param samples buffer of samples
+     * @param offset  index of the first sample of row
+     * @param start   index of the first point with return
+     * @param points  number of points of grid
+     */
+    static void centre(double[] samples, int offset, int start, int points) {
+        double sum = 0;
+        for (int i = start; i < points; i++) {
+            sum += samples[offset + i];
+        }
+        double mean = sum / (points - start);
+        for (int i = start; i < points; i++) {
+            samples[offset + i] -= mean;
+        }
+    }
+
+    /**
+     * Compute Pearson correlation of two rows of returns in a single pass. Rows are expected to be centred,
+     * so the sums are small and the formula doesn't lose precision on subtraction of close numbers
+     *
+     * @param samples buffer of samples
+     * @param first   index of the first sample of the first row
+     * @param second  index of the first sample of the second row
+     * @param from    the first point (inclusive), both rows have returns from it
+     * @param to      the last point (exclusive)
+     * @return correlation from -1 to 1, NaN if there are less than two returns or any row is constant
+     */
+    static double correlate(double[] samples, int first, int second, int from, int to) {
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumYY = 0;
+        double sumXY = 0;
+        for (int i = from; i < to; i++) {
+            double x = samples[first + i];
+            double y = samples[second + i];
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumYY += y * y;
+            sumXY += x * y;
+        }
+        int count = to - from;
+        double varianceX = count * sumXX - sumX * sumX;
+        double varianceY = count * sumYY - sumY * sumY;
+        if (count < 2 || varianceX <= 0 || varianceY <= 0) {
+            return Double.NaN;
+        }
+        double correlation = (count * sumXY - sumX * sumY) / Math.sqrt(varianceX * varianceY);
+        return Math.max(-1, Math.min(1, correlation));
+    }
+
+    /**
+     * Sampling of prices of a range of currencies into their rows of buffer, prices are turned into centred returns
+     */
+    private class Sampling extends RecursiveAction {
+
+        private final int[] currencyIds;
+
+        private final long startTimestamp;
+
+        private final long interval;
+
+        private final int points;
+
+        private final double[] samples;
+
+        private final int[] starts;
+
+        private final int from;
+
+        private final int to;
+
+        private Sampling(int[] currencyIds, long startTimestamp, long interval, int points,
+                         double[] samples, int[] starts, int from, int to) {
+            this.currencyIds = currencyIds;
+            this.startTimestamp = startTimestamp;
+            this.interval = interval;
+            this.points = points;
+            this.samples = samples;
+            this.starts = starts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SAMPLING_BATCH && ForkJoinTask.inForkJoinPool()) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Sampling(currencyIds, startTimestamp, interval, points, samples, starts, from, middle),
+                        new Sampling(currencyIds, startTimestamp, interval, points, samples, starts, middle, to));
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                priceRepository.samplePrices(currencyIds[row], startTimestamp, interval, samples, row * points, points);
+                starts[row] = toReturns(samples, row * points, points);
+                centre(samples, row * points, starts[row], points);
+            }
+        }
+    }
+
+    /**
+     * Correlation of a range of tiles of pairs of currencies. Tiles (i, j) with i <= j are numbered row by row,
+     * both cells of every pair are written, so the matrix is symmetric
+     */
+    private static class Correlation extends RecursiveAction {
+
+        private final double[] samples;
+
+        private final int[] starts;
+
+        private final int points;
+
+        private final double[][] correlations;
+
+        private final int tiles;
+
+        private final int from;
+
+        private final int to;
+
+        private Correlation(double[] samples, int[] starts, int points, double[][] correlations,
+                            int tiles, int from, int to) {
+            this.samples = samples;
+            this.starts = starts;
+            this.points = points;
+            this.correlations = correlations;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TILES_BATCH && ForkJoinTask.inForkJoinPool()) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Correlation(samples, starts, points, correlations, tiles, from, middle),
+                        new Correlation(samples, starts, points, correlations, tiles, middle, to));
+                return;
+            }
+            // Find tile of the first number: row i has tiles - i tiles
+            int rowTile = 0;
+            int columnTile = from;
+            while (columnTile >= tiles - rowTile) {
+                columnTile -= tiles - rowTile;
+                rowTile++;
+            }
+            columnTile += rowTile;
+            for (int number = from; number < to; number++) {
+                computeTile(rowTile, columnTile);
+                if (++columnTile == tiles) {
+                    rowTile++;
+                    columnTile = rowTile;
+                }
+            }
+        }
+
+        private void computeTile(int rowTile, int columnTile) {
+            int size = correlations.length;
+            for (int row = rowTile * TILE; row < Math.min(size, (rowTile + 1) * TILE); row++) {
+                int firstColumn = rowTile == columnTile ? row : columnTile * TILE;
+                for (int column = firstColumn; column < Math.min(size, (columnTile + 1) * TILE); column++) {
+                    double correlation = correlate(samples, row * points, column * points,
+                            Math.max(starts[row], starts[column]), points);
+                    if (row == column) {
+                        // Correlation of currency with itself is exactly 1 if defined
+                        correlation = Double.isNaN(correlation) ? correlation : 1;
+                    }
+                    correlations[row][column] = correlation;
+                    correlations[column][row] = correlation;
+                }
+            }
+        }
+    }
+}
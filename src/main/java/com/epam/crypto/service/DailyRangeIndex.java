@@ -0,0 +1,230 @@
+package com.epam.crypto.service;
+
+import com.epam.crypto.model.DailyRangesDto;
+import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.repository.PriceCandle;
+import com.epam.crypto.repository.PriceRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index of the highest normalized ranges of every day (UTC+0), kept up to date as prices are added.
+ * Index is built from repository once, after that only days of added prices are updated for their currency,
+ * so the highest ranges of a day or of a period of days are read from index without computing ranges of all currencies.
+ * <p>
+ * Every day keeps at most top size ranges. When a kept range decreases while other currencies may be out of the top,
+ * the day is computed again from repository. Readers are never blocked and see immutable tops of days, writers are serialized.
+ * Index reflects only prices which were reported by {@link #update(String, Collection)}
+ */
+public class DailyRangeIndex {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final Comparator<RangeDto> ORDER = Comparator.comparing(RangeDto::getRange).reversed()
+            .thenComparing(RangeDto::getCurrencySymbol);
+
+    private final PriceRepository priceRepository;
+
+    private final SymbolFanOut symbolFanOut;
+
+    private final int topSize;
+
+    private final NavigableMap<Long, List<RangeDto>> days = new ConcurrentSkipListMap<>();
+
+    private volatile boolean built;
+
+    /**
+     * Create index, it's built on the first read
+     *
+     * @param priceRepository repository of prices
+     * @param symbolFanOut    fan-out of computation of ranges while index is built
+     * @param topSize         max number of ranges kept for every day
+     */
+    public DailyRangeIndex(PriceRepository priceRepository, SymbolFanOut symbolFanOut, int topSize) {
+        if (topSize <= 0) {
+            throw new IllegalArgumentException("Top size must be positive: " + topSize);
+        }
+        this.priceRepository = priceRepository;
+        this.symbolFanOut = symbolFanOut;
+        this.topSize = topSize;
+    }
+
+    /**
+     * Get the highest ranges on date
+     *
+     * @param date  date
+     * @param limit max number of ranges, from 1 to top size
+     * @return list of ranges sorted in descending order (currencies with equal ranges are sorted by symbol),
+     * empty if there are no prices on date
+     * @throws IllegalArgumentException if limit is out of bounds
+     */
+    public List<RangeDto> getTopRanges(LocalDate date, int limit) {
+        checkLimit(limit);
+        if (!built) {
+            build();
+        }
+        List<RangeDto> top = days.getOrDefault(date.toEpochDay(), List.of());
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    /**
+     * Get the highest ranges of every day of period, days without prices are skipped
+     *
+     * @param startDate first date of period (inclusive)
+     * @param endDate   last date of period (inclusive)
+     * @param limit     max number of ranges of every day, from 1 to top size
+     * @return list of days in chronological order
+     * @throws IllegalArgumentException if limit is out of bounds
+     */
+    public List<DailyRangesDto> getTopRanges(LocalDate startDate, LocalDate endDate, int limit) {
+        checkLimit(limit);
+        if (!built) {
+            build();
+        }
+        return days.subMap(startDate.toEpochDay(), true, endDate.toEpochDay(), true).entrySet().stream()
+                .map(day -> DailyRangesDto.builder()
+                        .date(LocalDate.ofEpochDay(day.getKey()))
+                        .ranges(day.getValue().size() > limit ? day.getValue().subList(0, limit) : day.getValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Update ranges of currency on days of added prices.
+     * Nothing is done until index is built, the days are indexed while building then
+     *
+     * @param currencySymbol currency symbol
+     * @param timestamps     timestamps of added prices in milliseconds
+     */
+    public synchronized void update(String currencySymbol, Collection<Long> timestamps) {
+        if (!built) {
+            return;
+        }
+        timestamps.stream()
+                .map(timestamp -> Math.floorDiv(timestamp, DAY_MILLIS))
+                .distinct()
+                .forEach(day -> updateDay(day, currencySymbol));
+    }
+
+    /**
+     * Get max number of ranges kept for every day
+     *
+     * @return top size
+     */
+    public int getTopSize() {
+        return topSize;
+    }
+
+    /**
+     * Build index of all currencies of repository, if it isn't built yet.
+     * Days with prices of currency are found by daily candles
+     */
+    private synchronized void build() {
+        if (built) {
+            return;
+        }
+        List<List<Map.Entry<Long, RangeDto>>> ranges = symbolFanOut.map(priceRepository.getCurrencyCount(), currencyId -> {
+            List<Map.Entry<Long, RangeDto>> currencyRanges = new ArrayList<>();
+            String currencySymbol = priceRepository.getCurrencySymbol(currencyId);
+            Iterator<PriceCandle> candles = priceRepository.getCandles(currencySymbol, Long.MIN_VALUE, Long.MAX_VALUE, DAY_MILLIS);
+            while (candles.hasNext()) {
+                long day = Math.floorDiv(candles.next().getTimestamp(), DAY_MILLIS);
+                RangeDto range = getRange(currencyId, currencySymbol, day);
+                if (range != null) {
+                    currencyRanges.add(Map.entry(day, range));
+                }
+            }
+            return currencyRanges;
+        });
+        Map<Long, List<RangeDto>> allDays = new HashMap<>();
+        ranges.forEach(currencyRanges -> currencyRanges.forEach(range ->
+                allDays.computeIfAbsent(range.getKey(), key -> new ArrayList<>()).add(range.getValue())));
+        allDays.forEach((day, dayRanges) -> days.put(day, toTop(dayRanges)));
+        built = true;
+    }
+
+    /**
+     * Update range of currency on day
+     *
+     * @param day            day (number of days since epoch)
+     * @param currencySymbol currency symbol
+     */
+    private void updateDay(long day, String currencySymbol) {
+        RangeDto range = getRange(priceRepository.getCurrencyId(currencySymbol), currencySymbol, day);
+        List<RangeDto> top = days.getOrDefault(day, List.of());
+        RangeDto current = top.stream()
+                .filter(rangeDto -> rangeDto.getCurrencySymbol().equals(currencySymbol))
+                .findAny()
+                .orElse(null);
+        if (current == null && range == null
+                || current != null && range != null && current.getRange().compareTo(range.getRange()) == 0) {
+            return;
+        }
+        boolean decreased = current != null && (range == null || range.getRange().compareTo(current.getRange()) < 0);
+        List<RangeDto> dayRanges;
+        if (decreased && top.size() == topSize) {
+            // Currencies out of the top may overtake the decreased one
+            dayRanges = symbolFanOut.map(priceRepository.getCurrencyCount(),
+                            currencyId -> getRange(currencyId, priceRepository.getCurrencySymbol(currencyId), day)).stream()
+                    .filter(Objects::nonNull)
+                    .toList();
+        } else {
+            dayRanges = new ArrayList<>(top);
+            dayRanges.remove(current);
+            if (range != null) {
+                dayRanges.add(range);
+            }
+        }
+        if (dayRanges.isEmpty()) {
+            days.remove(day);
+        } else {
+            days.put(day, toTop(dayRanges));
+        }
+    }
+
+    /**
+     * Get range of currency on day from repository
+     *
+     * @param currencyId     currency identifier, -1 if currency isn't represented in repository
+     * @param currencySymbol currency symbol
+     * @param day            day (number of days since epoch)
+     * @return range, null if there are no prices on day
+     */
+    private RangeDto getRange(int currencyId, String currencySymbol, long day) {
+        if (currencyId < 0) {
+            return null;
+        }
+        long startTimestamp = day * DAY_MILLIS;
+        BigDecimal range = priceRepository.getNormalizedRange(currencyId, startTimestamp, startTimestamp + DAY_MILLIS - 1);
+        return range == null ? null : RangeDto.builder().currencySymbol(currencySymbol).range(range).build();
+    }
+
+    /**
+     * Sort ranges of day and keep top of them
+     *
+     * @param dayRanges ranges of day
+     * @return immutable list of at most top size ranges
+     */
+    private List<RangeDto> toTop(List<RangeDto> dayRanges) {
+        return dayRanges.stream()
+                .sorted(ORDER)
+                .limit(topSize)
+                .toList();
+    }
+
+    /**
+     * Check that limit is within top size
+     *
+     * @param limit max number of ranges
+     * @throws IllegalArgumentException if limit is out of bounds
+     */
+    void checkLimit(int limit) {
+        if (limit <= 0 || limit > topSize) {
+            throw new IllegalArgumentException("Limit must be from 1 to " + topSize);
+        }
+    }
+}
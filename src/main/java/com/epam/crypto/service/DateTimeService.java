@@ -2,22 +2,35 @@ package com.epam.crypto.service;
 
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.YearMonth;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.temporal.ChronoField;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Boundaries of calendar periods (days and months) in milliseconds.
+ * Boundaries in UTC+0 and other fixed offsets are computed arithmetically, boundaries in time zones with transitions
+ * are found in {@link ZoneCalendar} transitions collected on first use, so no objects are allocated per call.
+ * End of period is the last millisecond before start of the next period, so days around DST transitions
+ * are 23 or 25 hours long
+ */
 @Service
 public class DateTimeService {
 
+    static final long MILLIS_PER_DAY = 86_400_000L;
+
     private static final int FIRST_DAY_OF_MONTH = 1;
 
-    private static final int LAST_HOUR = 23;
-    private static final int LAST_MINUTE = 59;
-    private static final int LAST_SECOND = 59;
-    private static final int LAST_NANOSECOND = 999_999_999;
+    // Number of days from 0000-03-01 to 1970-01-01
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+
+    private static final long DAYS_PER_ERA = 146_097L;
+
+    private final Map<ZoneId, ZoneCalendar> calendars = new ConcurrentHashMap<>();
 
     /**
      * Get timestamp of start of defined month
@@ -26,11 +39,10 @@ public class DateTimeService {
      * @param month month from 1 to 12
      * @return milliseconds
      */
-    public Long getStartTimeStamp(int year, int month) {
+    public long getStartTimeStamp(int year, int month) {
         return getStartTimeStamp(year, month, FIRST_DAY_OF_MONTH);
     }
 
-
     /**
      * Get timestamp of start of defined day
      *
@@ -39,25 +51,22 @@ public class DateTimeService {
      * @param day   day from 1 to 28..31 (validity depends on month and year)
      * @return milliseconds
      */
-    public Long getStartTimeStamp(int year, int month, int day) {
-        return localDateTimeToSeconds(LocalDate.of(year, month, day).atStartOfDay());
+    public long getStartTimeStamp(int year, int month, int day) {
+        return Math.multiplyExact(toEpochDay(year, month, day), MILLIS_PER_DAY);
     }
 
     /**
-     * Get timestamp of start of defined day
+     * Get timestamp of end of defined month
      *
      * @param year  year from -999999999 to 99999999
      * @param month month from 1 to 12
      * @return milliseconds
      */
-    public Long getEndTimeStamp(int year, int month) {
-        LocalDateTime localDateTime = YearMonth.of(year, month)
-                .atEndOfMonth()
-                .atTime(LAST_HOUR, LAST_MINUTE, LAST_SECOND, LAST_NANOSECOND);
-        return localDateTimeToSeconds(localDateTime);
+    public long getEndTimeStamp(int year, int month) {
+        long epochDay = toEpochDay(year, month, FIRST_DAY_OF_MONTH) + lengthOfMonth(year, month);
+        return Math.multiplyExact(epochDay, MILLIS_PER_DAY) - 1;
     }
 
-
     /**
      * Get timestamp of end of defined day
      *
@@ -66,22 +75,129 @@ public class DateTimeService {
      * @param day   day from 1 to 28..31 (validity depends on month and year)
      * @return milliseconds
      */
-    public Long getEndTimeStamp(int year, int month, int day) {
-        LocalDateTime localDateTime = LocalDate.of(year, month, day).atTime(LAST_HOUR, LAST_MINUTE, LAST_SECOND, LAST_NANOSECOND);
-        return localDateTimeToSeconds(localDateTime);
+    public long getEndTimeStamp(int year, int month, int day) {
+        return Math.multiplyExact(toEpochDay(year, month, day) + 1, MILLIS_PER_DAY) - 1;
+    }
+
+    /**
+     * Get timestamp of start of defined month in time zone
+     *
+     * @param year  year from -999999999 to 99999999
+     * @param month month from 1 to 12
+     * @param zone  time zone
+     * @return milliseconds
+     */
+    public long getStartTimeStamp(int year, int month, ZoneId zone) {
+        return getStartTimeStamp(year, month, FIRST_DAY_OF_MONTH, zone);
+    }
+
+    /**
+     * Get timestamp of start of defined day in time zone.
+     * If midnight is skipped by DST transition, day starts at the end of the gap
+     *
+     * @param year  year from -999999999 to 99999999
+     * @param month month from 1 to 12
+     * @param day   day from 1 to 28..31 (validity depends on month and year)
+     * @param zone  time zone
+     * @return milliseconds
+     */
+    public long getStartTimeStamp(int year, int month, int day, ZoneId zone) {
+        return getStartOfDay(toEpochDay(year, month, day), zone);
     }
 
     /**
-     * Convert local datetime to milliseconds (in UTC+0 timezone)
+     * Get timestamp of end of defined month in time zone
      *
-     * @param source source local datetime
+     * @param year  year from -999999999 to 99999999
+     * @param month month from 1 to 12
+     * @param zone  time zone
      * @return milliseconds
      */
-    private Long localDateTimeToSeconds(LocalDateTime source) {
-        return Optional.ofNullable(source).stream()
-                .filter(Objects::nonNull)
-                .map(localDateTime -> localDateTime.toInstant(ZoneOffset.UTC).toEpochMilli())
-                .findFirst()
-                .orElse(null);
+    public long getEndTimeStamp(int year, int month, ZoneId zone) {
+        long epochDay = toEpochDay(year, month, FIRST_DAY_OF_MONTH) + lengthOfMonth(year, month);
+        return getStartOfDay(epochDay, zone) - 1;
+    }
+
+    /**
+     * Get timestamp of end of defined day in time zone
+     *
+     * @param year  year from -999999999 to 99999999
+     * @param month month from 1 to 12
+     * @param day   day from 1 to 28..31 (validity depends on month and year)
+     * @param zone  time zone
+     * @return milliseconds
+     */
+    public long getEndTimeStamp(int year, int month, int day, ZoneId zone) {
+        return getStartOfDay(toEpochDay(year, month, day) + 1, zone) - 1;
+    }
+
+    /**
+     * Check whether time zone is UTC+0
+     *
+     * @param zone time zone, null means UTC+0
+     * @return true if zone has no offset at all times
+     */
+    public static boolean isUtc(ZoneId zone) {
+        return zone == null || ZoneOffset.UTC.equals(zone.normalized());
+    }
+
+    /**
+     * Get start of day in time zone. Fixed offsets are computed arithmetically and never cached,
+     * calendars are cached only for region zones with transitions, so the cache is bounded by the number of regions
+     *
+     * @param epochDay number of days since 1970-01-01
+     * @param zone     time zone
+     * @return milliseconds
+     */
+    private long getStartOfDay(long epochDay, ZoneId zone) {
+        ZoneRules rules = zone instanceof ZoneOffset ? null : zone.getRules();
+        if (rules == null || rules.isFixedOffset()) {
+            ZoneOffset offset = rules == null ? (ZoneOffset) zone : rules.getOffset(Instant.EPOCH);
+            return Math.subtractExact(Math.multiplyExact(epochDay, MILLIS_PER_DAY), offset.getTotalSeconds() * 1000L);
+        }
+        ZoneCalendar calendar = calendars.get(zone);
+        if (calendar == null) {
+            calendar = calendars.computeIfAbsent(zone, ZoneCalendar::new);
+        }
+        return calendar.getStartOfDay(epochDay);
+    }
+
+    /**
+     * Convert date to number of days since 1970-01-01 (proleptic Gregorian calendar)
+     *
+     * @param year  year from -999999999 to 99999999
+     * @param month month from 1 to 12
+     * @param day   day from 1 to 28..31 (validity depends on month and year)
+     * @return number of days
+     * @throws DateTimeException if date is invalid
+     */
+    static long toEpochDay(int year, int month, int day) {
+        ChronoField.YEAR.checkValidValue(year);
+        ChronoField.MONTH_OF_YEAR.checkValidValue(month);
+        if (day < 1 || day > lengthOfMonth(year, month)) {
+            throw new DateTimeException("Invalid date: " + year + "-" + month + "-" + day);
+        }
+        // Years start in March, so the leap day is the last day of year
+        long shiftedYear = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(shiftedYear, 400);
+        long yearOfEra = shiftedYear - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Get number of days in month
+     *
+     * @param year  year
+     * @param month month from 1 to 12
+     * @return number of days
+     */
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
     }
 }
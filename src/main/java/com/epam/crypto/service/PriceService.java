@@ -1,62 +1,323 @@
 package com.epam.crypto.service;
 
+import com.epam.crypto.exception.NoDataFoundException;
+import com.epam.crypto.model.CandleDto;
+import com.epam.crypto.model.CorrelationMatrixDto;
+import com.epam.crypto.model.DailyRangesDto;
+import com.epam.crypto.model.PriceBatchItemDto;
 import com.epam.crypto.model.PriceDto;
 import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.model.StatisticsDto;
+import com.epam.crypto.model.TickDto;
+import com.epam.crypto.repository.Aggregate;
+import com.epam.crypto.repository.PriceAggregates;
+import com.epam.crypto.repository.PriceCandle;
 import com.epam.crypto.repository.PriceRepository;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Service to perform operation with prices and ranges
+ * Service to perform operation with prices and ranges.
+ * Ranges for all time are cached until prices they are computed from are changed and ranked as prices are added,
+ * the highest ranges of every day are indexed as prices are added.
+ * Latency of operations and hits and misses of caches are recorded to meter registry
  */
 @Service
-@AllArgsConstructor
 public class PriceService {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final int MAX_ZONED_PERIOD_DAYS = 366;
+
+    private static final int MAX_ROLLING_WINDOWS = 100_000;
+
+    private static final Comparator<RangeDto> RANGES_ORDER = Comparator.comparing(RangeDto::getRange).reversed()
+            .thenComparing(RangeDto::getCurrencySymbol);
+
+    private static final Set<Aggregate> PRICE_AGGREGATES = EnumSet.of(Aggregate.FIRST, Aggregate.LAST, Aggregate.MIN, Aggregate.MAX);
+
+    private static final Set<Aggregate> STATISTICS_AGGREGATES = EnumSet.of(Aggregate.COUNT, Aggregate.MEAN,
+            Aggregate.VARIANCE, Aggregate.RETURN);
+
+    private static final Set<Aggregate> BOUNDS_AGGREGATES = EnumSet.of(Aggregate.FIRST, Aggregate.LAST);
+
+    private static final Set<Aggregate> NEXT_PRICE_AGGREGATES = EnumSet.of(Aggregate.FIRST);
+
     private PriceRepository priceRepository;
 
+    private DateTimeService dateTimeService;
+
+    private SymbolFanOut symbolFanOut;
+
+    // Ranges are cached by time window, all-time ranges by the window from Long.MIN_VALUE to Long.MAX_VALUE
+    private VersionedCache<Pair<Long, Long>, List<RangeDto>> rangesCache;
+
+    private RangeLeaderboard rangeLeaderboard;
+
+    private DailyRangeIndex dailyRangeIndex;
+
+    private CorrelationMatrix correlationMatrix;
+
+    private Timer rangesTimer;
+
+    private Timer highestRangeTimer;
+
+    private Timer pricesTimer;
+
+    private Timer batchPricesTimer;
+
+    private Timer statisticsTimer;
+
+    private Timer correlationsTimer;
+
+    private Timer addPricesTimer;
+
+    public PriceService(PriceRepository priceRepository, DateTimeService dateTimeService,
+                        @Value("${crypto.cache.size:1024}") int cacheSize,
+                        @Value("${crypto.ranges.daily-top-size:10}") int dailyTopSize,
+                        MeterRegistry meterRegistry, SymbolFanOut symbolFanOut) {
+        this.priceRepository = priceRepository;
+        this.dateTimeService = dateTimeService;
+        this.symbolFanOut = symbolFanOut;
+        this.rangesCache = new VersionedCache<>(cacheSize);
+        this.rangeLeaderboard = new RangeLeaderboard(priceRepository, symbolFanOut);
+        this.dailyRangeIndex = new DailyRangeIndex(priceRepository, symbolFanOut, dailyTopSize);
+        this.correlationMatrix = new CorrelationMatrix(priceRepository, symbolFanOut);
+        this.rangesTimer = registerTimer(meterRegistry, "ranges");
+        this.highestRangeTimer = registerTimer(meterRegistry, "highestRange");
+        this.pricesTimer = registerTimer(meterRegistry, "prices");
+        this.batchPricesTimer = registerTimer(meterRegistry, "batchPrices");
+        this.statisticsTimer = registerTimer(meterRegistry, "statistics");
+        this.correlationsTimer = registerTimer(meterRegistry, "correlations");
+        this.addPricesTimer = registerTimer(meterRegistry, "addPrices");
+        registerCacheCounters(meterRegistry, "ranges", rangesCache);
+    }
+
     /**
      * Get normalized ranges for all currencies (for all time)
      *
      * @return list of ranges
      */
     public List<RangeDto> getRanges() {
-        return priceRepository.getCurrencies()
-                .stream()
-                .map(currencySymbol -> RangeDto.builder()
-                        .currencySymbol(currencySymbol)
-                        .range(priceRepository.getNormalizedRange(currencySymbol))
-                        .build())
-                .sorted(Comparator.comparing(RangeDto::getRange).reversed())
-                .collect(Collectors.toList());
+        long startTime = System.nanoTime();
+        try {
+            return rangesCache.get(Pair.of(Long.MIN_VALUE, Long.MAX_VALUE), priceRepository.getVersion(),
+                    () -> computeRanges(Long.MIN_VALUE, Long.MAX_VALUE));
+        } finally {
+            record(rangesTimer, startTime);
+        }
+    }
+
+    /**
+     * Get normalized ranges for all currencies which have prices in the time window.
+     * Ranges are cached by time window until prices are added
+     *
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @return list of ranges sorted in descending order
+     * @throws IllegalArgumentException if time window is empty
+     */
+    public List<RangeDto> getRanges(Long startTimestamp, Long endTimestamp) {
+        if (startTimestamp == null && endTimestamp == null) {
+            return getRanges();
+        }
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        long startTime = System.nanoTime();
+        try {
+            return rangesCache.get(Pair.of(start, end), priceRepository.getVersion(), () -> computeRanges(start, end));
+        } finally {
+            record(rangesTimer, startTime);
+        }
     }
 
+    /**
+     * Get page of normalized ranges for all currencies which have prices in the time window.
+     * Ranges for all time are read from leaderboard, which is kept up to date as prices are added,
+     * so the page is read without computing ranges of all currencies
+     *
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @param offset         number of skipped currencies with the highest ranges, null - nothing is skipped
+     * @param limit          max number of currencies, null - no limit
+     * @return list of ranges sorted in descending order
+     * @throws IllegalArgumentException if time window is empty, offset is negative or limit is not positive
+     */
+    public List<RangeDto> getRanges(Long startTimestamp, Long endTimestamp, Integer offset, Integer limit) {
+        if (offset == null && limit == null) {
+            return getRanges(startTimestamp, endTimestamp);
+        }
+        if (offset != null && offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int skipped = Objects.requireNonNullElse(offset, 0);
+        int maxSize = Objects.requireNonNullElse(limit, Integer.MAX_VALUE);
+        if (startTimestamp != null || endTimestamp != null) {
+            return getRanges(startTimestamp, endTimestamp).stream().skip(skipped).limit(maxSize).toList();
+        }
+        long startTime = System.nanoTime();
+        try {
+            return rangeLeaderboard.getRanges(skipped, maxSize);
+        } finally {
+            record(rangesTimer, startTime);
+        }
+    }
+
+    /**
+     * Compute normalized ranges for all currencies which have prices in the time window
+     *
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return list of ranges sorted in descending order
+     */
+    private List<RangeDto> computeRanges(long startTimestamp, long endTimestamp) {
+        return symbolFanOut.map(priceRepository.getCurrencyCount(), currencyId -> RangeDto.builder()
+                        .currencySymbol(priceRepository.getCurrencySymbol(currencyId))
+                        .range(priceRepository.getNormalizedRange(currencyId, startTimestamp, endTimestamp))
+                        .build())
+                .stream()
+                .filter(rangeDto -> Objects.nonNull(rangeDto.getRange()))
+                .sorted(RANGES_ORDER)
+                .toList();
+    }
 
     /**
-     * Get highest normalized range on date
+     * Get highest normalized range on date, it's read from index of days
      *
      * @param date date on which ranges must be calculated
      * @return highest range on date
+     * @throws NoDataFoundException if there are no prices on date
      */
     public RangeDto getHighestRangeOnDate(LocalDate date) {
-        return priceRepository.getCurrencies()
-                .stream()
-                .map(currencySymbol -> RangeDto.builder()
-                        .currencySymbol(currencySymbol)
-                        .range(priceRepository.getNormalizedRange(currencySymbol, date.getYear(), date.getMonthValue(), date.getDayOfMonth()))
+        long startTime = System.nanoTime();
+        try {
+            return dailyRangeIndex.getTopRanges(date, 1).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new NoDataFoundException("No data found on " + date));
+        } finally {
+            record(highestRangeTimer, startTime);
+        }
+    }
+
+    /**
+     * Get highest normalized range on date in time zone.
+     * Ranges on dates in UTC+0 are read from index of days, in other zones they are computed for the boundaries of date
+     *
+     * @param date date on which ranges must be calculated
+     * @param zone time zone of date, null - UTC+0
+     * @return highest range on date
+     * @throws NoDataFoundException if there are no prices on date
+     */
+    public RangeDto getHighestRangeOnDate(LocalDate date, ZoneId zone) {
+        if (DateTimeService.isUtc(zone)) {
+            return getHighestRangeOnDate(date);
+        }
+        long startTime = System.nanoTime();
+        try {
+            return computeTopRanges(date, zone, 1).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new NoDataFoundException("No data found on " + date + " in " + zone));
+        } finally {
+            record(highestRangeTimer, startTime);
+        }
+    }
+
+    /**
+     * Get highest normalized ranges of every day of period, they are read from index of days
+     *
+     * @param startDate first date of period (inclusive)
+     * @param endDate   last date of period (inclusive)
+     * @param limit     max number of ranges of every day, null - only the highest one
+     * @return list of days with prices in chronological order
+     * @throws IllegalArgumentException if period is empty or limit is out of bounds
+     */
+    public List<DailyRangesDto> getHighestRanges(LocalDate startDate, LocalDate endDate, Integer limit) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date is after end date");
+        }
+        long startTime = System.nanoTime();
+        try {
+            return dailyRangeIndex.getTopRanges(startDate, endDate, Objects.requireNonNullElse(limit, 1));
+        } finally {
+            record(highestRangeTimer, startTime);
+        }
+    }
+
+    /**
+     * Get highest normalized ranges of every day of period in time zone.
+     * Ranges of days in UTC+0 are read from index of days, in other zones they are computed for the boundaries of every date
+     *
+     * @param startDate first date of period (inclusive)
+     * @param endDate   last date of period (inclusive)
+     * @param limit     max number of ranges of every day, null - only the highest one
+     * @param zone      time zone of dates, null - UTC+0
+     * @return list of days with prices in chronological order
+     * @throws IllegalArgumentException if period is empty or too long for the zone, or limit is out of bounds
+     */
+    public List<DailyRangesDto> getHighestRanges(LocalDate startDate, LocalDate endDate, Integer limit, ZoneId zone) {
+        if (DateTimeService.isUtc(zone)) {
+            return getHighestRanges(startDate, endDate, limit);
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date is after end date");
+        }
+        if (endDate.toEpochDay() - startDate.toEpochDay() >= MAX_ZONED_PERIOD_DAYS) {
+            throw new IllegalArgumentException("Period in time zone other than UTC+0 can't be longer than " + MAX_ZONED_PERIOD_DAYS + " days");
+        }
+        int top = Objects.requireNonNullElse(limit, 1);
+        dailyRangeIndex.checkLimit(top);
+        long startTime = System.nanoTime();
+        try {
+            return startDate.datesUntil(endDate.plusDays(1))
+                    .map(date -> DailyRangesDto.builder()
+                            .date(date)
+                            .ranges(computeTopRanges(date, zone, top))
+                            .build())
+                    .filter(day -> !day.getRanges().isEmpty())
+                    .toList();
+        } finally {
+            record(highestRangeTimer, startTime);
+        }
+    }
+
+    /**
+     * Compute highest normalized ranges on date in time zone
+     *
+     * @param date  date
+     * @param zone  time zone of date
+     * @param limit max number of ranges
+     * @return list of ranges sorted in descending order, empty if there are no prices on date
+     */
+    private List<RangeDto> computeTopRanges(LocalDate date, ZoneId zone, int limit) {
+        long start = dateTimeService.getStartTimeStamp(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), zone);
+        long end = dateTimeService.getEndTimeStamp(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), zone);
+        return symbolFanOut.map(priceRepository.getCurrencyCount(), currencyId -> RangeDto.builder()
+                        .currencySymbol(priceRepository.getCurrencySymbol(currencyId))
+                        .range(priceRepository.getNormalizedRange(currencyId, start, end))
                         .build())
+                .stream()
                 .filter(rangeDto -> Objects.nonNull(rangeDto.getRange()))
-                .max(Comparator.comparing(RangeDto::getRange))
-                .orElseThrow(() -> new RuntimeException("No data found"));
+                .sorted(RANGES_ORDER)
+                .limit(limit)
+                .toList();
     }
 
     /**
@@ -66,15 +327,443 @@ public class PriceService {
      * @return prices DTO
      */
     public PriceDto getPrices(String currencySymbol) {
+        long startTime = System.nanoTime();
+        try {
+            return toPriceDto(currencySymbol, priceRepository.getAggregates(currencySymbol, PRICE_AGGREGATES));
+        } finally {
+            record(pricesTimer, startTime);
+        }
+    }
+
+    /**
+     * Get oldest, newest, minimum and maximum prices for currency in the time window
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @return prices DTO
+     * @throws IllegalArgumentException if time window is empty
+     */
+    public PriceDto getPrices(String currencySymbol, Long startTimestamp, Long endTimestamp) {
+        if (startTimestamp == null && endTimestamp == null) {
+            return getPrices(currencySymbol);
+        }
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        long startTime = System.nanoTime();
+        try {
+            return toPriceDto(currencySymbol, priceRepository.getAggregates(currencySymbol, start, end, PRICE_AGGREGATES));
+        } finally {
+            record(pricesTimer, startTime);
+        }
+    }
+
+    /**
+     * Get oldest, newest, minimum and maximum prices for several currencies in the time window.
+     * Currencies are processed in parallel if there are many of them, every currency gets its own result or error
+     *
+     * @param currencySymbols list of currencies symbols
+     * @param startTimestamp  start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp    end of time window in milliseconds (inclusive), null - to the newest price
+     * @return list of results in the same order as currencies symbols
+     * @throws IllegalArgumentException if there are too many currencies or time window is empty
+     */
+    public List<PriceBatchItemDto> getPrices(List<String> currencySymbols, Long startTimestamp, Long endTimestamp) {
+        if (currencySymbols.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch can't have more than " + MAX_BATCH_SIZE + " currencies");
+        }
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        long startTime = System.nanoTime();
+        try {
+            return symbolFanOut.map(currencySymbols, currencySymbol -> getBatchItem(currencySymbol, start, end));
+        } finally {
+            record(batchPricesTimer, startTime);
+        }
+    }
+
+    /**
+     * Get raw prices (ticks) for currency in the time window.
+     * Arguments are checked at once, prices are read lazily while stream is consumed,
+     * so any number of them can be written to client in constant memory.
+     * Reading can be resumed from cursor, which is the timestamp of the last price client has got
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @param cursor         timestamp in milliseconds after which prices are read (exclusive), null - from start of window
+     * @param limit          max number of prices, null - no limit
+     * @return stream of ticks in chronological order
+     * @throws IllegalArgumentException if time window is empty or limit is not positive
+     */
+    public Stream<TickDto> getTicks(String currencySymbol, Long startTimestamp, Long endTimestamp, Long cursor, Integer limit) {
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (cursor != null) {
+            if (cursor >= end) {
+                return Stream.empty();
+            }
+            start = Math.max(start, cursor + 1);
+        }
+        var prices = priceRepository.getPrices(currencySymbol, start, end);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(prices, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .limit(limit == null ? Long.MAX_VALUE : limit)
+                .map(price -> TickDto.builder()
+                        .timestamp(price.getKey())
+                        .currencySymbol(currencySymbol)
+                        .price(price.getValue())
+                        .build());
+    }
+
+    /**
+     * Get candles (open, high, low and close prices) for currency in the time window.
+     * Arguments are checked at once, candles are computed lazily while stream is consumed,
+     * so they can be written to client without collecting them in memory
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @param interval       length of candle interval with unit (e.g. '1m', '5m', '1h', '1d')
+     * @return stream of candles in chronological order, intervals without prices are skipped
+     * @throws IllegalArgumentException if interval is malformed or not positive or time window is empty
+     */
+    public Stream<CandleDto> getCandles(String currencySymbol, Long startTimestamp, Long endTimestamp, String interval) {
+        long intervalMillis = parseInterval(interval);
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        Iterator<PriceCandle> candles = priceRepository.getCandles(currencySymbol, start, end, intervalMillis);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(candles, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(candle -> CandleDto.builder()
+                        .timestamp(candle.getTimestamp())
+                        .open(candle.getOpen())
+                        .high(candle.getHigh())
+                        .low(candle.getLow())
+                        .close(candle.getClose())
+                        .count(candle.getCount())
+                        .build());
+    }
+
+    /**
+     * Get statistics (mean, variance, standard deviation and return) of prices for currency in the time window.
+     * Statistics are computed from exact sums of prices kept by storage and rounded to 16 significant digits
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @return statistics DTO, statistics are null if there are no prices in the window
+     * @throws IllegalArgumentException if time window is empty
+     */
+    public StatisticsDto getStatistics(String currencySymbol, Long startTimestamp, Long endTimestamp) {
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        long startTime = System.nanoTime();
+        try {
+            var aggregates = priceRepository.getAggregates(currencySymbol, start, end, STATISTICS_AGGREGATES);
+            return toStatisticsDto(currencySymbol, null, aggregates);
+        } finally {
+            record(statisticsTimer, startTime);
+        }
+    }
+
+    /**
+     * Get statistics of prices for currency in rolling windows: a window of defined length ends at every step
+     * from start of time window, the first one ends at start + length - 1. Arguments are checked at once,
+     * statistics are computed lazily while stream is consumed, every window takes constant number of lookups in storage.
+     * Windows without prices are skipped up to the first window which holds the next price
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive), null - from the oldest price
+     * @param endTimestamp   end of time window in milliseconds (inclusive), null - to the newest price
+     * @param window         length of rolling window with unit (e.g. '1h', '1d')
+     * @param step           distance between ends of rolling windows with unit (e.g. '1m', '1h')
+     * @return stream of statistics in chronological order, windows without prices are skipped
+     * @throws IllegalArgumentException if window or step is malformed or not positive, currency is unknown,
+     *                                  time window is empty or has too many windows
+     */
+    public Stream<StatisticsDto> getRollingStatistics(String currencySymbol, Long startTimestamp, Long endTimestamp,
+                                                      String window, String step) {
+        long windowMillis = parseInterval(window);
+        long stepMillis = parseInterval(step);
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        int currencyId = priceRepository.getCurrencyId(currencySymbol);
+        if (currencyId < 0) {
+            throw new IllegalArgumentException("Unknown currency symbol: " + currencySymbol);
+        }
+        if (startTimestamp == null || endTimestamp == null) {
+            var bounds = priceRepository.getAggregates(currencyId, start, end, BOUNDS_AGGREGATES);
+            if (bounds.getFirst() == null) {
+                return Stream.empty();
+            }
+            start = startTimestamp == null ? bounds.getFirst().getKey() : start;
+            end = endTimestamp == null ? bounds.getLast().getKey() : end;
+        }
+        long firstEnd = start + windowMillis - 1;
+        long lastEnd = end;
+        if (firstEnd < start || firstEnd > lastEnd) {
+            return Stream.empty();
+        }
+        // Difference of timestamps may not fit into signed long, but it's never negative
+        if (Long.compareUnsigned(Long.divideUnsigned(lastEnd - firstEnd, stepMillis), MAX_ROLLING_WINDOWS) >= 0) {
+            throw new IllegalArgumentException("Time window must have at most " + MAX_ROLLING_WINDOWS + " rolling windows");
+        }
+        return Stream.iterate(getRollingStatistics(currencySymbol, currencyId, firstEnd, lastEnd, windowMillis, stepMillis),
+                Objects::nonNull, statistics -> statistics.getTimestamp() <= lastEnd - stepMillis
+                        ? getRollingStatistics(currencySymbol, currencyId, statistics.getTimestamp() + stepMillis, lastEnd, windowMillis, stepMillis)
+                        : null);
+    }
+
+    /**
+     * Get statistics of the first rolling window with prices, which ends at or after the defined end of window
+     *
+     * @param currencySymbol currency symbol
+     * @param currencyId     currency identifier
+     * @param windowEnd      end of the first window to check in milliseconds, rolling windows end at every step from it
+     * @param lastEnd        end of time window in milliseconds (inclusive)
+     * @param windowMillis   length of rolling window in milliseconds
+     * @param stepMillis     distance between ends of rolling windows in milliseconds
+     * @return statistics DTO, null if there are no more windows with prices
+     */
+    private StatisticsDto getRollingStatistics(String currencySymbol, int currencyId, long windowEnd, long lastEnd,
+                                               long windowMillis, long stepMillis) {
+        while (true) {
+            var aggregates = priceRepository.getAggregates(currencyId, windowEnd - windowMillis + 1, windowEnd, STATISTICS_AGGREGATES);
+            if (aggregates.getCount() > 0) {
+                return toStatisticsDto(currencySymbol, windowEnd, aggregates);
+            }
+            if (windowEnd == lastEnd) {
+                return null;
+            }
+            var next = priceRepository.getAggregates(currencyId, windowEnd + 1, lastEnd, NEXT_PRICE_AGGREGATES);
+            if (next.getFirst() == null) {
+                return null;
+            }
+            // Jump to the first window which ends at or after the next price, it may still miss it if step is longer than window
+            long steps = Long.divideUnsigned(next.getFirst().getKey() - windowEnd - 1, stepMillis) + 1;
+            if (Long.compareUnsigned(steps, Long.divideUnsigned(lastEnd - windowEnd, stepMillis)) > 0) {
+                return null;
+            }
+            windowEnd += steps * stepMillis;
+        }
+    }
+
+    /**
+     * Get matrix of pairwise correlations of returns of currencies. Prices of currencies are aligned onto time grid
+     * from start of time window with defined interval: price at a point of grid is the newest price at or before it,
+     * return at a point is relative change of price since the previous point
+     *
+     * @param currencySymbols currencies symbols, null or empty - all currencies in alphabetical order
+     * @param startTimestamp  start of time window in milliseconds (inclusive), null - from the oldest price of currencies
+     * @param endTimestamp    end of time window in milliseconds (inclusive), null - to the newest price of currencies
+     * @param interval        distance between points of time grid with unit (e.g. '1h', '1d')
+     * @return correlation matrix DTO
+     * @throws IllegalArgumentException if interval is malformed or not positive, any currency is unknown,
+     *                                  time window is empty or has less than two points of grid, or grid is too large
+     * @throws NoDataFoundException     if time window is not defined and there are no prices of currencies
+     */
+    public CorrelationMatrixDto getCorrelations(List<String> currencySymbols, Long startTimestamp, Long endTimestamp,
+                                                String interval) {
+        long intervalMillis = parseInterval(interval);
+        long start = Objects.requireNonNullElse(startTimestamp, Long.MIN_VALUE);
+        long end = Objects.requireNonNullElse(endTimestamp, Long.MAX_VALUE);
+        checkWindow(start, end);
+        long startTime = System.nanoTime();
+        try {
+            List<String> symbols;
+            if (currencySymbols == null || currencySymbols.isEmpty()) {
+                symbols = new ArrayList<>(priceRepository.getCurrencyCount());
+                for (int id = 0; id < priceRepository.getCurrencyCount(); id++) {
+                    symbols.add(priceRepository.getCurrencySymbol(id));
+                }
+                Collections.sort(symbols);
+            } else {
+                symbols = currencySymbols;
+            }
+            int[] currencyIds = new int[symbols.size()];
+            for (int i = 0; i < currencyIds.length; i++) {
+                currencyIds[i] = priceRepository.getCurrencyId(symbols.get(i));
+                if (currencyIds[i] < 0) {
+                    throw new IllegalArgumentException("Unknown currency symbol: " + symbols.get(i));
+                }
+            }
+            if (startTimestamp == null || endTimestamp == null) {
+                long oldest = Long.MAX_VALUE;
+                long newest = Long.MIN_VALUE;
+                for (int currencyId : currencyIds) {
+                    var bounds = priceRepository.getAggregates(currencyId, start, end, BOUNDS_AGGREGATES);
+                    if (bounds.getFirst() != null) {
+                        oldest = Math.min(oldest, bounds.getFirst().getKey());
+                        newest = Math.max(newest, bounds.getLast().getKey());
+                    }
+                }
+                if (oldest > newest) {
+                    throw new NoDataFoundException("No prices of currencies in time window");
+                }
+                start = startTimestamp == null ? oldest : start;
+                end = endTimestamp == null ? newest : end;
+                checkWindow(start, end);
+            }
+            // Difference of timestamps may not fit into signed long, but it's never negative
+            long points = Long.divideUnsigned(end - start, intervalMillis) + 1;
+            if (points < 2) {
+                throw new IllegalArgumentException("Time window must contain at least two points of time grid");
+            }
+            if (points > CorrelationMatrix.MAX_POINTS) {
+                throw new IllegalArgumentException("Time grid must have at most " + CorrelationMatrix.MAX_POINTS + " points");
+            }
+            return CorrelationMatrixDto.builder()
+                    .currencySymbols(List.copyOf(symbols))
+                    .from(start)
+                    .to(start + (points - 1) * intervalMillis)
+                    .interval(intervalMillis)
+                    .correlations(correlationMatrix.compute(currencyIds, start, intervalMillis, (int) points))
+                    .build();
+        } finally {
+            record(correlationsTimer, startTime);
+        }
+    }
+
+    /**
+     * Create statistics DTO from aggregates
+     *
+     * @param currencySymbol currency symbol
+     * @param timestamp      end of rolling window in milliseconds, null for a single time window
+     * @param aggregates     count, mean, variance and return of prices
+     * @return statistics DTO
+     */
+    private StatisticsDto toStatisticsDto(String currencySymbol, Long timestamp, PriceAggregates aggregates) {
+        return StatisticsDto.builder()
+                .currencySymbol(currencySymbol)
+                .timestamp(timestamp)
+                .count(aggregates.getCount())
+                .mean(aggregates.getMean())
+                .variance(aggregates.getVariance())
+                .standardDeviation(aggregates.getStandardDeviation())
+                .returnRate(aggregates.getReturnRate())
+                .build();
+    }
+
+    /**
+     * Parse length of interval
+     *
+     * @param interval length of interval with unit: 'ms', 's', 'm', 'h' or 'd' (e.g. '5m')
+     * @return length of interval in milliseconds
+     * @throws IllegalArgumentException if interval is malformed or shorter than 1 millisecond
+     */
+    private static long parseInterval(String interval) {
+        Duration duration;
+        try {
+            duration = DurationStyle.SIMPLE.parse(interval);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Interval must be a number with unit 'ms', 's', 'm', 'h' or 'd' (e.g. '5m')");
+        }
+        if (duration.toMillis() <= 0) {
+            throw new IllegalArgumentException("Interval must be at least 1 millisecond");
+        }
+        return duration.toMillis();
+    }
+
+    /**
+     * Check that time window is not empty
+     *
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @throws IllegalArgumentException if start of time window is after its end
+     */
+    private static void checkWindow(long startTimestamp, long endTimestamp) {
+        if (startTimestamp > endTimestamp) {
+            throw new IllegalArgumentException("Start of time window is after its end");
+        }
+    }
+
+    /**
+     * Get prices of one currency of batch, the currency is checked and resolved to its identifier with one lookup
+     *
+     * @param currencySymbol currency symbol
+     * @param startTimestamp start of time window in milliseconds (inclusive)
+     * @param endTimestamp   end of time window in milliseconds (inclusive)
+     * @return prices or error
+     */
+    private PriceBatchItemDto getBatchItem(String currencySymbol, long startTimestamp, long endTimestamp) {
+        var item = PriceBatchItemDto.builder().currencySymbol(currencySymbol);
+        int currencyId = priceRepository.getCurrencyId(currencySymbol);
+        if (currencyId < 0) {
+            return item.error("Unknown currency symbol").build();
+        }
+        try {
+            var aggregates = priceRepository.getAggregates(currencyId, startTimestamp, endTimestamp, PRICE_AGGREGATES);
+            return item.prices(toPriceDto(currencySymbol, aggregates)).build();
+        } catch (RuntimeException e) {
+            return item.error(e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Create prices DTO from aggregates
+     *
+     * @param currencySymbol currency symbol
+     * @param aggregates     first, last, minimum and maximum prices
+     * @return prices DTO
+     */
+    private PriceDto toPriceDto(String currencySymbol, PriceAggregates aggregates) {
         return PriceDto.builder()
                 .currencySymbol(currencySymbol)
-                .oldest(getPriceFromPair(priceRepository.getOldestPrice(currencySymbol)))
-                .newest(getPriceFromPair(priceRepository.getNewestPrice(currencySymbol)))
-                .min(getPriceFromPair(priceRepository.getLowestPrice(currencySymbol)))
-                .max(getPriceFromPair(priceRepository.getHighestPrice(currencySymbol)))
+                .oldest(getPriceFromPair(aggregates.getFirst()))
+                .newest(getPriceFromPair(aggregates.getLast()))
+                .min(getPriceFromPair(aggregates.getMin()))
+                .max(getPriceFromPair(aggregates.getMax()))
                 .build();
     }
 
+    /**
+     * Add prices (ticks) of currencies, prices of every currency are added at once
+     *
+     * @param ticks list of ticks
+     * @throws IllegalArgumentException if any tick has no timestamp, currency symbol or positive price
+     */
+    public void addPrices(List<TickDto> ticks) {
+        var prices = new LinkedHashMap<String, List<Pair<Long, BigDecimal>>>();
+        for (TickDto tick : ticks) {
+            if (tick == null || tick.getTimestamp() == null || tick.getCurrencySymbol() == null || tick.getCurrencySymbol().isBlank()) {
+                throw new IllegalArgumentException("Tick must have timestamp and currency symbol");
+            }
+            if (tick.getPrice() == null || tick.getPrice().signum() <= 0) {
+                throw new IllegalArgumentException("Tick must have positive price");
+            }
+            prices.computeIfAbsent(tick.getCurrencySymbol(), key -> new ArrayList<>()).add(Pair.of(tick.getTimestamp(), tick.getPrice()));
+        }
+        addPrices(prices);
+    }
+
+    /**
+     * Add prices of currencies, prices of every currency are added at once.
+     * Currencies whose lowest or highest price moved are re-ranked in leaderboard of ranges,
+     * ranges of currencies on days of added prices are updated in index of days
+     *
+     * @param prices map of currencies symbols to lists of pair tuples of timestamp and price
+     */
+    public void addPrices(Map<String, List<Pair<Long, BigDecimal>>> prices) {
+        long startTime = System.nanoTime();
+        try {
+            prices.forEach((currencySymbol, currencyPrices) -> {
+                priceRepository.addPrices(currencySymbol, currencyPrices);
+                rangeLeaderboard.update(currencySymbol);
+                dailyRangeIndex.update(currencySymbol, currencyPrices.stream().map(Pair::getKey).toList());
+            });
+        } finally {
+            record(addPricesTimer, startTime);
+        }
+    }
+
     /**
      * Extract price from pair tuple
      *
@@ -90,4 +779,28 @@ public class PriceService {
                 .findAny()
                 .orElse(null);
     }
+
+    private static Timer registerTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("crypto.service.operation")
+                .description("Latency of service operations")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void registerCacheCounters(MeterRegistry meterRegistry, String cacheName, VersionedCache<?, ?> cache) {
+        FunctionCounter.builder("crypto.cache.requests", cache, VersionedCache::getHits)
+                .description("Number of requests to cache")
+                .tags("cache", cacheName, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("crypto.cache.requests", cache, VersionedCache::getMisses)
+                .description("Number of requests to cache")
+                .tags("cache", cacheName, "result", "miss")
+                .register(meterRegistry);
+    }
+
+    private static void record(Timer timer, long startTime) {
+        timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
 }
@@ -0,0 +1,148 @@
+package com.epam.crypto.service;
+
+import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.repository.Aggregate;
+import com.epam.crypto.repository.PriceAggregates;
+import com.epam.crypto.repository.PriceRepository;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ranking of currencies by normalized range for all time, kept up to date as prices are added.
+ * Ranking is built from repository once, after that only currencies whose lowest or highest price moved are re-ranked,
+ * so a page of ranking is read in O(offset + limit) without computing ranges of other currencies.
+ * <p>
+ * Readers are never blocked and see the ranking weakly consistent: a currency being re-ranked may be missed by a page
+ * read at the same time. Writers are serialized. Ranking reflects only prices which were reported by {@link #update(String)}
+ */
+public class RangeLeaderboard {
+
+    private static final Set<Aggregate> RANGE_AGGREGATES = EnumSet.of(Aggregate.MIN, Aggregate.MAX, Aggregate.RANGE);
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::range).reversed()
+            .thenComparing(Entry::currencySymbol);
+
+    private final PriceRepository priceRepository;
+
+    private final SymbolFanOut symbolFanOut;
+
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    // Guarded by this
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private volatile boolean built;
+
+    /**
+     * Create leaderboard, it's built on the first read
+     *
+     * @param priceRepository repository of prices
+     * @param symbolFanOut    fan-out of computation of ranges while leaderboard is built
+     */
+    public RangeLeaderboard(PriceRepository priceRepository, SymbolFanOut symbolFanOut) {
+        this.priceRepository = priceRepository;
+        this.symbolFanOut = symbolFanOut;
+    }
+
+    /**
+     * Get page of ranking
+     *
+     * @param offset number of skipped currencies with the highest ranges
+     * @param limit  max number of currencies
+     * @return list of ranges sorted in descending order (currencies with equal ranges are sorted by symbol)
+     */
+    public List<RangeDto> getRanges(int offset, int limit) {
+        if (!built) {
+            build();
+        }
+        return ranking.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> RangeDto.builder()
+                        .currencySymbol(entry.currencySymbol())
+                        .range(entry.range())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Re-rank currency after its prices were added, if its lowest or highest price moved.
+     * Nothing is done until leaderboard is built, the currency is ranked while building then
+     *
+     * @param currencySymbol currency symbol
+     * @return true if currency was re-ranked
+     */
+    public synchronized boolean update(String currencySymbol) {
+        if (!built) {
+            return false;
+        }
+        return rank(currencySymbol, priceRepository.getAggregates(currencySymbol, RANGE_AGGREGATES));
+    }
+
+    /**
+     * Get number of ranked currencies
+     *
+     * @return number of currencies
+     */
+    public int size() {
+        return ranking.size();
+    }
+
+    /**
+     * Build ranking of all currencies of repository, if it isn't built yet
+     */
+    private synchronized void build() {
+        if (built) {
+            return;
+        }
+        List<PriceAggregates> aggregates = symbolFanOut.map(priceRepository.getCurrencyCount(),
+                currencyId -> priceRepository.getAggregates(currencyId, Long.MIN_VALUE, Long.MAX_VALUE, RANGE_AGGREGATES));
+        for (int currencyId = 0; currencyId < aggregates.size(); currencyId++) {
+            rank(priceRepository.getCurrencySymbol(currencyId), aggregates.get(currencyId));
+        }
+        built = true;
+    }
+
+    /**
+     * Put currency to its place in ranking, if its lowest or highest price differs from the ranked one
+     *
+     * @param currencySymbol currency symbol
+     * @param aggregates     lowest and highest prices and normalized range of currency
+     * @return true if currency was re-ranked
+     */
+    private boolean rank(String currencySymbol, PriceAggregates aggregates) {
+        Entry current = entries.get(currencySymbol);
+        if (aggregates.getRange() == null) {
+            if (current != null) {
+                entries.remove(currencySymbol);
+                ranking.remove(current);
+            }
+            return current != null;
+        }
+        BigDecimal min = aggregates.getMin().getValue();
+        BigDecimal max = aggregates.getMax().getValue();
+        if (current != null && current.min().compareTo(min) == 0 && current.max().compareTo(max) == 0) {
+            return false;
+        }
+        Entry entry = new Entry(currencySymbol, min, max, aggregates.getRange());
+        if (current != null) {
+            ranking.remove(current);
+        }
+        ranking.add(entry);
+        entries.put(currencySymbol, entry);
+        return true;
+    }
+
+    /**
+     * Ranked currency
+     *
+     * @param currencySymbol currency symbol
+     * @param min            lowest price the range is computed from
+     * @param max            highest price the range is computed from
+     * @param range          normalized range
+     */
+    private record Entry(String currencySymbol, BigDecimal min, BigDecimal max, BigDecimal range) {
+    }
+}
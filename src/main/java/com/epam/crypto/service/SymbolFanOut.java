@@ -0,0 +1,99 @@
+package com.epam.crypto.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Fan-out of per-currency work across cores.
+ * Work is done in a dedicated pool with bounded parallelism, so request threads (including virtual ones)
+ * never flood processors. Small collections are processed in the calling thread, they don't pay for fan-out
+ */
+public class SymbolFanOut implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    private final int threshold;
+
+    /**
+     * Create fan-out
+     *
+     * @param parallelism max number of threads processing currencies at the same time
+     * @param threshold   min number of currencies to fan out
+     */
+    public SymbolFanOut(int parallelism, int threshold) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.threshold = threshold;
+    }
+
+    private SymbolFanOut() {
+        this.pool = null;
+        this.threshold = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Create fan-out which processes all currencies in the calling thread
+     *
+     * @return fan-out
+     */
+    public static SymbolFanOut sequential() {
+        return new SymbolFanOut();
+    }
+
+    /**
+     * Map currencies symbols to results
+     *
+     * @param currencySymbols collection of currencies symbols
+     * @param mapper          computation of result for currency
+     * @param <T>             type of results
+     * @return list of results in the same order as currencies symbols
+     */
+    public <T> List<T> map(Collection<String> currencySymbols, Function<String, T> mapper) {
+        if (pool == null || currencySymbols.size() < threshold) {
+            return currencySymbols.stream().map(mapper).toList();
+        }
+        return pool.submit(() -> currencySymbols.parallelStream().map(mapper).toList()).join();
+    }
+
+    /**
+     * Map identifiers of currencies to results, identifiers are swept from 0 to number of currencies - 1
+     *
+     * @param currencyCount number of currencies
+     * @param mapper        computation of result for currency identifier
+     * @param <T>           type of results
+     * @return list of results in order of identifiers
+     */
+    public <T> List<T> map(int currencyCount, IntFunction<T> mapper) {
+        if (pool == null || currencyCount < threshold) {
+            return IntStream.range(0, currencyCount).mapToObj(mapper).toList();
+        }
+        return pool.submit(() -> IntStream.range(0, currencyCount).parallel().mapToObj(mapper).toList()).join();
+    }
+
+    /**
+     * Run fork/join task over currencies. Task should split itself only if it runs in a pool
+     * ({@link ForkJoinTask#inForkJoinPool()}), since few currencies are processed in the calling thread
+     *
+     * @param currencyCount number of currencies processed by task
+     * @param task          task
+     * @param <T>           type of result
+     * @return result of task
+     */
+    public <T> T invoke(int currencyCount, ForkJoinTask<T> task) {
+        if (pool == null || currencyCount < threshold) {
+            return task.invoke();
+        }
+        return pool.invoke(task);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.epam.crypto.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of results with versions of data they were computed from.
+ * A cached result is returned only while the version of its data is unchanged,
+ * the least recently used results are evicted when the cache is full.
+ * Results are computed outside the lock, so a slow computation never blocks other readers
+ *
+ * @param <K> type of keys (arguments of computation)
+ * @param <V> type of results, must be immutable
+ */
+public class VersionedCache<K, V> {
+
+    private final int maxSize;
+
+    private final Map<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create cache
+     *
+     * @param maxSize max number of cached results, 0 to disable caching
+     */
+    public VersionedCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get cached result or compute and cache it
+     *
+     * @param key     key
+     * @param version current version of data the result depends on (must be read before computation)
+     * @param loader  computation of result
+     * @return result
+     */
+    public V get(K key, long version, Supplier<V> loader) {
+        if (maxSize == 0) {
+            misses.increment();
+            return loader.get();
+        }
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.version == version) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        misses.increment();
+        V value = loader.get();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || entry.version <= version) {
+                entries.put(key, new Entry<>(version, value));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Get number of cached results
+     *
+     * @return number of results
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get number of results returned from cache
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get number of results computed because they were not cached or their data was changed
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private record Entry<V>(long version, V value) {
+    }
+}
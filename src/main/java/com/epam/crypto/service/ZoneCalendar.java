@@ -0,0 +1,113 @@
+package com.epam.crypto.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * Starts of days in a time zone with offset transitions as milliseconds.
+ * Transitions of years 1900-2199 are kept in arrays (a few kilobytes even for zones with DST),
+ * so a start of day is found by binary search without allocations per call (other years are computed
+ * with time zone rules on every call). Zones of fixed offset don't need a calendar, they are computed arithmetically.
+ * A day starts at the first instant of its date in the zone: at the end of the gap if midnight is skipped
+ * and at the first midnight if it's repeated
+ */
+class ZoneCalendar {
+
+    // 1900-01-01
+    private static final long FIRST_EPOCH_DAY = -25_567L;
+
+    // 2200-01-01
+    private static final long END_EPOCH_DAY = 84_006L;
+
+    // Offsets of all time zones are within +-18 hours
+    private static final long MAX_OFFSET_MILLIS = 18 * 3_600_000L;
+
+    private final ZoneId zone;
+
+    // Instants of transitions, offset offsets[k] is valid from transitions[k - 1] (inclusive) to transitions[k] (exclusive)
+    private final long[] transitions;
+
+    private final long[] offsets;
+
+    /**
+     * Create calendar of time zone
+     *
+     * @param zone time zone
+     */
+    ZoneCalendar(ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        long first = (FIRST_EPOCH_DAY - 1) * DateTimeService.MILLIS_PER_DAY;
+        long end = (END_EPOCH_DAY + 1) * DateTimeService.MILLIS_PER_DAY;
+        long[] instants = new long[16];
+        long[] offsetsAfter = new long[17];
+        offsetsAfter[0] = rules.getOffset(Instant.ofEpochMilli(first)).getTotalSeconds() * 1000L;
+        int count = 0;
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(first));
+        while (transition != null && transition.toEpochSecond() * 1000 < end) {
+            if (count == instants.length) {
+                instants = Arrays.copyOf(instants, 2 * count);
+                offsetsAfter = Arrays.copyOf(offsetsAfter, 2 * count + 1);
+            }
+            instants[count] = transition.toEpochSecond() * 1000;
+            offsetsAfter[++count] = transition.getOffsetAfter().getTotalSeconds() * 1000L;
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        this.zone = zone;
+        this.transitions = Arrays.copyOf(instants, count);
+        this.offsets = Arrays.copyOf(offsetsAfter, count + 1);
+    }
+
+    /**
+     * Get start of day
+     *
+     * @param epochDay number of days since 1970-01-01
+     * @return milliseconds
+     */
+    long getStartOfDay(long epochDay) {
+        if (epochDay < FIRST_EPOCH_DAY || epochDay >= END_EPOCH_DAY) {
+            return LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        long midnight = epochDay * DateTimeService.MILLIS_PER_DAY;
+        // Midnight of the date can be only in periods of offsets which are valid within 18 hours around it
+        int firstPeriod = periodOf(midnight - MAX_OFFSET_MILLIS);
+        int lastPeriod = periodOf(midnight + MAX_OFFSET_MILLIS);
+        for (int period = firstPeriod; period <= lastPeriod; period++) {
+            // Periods are ordered by instants, so the first valid one is the first midnight
+            long instant = midnight - offsets[period];
+            if ((period == 0 || instant >= transitions[period - 1]) && (period == transitions.length || instant < transitions[period])) {
+                return instant;
+            }
+        }
+        // Midnight is skipped, day starts at the end of the gap
+        for (int period = firstPeriod; period < lastPeriod; period++) {
+            if (midnight - offsets[period] >= transitions[period] && midnight - offsets[period + 1] < transitions[period]) {
+                return transitions[period];
+            }
+        }
+        throw new IllegalStateException("Start of day " + epochDay + " isn't found in time zone " + zone);
+    }
+
+    /**
+     * Get index of period of offset which is valid at the instant
+     *
+     * @param instant milliseconds
+     * @return number of transitions at or before the instant
+     */
+    private int periodOf(long instant) {
+        int low = 0;
+        int high = transitions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (transitions[middle] <= instant) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,143 @@
+package com.epam.crypto.config;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class PriceCsvLoaderTest {
+
+    private static final String CSV_VALID = """
+            timestamp,symbol,price
+            1641009600000,BTC,46813.21
+            1641020400000,BTC,46979.6\r
+            1641031200000,BTC,47000
+            """;
+
+    private static final String CSV_MALFORMED = """
+            timestamp,symbol,price
+            1641009600000,BTC,46813.21
+            1641009600000,BTC
+            1641O20400000,BTC,46979.61
+
+            1641031200000,BTC,1.2.3
+            1641042000000,BTC,46888.01,extra
+            1641052800000,BTC,99999999999999999999
+            1641063600000,BTC,-0.5""";
+
+    private static final String CSV_EXPONENT = """
+            timestamp,symbol,price
+            1641009600000,SHIB,1.2E-5
+            1641020400000,SHIB,-2.5e-3
+            1641031200000,BTC,4.681321E+4
+            1641042000000,BTC,1E3
+            1641052800000,SHIB,1200E-20
+            1641063600000,SHIB,1E-19
+            1641074400000,BTC,1E+19
+            1641085200000,BTC,1E
+            1641096000000,BTC,1E-+5
+            1641106800000,BTC,E5
+            1641117600000,BTC,1E5.0""";
+
+    private PriceCsvLoader loader;
+
+    @BeforeClass
+    public void init() {
+        loader = new PriceCsvLoader(2);
+    }
+
+    @Test
+    public void test0010_parseValidLines() throws IOException {
+        // Given
+        var prices = new Prices();
+
+        // When
+        var statistics = loader.parse(toStream(CSV_VALID), prices, true, "test");
+
+        // Then
+        assertEquals(3, statistics.getRows());
+        assertEquals(0, statistics.getMalformedLines());
+        assertEquals(List.of("BTC", "BTC", "BTC"), prices.symbols);
+        assertEquals(List.of(1641009600000L, 1641020400000L, 1641031200000L), prices.timestamps);
+        assertEquals(List.of(new BigDecimal("46813.21"), new BigDecimal("46979.6"), new BigDecimal("47000")), prices.prices);
+        assertSame(prices.symbols.get(0), prices.symbols.get(2));
+    }
+
+    @Test
+    public void test0020_parseMalformedLines() throws IOException {
+        // Given
+        var prices = new Prices();
+
+        // When
+        var statistics = loader.parse(toStream(CSV_MALFORMED), prices, true, "test");
+
+        // Then
+        assertEquals(2, statistics.getRows());
+        assertEquals(5, statistics.getMalformedLines());
+        assertEquals(List.of(new BigDecimal("46813.21"), new BigDecimal("-0.5")), prices.prices);
+    }
+
+    @Test
+    public void test0025_parseExponentNotation() throws IOException {
+        // Given
+        var prices = new Prices();
+
+        // When
+        var statistics = loader.parse(toStream(CSV_EXPONENT), prices, true, "test");
+
+        // Then
+        assertEquals(5, statistics.getRows());
+        assertEquals(6, statistics.getMalformedLines());
+        assertEquals(List.of(new BigDecimal("0.000012"), new BigDecimal("-0.0025"), new BigDecimal("46813.21"),
+                new BigDecimal("1000"), new BigDecimal("0.000000000000000012")), prices.prices);
+    }
+
+    @Test
+    public void test0030_loadFilesInParallel() throws IOException {
+        // Given
+        Resource[] resources = {
+                new ByteArrayResource(CSV_VALID.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayResource(CSV_MALFORMED.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayResource(CSV_VALID.getBytes(StandardCharsets.UTF_8))
+        };
+
+        // When
+        List<Prices> loaded = loader.load(resources, Prices::new);
+
+        // Then
+        assertEquals(3, loaded.size());
+        assertEquals(3, loaded.get(0).prices.size());
+        assertEquals(2, loaded.get(1).prices.size());
+        assertEquals(3, loaded.get(2).prices.size());
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Prices implements PriceCsvLoader.PriceConsumer {
+
+        private final List<String> symbols = new ArrayList<>();
+
+        private final List<Long> timestamps = new ArrayList<>();
+
+        private final List<BigDecimal> prices = new ArrayList<>();
+
+        @Override
+        public void accept(String currencySymbol, long timestamp, long unscaledPrice, int scale) {
+            symbols.add(currencySymbol);
+            timestamps.add(timestamp);
+            prices.add(BigDecimal.valueOf(unscaledPrice, scale));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.epam.crypto.config;
+
+import com.epam.crypto.repository.Aggregate;
+import com.epam.crypto.repository.ColumnarPriceRepository;
+import com.epam.crypto.repository.PriceRepository;
+import com.epam.crypto.repository.PriceSeries;
+import com.epam.crypto.service.DateTimeService;
+import com.epam.crypto.service.PriceService;
+import com.epam.crypto.service.SymbolFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Test
+public class PriceFileWatcherTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+
+    private static final String HEADER = "timestamp,symbol,price\n";
+
+    private static final long WAIT_MILLIS = 10_000;
+
+    private Path directory;
+
+    private PriceRepository repository;
+
+    private ObjectProvider<PriceService> serviceProvider;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void init() throws IOException {
+        directory = Files.createTempDirectory("prices");
+        repository = new ColumnarPriceRepository(new DateTimeService(), new ConcurrentHashMap<String, PriceSeries>());
+        serviceProvider = mock(ObjectProvider.class);
+        when(serviceProvider.getObject()).thenReturn(
+                new PriceService(repository, new DateTimeService(), 0, 1, new SimpleMeterRegistry(), SymbolFanOut.sequential()));
+    }
+
+    @Test
+    public void test0010_readAppendedCompleteLines() throws IOException {
+        // Given
+        Path file = directory.resolve("BTC_values.csv");
+        // The last line is still written, so it has no line break
+        Files.writeString(file, HEADER + "1641009600000,BTC,46813.21\n1641020400000,BTC,469");
+        PriceFileWatcher watcher = new PriceFileWatcher(serviceProvider, directory.toString());
+
+        // When
+        watcher.readTail(file);
+        var newestBeforeAppend = repository.getNewestPrice(CURR_SYMBOL_BTC);
+        Files.writeString(file, "79.61\n1641031200000,BTC,47143.98\n", StandardOpenOption.APPEND);
+        watcher.readTail(file);
+        watcher.readTail(file);
+
+        // Then
+        // Existing lines are not read, the line being written is read after its line break
+        assertNull(newestBeforeAppend);
+        assertEquals(1641020400000L, repository.getOldestPrice(CURR_SYMBOL_BTC).getKey());
+        assertEquals(new BigDecimal("46979.61"), repository.getOldestPrice(CURR_SYMBOL_BTC).getValue());
+        assertEquals(new BigDecimal("47143.98"), repository.getNewestPrice(CURR_SYMBOL_BTC).getValue());
+        assertEquals(2L, repository.getAggregates(CURR_SYMBOL_BTC, EnumSet.of(Aggregate.COUNT)).getCount());
+    }
+
+    @Test
+    public void test0020_readNewFile() throws IOException {
+        // Given
+        PriceFileWatcher watcher = new PriceFileWatcher(serviceProvider, directory.toString());
+        Path file = directory.resolve("ETH_values.csv");
+
+        // When
+        Files.writeString(file, HEADER + "1641009600000,ETH,3715.32\n1641020400000,ETH,3718.67\n");
+        watcher.readTail(file);
+
+        // Then
+        assertEquals(new BigDecimal("3715.32"), repository.getOldestPrice(CURR_SYMBOL_ETH).getValue());
+        assertEquals(new BigDecimal("3718.67"), repository.getNewestPrice(CURR_SYMBOL_ETH).getValue());
+    }
+
+    @Test
+    public void test0030_watchDirectory() throws IOException, InterruptedException {
+        // Given
+        Path file = directory.resolve("ETH_values.csv");
+        Files.writeString(file, HEADER + "1641009600000,ETH,3715.32\n");
+        PriceFileWatcher watcher = new PriceFileWatcher(serviceProvider, directory.toString());
+        watcher.start();
+
+        // When
+        Files.writeString(file, "1641020400000,ETH,3718.67\n", StandardOpenOption.APPEND);
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (repository.getNewestPrice(CURR_SYMBOL_ETH) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        watcher.stop();
+
+        // Then
+        assertNotNull(repository.getNewestPrice(CURR_SYMBOL_ETH));
+        assertEquals(1641020400000L, repository.getNewestPrice(CURR_SYMBOL_ETH).getKey());
+        // The line which existed when watcher was created is not read again
+        assertEquals(1641020400000L, repository.getOldestPrice(CURR_SYMBOL_ETH).getKey());
+        assertFalse(watcher.isRunning());
+    }
+}
@@ -0,0 +1,140 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Test
+public class CalendarRollupTest {
+
+    // Timestamp of 2021-12-30 00:00:00.000 UTC+0
+    private static final long TIMESTAMP_START = 1640822400000L;
+
+    private static final long MAX_STEP = 3 * 60 * 60 * 1000L;
+
+    private static final int SIZE = 2000;
+
+    private long[] timestamps;
+
+    private long[] prices;
+
+    private CalendarRollup dailyRollup;
+
+    private CalendarRollup monthlyRollup;
+
+    @BeforeClass
+    public void init() {
+        Random random = new Random(42);
+        timestamps = new long[SIZE];
+        prices = new long[SIZE];
+        long timestamp = TIMESTAMP_START;
+        for (int i = 0; i < SIZE; i++) {
+            // Some days are skipped to check periods without prices
+            timestamp += i % 100 == 0 ? CalendarPeriod.DAY_MILLIS * 2 : 1 + random.nextInt((int) MAX_STEP);
+            timestamps[i] = timestamp;
+            prices[i] = random.nextInt(100);
+        }
+        RangeExtremumIndex index = RangeExtremumIndex.build(prices, SIZE);
+        dailyRollup = CalendarRollup.build(CalendarPeriod.DAY, timestamps, prices, SIZE, index);
+        monthlyRollup = CalendarRollup.build(CalendarPeriod.MONTH, timestamps, prices, SIZE, index);
+    }
+
+    @Test
+    public void test0010_calendarPeriodsMatchJavaTime() {
+        for (long epochDay = -800_000; epochDay < 800_000; epochDay += 7) {
+            // Given
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            long timestamp = date.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli() + 1;
+
+            // When
+            long month = CalendarPeriod.MONTH.periodOf(timestamp);
+
+            // Then
+            assertEquals(date.getYear() * 12L + date.getMonthValue() - 1, month);
+            assertEquals(date.withDayOfMonth(1).toEpochDay() * CalendarPeriod.DAY_MILLIS, CalendarPeriod.MONTH.startOf(month));
+            assertEquals(epochDay, CalendarPeriod.DAY.periodOf(timestamp));
+        }
+    }
+
+    @Test
+    public void test0020_dailyRollupMatchesScan() {
+        for (long day = CalendarPeriod.DAY.periodOf(TIMESTAMP_START) - 1; day <= CalendarPeriod.DAY.periodOf(timestamps[SIZE - 1]) + 1; day++) {
+            // Given
+            long start = CalendarPeriod.DAY.startOf(day);
+            int[] expected = scan(start, CalendarPeriod.DAY.startOf(day + 1));
+
+            // Then
+            assertEquals(expected[0], dailyRollup.getOpen(start));
+            assertEquals(expected[1], dailyRollup.getClose(start));
+            assertEquals(expected[2], dailyRollup.getLow(start));
+            assertEquals(expected[3], dailyRollup.getHigh(start + CalendarPeriod.DAY_MILLIS - 1));
+        }
+    }
+
+    @Test
+    public void test0030_monthlyRollupMatchesScan() {
+        for (long month = CalendarPeriod.MONTH.periodOf(TIMESTAMP_START) - 1; month <= CalendarPeriod.MONTH.periodOf(timestamps[SIZE - 1]) + 1; month++) {
+            // Given
+            long start = CalendarPeriod.MONTH.startOf(month);
+            int[] expected = scan(start, CalendarPeriod.MONTH.startOf(month + 1));
+
+            // Then
+            assertEquals(expected[0], monthlyRollup.getOpen(start));
+            assertEquals(expected[1], monthlyRollup.getClose(start));
+            assertEquals(expected[2], monthlyRollup.getLow(start));
+            assertEquals(expected[3], monthlyRollup.getHigh(start));
+        }
+    }
+
+    @Test
+    public void test0040_rollUpOutlierTimestamps() {
+        // Given
+        // Epoch start and a timestamp millions of years later are far away from the rest of prices
+        long[] outlierTimestamps = {0, TIMESTAMP_START, TIMESTAMP_START + 1, Long.MAX_VALUE / 2};
+        long[] outlierPrices = {5, 7, 3, 9};
+        RangeExtremumIndex index = RangeExtremumIndex.build(outlierPrices, outlierTimestamps.length);
+
+        // When
+        CalendarRollup rollup = CalendarRollup.build(CalendarPeriod.DAY, outlierTimestamps, outlierPrices,
+                outlierTimestamps.length, index);
+        CalendarRollup appended = CalendarRollup.build(CalendarPeriod.DAY, outlierTimestamps, outlierPrices, 3, index)
+                .append(outlierTimestamps, outlierPrices, 3);
+
+        // Then
+        for (CalendarRollup calendarRollup : new CalendarRollup[]{rollup, appended}) {
+            assertEquals(0, calendarRollup.getOpen(1));
+            assertEquals(-1, calendarRollup.getOpen(CalendarPeriod.DAY_MILLIS));
+            assertEquals(1, calendarRollup.getOpen(TIMESTAMP_START));
+            assertEquals(2, calendarRollup.getLow(TIMESTAMP_START));
+            assertEquals(2, calendarRollup.getClose(TIMESTAMP_START));
+            assertEquals(3, calendarRollup.getHigh(Long.MAX_VALUE / 2));
+            assertEquals(-1, calendarRollup.getHigh(Long.MAX_VALUE / 4));
+        }
+    }
+
+    /**
+     * Find open, close, low and high indexes by scanning all prices
+     */
+    private int[] scan(long from, long to) {
+        int[] result = {-1, -1, -1, -1};
+        for (int i = 0; i < SIZE; i++) {
+            if (timestamps[i] < from || timestamps[i] >= to) {
+                continue;
+            }
+            if (result[0] < 0) {
+                result[0] = i;
+                result[2] = i;
+                result[3] = i;
+            }
+            result[1] = i;
+            result[2] = prices[i] < prices[result[2]] ? i : result[2];
+            result[3] = prices[i] > prices[result[3]] ? i : result[3];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,509 @@
+package com.epam.crypto.repository;
+
+import com.epam.crypto.service.DateTimeService;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class ColumnarPriceRepositoryTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+    private static final String CURR_SYMBOL_DOGE = "DOGE";
+
+    private static final int YEAR = 2022;
+    private static final int MONTH = 1;
+    private static final int DAY = 1;
+
+    private static final int YEAR_NON_EXISTING = 2023;
+    private static final int MONTH_NON_EXISTING = 2;
+    private static final int DAY_NON_EXISTING = 2;
+
+    // Timestamp of 2022-01-01 01:01:01.0001 UTC+0
+    private static final long TIMESTAMP_FIRST = 1640998861001L;
+
+    // Timestamp of 2022-01-01 01:01:01.0002 UTC+0
+    private static final long TIMESTAMP_SECOND = 1640998861002L;
+
+    // Timestamp of 2022-01-01 01:01:01.0003 UTC+0
+    private static final long TIMESTAMP_THIRD = 1640998861003L;
+
+    private static final BigDecimal PRICE_FIRST = new BigDecimal("10.01");
+    private static final BigDecimal PRICE_SECOND = new BigDecimal("10.020");
+    private static final BigDecimal PRICE_THIRD = new BigDecimal("10.1");
+
+    private static final BigDecimal RANGE_BTC = new BigDecimal("2.000999");
+    private static final BigDecimal MEAN_BTC = new BigDecimal("10.015");
+    private static final BigDecimal VARIANCE_BTC = new BigDecimal("0.000025");
+    // (10.020 - 10.01) / 10.01 = 0.000999000999(000999) rounded to 16 significant digits
+    private static final BigDecimal RETURN_BTC = new BigDecimal("0.0009990009990009990");
+
+    private static final int TICKS = 100_000;
+
+    private static final int STATISTICS_TICKS = 5000;
+
+    private static final int WINDOWS = 500;
+
+    // Precision of naive baseline, much higher than precision of statistics
+    private static final MathContext BASELINE_CONTEXT = new MathContext(50);
+
+    private ColumnarPriceRepository repository;
+
+    @BeforeClass
+    public void init() {
+        DateTimeService dateTimeService = new DateTimeService();
+        var storage = new HashMap<String, PriceSeries>();
+
+        // Prices are added in reverse order and with duplicate to check sorting and deduplication
+        storage.put(CURR_SYMBOL_BTC, PriceSeries.builder()
+                .add(TIMESTAMP_SECOND, PRICE_FIRST)
+                .add(TIMESTAMP_SECOND, PRICE_SECOND)
+                .add(TIMESTAMP_FIRST, PRICE_FIRST)
+                .build());
+        storage.put(CURR_SYMBOL_ETH, PriceSeries.builder()
+                .add(TIMESTAMP_SECOND, PRICE_SECOND)
+                .add(TIMESTAMP_THIRD, PRICE_THIRD)
+                .build());
+
+        repository = new ColumnarPriceRepository(dateTimeService, storage);
+    }
+
+    @Test
+    public void test0010_getOldestPriceOnExistingCurrency() {
+        // When
+        var found = repository.getOldestPrice(CURR_SYMBOL_BTC);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_FIRST);
+        assertEquals(found.getValue(), PRICE_FIRST);
+    }
+
+    @Test
+    public void test0011_getOldestPriceOnExistingCurrencyOnExistingDate() {
+        // When
+        var found = repository.getOldestPrice(CURR_SYMBOL_BTC, YEAR, MONTH);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_FIRST);
+        assertEquals(found.getValue(), PRICE_FIRST);
+    }
+
+    @Test
+    public void test0012_getOldestPriceOnExistingCurrencyOnNonExistingDate() {
+        // When
+        var found = repository.getOldestPrice(CURR_SYMBOL_BTC, YEAR_NON_EXISTING, MONTH_NON_EXISTING);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0013_getOldestPriceOnNonExistingCurrency() {
+        // When
+        var found = repository.getOldestPrice(CURR_SYMBOL_DOGE);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0020_getNewestPriceOnExistingCurrency() {
+        // When
+        var found = repository.getNewestPrice(CURR_SYMBOL_BTC);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_SECOND);
+        assertEquals(found.getValue(), PRICE_SECOND);
+    }
+
+    @Test
+    public void test0021_getNewestPriceOnExistingCurrencyOnExistingDate() {
+        // When
+        var found = repository.getNewestPrice(CURR_SYMBOL_ETH, YEAR, MONTH);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_THIRD);
+        assertEquals(found.getValue(), PRICE_THIRD);
+    }
+
+    @Test
+    public void test0022_getNewestPriceOnExistingCurrencyOnNonExistingDate() {
+        // When
+        var found = repository.getNewestPrice(CURR_SYMBOL_BTC, YEAR_NON_EXISTING, MONTH_NON_EXISTING);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0030_getLowestPriceOnExistingCurrency() {
+        // When
+        var found = repository.getLowestPrice(CURR_SYMBOL_BTC);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_FIRST);
+        assertEquals(found.getValue(), PRICE_FIRST);
+    }
+
+    @Test
+    public void test0031_getLowestPriceOnExistingCurrencyOnExistingDay() {
+        // When
+        var found = repository.getLowestPrice(CURR_SYMBOL_ETH, YEAR, MONTH, DAY);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_SECOND);
+        assertEquals(found.getValue(), PRICE_SECOND);
+    }
+
+    @Test
+    public void test0032_getLowestPriceOnExistingCurrencyOnNonExistingDate() {
+        // When
+        var found = repository.getLowestPrice(CURR_SYMBOL_BTC, YEAR_NON_EXISTING, MONTH_NON_EXISTING);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0040_getHighestPriceOnExistingCurrency() {
+        // When
+        var found = repository.getHighestPrice(CURR_SYMBOL_ETH);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_THIRD);
+        assertEquals(found.getValue(), PRICE_THIRD);
+    }
+
+    @Test
+    public void test0041_getHighestPriceOnExistingCurrencyOnExistingDate() {
+        // When
+        var found = repository.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(found.getKey(), TIMESTAMP_SECOND);
+        assertEquals(found.getValue(), PRICE_SECOND);
+    }
+
+    @Test
+    public void test0042_getHighestPriceOnNonExistingCurrency() {
+        // When
+        var found = repository.getHighestPrice(CURR_SYMBOL_DOGE);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0050_getCurrencies() {
+        // When
+        var found = repository.getCurrencies();
+
+        // Then
+        assertNotNull(found);
+        assertTrue(found.contains(CURR_SYMBOL_BTC));
+        assertTrue(found.contains(CURR_SYMBOL_ETH));
+        assertFalse(found.contains(CURR_SYMBOL_DOGE));
+    }
+
+    @Test
+    public void test0060_getRangeOfExistingCurrency() {
+        // When
+        var found = repository.getNormalizedRange(CURR_SYMBOL_BTC);
+
+        // Then
+        assertNotNull(found);
+        assertTrue(found.compareTo(RANGE_BTC) == 0);
+    }
+
+    @Test
+    public void test0061_getRangeOfExistingCurrencyOnExistingDay() {
+        // When
+        var found = repository.getNormalizedRange(CURR_SYMBOL_BTC, YEAR, MONTH, DAY);
+
+        // Then
+        assertNotNull(found);
+        assertTrue(found.compareTo(RANGE_BTC) == 0);
+    }
+
+    @Test
+    public void test0062_getRangeOfExistingCurrencyOnNonExistingDay() {
+        // When
+        var found = repository.getNormalizedRange(CURR_SYMBOL_BTC, YEAR_NON_EXISTING, MONTH_NON_EXISTING, DAY_NON_EXISTING);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0063_getRangeOfNonExistingCurrency() {
+        // When
+        var found = repository.getNormalizedRange(CURR_SYMBOL_DOGE);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0065_getAllAggregatesOfExistingCurrency() {
+        // When
+        var found = repository.getAggregates(CURR_SYMBOL_BTC, EnumSet.allOf(Aggregate.class));
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), found.getFirst());
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), found.getLast());
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), found.getMin());
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), found.getMax());
+        assertEquals(2L, found.getCount());
+        assertTrue(found.getRange().compareTo(RANGE_BTC) == 0);
+        assertEquals(MEAN_BTC, found.getMean());
+        assertEquals(VARIANCE_BTC, found.getVariance());
+        assertTrue(found.getReturnRate().compareTo(RETURN_BTC) == 0);
+    }
+
+    @Test
+    public void test0066_getAggregatesOfExistingCurrencyInWindow() {
+        // When
+        var found = repository.getAggregates(CURR_SYMBOL_ETH, TIMESTAMP_THIRD, TIMESTAMP_THIRD, EnumSet.of(Aggregate.FIRST, Aggregate.COUNT));
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD), found.getFirst());
+        assertEquals(1L, found.getCount());
+        assertNull(found.getLast());
+        assertNull(found.getRange());
+    }
+
+    @Test
+    public void test0067_getAggregatesOfNonExistingCurrency() {
+        // When
+        var found = repository.getAggregates(CURR_SYMBOL_DOGE, EnumSet.allOf(Aggregate.class));
+
+        // Then
+        assertEquals(0L, found.getCount());
+        assertNull(found.getFirst());
+        assertNull(found.getMin());
+        assertNull(found.getRange());
+    }
+
+    @Test
+    public void test0068_getPricesOfExistingCurrencyInWindow() {
+        // When
+        var oldest = repository.getOldestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var newest = repository.getNewestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var lowest = repository.getLowestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var highest = repository.getHighestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var range = repository.getNormalizedRange(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), oldest);
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), newest);
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), lowest);
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), highest);
+        assertTrue(range.compareTo(RANGE_BTC) == 0);
+    }
+
+    @Test
+    public void test0069_getPricesOfExistingCurrencyInWindowWithoutPrices() {
+        // When
+        var oldest = repository.getOldestPrice(CURR_SYMBOL_ETH, TIMESTAMP_FIRST, TIMESTAMP_FIRST);
+        var lowest = repository.getLowestPrice(CURR_SYMBOL_ETH, TIMESTAMP_FIRST, TIMESTAMP_FIRST);
+        var range = repository.getNormalizedRange(CURR_SYMBOL_ETH, TIMESTAMP_FIRST, TIMESTAMP_FIRST);
+        var highestOfNonExisting = repository.getHighestPrice(CURR_SYMBOL_DOGE, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+
+        // Then
+        assertNull(oldest);
+        assertNull(lowest);
+        assertNull(range);
+        assertNull(highestOfNonExisting);
+    }
+
+    @Test
+    public void test0075_getCandlesOfExistingCurrency() {
+        // When
+        var candle = repository.getCandles(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD, 1000L).next();
+        var candles = repository.getCandles(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD, 1L);
+        var first = candles.next();
+        var second = candles.next();
+
+        // Then
+        assertEquals(TIMESTAMP_FIRST - TIMESTAMP_FIRST % 1000, candle.getTimestamp());
+        assertEquals(PRICE_FIRST, candle.getOpen());
+        assertEquals(PRICE_SECOND, candle.getHigh());
+        assertEquals(PRICE_FIRST, candle.getLow());
+        assertEquals(PRICE_SECOND, candle.getClose());
+        assertEquals(2, candle.getCount());
+        assertEquals(TIMESTAMP_FIRST, first.getTimestamp());
+        assertEquals(PRICE_FIRST, first.getClose());
+        assertEquals(TIMESTAMP_SECOND, second.getTimestamp());
+        assertEquals(PRICE_SECOND, second.getOpen());
+        assertFalse(candles.hasNext());
+    }
+
+    @Test
+    public void test0076_getCandlesOfNonExistingCurrency() {
+        // When
+        var candles = repository.getCandles(CURR_SYMBOL_DOGE, TIMESTAMP_FIRST, TIMESTAMP_THIRD, 1000L);
+
+        // Then
+        assertFalse(candles.hasNext());
+    }
+
+    @Test
+    public void test0077_getPricesInWindow() {
+        // When
+        var prices = repository.getPrices(CURR_SYMBOL_BTC, TIMESTAMP_SECOND, TIMESTAMP_THIRD);
+        var first = prices.next();
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), first);
+        assertFalse(prices.hasNext());
+        assertFalse(repository.getPrices(CURR_SYMBOL_DOGE, TIMESTAMP_FIRST, TIMESTAMP_THIRD).hasNext());
+    }
+
+    @Test
+    public void test0070_addPrices() {
+        // Given
+        var storage = new ConcurrentHashMap<String, PriceSeries>();
+        var repository = new ColumnarPriceRepository(new DateTimeService(), storage);
+
+        // When
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), Pair.of(TIMESTAMP_FIRST, PRICE_FIRST)));
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD)));
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), repository.getOldestPrice(CURR_SYMBOL_BTC));
+        assertEquals(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD), repository.getNewestPrice(CURR_SYMBOL_BTC));
+        assertEquals(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD), repository.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH, DAY));
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), repository.getLowestPrice(CURR_SYMBOL_BTC, YEAR, MONTH));
+        assertTrue(repository.getCurrencies().contains(CURR_SYMBOL_BTC));
+        assertEquals(2, repository.getVersion());
+    }
+
+    @Test
+    public void test0071_readPricesWhileAdding() throws InterruptedException {
+        // Given
+        var storage = new ConcurrentHashMap<String, PriceSeries>();
+        var repository = new ColumnarPriceRepository(new DateTimeService(), storage);
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_FIRST, toPrice(TIMESTAMP_FIRST))));
+        var finished = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            // Prices grow with timestamps, so the newest price is always the highest one
+            for (long timestamp = TIMESTAMP_FIRST + 1; timestamp <= TIMESTAMP_FIRST + TICKS; timestamp++) {
+                repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(timestamp, toPrice(timestamp))));
+            }
+            finished.set(true);
+        });
+
+        // When
+        writer.start();
+        long reads = 0;
+        while (!finished.get() || reads == 0) {
+            var newest = repository.getNewestPrice(CURR_SYMBOL_BTC);
+            var highest = repository.getHighestPrice(CURR_SYMBOL_BTC);
+            var highestOnDay = repository.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH, DAY);
+
+            // Then
+            assertEquals(toPrice(newest.getKey()), newest.getValue());
+            assertEquals(toPrice(highest.getKey()), highest.getValue());
+            assertEquals(toPrice(highestOnDay.getKey()), highestOnDay.getValue());
+            assertTrue(newest.getKey() <= highest.getKey());
+            reads++;
+        }
+        writer.join();
+        assertEquals(TICKS + 1, repository.getPriceCount(CURR_SYMBOL_BTC));
+        assertEquals(Pair.of(TIMESTAMP_FIRST + TICKS, toPrice(TIMESTAMP_FIRST + TICKS)), repository.getHighestPrice(CURR_SYMBOL_BTC));
+    }
+
+    @Test
+    public void test0080_statisticsEqualNaiveBaseline() {
+        // Given
+        Random random = new Random(23);
+        List<BigDecimal> prices = new ArrayList<>();
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < STATISTICS_TICKS; i++) {
+            // Large prices with tiny deviations: variance from sums of doubles would lose all its digits here.
+            // Some prices have less digits to check that series of mixed scales is summed exactly
+            BigDecimal price = i % 10 == 0
+                    ? BigDecimal.valueOf(4_000_000 + random.nextInt(10), 2)
+                    : BigDecimal.valueOf(4_000_000_000_000L + random.nextInt(100_000), 8);
+            prices.add(price);
+            builder.add(TIMESTAMP_FIRST + i, price);
+        }
+        var repository = new ColumnarPriceRepository(new DateTimeService(), Map.of(CURR_SYMBOL_BTC, builder.build()));
+        var statistics = EnumSet.of(Aggregate.COUNT, Aggregate.MEAN, Aggregate.VARIANCE, Aggregate.RETURN);
+
+        for (int i = 0; i < WINDOWS; i++) {
+            int from = random.nextInt(STATISTICS_TICKS);
+            int to = from + 1 + random.nextInt(STATISTICS_TICKS - from);
+
+            // When
+            var found = repository.getAggregates(CURR_SYMBOL_BTC, TIMESTAMP_FIRST + from, TIMESTAMP_FIRST + to - 1, statistics);
+
+            // Then
+            var window = prices.subList(from, to);
+            BigDecimal count = BigDecimal.valueOf(window.size());
+            BigDecimal mean = window.stream().reduce(BigDecimal.ZERO, BigDecimal::add).divide(count, BASELINE_CONTEXT);
+            BigDecimal variance = window.stream()
+                    .map(price -> price.subtract(mean).pow(2))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .divide(count, BASELINE_CONTEXT);
+            BigDecimal returnRate = window.get(window.size() - 1).subtract(window.get(0)).divide(window.get(0), BASELINE_CONTEXT);
+            String message = "Window [" + from + ", " + to + ")";
+            assertEquals(window.size(), found.getCount(), message);
+            assertEquals(0, mean.round(MathContext.DECIMAL64).compareTo(found.getMean()), message);
+            assertEquals(0, variance.round(MathContext.DECIMAL64).compareTo(found.getVariance()), message);
+            assertEquals(0, returnRate.round(MathContext.DECIMAL64).compareTo(found.getReturnRate()), message);
+        }
+    }
+
+    @Test
+    public void test0090_samplePricesOntoTimeGrid() {
+        // Given
+        int currencyId = repository.getCurrencyId(CURR_SYMBOL_ETH);
+        double[] samples = new double[5];
+
+        // When
+        repository.samplePrices(currencyId, TIMESTAMP_FIRST, 1, samples, 1, 4);
+
+        // Then
+        // No price before the second timestamp, the third price is sampled at the last point too
+        assertArrayEquals(new double[]{0, Double.NaN, 10.02, 10.1, 10.1}, samples);
+    }
+
+    @Test
+    public void test0091_samplePricesOfNonExistingCurrency() {
+        // Given
+        double[] samples = new double[2];
+
+        // When
+        repository.samplePrices(repository.getCurrencyCount(), TIMESTAMP_FIRST, 1, samples, 0, 2);
+
+        // Then
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN}, samples);
+    }
+
+    private static BigDecimal toPrice(long timestamp) {
+        return BigDecimal.valueOf(timestamp - TIMESTAMP_FIRST + 1, 2);
+    }
+}
@@ -0,0 +1,153 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class CompressedSegmentTest {
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_START = 1640995200000L;
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final int SEGMENT_SIZE = 100;
+
+    // Decoded data of one segment takes 1600 bytes
+    private static final long CACHE_BUDGET = 4000;
+
+    private static final int TICKS = 10_000;
+
+    @Test
+    public void test0010_readCompressedSegment() {
+        // Given
+        PriceSeries series = PriceSeries.builder()
+                .add(TIMESTAMP_START, new BigDecimal("10.5"))
+                .add(TIMESTAMP_START + 1, new BigDecimal("9.25"))
+                .add(TIMESTAMP_START + 2, new BigDecimal("11"))
+                .add(TIMESTAMP_START + 3, new BigDecimal("10.50"))
+                .build();
+        DecodedSegmentCache cache = new DecodedSegmentCache(CACHE_BUDGET);
+
+        // When
+        CompressedSegment segment = CompressedSegment.write(cache, series, 1, 4);
+
+        // Then
+        assertEquals(3, segment.size());
+        assertEquals(new BigDecimal("11"), segment.getPrice(1));
+        assertEquals(TIMESTAMP_START + 3, segment.getTimestamp(2));
+        assertEquals(new BigDecimal("10.50"), segment.getPrice(2));
+        assertEquals(0, segment.indexOfMin(0, 3));
+        assertEquals(0, cache.getMisses());
+        assertEquals(2, segment.indexOfMin(1, 3));
+        assertEquals(1, segment.lowerBound(TIMESTAMP_START + 2));
+        assertEquals(2, segment.upperBound(TIMESTAMP_START + 2));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void test0020_keepDecodedSegmentsWithinBudget() {
+        // Given
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < 10 * SEGMENT_SIZE; i++) {
+            builder.add(TIMESTAMP_START + i, BigDecimal.valueOf(i % 7));
+        }
+        PriceSeries series = builder.build();
+        DecodedSegmentCache cache = new DecodedSegmentCache(CACHE_BUDGET);
+        CompressedSegment[] segments = new CompressedSegment[10];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = CompressedSegment.write(cache, series, i * SEGMENT_SIZE, (i + 1) * SEGMENT_SIZE);
+        }
+
+        // When
+        for (int i = 0; i < segments.length; i++) {
+            assertEquals(series.getPrice(i * SEGMENT_SIZE + 50), segments[i].getPrice(50));
+        }
+        long missesBeforeRepeat = cache.getMisses();
+        segments[9].getPrice(33);
+
+        // Then
+        assertEquals(10, missesBeforeRepeat);
+        assertEquals(10, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertTrue(cache.getCachedBytes() <= CACHE_BUDGET);
+    }
+
+    @Test
+    public void test0030_restoreAnyPricesExactly() {
+        // Given
+        // Irregular and decades long gaps between timestamps, extreme prices (which fit the common scale) and different scales
+        Random random = new Random(42);
+        PriceSeries.Builder builder = PriceSeries.builder();
+        long timestamp = TIMESTAMP_START;
+        for (int i = 0; i < TICKS; i++) {
+            timestamp += i % 1000 == 0 ? 1L << 40 : 1 + random.nextInt(i % 3 == 0 ? 10 : 100_000);
+            long unscaled = i % 101 == 0 ? Long.MAX_VALUE / 100_000 - random.nextInt(1000) : random.nextInt(1_000_000);
+            builder.add(timestamp, BigDecimal.valueOf(unscaled, random.nextInt(3)));
+        }
+        PriceSeries series = builder.build();
+
+        // When
+        CompressedSegment segment = CompressedSegment.write(new DecodedSegmentCache(0), series, 0, series.size());
+        CompressedSegment.DecodedColumns columns = segment.decode();
+
+        // Then
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(series.getTimestamp(i), columns.getTimestamp(i));
+            assertEquals(series.getUnscaledPrice(i), columns.getUnscaledPrice(i));
+            assertEquals(series.getPrice(i), segment.getPrice(i));
+        }
+    }
+
+    @Test
+    public void test0040_compressRegularTicksOfClosePrices() {
+        // Given
+        // Hourly ticks (a few of them are late) with price moving by up to 0.5%
+        Random random = new Random(42);
+        PriceSeries.Builder builder = PriceSeries.builder();
+        long price = 4_680_000;
+        for (int i = 0; i < TICKS; i++) {
+            price += (long) (random.nextGaussian() * price / 1000);
+            builder.add(TIMESTAMP_START + i * HOUR_MILLIS + (i % 50 == 0 ? random.nextInt(1000) : 0), BigDecimal.valueOf(price, 2));
+        }
+        PriceSeries series = builder.build();
+
+        // When
+        CompressedSegment segment = CompressedSegment.write(new DecodedSegmentCache(0), series, 0, series.size());
+
+        // Then
+        // Columns of price series take 16 bytes per price
+        assertTrue(segment.getDataBytes() < 4L * TICKS, "Compressed into " + segment.getDataBytes() + " bytes");
+    }
+
+    @Test
+    public void test0050_lookUpSegmentOnceThroughView() {
+        // Given
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < SEGMENT_SIZE; i++) {
+            builder.add(TIMESTAMP_START + i, BigDecimal.valueOf(i % 7));
+        }
+        PriceSeries series = builder.build();
+        DecodedSegmentCache cache = new DecodedSegmentCache(CACHE_BUDGET);
+        CompressedSegment segment = CompressedSegment.write(cache, series, 0, SEGMENT_SIZE);
+
+        // When
+        ColdSegment view = segment.view();
+        for (int i = 0; i < SEGMENT_SIZE; i++) {
+            assertEquals(series.getTimestamp(i), view.getTimestamp(i));
+            assertEquals(series.getPrice(i), view.getPrice(i));
+            assertEquals(series.getUnscaledPrice(i), view.getUnscaledPrice(i));
+        }
+
+        // Then
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        assertEquals(segment.indexOfMin(1, SEGMENT_SIZE), view.indexOfMin(1, SEGMENT_SIZE));
+        assertEquals(segment.getSums(1, SEGMENT_SIZE), view.getSums(1, SEGMENT_SIZE));
+    }
+}
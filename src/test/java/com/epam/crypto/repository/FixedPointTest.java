@@ -0,0 +1,84 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class FixedPointTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private static final int MAX_SCALE = 10;
+
+    @Test
+    public void test0010_normalizedRangeEqualsBigDecimalRange() {
+        // Given
+        Random random = new Random(21);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            // Prices from 1 to 10^13 units of the last digit, so both fast path and fallback are covered
+            long min = 1 + (long) (random.nextDouble() * Math.pow(10, random.nextInt(14)));
+            long max = min + (long) (random.nextDouble() * min * random.nextInt(5));
+            int minScale = random.nextInt(MAX_SCALE);
+            int maxScale = random.nextBoolean() ? minScale : random.nextInt(MAX_SCALE);
+            BigDecimal minPrice = BigDecimal.valueOf(min, minScale);
+            BigDecimal maxPrice = BigDecimal.valueOf(max, maxScale);
+            if (minPrice.compareTo(maxPrice) > 0) {
+                continue;
+            }
+
+            // When
+            BigDecimal range = FixedPoint.normalizedRange(min, minScale, max, maxScale);
+
+            // Then
+            assertEquals(FixedPoint.normalizedRange(minPrice, maxPrice), range, minPrice + " " + maxPrice);
+        }
+    }
+
+    @Test
+    public void test0020_normalizedRangeRoundsHalfUp() {
+        // When
+        // (8000004 + 8000000) / 8000000 = 2.0000005, tie is rounded up
+        BigDecimal tie = FixedPoint.normalizedRange(8_000_000L, 8_000_004L);
+        // (3 + 4) / 3 = 2.333333(3)
+        BigDecimal down = FixedPoint.normalizedRange(3L, 4L);
+        // (3 + 5) / 3 = 2.666666(6)
+        BigDecimal up = FixedPoint.normalizedRange(3L, 5L);
+
+        // Then
+        assertEquals(new BigDecimal("2.000001"), tie);
+        assertEquals(new BigDecimal("2.333333"), down);
+        assertEquals(new BigDecimal("2.666667"), up);
+        assertEquals(FixedPoint.normalizedRange(new BigDecimal("8000000"), new BigDecimal("8000004")), tie);
+    }
+
+    @Test
+    public void test0030_normalizedRangeOfLargeValues() {
+        // When
+        BigDecimal largeMin = FixedPoint.normalizedRange(Long.MAX_VALUE / 3, Long.MAX_VALUE / 2);
+        BigDecimal largeRatio = FixedPoint.normalizedRange(1L, Long.MAX_VALUE - 1);
+        BigDecimal rescaled = FixedPoint.normalizedRange(Long.MAX_VALUE / 2, 0, Long.MAX_VALUE, 18);
+
+        // Then
+        assertEquals(FixedPoint.normalizedRange(BigDecimal.valueOf(Long.MAX_VALUE / 3), BigDecimal.valueOf(Long.MAX_VALUE / 2)), largeMin);
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).setScale(6), largeRatio);
+        assertEquals(FixedPoint.normalizedRange(BigDecimal.valueOf(Long.MAX_VALUE / 2), BigDecimal.valueOf(Long.MAX_VALUE, 18)), rescaled);
+        assertThrows(ArithmeticException.class, () -> FixedPoint.normalizedRange(0L, 1L));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.normalizedRange(0L, 0, 1L, 2));
+    }
+
+    @Test
+    public void test0040_compareWithDifferentScales() {
+        // Then
+        assertEquals(0, FixedPoint.compare(1001, 2, 10010, 3));
+        assertTrue(FixedPoint.compare(1001, 2, 10011, 3) < 0);
+        assertTrue(FixedPoint.compare(10011, 3, 1001, 2) > 0);
+        // Rescaled value overflows long
+        assertTrue(FixedPoint.compare(Long.MAX_VALUE / 10, 0, Long.MAX_VALUE, 18) > 0);
+        assertTrue(FixedPoint.compare(Long.MIN_VALUE / 10, 0, Long.MIN_VALUE, 18) < 0);
+    }
+}
@@ -1,13 +1,19 @@
 package com.epam.crypto.repository;
 
 import com.epam.crypto.service.DateTimeService;
+import org.apache.commons.lang3.tuple.Pair;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +45,10 @@ public class InMemoryPriceRepositoryTest {
     private static final BigDecimal PRICE_SECOND = new BigDecimal(10.02);
     private static final BigDecimal PRICE_THIRD = new BigDecimal(10.03);
 
+    private static final int BATCHES = 200;
+
+    private static final int BATCH_SIZE = 100;
+
     private static final BigDecimal RANGE_BTC = new BigDecimal("2.000999");
 
     private InMemoryPriceRepository repository;
@@ -269,4 +279,183 @@ public class InMemoryPriceRepositoryTest {
         // Then
         assertNull(found);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test0065_getAllAggregatesOfExistingCurrency() {
+        // When
+        var found = repository.getAggregates(CURR_SYMBOL_BTC, EnumSet.allOf(Aggregate.class));
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), found.getFirst());
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), found.getLast());
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), found.getMin());
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), found.getMax());
+        assertEquals(2L, found.getCount());
+        assertTrue(found.getRange().compareTo(RANGE_BTC) == 0);
+    }
+
+    @Test
+    public void test0066_getAggregatesOfExistingCurrencyInWindow() {
+        // When
+        var found = repository.getAggregates(CURR_SYMBOL_ETH, TIMESTAMP_THIRD, TIMESTAMP_THIRD, EnumSet.of(Aggregate.FIRST, Aggregate.COUNT));
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD), found.getFirst());
+        assertEquals(1L, found.getCount());
+        assertNull(found.getLast());
+        assertNull(found.getRange());
+    }
+
+    @Test
+    public void test0067_getAggregatesOfNonExistingCurrency() {
+        // When
+        var found = repository.getAggregates(CURR_SYMBOL_DOGE, EnumSet.allOf(Aggregate.class));
+
+        // Then
+        assertEquals(0L, found.getCount());
+        assertNull(found.getFirst());
+        assertNull(found.getMin());
+        assertNull(found.getRange());
+    }
+
+    @Test
+    public void test0068_getPricesOfExistingCurrencyInWindow() {
+        // When
+        var oldest = repository.getOldestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var newest = repository.getNewestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var lowest = repository.getLowestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var highest = repository.getHighestPrice(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+        var range = repository.getNormalizedRange(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), oldest);
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), newest);
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), lowest);
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), highest);
+        assertTrue(range.compareTo(RANGE_BTC) == 0);
+    }
+
+    @Test
+    public void test0069_getPricesOfExistingCurrencyInWindowWithoutPrices() {
+        // When
+        var oldest = repository.getOldestPrice(CURR_SYMBOL_ETH, TIMESTAMP_FIRST, TIMESTAMP_FIRST);
+        var lowest = repository.getLowestPrice(CURR_SYMBOL_ETH, TIMESTAMP_FIRST, TIMESTAMP_FIRST);
+        var range = repository.getNormalizedRange(CURR_SYMBOL_ETH, TIMESTAMP_FIRST, TIMESTAMP_FIRST);
+        var highestOfNonExisting = repository.getHighestPrice(CURR_SYMBOL_DOGE, TIMESTAMP_FIRST, TIMESTAMP_THIRD);
+
+        // Then
+        assertNull(oldest);
+        assertNull(lowest);
+        assertNull(range);
+        assertNull(highestOfNonExisting);
+    }
+
+    @Test
+    public void test0075_getCandlesOfExistingCurrency() {
+        // When
+        var candle = repository.getCandles(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD, 1000L).next();
+        var candles = repository.getCandles(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, TIMESTAMP_THIRD, 1L);
+        var first = candles.next();
+        var second = candles.next();
+
+        // Then
+        assertEquals(TIMESTAMP_FIRST - TIMESTAMP_FIRST % 1000, candle.getTimestamp());
+        assertEquals(PRICE_FIRST, candle.getOpen());
+        assertEquals(PRICE_SECOND, candle.getHigh());
+        assertEquals(PRICE_FIRST, candle.getLow());
+        assertEquals(PRICE_SECOND, candle.getClose());
+        assertEquals(2, candle.getCount());
+        assertEquals(TIMESTAMP_FIRST, first.getTimestamp());
+        assertEquals(PRICE_FIRST, first.getClose());
+        assertEquals(TIMESTAMP_SECOND, second.getTimestamp());
+        assertEquals(PRICE_SECOND, second.getOpen());
+        assertFalse(candles.hasNext());
+    }
+
+    @Test
+    public void test0076_getCandlesOfNonExistingCurrency() {
+        // When
+        var candles = repository.getCandles(CURR_SYMBOL_DOGE, TIMESTAMP_FIRST, TIMESTAMP_THIRD, 1000L);
+
+        // Then
+        assertFalse(candles.hasNext());
+    }
+
+    @Test
+    public void test0077_getPricesInWindow() {
+        // When
+        var prices = repository.getPrices(CURR_SYMBOL_BTC, TIMESTAMP_SECOND, TIMESTAMP_THIRD);
+        var first = prices.next();
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), first);
+        assertFalse(prices.hasNext());
+        assertFalse(repository.getPrices(CURR_SYMBOL_DOGE, TIMESTAMP_FIRST, TIMESTAMP_THIRD).hasNext());
+    }
+
+    @Test
+    public void test0070_addPrices() {
+        // Given
+        var repository = new InMemoryPriceRepository(new DateTimeService(), new ConcurrentHashMap<>());
+
+        // When
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND), Pair.of(TIMESTAMP_FIRST, PRICE_FIRST)));
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD)));
+
+        // Then
+        assertEquals(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST), repository.getOldestPrice(CURR_SYMBOL_BTC));
+        assertEquals(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD), repository.getNewestPrice(CURR_SYMBOL_BTC));
+        assertTrue(repository.getCurrencies().contains(CURR_SYMBOL_BTC));
+    }
+
+    @Test
+    public void test0078_countAddedPrices() {
+        // Given
+        var storage = new HashMap<String, NavigableMap<Long, BigDecimal>>();
+        storage.put(CURR_SYMBOL_BTC, new TreeMap<>());
+        storage.get(CURR_SYMBOL_BTC).put(TIMESTAMP_FIRST, PRICE_FIRST);
+        var repository = new InMemoryPriceRepository(new DateTimeService(), storage);
+
+        // When
+        // Price of the first timestamp is replaced, so it isn't counted twice
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_FIRST, PRICE_SECOND), Pair.of(TIMESTAMP_SECOND, PRICE_SECOND)));
+        repository.addPrices(CURR_SYMBOL_ETH, List.of(Pair.of(TIMESTAMP_THIRD, PRICE_THIRD)));
+
+        // Then
+        assertEquals(2, repository.getPriceCount(CURR_SYMBOL_BTC));
+        assertEquals(1, repository.getPriceCount(CURR_SYMBOL_ETH));
+        assertEquals(0, repository.getPriceCount(CURR_SYMBOL_DOGE));
+    }
+
+    @Test
+    public void test0079_readWholeBatchesWhileAdding() throws InterruptedException {
+        // Given
+        var repository = new InMemoryPriceRepository(new DateTimeService(), new ConcurrentHashMap<>());
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST)));
+        var finished = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            // Every batch adds prices after the newest one
+            for (int batch = 0; batch < BATCHES; batch++) {
+                List<Pair<Long, BigDecimal>> prices = new ArrayList<>();
+                for (int i = 1; i <= BATCH_SIZE; i++) {
+                    prices.add(Pair.of(TIMESTAMP_FIRST + (long) batch * BATCH_SIZE + i, PRICE_SECOND));
+                }
+                repository.addPrices(CURR_SYMBOL_BTC, prices);
+            }
+            finished.set(true);
+        });
+
+        // When
+        writer.start();
+        long reads = 0;
+        while (!finished.get() || reads == 0) {
+            var count = repository.getAggregates(CURR_SYMBOL_BTC, EnumSet.of(Aggregate.COUNT)).getCount();
+
+            // Then
+            assertEquals(1, count % BATCH_SIZE, "Count " + count);
+            reads++;
+        }
+        writer.join();
+        assertEquals(1 + BATCHES * BATCH_SIZE, repository.getPriceCount(CURR_SYMBOL_BTC));
+    }
+}
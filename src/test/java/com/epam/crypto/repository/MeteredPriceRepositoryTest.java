@@ -0,0 +1,71 @@
+package com.epam.crypto.repository;
+
+import com.epam.crypto.service.DateTimeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class MeteredPriceRepositoryTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_DOGE = "DOGE";
+
+    // Timestamp of 2022-01-01 01:01:01.0001 UTC+0
+    private static final long TIMESTAMP_FIRST = 1640998861001L;
+
+    // Timestamp of 2022-01-01 01:01:01.0002 UTC+0
+    private static final long TIMESTAMP_SECOND = 1640998861002L;
+
+    private static final BigDecimal PRICE_FIRST = new BigDecimal("10.01");
+    private static final BigDecimal PRICE_SECOND = new BigDecimal("10.020");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MeteredPriceRepository repository;
+
+    @BeforeClass
+    public void init() {
+        var storage = new ConcurrentHashMap<String, PriceSeries>(Map.of(CURR_SYMBOL_BTC, PriceSeries.builder()
+                .add(TIMESTAMP_FIRST, PRICE_FIRST)
+                .add(TIMESTAMP_SECOND, PRICE_SECOND)
+                .build()));
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new MeteredPriceRepository(new ColumnarPriceRepository(new DateTimeService(), storage), meterRegistry);
+    }
+
+    @Test
+    public void test0010_recordQueries() {
+        // When
+        var lowest = repository.getLowestPrice(CURR_SYMBOL_BTC);
+        repository.getLowestPrice(CURR_SYMBOL_BTC);
+        repository.getNormalizedRange(CURR_SYMBOL_BTC);
+
+        // Then
+        assertEquals(PRICE_FIRST, lowest.getValue());
+        assertEquals(2, meterRegistry.get(MeteredPriceRepository.QUERY_TIMER).tags("query", "lowest", "period", "all").timer().count());
+        assertEquals(1, meterRegistry.get(MeteredPriceRepository.QUERY_TIMER).tags("query", "range", "period", "all").timer().count());
+        assertEquals(0, meterRegistry.get(MeteredPriceRepository.QUERY_TIMER).tags("query", "highest", "period", "day").timer().count());
+        assertTrue(meterRegistry.get(MeteredPriceRepository.SCANNED_ENTRIES_COUNTER).functionCounter().count() > 0);
+        assertEquals(2, meterRegistry.get(MeteredPriceRepository.PRICES_GAUGE).tag("currency", CURR_SYMBOL_BTC).gauge().value());
+    }
+
+    @Test
+    public void test0020_registerGaugeOfAddedCurrency() {
+        // When
+        repository.addPrices(CURR_SYMBOL_DOGE, List.of(Pair.of(TIMESTAMP_FIRST, PRICE_FIRST)));
+        repository.addPrices(CURR_SYMBOL_DOGE, List.of(Pair.of(TIMESTAMP_SECOND, PRICE_SECOND)));
+
+        // Then
+        assertEquals(2, meterRegistry.get(MeteredPriceRepository.PRICES_GAUGE).tag("currency", CURR_SYMBOL_DOGE).gauge().value());
+        assertEquals(2, meterRegistry.get(MeteredPriceRepository.QUERY_TIMER).tags("query", "add", "period", "all").timer().count());
+    }
+}
@@ -0,0 +1,101 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Test
+public class PrefixSumsTest {
+
+    private static final int SIZE = 1000;
+
+    private static final int QUERIES = 5000;
+
+    private long[] values;
+
+    private PrefixSums sums;
+
+    @BeforeClass
+    public void init() {
+        Random random = new Random(42);
+        values = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            // Mostly prices of 8 decimal digits, some values are too large to square them in 128 bits
+            values[i] = i % 97 == 0 ? Long.MAX_VALUE - random.nextInt(1000) : 1 + (long) (random.nextDouble() * 1e13);
+        }
+        sums = PrefixSums.build(values, SIZE);
+    }
+
+    @Test
+    public void test0010_sumsOnRandomRanges() {
+        Random random = new Random(1);
+        for (int i = 0; i < QUERIES; i++) {
+            // Given
+            int from = random.nextInt(SIZE);
+            int to = from + random.nextInt(SIZE - from + 1);
+
+            // When
+            BigInteger sum = sums.sum(values, from, to);
+            BigInteger sumOfSquares = sums.sumOfSquares(values, from, to);
+
+            // Then
+            assertEquals(expectedSum(from, to, false), sum, "Range [" + from + ", " + to + ")");
+            assertEquals(expectedSum(from, to, true), sumOfSquares, "Range [" + from + ", " + to + ")");
+        }
+    }
+
+    @Test
+    public void test0020_appendedSumsMatchBuiltSums() {
+        // Given
+        PrefixSums appended = PrefixSums.build(values, 0);
+
+        // When
+        for (int size = 1; size <= SIZE; size++) {
+            PrefixSums previous = appended;
+            appended = appended.append(values, size);
+            if (size % PrefixSums.BLOCK_SIZE != 0) {
+                assertSame(previous, appended);
+            }
+        }
+
+        // Then
+        Random random = new Random(2);
+        for (int i = 0; i < QUERIES; i++) {
+            int from = random.nextInt(SIZE);
+            int to = from + random.nextInt(SIZE - from + 1);
+            assertEquals(sums.sum(values, from, to), appended.sum(values, from, to));
+            assertEquals(sums.sumOfSquares(values, from, to), appended.sumOfSquares(values, from, to));
+        }
+    }
+
+    @Test
+    public void test0030_sumsOfExtremeNegativeValues() {
+        // Given
+        long[] extremes = {Long.MIN_VALUE, -1, Long.MIN_VALUE + 1};
+        PrefixSums extremeSums = PrefixSums.build(extremes, extremes.length);
+        BigInteger min = BigInteger.valueOf(Long.MIN_VALUE);
+        BigInteger nextToMin = BigInteger.valueOf(Long.MIN_VALUE + 1);
+
+        // When
+        BigInteger sum = extremeSums.sum(extremes, 0, extremes.length);
+        BigInteger sumOfSquares = extremeSums.sumOfSquares(extremes, 0, extremes.length);
+
+        // Then
+        assertEquals(min.add(nextToMin).subtract(BigInteger.ONE), sum);
+        assertEquals(min.pow(2).add(nextToMin.pow(2)).add(BigInteger.ONE), sumOfSquares);
+    }
+
+    private BigInteger expectedSum(int from, int to, boolean squared) {
+        BigInteger result = BigInteger.ZERO;
+        for (int i = from; i < to; i++) {
+            BigInteger value = BigInteger.valueOf(values[i]);
+            result = result.add(squared ? value.multiply(value) : value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class PriceSeriesTest {
+
+    // Timestamp of 2022-01-30 00:00:00.000 UTC+0
+    private static final long TIMESTAMP_START = 1643500800000L;
+
+    private static final long MAX_STEP = 5 * 60 * 60 * 1000L;
+
+    private static final int SIZE = 3000;
+
+    private static final int QUERIES = 2000;
+
+    // Timestamp of 2022-01-01 01:01:01.0001 UTC+0
+    private static final long TIMESTAMP_FIRST = 1640998861001L;
+
+    // Timestamp of 2022-01-01 01:01:01.0002 UTC+0
+    private static final long TIMESTAMP_SECOND = 1640998861002L;
+
+    // Timestamp of 2022-01-01 01:01:01.0003 UTC+0
+    private static final long TIMESTAMP_THIRD = 1640998861003L;
+
+    private static final BigDecimal PRICE_FIRST = new BigDecimal("10.01");
+    private static final BigDecimal PRICE_SECOND = new BigDecimal("10.020");
+    private static final BigDecimal PRICE_THIRD = new BigDecimal("10.1");
+
+    private long[] timestamps;
+
+    private BigDecimal[] prices;
+
+    @BeforeClass
+    public void init() {
+        Random random = new Random(42);
+        timestamps = new long[SIZE];
+        prices = new BigDecimal[SIZE];
+        long timestamp = TIMESTAMP_START;
+        for (int i = 0; i < SIZE; i++) {
+            // Some days are skipped to check periods without prices
+            timestamp += i % 200 == 0 ? CalendarPeriod.DAY_MILLIS * 3 : 1 + random.nextInt((int) MAX_STEP);
+            timestamps[i] = timestamp;
+            // Prices have different scales to check that scales are kept
+            prices[i] = BigDecimal.valueOf(1 + random.nextInt(100), random.nextInt(3));
+        }
+    }
+
+    @Test
+    public void test0010_appendedSeriesMatchesBuiltSeries() {
+        // Given
+        PriceSeries appended = PriceSeries.builder().build();
+        PriceSeries.Builder builder = PriceSeries.builder();
+        PriceSeries half = null;
+
+        // When
+        for (int i = 0; i < SIZE; i++) {
+            appended = appended.append(timestamps[i], prices[i]);
+            builder.add(timestamps[i], prices[i]);
+            if (i == SIZE / 2) {
+                half = appended;
+            }
+        }
+
+        // Then
+        assertSameSeries(builder.build(), appended);
+        assertEquals(SIZE / 2 + 1, half.size());
+        assertEquals(prices[SIZE / 2], half.getPrice(half.size() - 1));
+        assertEquals(SIZE / 2, half.getDailyRollup().getClose(timestamps[SIZE / 2]));
+    }
+
+    @Test
+    public void test0020_appendOlderAndSamePrices() {
+        // Given
+        PriceSeries series = PriceSeries.builder().add(TIMESTAMP_SECOND, PRICE_SECOND).build();
+
+        // When
+        PriceSeries appended = series
+                .append(TIMESTAMP_THIRD, PRICE_FIRST)
+                .append(TIMESTAMP_FIRST, PRICE_FIRST)
+                .append(TIMESTAMP_THIRD, PRICE_THIRD);
+
+        // Then
+        assertEquals(1, series.size());
+        assertEquals(3, appended.size());
+        assertEquals(TIMESTAMP_FIRST, appended.getTimestamp(0));
+        assertEquals(PRICE_FIRST, appended.getPrice(0));
+        assertEquals(PRICE_SECOND, appended.getPrice(1));
+        assertEquals(PRICE_THIRD, appended.getPrice(2));
+        assertEquals(0, appended.indexOfMin(0, 3));
+        assertEquals(2, appended.indexOfMax(0, 3));
+    }
+
+    @Test
+    public void test0030_appendUnsupportedPrice() {
+        // Given
+        PriceSeries series = PriceSeries.builder().add(TIMESTAMP_FIRST, PRICE_FIRST).build();
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> series.append(TIMESTAMP_SECOND, new BigDecimal("1E-19")));
+        assertThrows(IllegalArgumentException.class, () -> series.append(TIMESTAMP_SECOND, new BigDecimal("1E+30")));
+    }
+
+    @Test
+    public void test0040_mergeLateTicksIntoTail() {
+        // Given
+        // Every 7th of the last 500 prices comes late
+        PriceSeries.Builder builder = PriceSeries.builder();
+        PriceSeries.Builder expectedBuilder = PriceSeries.builder();
+        for (int i = 0; i < SIZE; i++) {
+            if (i < SIZE - 500 || i % 7 != 0) {
+                builder.add(timestamps[i], prices[i]);
+                expectedBuilder.add(timestamps[i], prices[i]);
+            }
+        }
+        PriceSeries series = builder.build();
+        int size = series.size();
+        BigDecimal lastPrice = series.getPrice(size - 1);
+
+        // When
+        PriceSeries merged = series;
+        for (int batch = 0; batch < 3; batch++) {
+            PriceSeries.Builder late = PriceSeries.builder();
+            for (int i = SIZE - 1 - batch; i >= SIZE - 500; i -= 3) {
+                if (i % 7 == 0) {
+                    late.add(timestamps[i], prices[i]);
+                    expectedBuilder.add(timestamps[i], prices[i]);
+                }
+            }
+            // The newest price is replaced twice in the same batch, the last replacement is kept
+            late.add(timestamps[SIZE - 1], PRICE_FIRST).add(timestamps[SIZE - 1], PRICE_THIRD);
+            expectedBuilder.add(timestamps[SIZE - 1], PRICE_FIRST).add(timestamps[SIZE - 1], PRICE_THIRD);
+            merged = merged.addAll(late);
+        }
+
+        // Then
+        assertSameSeries(expectedBuilder.build(), merged);
+        assertEquals(PRICE_THIRD, merged.getPrice(SIZE - 1));
+        assertEquals(size, series.size());
+        assertEquals(lastPrice, series.getPrice(size - 1));
+    }
+
+    private void assertSameSeries(PriceSeries expected, PriceSeries actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTimestamp(i), actual.getTimestamp(i));
+            assertEquals(expected.getPrice(i), actual.getPrice(i));
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < QUERIES; i++) {
+            int from = random.nextInt(SIZE);
+            int to = from + 1 + random.nextInt(SIZE - from);
+            assertEquals(expected.indexOfMin(from, to), actual.indexOfMin(from, to), "Range [" + from + ", " + to + ")");
+            assertEquals(expected.indexOfMax(from, to), actual.indexOfMax(from, to), "Range [" + from + ", " + to + ")");
+            assertEquals(expected.getSums(from, to), actual.getSums(from, to), "Range [" + from + ", " + to + ")");
+        }
+        for (long timestamp = TIMESTAMP_START; timestamp <= timestamps[SIZE - 1] + CalendarPeriod.DAY_MILLIS; timestamp += CalendarPeriod.DAY_MILLIS) {
+            assertSameRollup(expected.getDailyRollup(), actual.getDailyRollup(), timestamp);
+            assertSameRollup(expected.getMonthlyRollup(), actual.getMonthlyRollup(), timestamp);
+        }
+    }
+
+    private void assertSameRollup(CalendarRollup expected, CalendarRollup actual, long timestamp) {
+        assertEquals(expected.getOpen(timestamp), actual.getOpen(timestamp), "Timestamp " + timestamp);
+        assertEquals(expected.getClose(timestamp), actual.getClose(timestamp), "Timestamp " + timestamp);
+        assertEquals(expected.getLow(timestamp), actual.getLow(timestamp), "Timestamp " + timestamp);
+        assertEquals(expected.getHigh(timestamp), actual.getHigh(timestamp), "Timestamp " + timestamp);
+    }
+}
@@ -0,0 +1,117 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class PriceSnapshotTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+
+    private static final long FINGERPRINT = 42L;
+    private static final long FINGERPRINT_OTHER = 43L;
+
+    // Timestamp of 2022-01-01 01:01:01.0001 UTC+0
+    private static final long TIMESTAMP_FIRST = 1640998861001L;
+
+    // Timestamp of 2022-01-01 01:01:01.0002 UTC+0
+    private static final long TIMESTAMP_SECOND = 1640998861002L;
+
+    private static final BigDecimal PRICE_FIRST = new BigDecimal("10.01");
+    private static final BigDecimal PRICE_SECOND = new BigDecimal("10.2");
+
+    private Path directory;
+
+    private Map<String, PriceSeries> storage;
+
+    @BeforeClass
+    public void init() throws IOException {
+        directory = Files.createTempDirectory("snapshot");
+        storage = Map.of(
+                CURR_SYMBOL_BTC, PriceSeries.builder().add(TIMESTAMP_FIRST, PRICE_FIRST).add(TIMESTAMP_SECOND, PRICE_SECOND).build(),
+                CURR_SYMBOL_ETH, PriceSeries.builder().add(TIMESTAMP_SECOND, PRICE_FIRST).build());
+    }
+
+    @AfterClass
+    public void cleanUp() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void test0010_writeAndReadSnapshot() throws IOException {
+        // Given
+        Path path = directory.resolve("valid.snapshot");
+        PriceSnapshot.write(path, FINGERPRINT, storage);
+
+        // When
+        var found = PriceSnapshot.read(path, FINGERPRINT);
+
+        // Then
+        assertNotNull(found);
+        assertEquals(storage.keySet(), found.keySet());
+        var btc = found.get(CURR_SYMBOL_BTC);
+        assertEquals(2, btc.size());
+        assertEquals(TIMESTAMP_FIRST, btc.getTimestamp(0));
+        assertEquals(PRICE_FIRST, btc.getPrice(0));
+        assertEquals(TIMESTAMP_SECOND, btc.getTimestamp(1));
+        assertEquals(PRICE_SECOND, btc.getPrice(1));
+        assertEquals(PRICE_FIRST, found.get(CURR_SYMBOL_ETH).getPrice(0));
+    }
+
+    @Test
+    public void test0020_readMissingSnapshot() {
+        // When
+        var found = PriceSnapshot.read(directory.resolve("missing.snapshot"), FINGERPRINT);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0030_readStaleSnapshot() throws IOException {
+        // Given
+        Path path = directory.resolve("stale.snapshot");
+        PriceSnapshot.write(path, FINGERPRINT, storage);
+
+        // When
+        var found = PriceSnapshot.read(path, FINGERPRINT_OTHER);
+
+        // Then
+        assertNull(found);
+    }
+
+    @Test
+    public void test0040_readCorruptedSnapshot() throws IOException {
+        // Given
+        Path path = directory.resolve("corrupted.snapshot");
+        PriceSnapshot.write(path, FINGERPRINT, storage);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        // When
+        var found = PriceSnapshot.read(path, FINGERPRINT);
+
+        // Then
+        assertNull(found);
+    }
+}
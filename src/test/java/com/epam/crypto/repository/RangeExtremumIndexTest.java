@@ -0,0 +1,96 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Test
+public class RangeExtremumIndexTest {
+
+    private static final int SIZE = 1000;
+
+    // Small range of values to get a lot of equal minimums and maximums
+    private static final int VALUES_BOUND = 50;
+
+    private static final int QUERIES = 5000;
+
+    private long[] values;
+
+    private RangeExtremumIndex index;
+
+    @BeforeClass
+    public void init() {
+        Random random = new Random(42);
+        values = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextInt(VALUES_BOUND);
+        }
+        index = RangeExtremumIndex.build(values, SIZE);
+    }
+
+    @Test
+    public void test0010_indexOfMinOnRandomRanges() {
+        Random random = new Random(1);
+        for (int i = 0; i < QUERIES; i++) {
+            // Given
+            int from = random.nextInt(SIZE);
+            int to = from + 1 + random.nextInt(SIZE - from);
+
+            // When
+            int found = index.indexOfMin(values, from, to);
+
+            // Then
+            assertEquals(expectedIndexOfMin(from, to), found, "Range [" + from + ", " + to + ")");
+        }
+    }
+
+    @Test
+    public void test0020_indexOfMaxOnRandomRanges() {
+        Random random = new Random(2);
+        for (int i = 0; i < QUERIES; i++) {
+            // Given
+            int from = random.nextInt(SIZE);
+            int to = from + 1 + random.nextInt(SIZE - from);
+
+            // When
+            int found = index.indexOfMax(values, from, to);
+
+            // Then
+            assertEquals(expectedIndexOfMax(from, to), found, "Range [" + from + ", " + to + ")");
+        }
+    }
+
+    @Test
+    public void test0030_indexOfMinAndMaxOnWholeColumn() {
+        // When
+        int foundMin = index.indexOfMin(values, 0, SIZE);
+        int foundMax = index.indexOfMax(values, 0, SIZE);
+
+        // Then
+        assertEquals(expectedIndexOfMin(0, SIZE), foundMin);
+        assertEquals(expectedIndexOfMax(0, SIZE), foundMax);
+    }
+
+    private int expectedIndexOfMin(int from, int to) {
+        int result = from;
+        for (int i = from; i < to; i++) {
+            if (values[i] < values[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private int expectedIndexOfMax(int from, int to) {
+        int result = from;
+        for (int i = from; i < to; i++) {
+            if (values[i] > values[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+}
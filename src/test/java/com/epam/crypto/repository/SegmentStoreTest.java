@@ -0,0 +1,108 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class SegmentStoreTest {
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_START = 1640995200000L;
+
+    private static final int SEGMENT_SIZE = 100;
+
+    // Data of one segment takes 1600 bytes
+    private static final long CACHE_BUDGET = 4000;
+
+    @Test
+    public void test0010_readWrittenSegment() throws IOException {
+        // Given
+        PriceSeries series = PriceSeries.builder()
+                .add(TIMESTAMP_START, new BigDecimal("10.5"))
+                .add(TIMESTAMP_START + 1, new BigDecimal("9.25"))
+                .add(TIMESTAMP_START + 2, new BigDecimal("11"))
+                .add(TIMESTAMP_START + 3, new BigDecimal("10.50"))
+                .build();
+
+        try (SegmentStore store = SegmentStore.create(Files.createTempDirectory("segments"), CACHE_BUDGET)) {
+            // When
+            PriceSegment segment = PriceSegment.write(store, series, 1, 4);
+
+            // Then
+            assertEquals(3, segment.size());
+            assertEquals(new BigDecimal("11"), segment.getPrice(1));
+            assertEquals(TIMESTAMP_START + 3, segment.getTimestamp(2));
+            assertEquals(new BigDecimal("10.50"), segment.getPrice(2));
+            assertEquals(0, segment.indexOfMin(0, 3));
+            assertEquals(0, store.getMisses());
+            assertEquals(2, segment.indexOfMin(1, 3));
+            assertEquals(1, segment.lowerBound(TIMESTAMP_START + 2));
+            assertEquals(2, segment.upperBound(TIMESTAMP_START + 2));
+            assertEquals(1, store.getMisses());
+        }
+    }
+
+    @Test
+    public void test0020_keepMappedSegmentsWithinBudget() throws IOException {
+        // Given
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < 10 * SEGMENT_SIZE; i++) {
+            builder.add(TIMESTAMP_START + i, BigDecimal.valueOf(i % 7));
+        }
+        PriceSeries series = builder.build();
+        Path directory = Files.createTempDirectory("segments");
+
+        try (SegmentStore store = SegmentStore.create(directory, CACHE_BUDGET)) {
+            PriceSegment[] segments = new PriceSegment[10];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = PriceSegment.write(store, series, i * SEGMENT_SIZE, (i + 1) * SEGMENT_SIZE);
+            }
+
+            // When
+            for (int i = 0; i < segments.length; i++) {
+                assertEquals(series.getPrice(i * SEGMENT_SIZE + 50), segments[i].getPrice(50));
+            }
+            long missesBeforeRepeat = store.getMisses();
+            segments[9].getPrice(33);
+
+            // Then
+            assertEquals(10, missesBeforeRepeat);
+            assertEquals(10, store.getMisses());
+            assertEquals(1, store.getHits());
+            assertTrue(store.getCachedBytes() <= CACHE_BUDGET);
+            assertTrue(store.getSize() >= 10L * SEGMENT_SIZE * 2 * Long.BYTES);
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void test0030_rejectSegmentBeyondMaxSize() throws IOException {
+        // Given
+        PriceSeries.Builder builder = PriceSeries.builder();
+        for (int i = 0; i < 2 * SEGMENT_SIZE; i++) {
+            builder.add(TIMESTAMP_START + i, BigDecimal.valueOf(i % 7));
+        }
+        PriceSeries series = builder.build();
+
+        // Max size fits one segment and a half
+        try (SegmentStore store = SegmentStore.create(Files.createTempDirectory("segments"), CACHE_BUDGET,
+                3L * SEGMENT_SIZE * Long.BYTES)) {
+            // When
+            PriceSegment segment = PriceSegment.write(store, series, 0, SEGMENT_SIZE);
+
+            // Then
+            assertThrows(UncheckedIOException.class, () -> PriceSegment.write(store, series, SEGMENT_SIZE, 2 * SEGMENT_SIZE));
+            assertEquals(2L * SEGMENT_SIZE * Long.BYTES, store.getSize());
+            assertEquals(series.getPrice(50), segment.getPrice(50));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.epam.crypto.repository;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class SymbolTableTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+    private static final String CURR_SYMBOL_XRP = "XRP";
+
+    private static final int THREADS = 4;
+
+    private static final int SYMBOLS_PER_THREAD = 1000;
+
+    @Test
+    public void test0010_assignDenseIdentifiers() {
+        // Given
+        var table = new SymbolTable<Integer>(Map.of(CURR_SYMBOL_XRP, 3, CURR_SYMBOL_BTC, 1));
+
+        // When
+        table.compute(CURR_SYMBOL_ETH, value -> 2);
+        table.compute(CURR_SYMBOL_BTC, value -> value + 10);
+
+        // Then
+        // Loaded symbols get identifiers in alphabetical order, added ones after them
+        assertEquals(0, table.getId(CURR_SYMBOL_BTC));
+        assertEquals(1, table.getId(CURR_SYMBOL_XRP));
+        assertEquals(2, table.getId(CURR_SYMBOL_ETH));
+        assertEquals(-1, table.getId("DOGE"));
+        assertEquals(CURR_SYMBOL_ETH, table.getSymbol(2));
+        assertEquals(11, table.get(CURR_SYMBOL_BTC));
+        assertEquals(11, table.get(0));
+        assertNull(table.get("DOGE"));
+        assertNull(table.get(3));
+        assertNull(table.get(-1));
+        assertEquals(3, table.size());
+        assertEquals(List.of(CURR_SYMBOL_BTC, CURR_SYMBOL_XRP, CURR_SYMBOL_ETH), new ArrayList<>(table.getSymbols()));
+        assertTrue(table.getSymbols().contains(CURR_SYMBOL_ETH));
+        assertFalse(table.getSymbols().contains("DOGE"));
+        assertThrows(UnsupportedOperationException.class, () -> table.getSymbols().add("DOGE"));
+    }
+
+    @Test
+    public void test0020_addSymbolsConcurrently() throws InterruptedException {
+        // Given
+        var table = new SymbolTable<Integer>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            // Every symbol is added by two threads, its value is incremented by both of them
+            int first = t / 2 * SYMBOLS_PER_THREAD;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + SYMBOLS_PER_THREAD; i++) {
+                    table.compute("S" + i, value -> value == null ? 1 : value + 1);
+                }
+            }));
+        }
+
+        // When
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        int size = THREADS / 2 * SYMBOLS_PER_THREAD;
+        assertEquals(size, table.size());
+        Set<String> symbols = new HashSet<>();
+        for (int id = 0; id < size; id++) {
+            String symbol = table.getSymbol(id);
+            assertEquals(id, table.getId(symbol));
+            assertEquals(2, table.get(id));
+            symbols.add(symbol);
+        }
+        assertEquals(size, symbols.size());
+    }
+}
@@ -0,0 +1,342 @@
+package com.epam.crypto.repository;
+
+import com.epam.crypto.service.DateTimeService;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class TieredPriceRepositoryTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_DOGE = "DOGE";
+
+    private static final int YEAR = 2022;
+    private static final int MONTH = 1;
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_START = 1640995200000L;
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private static final int DAYS = 3;
+
+    private static final int TICKS = 1000;
+
+    private static final int WINDOWS = 300;
+
+    private static final int SAMPLES = 20;
+
+    private static final long HOT_WINDOW = 3_600_000L;
+
+    private static final int SEGMENT_SIZE = 16;
+
+    private static final long CACHE_BUDGET = 1024;
+
+    private final Random random = new Random(42);
+
+    private SegmentStore store;
+
+    private TieringPolicy policy;
+
+    @BeforeMethod
+    public void init() throws IOException {
+        store = SegmentStore.create(Files.createTempDirectory("segments"), CACHE_BUDGET);
+        policy = new TieringPolicy(store, HOT_WINDOW, SEGMENT_SIZE);
+    }
+
+    @AfterMethod
+    public void close() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void test0010_answerAsTreeStorageAcrossTiers() {
+        // Given
+        var prices = randomPrices(TICKS);
+        var tree = createTreeRepository(prices);
+        var tiered = createTieredRepository(prices);
+
+        // When
+        var series = tiered.getSeries(CURR_SYMBOL_BTC);
+
+        // Then
+        assertTrue(series.getSegments().size() > 1);
+        assertTrue(series.getHot().size() > 0);
+        assertEquals(TICKS, tiered.getPriceCount(CURR_SYMBOL_BTC));
+        assertSameAnswers(tree, tiered);
+    }
+
+    @Test
+    public void test0020_answerFromSummariesOfCoveredSegments() {
+        // Given
+        var tiered = createTieredRepository(randomPrices(TICKS));
+        var segments = tiered.getSeries(CURR_SYMBOL_BTC).getSegments();
+        long from = segments.get(1).getTimestamp(0);
+        long to = segments.get(segments.size() - 2).getTimestamp(segments.get(segments.size() - 2).size() - 1);
+
+        // When
+        tiered.getAggregates(CURR_SYMBOL_BTC, EnumSet.allOf(Aggregate.class));
+        tiered.getAggregates(CURR_SYMBOL_BTC, from, to, EnumSet.allOf(Aggregate.class));
+        tiered.getLowestPrice(CURR_SYMBOL_BTC, YEAR, MONTH);
+
+        // Then
+        assertEquals(0, store.getMisses());
+    }
+
+    @Test
+    public void test0030_addNewerPricesMovesFullSegmentsToColdStorage() {
+        // Given
+        var prices = randomPrices(TICKS);
+        var tree = createTreeRepository(List.of());
+        var tiered = createTieredRepository(List.of());
+
+        // When
+        for (int i = 0; i < prices.size(); i += 10) {
+            var batch = prices.subList(i, Math.min(i + 10, prices.size()));
+            tree.addPrices(CURR_SYMBOL_BTC, batch);
+            tiered.addPrices(CURR_SYMBOL_BTC, batch);
+        }
+
+        // Then
+        var series = tiered.getSeries(CURR_SYMBOL_BTC);
+        var hot = series.getHot();
+        long coldBoundary = hot.getTimestamp(hot.size() - 1) - HOT_WINDOW;
+        assertTrue(series.getSegments().size() > 1);
+        assertTrue(series.getSegments().stream().allMatch(segment -> segment.size() == SEGMENT_SIZE));
+        assertTrue(hot.lowerBound(coldBoundary) < SEGMENT_SIZE);
+        assertEquals(tree.getVersion(), tiered.getVersion());
+        assertSameAnswers(tree, tiered);
+    }
+
+    @Test
+    public void test0040_addOlderPricesRewritesColdSegments() {
+        // Given
+        var prices = randomPrices(TICKS);
+        var tree = createTreeRepository(prices);
+        var tiered = createTieredRepository(prices);
+        var segments = tiered.getSeries(CURR_SYMBOL_BTC).getSegments();
+        var replacedPrice = Pair.of(segments.get(2).getTimestamp(3), new BigDecimal("0.5"));
+        var olderPrice = Pair.of(prices.get(0).getKey() - 1, new BigDecimal("100000"));
+
+        // When
+        var backfill = List.of(replacedPrice, olderPrice, Pair.of(replacedPrice.getKey() + 1, new BigDecimal("7.25")));
+        tree.addPrices(CURR_SYMBOL_BTC, backfill);
+        tiered.addPrices(CURR_SYMBOL_BTC, backfill);
+
+        // Then
+        var newSegments = tiered.getSeries(CURR_SYMBOL_BTC).getSegments();
+        assertTrue(newSegments.contains(segments.get(1)));
+        assertFalse(newSegments.contains(segments.get(2)));
+        assertEquals(replacedPrice, tiered.getLowestPrice(CURR_SYMBOL_BTC));
+        assertEquals(olderPrice, tiered.getOldestPrice(CURR_SYMBOL_BTC));
+        assertEquals(TICKS + 2, tiered.getPriceCount(CURR_SYMBOL_BTC));
+        assertSameAnswers(tree, tiered);
+    }
+
+    @Test
+    public void test0050_answerOnNonExistingCurrency() {
+        // Given
+        var tiered = createTieredRepository(randomPrices(TICKS));
+
+        // When
+        var aggregates = tiered.getAggregates(CURR_SYMBOL_DOGE, EnumSet.allOf(Aggregate.class));
+
+        // Then
+        assertEquals(0L, aggregates.getCount());
+        assertNull(aggregates.getFirst());
+        assertNull(aggregates.getRange());
+        assertNull(tiered.getHighestPrice(CURR_SYMBOL_DOGE, YEAR, MONTH));
+        assertFalse(tiered.getPrices(CURR_SYMBOL_DOGE, Long.MIN_VALUE, Long.MAX_VALUE).hasNext());
+        assertFalse(tiered.getCandles(CURR_SYMBOL_DOGE, Long.MIN_VALUE, Long.MAX_VALUE, DAY_MILLIS).hasNext());
+    }
+
+    @Test
+    public void test0060_answerAsTreeStorageFromCompressedSegments() {
+        // Given
+        var cache = new DecodedSegmentCache(CACHE_BUDGET);
+        policy = new TieringPolicy(cache, HOT_WINDOW, SEGMENT_SIZE);
+        var prices = randomPrices(TICKS);
+        var tree = createTreeRepository(prices);
+        var tiered = createTieredRepository(prices);
+        var segments = tiered.getSeries(CURR_SYMBOL_BTC).getSegments();
+        long from = segments.get(1).getTimestamp(0);
+        long to = segments.get(segments.size() - 2).getTimestamp(segments.get(segments.size() - 2).size() - 1);
+
+        // When
+        tiered.getAggregates(CURR_SYMBOL_BTC, from, to, EnumSet.allOf(Aggregate.class));
+        long coveredMisses = cache.getMisses();
+        var backfill = List.of(Pair.of(segments.get(2).getTimestamp(3), new BigDecimal("0.5")),
+                Pair.of(prices.get(0).getKey() - 1, new BigDecimal("100000")));
+        tree.addPrices(CURR_SYMBOL_BTC, backfill);
+        tiered.addPrices(CURR_SYMBOL_BTC, backfill);
+
+        // Then
+        assertEquals(0, coveredMisses);
+        assertTrue(segments.size() > 1);
+        assertTrue(tiered.getSeries(CURR_SYMBOL_BTC).getSegments().stream()
+                .allMatch(segment -> segment instanceof CompressedSegment));
+        assertSameAnswers(tree, tiered);
+        assertTrue(cache.getCachedBytes() <= CACHE_BUDGET);
+    }
+
+    @Test
+    public void test0070_sameStatisticsInAllStorages() {
+        // Given
+        // Common scale of series is 3, the price in the window has scale 1
+        List<Pair<Long, BigDecimal>> prices = new ArrayList<>();
+        for (int i = 0; i < 3 * SEGMENT_SIZE; i++) {
+            prices.add(Pair.of(TIMESTAMP_START + i * HOT_WINDOW / 4, i == 5 ? new BigDecimal("314.8") : new BigDecimal("1.125")));
+        }
+        var tree = createTreeRepository(prices);
+        var columnar = createColumnarRepository(prices);
+        var tiered = createTieredRepository(prices);
+        policy = new TieringPolicy(new DecodedSegmentCache(CACHE_BUDGET), HOT_WINDOW, SEGMENT_SIZE);
+        var compressed = createTieredRepository(prices);
+        var statistics = EnumSet.of(Aggregate.COUNT, Aggregate.MEAN, Aggregate.VARIANCE);
+        long timestamp = prices.get(5).getKey();
+
+        for (PriceRepository repository : List.of(tree, columnar, tiered, compressed)) {
+            // When
+            var window = repository.getAggregates(CURR_SYMBOL_BTC, timestamp, timestamp, statistics);
+            var all = repository.getAggregates(CURR_SYMBOL_BTC, statistics);
+
+            // Then
+            assertEquals(new BigDecimal("314.8"), window.getMean());
+            assertEquals(BigDecimal.ZERO, window.getVariance());
+            assertEquals(tree.getAggregates(CURR_SYMBOL_BTC, statistics).getMean(), all.getMean());
+            assertEquals(tree.getAggregates(CURR_SYMBOL_BTC, statistics).getVariance(), all.getVariance());
+        }
+        assertFalse(tiered.getSeries(CURR_SYMBOL_BTC).getSegments().isEmpty());
+        assertFalse(compressed.getSeries(CURR_SYMBOL_BTC).getSegments().isEmpty());
+    }
+
+    /**
+     * Assert that repositories answer the same to all-time, calendar and random window queries
+     */
+    private void assertSameAnswers(PriceRepository expected, PriceRepository actual) {
+        var allAggregates = EnumSet.allOf(Aggregate.class);
+        assertAggregatesEquals(expected.getAggregates(CURR_SYMBOL_BTC, allAggregates),
+                actual.getAggregates(CURR_SYMBOL_BTC, allAggregates));
+        assertEquals(expected.getOldestPrice(CURR_SYMBOL_BTC, YEAR, MONTH), actual.getOldestPrice(CURR_SYMBOL_BTC, YEAR, MONTH));
+        assertEquals(expected.getNewestPrice(CURR_SYMBOL_BTC, YEAR, MONTH), actual.getNewestPrice(CURR_SYMBOL_BTC, YEAR, MONTH));
+        assertEquals(expected.getLowestPrice(CURR_SYMBOL_BTC, YEAR, MONTH), actual.getLowestPrice(CURR_SYMBOL_BTC, YEAR, MONTH));
+        assertEquals(expected.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH), actual.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH));
+        for (int day = 1; day <= DAYS; day++) {
+            assertEquals(expected.getLowestPrice(CURR_SYMBOL_BTC, YEAR, MONTH, day), actual.getLowestPrice(CURR_SYMBOL_BTC, YEAR, MONTH, day));
+            assertEquals(expected.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH, day), actual.getHighestPrice(CURR_SYMBOL_BTC, YEAR, MONTH, day));
+            assertEquals(expected.getNormalizedRange(CURR_SYMBOL_BTC, YEAR, MONTH, day), actual.getNormalizedRange(CURR_SYMBOL_BTC, YEAR, MONTH, day));
+        }
+        for (int i = 0; i < WINDOWS; i++) {
+            long from = TIMESTAMP_START + (long) (random.nextDouble() * DAYS * DAY_MILLIS);
+            long to = from + (long) (random.nextDouble() * DAY_MILLIS);
+            long interval = 1 + (long) (random.nextDouble() * DAY_MILLIS / 4);
+            assertAggregatesEquals(expected.getAggregates(CURR_SYMBOL_BTC, from, to, allAggregates),
+                    actual.getAggregates(CURR_SYMBOL_BTC, from, to, allAggregates));
+            assertEquals(toList(expected.getPrices(CURR_SYMBOL_BTC, from, to)), toList(actual.getPrices(CURR_SYMBOL_BTC, from, to)));
+            assertCandlesEquals(toList(expected.getCandles(CURR_SYMBOL_BTC, from, to, interval)),
+                    toList(actual.getCandles(CURR_SYMBOL_BTC, from, to, interval)));
+            assertArrayEquals(samplePrices(expected, from, interval), samplePrices(actual, from, interval));
+        }
+    }
+
+    private static double[] samplePrices(PriceRepository repository, long startTimestamp, long interval) {
+        double[] samples = new double[SAMPLES + 1];
+        repository.samplePrices(repository.getCurrencyId(CURR_SYMBOL_BTC), startTimestamp - interval, interval, samples, 1, SAMPLES);
+        return samples;
+    }
+
+    private static void assertAggregatesEquals(PriceAggregates expected, PriceAggregates actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getFirst(), actual.getFirst());
+        assertEquals(expected.getLast(), actual.getLast());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.getMean(), actual.getMean());
+        assertEquals(expected.getVariance(), actual.getVariance());
+        assertNumberEquals(expected.getReturnRate(), actual.getReturnRate());
+        assertEquals(expected.getRange(), actual.getRange());
+    }
+
+    /**
+     * Assert that numbers are equal regardless of their scales (storages keep sums with different scales)
+     */
+    private static void assertNumberEquals(BigDecimal expected, BigDecimal actual) {
+        assertEquals(expected == null, actual == null);
+        if (expected != null) {
+            assertEquals(0, expected.compareTo(actual), expected + " " + actual);
+        }
+    }
+
+    private static void assertCandlesEquals(List<PriceCandle> expected, List<PriceCandle> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+            assertEquals(expected.get(i).getOpen(), actual.get(i).getOpen());
+            assertEquals(expected.get(i).getHigh(), actual.get(i).getHigh());
+            assertEquals(expected.get(i).getLow(), actual.get(i).getLow());
+            assertEquals(expected.get(i).getClose(), actual.get(i).getClose());
+            assertEquals(expected.get(i).getCount(), actual.get(i).getCount());
+        }
+    }
+
+    private static <T> List<T> toList(Iterator<T> iterator) {
+        List<T> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Create prices in chronological order with repeated values and different scales
+     */
+    private List<Pair<Long, BigDecimal>> randomPrices(int count) {
+        var prices = new TreeMap<Long, BigDecimal>();
+        while (prices.size() < count) {
+            long timestamp = TIMESTAMP_START + (long) (random.nextDouble() * DAYS * DAY_MILLIS);
+            prices.put(timestamp, BigDecimal.valueOf(random.nextInt(500) + 100, random.nextInt(3)));
+        }
+        return prices.entrySet().stream().map(entry -> Pair.of(entry.getKey(), entry.getValue())).toList();
+    }
+
+    private static InMemoryPriceRepository createTreeRepository(List<Pair<Long, BigDecimal>> prices) {
+        var storage = new ConcurrentHashMap<String, NavigableMap<Long, BigDecimal>>();
+        if (!prices.isEmpty()) {
+            var map = new TreeMap<Long, BigDecimal>();
+            prices.forEach(price -> map.put(price.getKey(), price.getValue()));
+            storage.put(CURR_SYMBOL_BTC, map);
+        }
+        return new InMemoryPriceRepository(new DateTimeService(), storage);
+    }
+
+    private static ColumnarPriceRepository createColumnarRepository(List<Pair<Long, BigDecimal>> prices) {
+        PriceSeries.Builder builder = PriceSeries.builder();
+        prices.forEach(price -> builder.add(price.getKey(), price.getValue()));
+        return new ColumnarPriceRepository(new DateTimeService(), Map.of(CURR_SYMBOL_BTC, builder.build()));
+    }
+
+    private TieredPriceRepository createTieredRepository(List<Pair<Long, BigDecimal>> prices) {
+        var storage = new ConcurrentHashMap<String, TieredSeries>();
+        if (!prices.isEmpty()) {
+            PriceSeries.Builder builder = PriceSeries.builder();
+            prices.forEach(price -> builder.add(price.getKey(), price.getValue()));
+            storage.put(CURR_SYMBOL_BTC, TieredSeries.of(builder.build(), policy));
+        }
+        return new TieredPriceRepository(new DateTimeService(), storage, policy);
+    }
+}
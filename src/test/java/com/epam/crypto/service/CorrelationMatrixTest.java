@@ -0,0 +1,210 @@
+package com.epam.crypto.service;
+
+import com.epam.crypto.repository.ColumnarPriceRepository;
+import com.epam.crypto.repository.PriceRepository;
+import com.epam.crypto.repository.PriceSeries;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@Test
+public class CorrelationMatrixTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+    private static final String CURR_SYMBOL_XRP = "XRP";
+    private static final String CURR_SYMBOL_USDT = "USDT";
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_START = 1640995200000L;
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final int HOURS = 50;
+
+    private static final int CURRENCIES = 70;
+
+    private static final int POINTS = 200;
+
+    private static final int FAN_OUT_PARALLELISM = 4;
+
+    private static final double DELTA = 1e-9;
+
+    private PriceRepository repository;
+
+    @BeforeClass
+    public void init() {
+        repository = new ColumnarPriceRepository(new DateTimeService(), new ConcurrentHashMap<String, PriceSeries>());
+        // ETH doubles moves of BTC, XRP mirrors them, USDT never moves
+        List<Pair<Long, BigDecimal>> btc = new ArrayList<>();
+        List<Pair<Long, BigDecimal>> eth = new ArrayList<>();
+        List<Pair<Long, BigDecimal>> xrp = new ArrayList<>();
+        List<Pair<Long, BigDecimal>> usdt = new ArrayList<>();
+        for (int hour = 0; hour < HOURS; hour++) {
+            long timestamp = TIMESTAMP_START + hour * HOUR_MILLIS;
+            double change = Math.sin(hour) / 100;
+            btc.add(Pair.of(timestamp, price(1000 * (1 + change))));
+            eth.add(Pair.of(timestamp, price(100 * (1 + 2 * change))));
+            xrp.add(Pair.of(timestamp, price(10 * (1 - change))));
+            usdt.add(Pair.of(timestamp, BigDecimal.ONE));
+        }
+        repository.addPrices(CURR_SYMBOL_BTC, btc);
+        repository.addPrices(CURR_SYMBOL_ETH, eth);
+        repository.addPrices(CURR_SYMBOL_XRP, xrp);
+        repository.addPrices(CURR_SYMBOL_USDT, usdt);
+    }
+
+    @Test
+    public void test0010_correlateLinearlyDependentPrices() {
+        // Given
+        var matrix = new CorrelationMatrix(repository, SymbolFanOut.sequential());
+        int[] currencyIds = {repository.getCurrencyId(CURR_SYMBOL_BTC), repository.getCurrencyId(CURR_SYMBOL_ETH),
+                repository.getCurrencyId(CURR_SYMBOL_XRP), repository.getCurrencyId(CURR_SYMBOL_USDT)};
+
+        // When
+        // Prices are sampled every 2 hours, the first point is before the oldest prices
+        double[][] correlations = matrix.compute(currencyIds, TIMESTAMP_START - HOUR_MILLIS, 2 * HOUR_MILLIS, HOURS / 2);
+
+        // Then
+        assertEquals(1, correlations[0][0]);
+        assertTrue(correlations[0][1] > 0.99);
+        assertTrue(correlations[0][2] < -0.99);
+        assertEquals(correlations[0][2], correlations[2][0]);
+        assertTrue(Double.isNaN(correlations[0][3]));
+        assertTrue(Double.isNaN(correlations[3][3]));
+    }
+
+    @Test
+    public void test0020_correlateAsNaiveComputationInPool() {
+        // Given
+        var random = new Random(42);
+        var randomRepository = new ColumnarPriceRepository(new DateTimeService(), new ConcurrentHashMap<String, PriceSeries>());
+        for (int currency = 0; currency < CURRENCIES; currency++) {
+            // Currencies start trading at different times, so pairs have different overlaps
+            List<Pair<Long, BigDecimal>> prices = new ArrayList<>();
+            for (int hour = random.nextInt(POINTS); hour < POINTS; hour++) {
+                prices.add(Pair.of(TIMESTAMP_START + hour * HOUR_MILLIS + random.nextInt((int) HOUR_MILLIS),
+                        price(100 + random.nextGaussian())));
+            }
+            randomRepository.addPrices("S" + currency, prices);
+        }
+        int[] currencyIds = new int[CURRENCIES];
+        for (int currency = 0; currency < CURRENCIES; currency++) {
+            currencyIds[currency] = randomRepository.getCurrencyId("S" + currency);
+        }
+
+        // When
+        double[][] correlations;
+        double[][] repeated;
+        try (var fanOut = new SymbolFanOut(FAN_OUT_PARALLELISM, 1)) {
+            var matrix = new CorrelationMatrix(randomRepository, fanOut);
+            correlations = matrix.compute(currencyIds, TIMESTAMP_START, HOUR_MILLIS, POINTS);
+            // The second request reuses buffer of the first one
+            repeated = matrix.compute(currencyIds, TIMESTAMP_START, HOUR_MILLIS, POINTS);
+        }
+
+        // Then
+        double[][] samples = new double[CURRENCIES][POINTS];
+        for (int currency = 0; currency < CURRENCIES; currency++) {
+            randomRepository.samplePrices(currencyIds[currency], TIMESTAMP_START, HOUR_MILLIS, samples[currency], 0, POINTS);
+        }
+        for (int first = 0; first < CURRENCIES; first++) {
+            for (int second = 0; second < CURRENCIES; second++) {
+                double expected = naiveCorrelation(samples[first], samples[second]);
+                if (first == second && !Double.isNaN(expected)) {
+                    expected = 1;
+                }
+                assertEquals(expected, correlations[first][second], DELTA, "Pair " + first + ", " + second);
+                assertEquals(correlations[first][second], repeated[first][second]);
+            }
+        }
+    }
+
+    @Test
+    public void test0030_rejectTooLargeGrid() {
+        // Given
+        var matrix = new CorrelationMatrix(repository, SymbolFanOut.sequential());
+
+        // Then
+        assertThrows(IllegalArgumentException.class,
+                () -> matrix.compute(new int[]{0}, TIMESTAMP_START, 1, CorrelationMatrix.MAX_POINTS + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> matrix.compute(new int[CorrelationMatrix.MAX_SAMPLES / CorrelationMatrix.MAX_POINTS + 1],
+                        TIMESTAMP_START, 1, CorrelationMatrix.MAX_POINTS));
+    }
+
+    @Test
+    public void test0040_correlateReturnsCloseToLargeMean() {
+        // Given
+        // Prices double every hour with tiny deviations, so returns differ from 1 only in the 9th digit
+        var doublingRepository = mock(PriceRepository.class);
+        doAnswer(invocation -> {
+            int currencyId = invocation.getArgument(0);
+            double[] samples = invocation.getArgument(3);
+            int offset = invocation.getArgument(4);
+            int count = invocation.getArgument(5);
+            double price = 1;
+            for (int i = 0; i < count; i++) {
+                price *= 2 + (currencyId + 1) * 1e-9 * Math.sin(i);
+                samples[offset + i] = price;
+            }
+            return null;
+        }).when(doublingRepository).samplePrices(anyInt(), anyLong(), anyLong(), any(), anyInt(), anyInt());
+        var matrix = new CorrelationMatrix(doublingRepository, SymbolFanOut.sequential());
+
+        // When
+        double[][] correlations = matrix.compute(new int[]{0, 1}, TIMESTAMP_START, HOUR_MILLIS, HOURS);
+
+        // Then
+        assertEquals(1, correlations[0][1], 1e-6);
+    }
+
+    /**
+     * Compute correlation of returns at points where both currencies have returns with two passes over them
+     */
+    private static double naiveCorrelation(double[] firstPrices, double[] secondPrices) {
+        List<double[]> returns = new ArrayList<>();
+        for (int i = 1; i < firstPrices.length; i++) {
+            double first = firstPrices[i] / firstPrices[i - 1] - 1;
+            double second = secondPrices[i] / secondPrices[i - 1] - 1;
+            if (!Double.isNaN(first) && !Double.isNaN(second)) {
+                returns.add(new double[]{first, second});
+            }
+        }
+        if (returns.size() < 2) {
+            return Double.NaN;
+        }
+        double meanFirst = returns.stream().mapToDouble(pair -> pair[0]).average().orElseThrow();
+        double meanSecond = returns.stream().mapToDouble(pair -> pair[1]).average().orElseThrow();
+        double covariance = 0;
+        double varianceFirst = 0;
+        double varianceSecond = 0;
+        for (double[] pair : returns) {
+            covariance += (pair[0] - meanFirst) * (pair[1] - meanSecond);
+            varianceFirst += (pair[0] - meanFirst) * (pair[0] - meanFirst);
+            varianceSecond += (pair[1] - meanSecond) * (pair[1] - meanSecond);
+        }
+        if (varianceFirst == 0 || varianceSecond == 0) {
+            return Double.NaN;
+        }
+        return covariance / Math.sqrt(varianceFirst * varianceSecond);
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,117 @@
+package com.epam.crypto.service;
+
+import com.epam.crypto.model.DailyRangesDto;
+import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.repository.ColumnarPriceRepository;
+import com.epam.crypto.repository.PriceRepository;
+import com.epam.crypto.repository.PriceSeries;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class DailyRangeIndexTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+    private static final String CURR_SYMBOL_XRP = "XRP";
+
+    private static final LocalDate DATE_FIRST = LocalDate.of(2022, 1, 1);
+    private static final LocalDate DATE_SECOND = LocalDate.of(2022, 1, 2);
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_FIRST_DAY = 1640995200000L;
+
+    // Timestamp of 2022-01-01 12:00:00 UTC+0
+    private static final long TIMESTAMP_FIRST_DAY_NOON = 1641038400000L;
+
+    // Timestamp of 2022-01-02 00:00:00 UTC+0
+    private static final long TIMESTAMP_SECOND_DAY = 1641081600000L;
+
+    // Timestamp of 2022-01-02 12:00:00 UTC+0
+    private static final long TIMESTAMP_SECOND_DAY_NOON = 1641124800000L;
+
+    private static final int TOP_SIZE = 2;
+
+    private PriceRepository repository;
+
+    private DailyRangeIndex index;
+
+    @BeforeMethod
+    public void init() {
+        repository = new ColumnarPriceRepository(new DateTimeService(), new ConcurrentHashMap<String, PriceSeries>());
+        // Ranges on the first day: BTC - 3, ETH - 2.5, XRP - 2.2; on the second day: BTC - 2.1, ETH - 4
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(
+                Pair.of(TIMESTAMP_FIRST_DAY, new BigDecimal("10")), Pair.of(TIMESTAMP_FIRST_DAY_NOON, new BigDecimal("20")),
+                Pair.of(TIMESTAMP_SECOND_DAY, new BigDecimal("10")), Pair.of(TIMESTAMP_SECOND_DAY_NOON, new BigDecimal("11"))));
+        repository.addPrices(CURR_SYMBOL_ETH, List.of(
+                Pair.of(TIMESTAMP_FIRST_DAY, new BigDecimal("2")), Pair.of(TIMESTAMP_FIRST_DAY_NOON, new BigDecimal("3")),
+                Pair.of(TIMESTAMP_SECOND_DAY, new BigDecimal("1")), Pair.of(TIMESTAMP_SECOND_DAY_NOON, new BigDecimal("3"))));
+        repository.addPrices(CURR_SYMBOL_XRP, List.of(
+                Pair.of(TIMESTAMP_FIRST_DAY, new BigDecimal("5")), Pair.of(TIMESTAMP_FIRST_DAY_NOON, new BigDecimal("6"))));
+        index = new DailyRangeIndex(repository, SymbolFanOut.sequential(), TOP_SIZE);
+    }
+
+    @Test
+    public void test0010_getTopRangesOfDays() {
+        // When
+        var firstDay = index.getTopRanges(DATE_FIRST, TOP_SIZE);
+        var highestOfDays = index.getTopRanges(DATE_FIRST.minusDays(30), DATE_SECOND, 1);
+        var dayWithoutPrices = index.getTopRanges(DATE_SECOND.plusDays(1), 1);
+
+        // Then
+        assertEquals(List.of(CURR_SYMBOL_BTC, CURR_SYMBOL_ETH), symbols(firstDay));
+        assertEquals(repository.getNormalizedRange(CURR_SYMBOL_BTC, TIMESTAMP_FIRST_DAY, TIMESTAMP_SECOND_DAY - 1), firstDay.get(0).getRange());
+        assertEquals(List.of(DATE_FIRST, DATE_SECOND), highestOfDays.stream().map(DailyRangesDto::getDate).toList());
+        assertEquals(List.of(CURR_SYMBOL_ETH), symbols(highestOfDays.get(1).getRanges()));
+        assertTrue(dayWithoutPrices.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.getTopRanges(DATE_FIRST, TOP_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> index.getTopRanges(DATE_FIRST, 0));
+    }
+
+    @Test
+    public void test0020_updateDaysOfAddedPrices() {
+        // Given
+        index.getTopRanges(DATE_FIRST, 1);
+
+        // When
+        // XRP overtakes BTC on the first day, and gets its first price on the second day
+        List<Pair<Long, BigDecimal>> prices = List.of(Pair.of(TIMESTAMP_FIRST_DAY_NOON + 1, new BigDecimal("20")), Pair.of(TIMESTAMP_SECOND_DAY, new BigDecimal("7")));
+        repository.addPrices(CURR_SYMBOL_XRP, prices);
+        index.update(CURR_SYMBOL_XRP, prices.stream().map(Pair::getKey).toList());
+        var firstDay = index.getTopRanges(DATE_FIRST, TOP_SIZE);
+        var secondDay = index.getTopRanges(DATE_SECOND, TOP_SIZE);
+
+        // Then
+        assertEquals(List.of(CURR_SYMBOL_XRP, CURR_SYMBOL_BTC), symbols(firstDay));
+        assertEquals(0, new BigDecimal("5").compareTo(firstDay.get(0).getRange()));
+        assertEquals(List.of(CURR_SYMBOL_ETH, CURR_SYMBOL_BTC), symbols(secondDay));
+    }
+
+    @Test
+    public void test0030_recomputeDayWhenRangeOfTopDecreased() {
+        // Given
+        index.getTopRanges(DATE_FIRST, 1);
+
+        // When
+        // The highest price of BTC is replaced, so XRP which was out of the top takes its place
+        List<Pair<Long, BigDecimal>> prices = List.of(Pair.of(TIMESTAMP_FIRST_DAY_NOON, new BigDecimal("11")));
+        repository.addPrices(CURR_SYMBOL_BTC, prices);
+        index.update(CURR_SYMBOL_BTC, prices.stream().map(Pair::getKey).toList());
+        var firstDay = index.getTopRanges(DATE_FIRST, TOP_SIZE);
+
+        // Then
+        assertEquals(List.of(CURR_SYMBOL_ETH, CURR_SYMBOL_XRP), symbols(firstDay));
+    }
+
+    private static List<String> symbols(List<RangeDto> ranges) {
+        return ranges.stream().map(RangeDto::getCurrencySymbol).toList();
+    }
+}
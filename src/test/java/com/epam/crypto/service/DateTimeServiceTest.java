@@ -3,8 +3,12 @@ package com.epam.crypto.service;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @Test
 public class DateTimeServiceTest {
@@ -13,6 +17,13 @@ public class DateTimeServiceTest {
     private static final int MONTH = 1;
     private static final int DAY = 15;
 
+    private static final ZoneId ZONE_NEW_YORK = ZoneId.of("America/New_York");
+
+    // Midnight of 2022-09-11 is skipped in Santiago, the day starts at 01:00
+    private static final ZoneId ZONE_SANTIAGO = ZoneId.of("America/Santiago");
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
     private DateTimeService service;
 
     @BeforeClass
@@ -23,7 +34,7 @@ public class DateTimeServiceTest {
     @Test
     public void test0010_getStartTimeStampOfMonth() {
         // When
-        Long timestamp = service.getStartTimeStamp(YEAR, MONTH);
+        long timestamp = service.getStartTimeStamp(YEAR, MONTH);
 
         // Then
         assertNotNull(timestamp);
@@ -33,7 +44,7 @@ public class DateTimeServiceTest {
     @Test
     public void test0020_getStartTimeStampOfDay() {
         // When
-        Long timestamp = service.getStartTimeStamp(YEAR, MONTH, DAY);
+        long timestamp = service.getStartTimeStamp(YEAR, MONTH, DAY);
 
         // Then
         assertNotNull(timestamp);
@@ -43,7 +54,7 @@ public class DateTimeServiceTest {
     @Test
     public void test0030_getEndTimeStampOfMonth() {
         // When
-        Long timestamp = service.getEndTimeStamp(YEAR, MONTH);
+        long timestamp = service.getEndTimeStamp(YEAR, MONTH);
 
         // Then
         assertNotNull(timestamp);
@@ -53,10 +64,77 @@ public class DateTimeServiceTest {
     @Test
     public void test0040_getEndTimeStampOfDay() {
         // When
-        Long timestamp = service.getEndTimeStamp(YEAR, MONTH, DAY);
+        long timestamp = service.getEndTimeStamp(YEAR, MONTH, DAY);
 
         // Then
         assertNotNull(timestamp);
         assertEquals(timestamp, 1642291199999L);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test0050_matchJavaTimeForAllDays() {
+        // Given
+        LocalDate date = LocalDate.of(1600, 1, 1);
+
+        // When
+        while (date.getYear() < 2500) {
+            // Then
+            long start = date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            long nextStart = date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            assertEquals(start, service.getStartTimeStamp(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(nextStart - 1, service.getEndTimeStamp(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            date = date.plusDays(1);
+        }
+    }
+
+    @Test
+    public void test0060_getBoundariesInTimeZoneAroundDstTransitions() {
+        // When
+        long springStart = service.getStartTimeStamp(YEAR, 3, 13, ZONE_NEW_YORK);
+        long springEnd = service.getEndTimeStamp(YEAR, 3, 13, ZONE_NEW_YORK);
+        long autumnStart = service.getStartTimeStamp(YEAR, 11, 6, ZONE_NEW_YORK);
+        long autumnEnd = service.getEndTimeStamp(YEAR, 11, 6, ZONE_NEW_YORK);
+        long gapStart = service.getStartTimeStamp(YEAR, 9, 11, ZONE_SANTIAGO);
+
+        // Then
+        assertEquals(1647147600000L, springStart);
+        assertEquals(23 * HOUR_MILLIS - 1, springEnd - springStart);
+        assertEquals(1667707200000L, autumnStart);
+        assertEquals(25 * HOUR_MILLIS - 1, autumnEnd - autumnStart);
+        assertEquals(1662868800000L, gapStart);
+        assertEquals(1641013200000L, service.getStartTimeStamp(YEAR, MONTH, ZONE_NEW_YORK));
+        assertEquals(1643691600000L - 1, service.getEndTimeStamp(YEAR, MONTH, ZONE_NEW_YORK));
+        assertEquals(1640995200000L - 5 * HOUR_MILLIS, service.getStartTimeStamp(YEAR, MONTH, 1, ZoneOffset.ofHours(5)));
+        // Dates out of precomputed years are computed by time zone rules
+        assertEquals(LocalDate.of(2300, 6, 1).atStartOfDay(ZONE_NEW_YORK).toInstant().toEpochMilli(),
+                service.getStartTimeStamp(2300, 6, 1, ZONE_NEW_YORK));
+    }
+
+    @Test
+    public void test0070_checkDate() {
+        assertThrows(DateTimeException.class, () -> service.getStartTimeStamp(YEAR, 2, 29));
+        assertThrows(DateTimeException.class, () -> service.getEndTimeStamp(YEAR, 13));
+        assertThrows(DateTimeException.class, () -> service.getStartTimeStamp(YEAR, MONTH, 0, ZONE_NEW_YORK));
+        assertEquals(service.getStartTimeStamp(2000, 3, 1) - 1, service.getEndTimeStamp(2000, 2, 29));
+        assertTrue(DateTimeService.isUtc(null));
+        assertTrue(DateTimeService.isUtc(ZoneId.of("Etc/UTC")));
+        assertFalse(DateTimeService.isUtc(ZONE_NEW_YORK));
+    }
+
+    @Test
+    public void test0080_matchJavaTimeInAllTimeZones() {
+        for (String zoneId : ZoneId.getAvailableZoneIds()) {
+            // Given
+            ZoneId zone = ZoneId.of(zoneId);
+
+            // Every 13th day, so transitions on all weekdays are checked
+            for (LocalDate date = LocalDate.of(1899, 12, 1); date.getYear() < 2201; date = date.plusDays(13)) {
+                // When
+                long start = service.getStartTimeStamp(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), zone);
+
+                // Then
+                assertEquals(date.atStartOfDay(zone).toInstant().toEpochMilli(), start, zoneId + " " + date);
+            }
+        }
+    }
+}
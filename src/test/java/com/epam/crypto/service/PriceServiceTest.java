@@ -1,17 +1,30 @@
 package com.epam.crypto.service;
 
+import com.epam.crypto.exception.NoDataFoundException;
+import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.model.StatisticsDto;
+import com.epam.crypto.model.TickDto;
+import com.epam.crypto.repository.PriceAggregates;
+import com.epam.crypto.repository.PriceCandle;
 import com.epam.crypto.repository.PriceRepository;
 import org.apache.commons.lang3.tuple.Pair;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @Test
 public class PriceServiceTest {
@@ -19,6 +32,10 @@ public class PriceServiceTest {
     private static final String CURR_SYMBOL_BTC = "BTC";
     private static final String CURR_SYMBOL_DOGE = "DOGE";
 
+    // Identifiers are assigned in order of currencies passed to mockCurrencies
+    private static final int CURRENCY_ID_BTC = 0;
+    private static final int CURRENCY_ID_DOGE = 1;
+
     private static final int YEAR = 2022;
     private static final int MONTH = 1;
     private static final int DAY = 1;
@@ -34,6 +51,26 @@ public class PriceServiceTest {
     private static final BigDecimal PRICE_OLDEST = new BigDecimal("10.02");
     private static final BigDecimal PRICE_NEWEST = new BigDecimal("10.03");
 
+    // Statistics of the lowest, highest, oldest and newest prices
+    private static final BigDecimal MEAN_BTC = new BigDecimal("10.0275");
+    private static final BigDecimal VARIANCE_BTC = new BigDecimal("0.00021875");
+    private static final BigDecimal STANDARD_DEVIATION_BTC = new BigDecimal("0.01479019945774904");
+    private static final BigDecimal RETURN_BTC = new BigDecimal("0.0009980039920159681");
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_DAY_START = 1640995200000L;
+
+    // Timestamp of 2022-01-01 23:59:59.999 UTC+0
+    private static final long TIMESTAMP_DAY_END = 1641081599999L;
+
+    private static final ZoneId ZONE_NEW_YORK = ZoneId.of("America/New_York");
+
+    // Timestamp of 2022-01-01 00:00:00 in New York
+    private static final long TIMESTAMP_DAY_START_NEW_YORK = 1641013200000L;
+
+    // Timestamp of 2022-01-01 23:59:59.999 in New York
+    private static final long TIMESTAMP_DAY_END_NEW_YORK = 1641099599999L;
+
     // Timestamp of 2022-01-01 01:01:01.0001 UTC+0
 
     private static final long TIMESTAMP_FIRST = 1640998861001L;
@@ -47,32 +84,64 @@ public class PriceServiceTest {
     // Timestamp of 2022-01-01 01:01:01.0004 UTC+0
     private static final long TIMESTAMP_FORTH = 1640998861004L;
 
+    private static final int CACHE_SIZE = 16;
+
+    private static final int DAILY_TOP_SIZE = 3;
+
+    private static final int FAN_OUT_PARALLELISM = 2;
+
+    private PriceRepository priceRepository;
+
     private PriceService priceService;
 
     @BeforeClass
     public void init() {
-        PriceRepository priceRepository = mock(PriceRepository.class);
+        priceRepository = mock(PriceRepository.class);
 
-        when(priceRepository.getCurrencies()).thenReturn(Set.of(CURR_SYMBOL_BTC));
-        when(priceRepository.getNormalizedRange(CURR_SYMBOL_BTC)).thenReturn(RANGE_BTC);
+        mockCurrencies(priceRepository, CURR_SYMBOL_BTC);
+        when(priceRepository.getNormalizedRange(CURRENCY_ID_BTC, Long.MIN_VALUE, Long.MAX_VALUE)).thenReturn(RANGE_BTC);
 
         when(priceRepository.getNormalizedRange(CURR_SYMBOL_BTC, YEAR, MONTH, DAY)).thenReturn(RANGE_BTC);
+        when(priceRepository.getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_SECOND, TIMESTAMP_THIRD)).thenReturn(RANGE_BTC);
         when(priceRepository.getNormalizedRange(CURR_SYMBOL_BTC, YEAR_NON_EXISTING, MONTH_NON_EXISTING, DAY_NON_EXISTING))
                 .thenReturn(null);
         when(priceRepository.getNormalizedRange(CURR_SYMBOL_DOGE, YEAR_NON_EXISTING, MONTH_NON_EXISTING, DAY_NON_EXISTING))
                 .thenReturn(null);
 
-        when(priceRepository.getLowestPrice(CURR_SYMBOL_BTC)).thenReturn(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST));
-        when(priceRepository.getHighestPrice(CURR_SYMBOL_BTC)).thenReturn(Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST));
-        when(priceRepository.getOldestPrice(CURR_SYMBOL_BTC)).thenReturn(Pair.of(TIMESTAMP_FIRST, PRICE_OLDEST));
-        when(priceRepository.getNewestPrice(CURR_SYMBOL_BTC)).thenReturn(Pair.of(TIMESTAMP_FORTH, PRICE_NEWEST));
+        when(priceRepository.getAggregates(eq(CURR_SYMBOL_BTC), any())).thenReturn(PriceAggregates.builder()
+                .min(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST))
+                .max(Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST))
+                .first(Pair.of(TIMESTAMP_FIRST, PRICE_OLDEST))
+                .last(Pair.of(TIMESTAMP_FORTH, PRICE_NEWEST))
+                .build());
+
+        when(priceRepository.getAggregates(eq(CURR_SYMBOL_DOGE), any())).thenReturn(PriceAggregates.builder().build());
+        var aggregatesInWindow = PriceAggregates.builder()
+                .min(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST))
+                .max(Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST))
+                .first(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST))
+                .last(Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST))
+                .build();
+        when(priceRepository.getAggregates(eq(CURR_SYMBOL_BTC), eq(TIMESTAMP_SECOND), eq(TIMESTAMP_THIRD), any())).thenReturn(aggregatesInWindow);
+        when(priceRepository.getAggregates(eq(CURRENCY_ID_BTC), eq(TIMESTAMP_SECOND), eq(TIMESTAMP_THIRD), any())).thenReturn(aggregatesInWindow);
+
+        when(priceRepository.getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END)).thenReturn(RANGE_BTC);
+        when(priceRepository.getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_DAY_START_NEW_YORK, TIMESTAMP_DAY_END_NEW_YORK)).thenReturn(RANGE_BTC);
+        when(priceRepository.getCandles(CURR_SYMBOL_BTC, Long.MIN_VALUE, Long.MAX_VALUE, 86_400_000L)).thenAnswer(invocation -> List.of(
+                PriceCandle.builder().timestamp(TIMESTAMP_DAY_START).open(PRICE_OLDEST).high(PRICE_HIGHEST).low(PRICE_LOWEST).close(PRICE_NEWEST).count(4).build()
+        ).iterator());
 
-        when(priceRepository.getLowestPrice(CURR_SYMBOL_DOGE)).thenReturn(null);
-        when(priceRepository.getHighestPrice(CURR_SYMBOL_DOGE)).thenReturn(null);
-        when(priceRepository.getOldestPrice(CURR_SYMBOL_DOGE)).thenReturn(null);
-        when(priceRepository.getHighestPrice(CURR_SYMBOL_DOGE)).thenReturn(null);
+        when(priceRepository.getCandles(CURR_SYMBOL_BTC, Long.MIN_VALUE, Long.MAX_VALUE, 3_600_000L)).thenReturn(List.of(
+                PriceCandle.builder().timestamp(TIMESTAMP_FIRST).open(PRICE_OLDEST).high(PRICE_HIGHEST).low(PRICE_LOWEST).close(PRICE_NEWEST).count(4).build()
+        ).iterator());
 
-        priceService = new PriceService(priceRepository);
+        when(priceRepository.getPrices(CURR_SYMBOL_BTC, TIMESTAMP_SECOND, Long.MAX_VALUE)).thenAnswer(invocation -> List.of(
+                Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST),
+                Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST),
+                Pair.of(TIMESTAMP_FORTH, PRICE_NEWEST)
+        ).iterator());
+
+        priceService = new PriceService(priceRepository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), new SymbolFanOut(FAN_OUT_PARALLELISM, 1));
     }
 
     @Test
@@ -87,6 +156,89 @@ public class PriceServiceTest {
         assertTrue(RANGE_BTC.compareTo(ranges.get(0).getRange()) == 0);
     }
 
+    @Test
+    public void test0015_getRangesInWindow() {
+        // When
+        var ranges = priceService.getRanges(TIMESTAMP_SECOND, TIMESTAMP_THIRD);
+        var rangesWithoutPrices = priceService.getRanges(TIMESTAMP_FORTH, null);
+
+        // Then
+        assertEquals(1, ranges.size());
+        assertEquals(CURR_SYMBOL_BTC, ranges.get(0).getCurrencySymbol());
+        assertTrue(RANGE_BTC.compareTo(ranges.get(0).getRange()) == 0);
+        assertTrue(rangesWithoutPrices.isEmpty());
+    }
+
+    @Test
+    public void test0016_getRangesInEmptyWindow() {
+        assertThrows(IllegalArgumentException.class, () -> priceService.getRanges(TIMESTAMP_THIRD, TIMESTAMP_SECOND));
+    }
+
+    @Test
+    public void test0017_getRangesByPages() {
+        // Given
+        PriceRepository repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_BTC, CURR_SYMBOL_DOGE);
+        when(repository.getAggregates(eq(CURRENCY_ID_BTC), eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), any())).thenReturn(PriceAggregates.builder()
+                .min(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST))
+                .max(Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST))
+                .range(RANGE_BTC)
+                .build());
+        var aggregatesDoge = PriceAggregates.builder()
+                .min(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST))
+                .max(Pair.of(TIMESTAMP_THIRD, PRICE_LOWEST))
+                .range(new BigDecimal("2.000000"))
+                .build();
+        when(repository.getAggregates(eq(CURRENCY_ID_DOGE), eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), any())).thenReturn(aggregatesDoge);
+        when(repository.getAggregates(eq(CURR_SYMBOL_DOGE), any())).thenReturn(aggregatesDoge);
+        PriceService service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), SymbolFanOut.sequential());
+
+        // When
+        var firstPage = service.getRanges(null, null, 0, 1);
+        var secondPage = service.getRanges(null, null, 1, null);
+        service.addPrices(List.of(TickDto.builder().timestamp(TIMESTAMP_FORTH).currencySymbol(CURR_SYMBOL_DOGE).price(PRICE_LOWEST).build()));
+
+        // Then
+        assertEquals(1, firstPage.size());
+        assertEquals(CURR_SYMBOL_BTC, firstPage.get(0).getCurrencySymbol());
+        assertEquals(1, secondPage.size());
+        assertEquals(CURR_SYMBOL_DOGE, secondPage.get(0).getCurrencySymbol());
+        // Ranges are computed once by sweep over identifiers, then only currencies with added prices are checked
+        verify(repository, times(1)).getAggregates(eq(CURRENCY_ID_BTC), anyLong(), anyLong(), any());
+        verify(repository, times(1)).getAggregates(eq(CURRENCY_ID_DOGE), anyLong(), anyLong(), any());
+        verify(repository, never()).getAggregates(eq(CURR_SYMBOL_BTC), any());
+        verify(repository, times(1)).getAggregates(eq(CURR_SYMBOL_DOGE), any());
+        verify(repository, never()).getNormalizedRange(any());
+        assertThrows(IllegalArgumentException.class, () -> service.getRanges(null, null, -1, null));
+        assertThrows(IllegalArgumentException.class, () -> service.getRanges(null, null, null, 0));
+    }
+
+    @Test
+    public void test0018_getTiedRangesInSymbolOrder() {
+        // Given
+        PriceRepository repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_DOGE, CURR_SYMBOL_BTC);
+        when(repository.getNormalizedRange(anyInt(), anyLong(), anyLong())).thenReturn(RANGE_BTC);
+        when(repository.getAggregates(anyInt(), eq(Long.MIN_VALUE), eq(Long.MAX_VALUE), any())).thenReturn(PriceAggregates.builder()
+                .min(Pair.of(TIMESTAMP_SECOND, PRICE_LOWEST))
+                .max(Pair.of(TIMESTAMP_THIRD, PRICE_HIGHEST))
+                .range(RANGE_BTC)
+                .build());
+        PriceService service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), SymbolFanOut.sequential());
+
+        // When
+        var ranges = service.getRanges();
+        var windowRanges = service.getRanges(TIMESTAMP_FIRST, TIMESTAMP_SECOND);
+        var firstPage = service.getRanges(null, null, 0, 1);
+        var secondPage = service.getRanges(null, null, 1, 1);
+
+        // Then
+        var expectedSymbols = List.of(CURR_SYMBOL_BTC, CURR_SYMBOL_DOGE);
+        assertEquals(expectedSymbols, ranges.stream().map(RangeDto::getCurrencySymbol).toList());
+        assertEquals(expectedSymbols, windowRanges.stream().map(RangeDto::getCurrencySymbol).toList());
+        assertEquals(expectedSymbols, List.of(firstPage.get(0).getCurrencySymbol(), secondPage.get(0).getCurrencySymbol()));
+    }
+
     @Test
     public void test0020_getHighestRangeOnExistingDate() {
         // When
@@ -100,10 +252,47 @@ public class PriceServiceTest {
 
     @Test
     public void test0021_getHighestRangeOnNonExistingDate() {
-        assertThrows(RuntimeException.class,
+        assertThrows(NoDataFoundException.class,
                 () -> priceService.getHighestRangeOnDate(LocalDate.of(YEAR_NON_EXISTING, MONTH_NON_EXISTING, DAY_NON_EXISTING)));
     }
 
+    @Test
+    public void test0022_getHighestRangesOfPeriod() {
+        // Given
+        LocalDate date = LocalDate.of(YEAR, MONTH, DAY);
+
+        // When
+        var days = priceService.getHighestRanges(date.minusDays(1), date.plusDays(1), DAILY_TOP_SIZE);
+        var daysWithoutPrices = priceService.getHighestRanges(date.plusDays(1), date.plusDays(90), null);
+
+        // Then
+        assertEquals(1, days.size());
+        assertEquals(date, days.get(0).getDate());
+        assertEquals(1, days.get(0).getRanges().size());
+        assertEquals(CURR_SYMBOL_BTC, days.get(0).getRanges().get(0).getCurrencySymbol());
+        assertTrue(daysWithoutPrices.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> priceService.getHighestRanges(date, date, DAILY_TOP_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> priceService.getHighestRanges(date, date.minusDays(1), null));
+    }
+
+    @Test
+    public void test0023_getHighestRangesInTimeZone() {
+        // Given
+        LocalDate date = LocalDate.of(YEAR, MONTH, DAY);
+
+        // When
+        var range = priceService.getHighestRangeOnDate(date, ZONE_NEW_YORK);
+        var days = priceService.getHighestRanges(date.minusDays(1), date.plusDays(1), null, ZONE_NEW_YORK);
+
+        // Then
+        assertEquals(CURR_SYMBOL_BTC, range.getCurrencySymbol());
+        assertEquals(1, days.size());
+        assertEquals(date, days.get(0).getDate());
+        assertEquals(CURR_SYMBOL_BTC, days.get(0).getRanges().get(0).getCurrencySymbol());
+        assertThrows(NoDataFoundException.class, () -> priceService.getHighestRangeOnDate(date.plusDays(1), ZONE_NEW_YORK));
+        assertThrows(IllegalArgumentException.class, () -> priceService.getHighestRanges(date, date.plusYears(2), null, ZONE_NEW_YORK));
+    }
+
     @Test
     public void test0030_getPricesOnExistingCurrency() {
         // When
@@ -131,4 +320,315 @@ public class PriceServiceTest {
         assertNull(prices.getOldest());
         assertNull(prices.getNewest());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test0032_getPricesOnExistingCurrencyInWindow() {
+        // When
+        var prices = priceService.getPrices(CURR_SYMBOL_BTC, TIMESTAMP_SECOND, TIMESTAMP_THIRD);
+
+        // Then
+        assertEquals(CURR_SYMBOL_BTC, prices.getCurrencySymbol());
+        assertEquals(PRICE_LOWEST, prices.getOldest());
+        assertEquals(PRICE_HIGHEST, prices.getNewest());
+        assertEquals(PRICE_LOWEST, prices.getMin());
+        assertEquals(PRICE_HIGHEST, prices.getMax());
+    }
+
+    @Test
+    public void test0035_getPricesOfBatch() {
+        // When
+        var items = priceService.getPrices(List.of(CURR_SYMBOL_BTC, CURR_SYMBOL_DOGE), TIMESTAMP_SECOND, TIMESTAMP_THIRD);
+
+        // Then
+        assertEquals(2, items.size());
+        assertEquals(CURR_SYMBOL_BTC, items.get(0).getCurrencySymbol());
+        assertNull(items.get(0).getError());
+        assertEquals(PRICE_LOWEST, items.get(0).getPrices().getOldest());
+        assertEquals(PRICE_HIGHEST, items.get(0).getPrices().getNewest());
+        assertEquals(CURR_SYMBOL_DOGE, items.get(1).getCurrencySymbol());
+        assertNull(items.get(1).getPrices());
+        assertNotNull(items.get(1).getError());
+    }
+
+    @Test
+    public void test0036_getPricesOfBatchInEmptyWindow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> priceService.getPrices(List.of(CURR_SYMBOL_BTC), TIMESTAMP_THIRD, TIMESTAMP_SECOND));
+    }
+
+    @Test
+    public void test0037_getCandles() {
+        // When
+        var candles = priceService.getCandles(CURR_SYMBOL_BTC, null, null, "1h").toList();
+
+        // Then
+        assertEquals(1, candles.size());
+        assertEquals(TIMESTAMP_FIRST, candles.get(0).getTimestamp());
+        assertEquals(PRICE_OLDEST, candles.get(0).getOpen());
+        assertEquals(PRICE_HIGHEST, candles.get(0).getHigh());
+        assertEquals(PRICE_LOWEST, candles.get(0).getLow());
+        assertEquals(PRICE_NEWEST, candles.get(0).getClose());
+        assertEquals(4L, candles.get(0).getCount());
+    }
+
+    @Test
+    public void test0038_getCandlesWithMalformedInterval() {
+        assertThrows(IllegalArgumentException.class, () -> priceService.getCandles(CURR_SYMBOL_BTC, null, null, "1 hour"));
+        assertThrows(IllegalArgumentException.class, () -> priceService.getCandles(CURR_SYMBOL_BTC, null, null, "0m"));
+    }
+
+    @Test
+    public void test0039_getTicksFromCursor() {
+        // When
+        var ticks = priceService.getTicks(CURR_SYMBOL_BTC, null, null, TIMESTAMP_FIRST, 2).toList();
+        var ticksAfterEnd = priceService.getTicks(CURR_SYMBOL_BTC, null, TIMESTAMP_SECOND, TIMESTAMP_SECOND, null).toList();
+
+        // Then
+        assertEquals(2, ticks.size());
+        assertEquals(TIMESTAMP_SECOND, ticks.get(0).getTimestamp());
+        assertEquals(CURR_SYMBOL_BTC, ticks.get(0).getCurrencySymbol());
+        assertEquals(PRICE_LOWEST, ticks.get(0).getPrice());
+        assertEquals(TIMESTAMP_THIRD, ticks.get(1).getTimestamp());
+        assertTrue(ticksAfterEnd.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> priceService.getTicks(CURR_SYMBOL_BTC, null, null, null, 0));
+    }
+
+    @Test
+    public void test0040_addPrices() {
+        // Given
+        var ticks = List.of(
+                TickDto.builder().timestamp(TIMESTAMP_FIRST).currencySymbol(CURR_SYMBOL_BTC).price(PRICE_OLDEST).build(),
+                TickDto.builder().timestamp(TIMESTAMP_FIRST).currencySymbol(CURR_SYMBOL_DOGE).price(PRICE_LOWEST).build(),
+                TickDto.builder().timestamp(TIMESTAMP_SECOND).currencySymbol(CURR_SYMBOL_BTC).price(PRICE_NEWEST).build());
+
+        // When
+        priceService.addPrices(ticks);
+
+        // Then
+        verify(priceRepository).addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_FIRST, PRICE_OLDEST), Pair.of(TIMESTAMP_SECOND, PRICE_NEWEST)));
+        verify(priceRepository).addPrices(CURR_SYMBOL_DOGE, List.of(Pair.of(TIMESTAMP_FIRST, PRICE_LOWEST)));
+    }
+
+    @Test
+    public void test0041_addPricesWithoutPrice() {
+        // Given
+        var ticks = List.of(TickDto.builder().timestamp(TIMESTAMP_FIRST).currencySymbol(CURR_SYMBOL_BTC).build());
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> priceService.addPrices(ticks));
+    }
+
+    @Test
+    public void test0045_getStatistics() {
+        // Given
+        var repository = mock(PriceRepository.class);
+        when(repository.getAggregates(eq(CURR_SYMBOL_BTC), eq(TIMESTAMP_FIRST), eq(Long.MAX_VALUE), any())).thenReturn(PriceAggregates.builder()
+                .count(4L)
+                .mean(MEAN_BTC)
+                .variance(VARIANCE_BTC)
+                .returnRate(RETURN_BTC)
+                .build());
+        var service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), new SymbolFanOut(FAN_OUT_PARALLELISM, 1));
+
+        // When
+        var statistics = service.getStatistics(CURR_SYMBOL_BTC, TIMESTAMP_FIRST, null);
+
+        // Then
+        assertEquals(CURR_SYMBOL_BTC, statistics.getCurrencySymbol());
+        assertNull(statistics.getTimestamp());
+        assertEquals(4L, statistics.getCount());
+        assertEquals(MEAN_BTC, statistics.getMean());
+        assertEquals(VARIANCE_BTC, statistics.getVariance());
+        assertEquals(STANDARD_DEVIATION_BTC, statistics.getStandardDeviation());
+        assertEquals(RETURN_BTC, statistics.getReturnRate());
+        assertThrows(IllegalArgumentException.class, () -> service.getStatistics(CURR_SYMBOL_BTC, TIMESTAMP_THIRD, TIMESTAMP_SECOND));
+    }
+
+    @Test
+    public void test0046_getRollingStatistics() {
+        // Given
+        var repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_BTC);
+        // Prices at the first and the forth timestamps
+        var timestamps = List.of(TIMESTAMP_FIRST, TIMESTAMP_FORTH);
+        mockPricesAt(repository, timestamps);
+        var service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), new SymbolFanOut(FAN_OUT_PARALLELISM, 1));
+
+        // When
+        var statistics = service.getRollingStatistics(CURR_SYMBOL_BTC, null, null, "2ms", "1ms").toList();
+
+        // Then
+        // Windows end at the second, third and forth timestamps, the one ending at the third has no prices
+        assertEquals(List.of(TIMESTAMP_SECOND, TIMESTAMP_FORTH), statistics.stream().map(StatisticsDto::getTimestamp).toList());
+        assertTrue(statistics.stream().allMatch(dto -> dto.getCount() == 1));
+        verify(repository).getAggregates(eq(CURRENCY_ID_BTC), eq(TIMESTAMP_FIRST), eq(TIMESTAMP_SECOND), any());
+        verify(repository).getAggregates(eq(CURRENCY_ID_BTC), eq(TIMESTAMP_SECOND), eq(TIMESTAMP_THIRD), any());
+        verify(repository).getAggregates(eq(CURRENCY_ID_BTC), eq(TIMESTAMP_THIRD), eq(TIMESTAMP_FORTH), any());
+        assertThrows(IllegalArgumentException.class, () -> service.getRollingStatistics(CURR_SYMBOL_DOGE, null, null, "2ms", "1ms"));
+        assertThrows(IllegalArgumentException.class, () -> service.getRollingStatistics(CURR_SYMBOL_BTC, null, null, "1 day", "1h"));
+        assertThrows(IllegalArgumentException.class, () -> service.getRollingStatistics(CURR_SYMBOL_BTC, null, null, "1d", "0h"));
+    }
+
+    @Test
+    public void test0048_skipRollingWindowsWithoutPrices() {
+        // Given
+        var repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_BTC);
+        // Prices at the start and at the end of the day
+        mockPricesAt(repository, List.of(TIMESTAMP_DAY_START, TIMESTAMP_DAY_END));
+        var service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), new SymbolFanOut(FAN_OUT_PARALLELISM, 1));
+
+        // When
+        var statistics = service.getRollingStatistics(CURR_SYMBOL_BTC, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END, "1s", "1s").toList();
+
+        // Then
+        // Windows of the day between the first and the last one are skipped with a single lookup of the next price
+        assertEquals(List.of(TIMESTAMP_DAY_START + 999, TIMESTAMP_DAY_END), statistics.stream().map(StatisticsDto::getTimestamp).toList());
+        verify(repository, times(4)).getAggregates(eq(CURRENCY_ID_BTC), anyLong(), anyLong(), any());
+        assertThrows(IllegalArgumentException.class, () -> service.getRollingStatistics(CURR_SYMBOL_BTC, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END, "1s", "1ms"));
+    }
+
+    @Test
+    public void test0047_getCorrelations() {
+        // Given
+        var repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_DOGE, CURR_SYMBOL_BTC);
+        when(repository.getAggregates(anyInt(), anyLong(), anyLong(), any())).thenReturn(PriceAggregates.builder()
+                .first(Pair.of(TIMESTAMP_FIRST, PRICE_OLDEST))
+                .last(Pair.of(TIMESTAMP_FORTH, PRICE_NEWEST))
+                .build());
+        // Prices of both currencies move by the same percents, DOGE prices are 10 times lower
+        double[] prices = {10, 11, 9.9, 12.87};
+        doAnswer(invocation -> {
+            int currencyId = invocation.getArgument(0);
+            double[] samples = invocation.getArgument(3);
+            int offset = invocation.getArgument(4);
+            int count = invocation.getArgument(5);
+            for (int i = 0; i < count; i++) {
+                samples[offset + i] = currencyId == 0 ? prices[i] / 10 : prices[i];
+            }
+            return null;
+        }).when(repository).samplePrices(anyInt(), eq(TIMESTAMP_FIRST), eq(1L), any(), anyInt(), eq(4));
+        var service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), new SymbolFanOut(FAN_OUT_PARALLELISM, 1));
+
+        // When
+        var matrix = service.getCorrelations(null, null, null, "1ms");
+
+        // Then
+        // Currencies are sorted by symbol
+        assertEquals(List.of(CURR_SYMBOL_BTC, CURR_SYMBOL_DOGE), matrix.getCurrencySymbols());
+        assertEquals(TIMESTAMP_FIRST, matrix.getFrom());
+        assertEquals(TIMESTAMP_FORTH, matrix.getTo());
+        assertEquals(1L, matrix.getInterval());
+        double[][] correlations = matrix.getCorrelations();
+        for (double[] row : correlations) {
+            assertArrayEquals(new double[]{1, 1}, row, 1e-12);
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.getCorrelations(List.of(CURR_SYMBOL_BTC, "XRP"), null, null, "1ms"));
+        assertThrows(IllegalArgumentException.class, () -> service.getCorrelations(null, null, null, "1d"));
+        assertThrows(IllegalArgumentException.class, () -> service.getCorrelations(null, TIMESTAMP_FIRST, TIMESTAMP_FIRST + CorrelationMatrix.MAX_POINTS, "1ms"));
+    }
+
+    @Test
+    public void test0050_getCachedRangesUntilVersionChanged() {
+        // Given
+        PriceRepository repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_BTC);
+        when(repository.getNormalizedRange(CURRENCY_ID_BTC, Long.MIN_VALUE, Long.MAX_VALUE)).thenReturn(RANGE_BTC);
+        when(repository.getVersion()).thenReturn(1L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PriceService service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, meterRegistry, SymbolFanOut.sequential());
+
+        // When
+        var ranges = service.getRanges();
+        var cachedRanges = service.getRanges();
+        when(repository.getVersion()).thenReturn(2L);
+        var changedRanges = service.getRanges();
+
+        // Then
+        assertSame(ranges, cachedRanges);
+        assertNotSame(ranges, changedRanges);
+        verify(repository, times(2)).getNormalizedRange(CURRENCY_ID_BTC, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(1, meterRegistry.get("crypto.cache.requests").tags("cache", "ranges", "result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("crypto.cache.requests").tags("cache", "ranges", "result", "miss").functionCounter().count());
+        assertEquals(3, meterRegistry.get("crypto.service.operation").tag("operation", "ranges").timer().count());
+    }
+
+    @Test
+    public void test0051_getCachedRangesOfTimeWindows() {
+        // Given
+        PriceRepository repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_BTC);
+        when(repository.getNormalizedRange(eq(CURRENCY_ID_BTC), anyLong(), anyLong())).thenReturn(RANGE_BTC);
+        when(repository.getVersion()).thenReturn(1L);
+        PriceService service = new PriceService(repository, new DateTimeService(), 2, DAILY_TOP_SIZE, new SimpleMeterRegistry(), SymbolFanOut.sequential());
+
+        // When
+        var ranges = service.getRanges(TIMESTAMP_FIRST, TIMESTAMP_SECOND);
+        var cachedRanges = service.getRanges(TIMESTAMP_FIRST, TIMESTAMP_SECOND);
+        var otherRanges = service.getRanges(TIMESTAMP_FIRST, null);
+        // Cache holds 2 results, so the least recently used window is evicted
+        service.getRanges(TIMESTAMP_SECOND, TIMESTAMP_THIRD);
+        var evictedRanges = service.getRanges(TIMESTAMP_FIRST, TIMESTAMP_SECOND);
+
+        // Then
+        assertSame(ranges, cachedRanges);
+        assertEquals(RANGE_BTC, otherRanges.get(0).getRange());
+        assertNotSame(ranges, evictedRanges);
+        verify(repository, times(2)).getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_FIRST, TIMESTAMP_SECOND);
+        verify(repository).getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_FIRST, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void test0060_indexHighestRangesOnceAndUpdateDaysOfAddedPrices() {
+        // Given
+        PriceRepository repository = mock(PriceRepository.class);
+        mockCurrencies(repository, CURR_SYMBOL_BTC, CURR_SYMBOL_DOGE);
+        when(repository.getCandles(eq(CURR_SYMBOL_BTC), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> List.of(
+                PriceCandle.builder().timestamp(TIMESTAMP_DAY_START).open(PRICE_OLDEST).high(PRICE_HIGHEST).low(PRICE_LOWEST).close(PRICE_NEWEST).count(4).build()
+        ).iterator());
+        when(repository.getCandles(eq(CURR_SYMBOL_DOGE), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> List.of().iterator());
+        when(repository.getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END)).thenReturn(RANGE_BTC);
+        when(repository.getNormalizedRange(CURRENCY_ID_DOGE, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END)).thenReturn(new BigDecimal("3.5"));
+        PriceService service = new PriceService(repository, new DateTimeService(), CACHE_SIZE, DAILY_TOP_SIZE, new SimpleMeterRegistry(), SymbolFanOut.sequential());
+        LocalDate date = LocalDate.of(YEAR, MONTH, DAY);
+
+        // When
+        var range = service.getHighestRangeOnDate(date);
+        service.addPrices(List.of(TickDto.builder().timestamp(TIMESTAMP_FIRST).currencySymbol(CURR_SYMBOL_DOGE).price(PRICE_LOWEST).build()));
+        var rangeAfterAdding = service.getHighestRangeOnDate(date);
+        var days = service.getHighestRanges(date, date, 2);
+
+        // Then
+        assertEquals(CURR_SYMBOL_BTC, range.getCurrencySymbol());
+        assertEquals(CURR_SYMBOL_DOGE, rangeAfterAdding.getCurrencySymbol());
+        assertEquals(List.of(CURR_SYMBOL_DOGE, CURR_SYMBOL_BTC), days.get(0).getRanges().stream().map(RangeDto::getCurrencySymbol).toList());
+        // Index is built once, then only the day of added price is updated for its currency
+        verify(repository, times(1)).getCandles(eq(CURR_SYMBOL_BTC), anyLong(), anyLong(), anyLong());
+        verify(repository, times(1)).getNormalizedRange(CURRENCY_ID_BTC, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END);
+        verify(repository, times(1)).getNormalizedRange(CURRENCY_ID_DOGE, TIMESTAMP_DAY_START, TIMESTAMP_DAY_END);
+    }
+
+    private static void mockPricesAt(PriceRepository repository, List<Long> timestamps) {
+        when(repository.getAggregates(eq(CURRENCY_ID_BTC), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(1);
+            long to = invocation.getArgument(2);
+            var window = timestamps.stream().filter(timestamp -> from <= timestamp && timestamp <= to).toList();
+            return PriceAggregates.builder()
+                    .first(window.isEmpty() ? null : Pair.of(window.get(0), PRICE_OLDEST))
+                    .last(window.isEmpty() ? null : Pair.of(window.get(window.size() - 1), PRICE_NEWEST))
+                    .count((long) window.size())
+                    .build();
+        });
+    }
+
+    private static void mockCurrencies(PriceRepository repository, String... currencySymbols) {
+        when(repository.getCurrencies()).thenReturn(Set.of(currencySymbols));
+        when(repository.getCurrencyCount()).thenReturn(currencySymbols.length);
+        when(repository.getCurrencyId(anyString())).thenReturn(-1);
+        for (int i = 0; i < currencySymbols.length; i++) {
+            when(repository.getCurrencyId(currencySymbols[i])).thenReturn(i);
+            when(repository.getCurrencySymbol(i)).thenReturn(currencySymbols[i]);
+        }
+    }
+}
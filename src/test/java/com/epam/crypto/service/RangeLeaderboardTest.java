@@ -0,0 +1,102 @@
+package com.epam.crypto.service;
+
+import com.epam.crypto.model.RangeDto;
+import com.epam.crypto.repository.ColumnarPriceRepository;
+import com.epam.crypto.repository.PriceRepository;
+import com.epam.crypto.repository.PriceSeries;
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class RangeLeaderboardTest {
+
+    private static final String CURR_SYMBOL_BTC = "BTC";
+    private static final String CURR_SYMBOL_ETH = "ETH";
+    private static final String CURR_SYMBOL_XRP = "XRP";
+
+    // Timestamp of 2022-01-01 00:00:00 UTC+0
+    private static final long TIMESTAMP_FIRST = 1640995200000L;
+
+    // Timestamp of 2022-01-01 01:00:00 UTC+0
+    private static final long TIMESTAMP_SECOND = 1640998800000L;
+
+    // Timestamp of 2022-01-01 02:00:00 UTC+0
+    private static final long TIMESTAMP_THIRD = 1641002400000L;
+
+    private PriceRepository repository;
+
+    private RangeLeaderboard leaderboard;
+
+    @BeforeMethod
+    public void init() {
+        repository = new ColumnarPriceRepository(new DateTimeService(), new ConcurrentHashMap<String, PriceSeries>());
+        // Ranges: BTC - 2.5, ETH - 3, XRP - 2.5
+        repository.addPrices(CURR_SYMBOL_BTC, List.of(Pair.of(TIMESTAMP_FIRST, new BigDecimal("30")), Pair.of(TIMESTAMP_SECOND, new BigDecimal("20"))));
+        repository.addPrices(CURR_SYMBOL_ETH, List.of(Pair.of(TIMESTAMP_FIRST, new BigDecimal("1")), Pair.of(TIMESTAMP_SECOND, new BigDecimal("2"))));
+        repository.addPrices(CURR_SYMBOL_XRP, List.of(Pair.of(TIMESTAMP_FIRST, new BigDecimal("0.3")), Pair.of(TIMESTAMP_SECOND, new BigDecimal("0.2"))));
+        leaderboard = new RangeLeaderboard(repository, SymbolFanOut.sequential());
+    }
+
+    @Test
+    public void test0010_getPagesOfRanking() {
+        // When
+        var ranges = leaderboard.getRanges(0, 10);
+        var secondPage = leaderboard.getRanges(1, 1);
+        var pageAfterEnd = leaderboard.getRanges(3, 10);
+
+        // Then
+        // Currencies with equal ranges are sorted by symbol
+        assertEquals(List.of(CURR_SYMBOL_ETH, CURR_SYMBOL_BTC, CURR_SYMBOL_XRP), ranges.stream().map(RangeDto::getCurrencySymbol).toList());
+        for (RangeDto range : ranges) {
+            assertEquals(repository.getNormalizedRange(range.getCurrencySymbol()), range.getRange());
+        }
+        assertEquals(1, secondPage.size());
+        assertEquals(CURR_SYMBOL_BTC, secondPage.get(0).getCurrencySymbol());
+        assertTrue(pageAfterEnd.isEmpty());
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    public void test0020_reRankOnlyCurrenciesWithMovedMinOrMax() {
+        // Given
+        leaderboard.getRanges(0, 10);
+
+        // When
+        repository.addPrices(CURR_SYMBOL_ETH, List.of(Pair.of(TIMESTAMP_THIRD, new BigDecimal("1.5"))));
+        boolean ethReRanked = leaderboard.update(CURR_SYMBOL_ETH);
+        repository.addPrices(CURR_SYMBOL_XRP, List.of(Pair.of(TIMESTAMP_THIRD, new BigDecimal("0.1"))));
+        boolean xrpReRanked = leaderboard.update(CURR_SYMBOL_XRP);
+        var ranges = leaderboard.getRanges(0, 10);
+
+        // Then
+        assertFalse(ethReRanked);
+        assertTrue(xrpReRanked);
+        assertEquals(List.of(CURR_SYMBOL_XRP, CURR_SYMBOL_ETH, CURR_SYMBOL_BTC), ranges.stream().map(RangeDto::getCurrencySymbol).toList());
+        assertEquals(0, new BigDecimal("4").compareTo(ranges.get(0).getRange()));
+    }
+
+    @Test
+    public void test0030_rankNewCurrencyAfterBuilt() {
+        // Given
+        boolean reRankedBeforeBuilt = leaderboard.update(CURR_SYMBOL_BTC);
+        leaderboard.getRanges(0, 10);
+
+        // When
+        repository.addPrices("DOGE", List.of(Pair.of(TIMESTAMP_FIRST, new BigDecimal("0.1")), Pair.of(TIMESTAMP_SECOND, new BigDecimal("1"))));
+        boolean dogeReRanked = leaderboard.update("DOGE");
+        var top = leaderboard.getRanges(0, 1);
+
+        // Then
+        assertFalse(reRankedBeforeBuilt);
+        assertTrue(dogeReRanked);
+        assertEquals("DOGE", top.get(0).getCurrencySymbol());
+        assertEquals(4, leaderboard.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.epam.crypto.service;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Test
+public class SymbolFanOutTest {
+
+    private static final int PARALLELISM = 2;
+
+    private static final int THRESHOLD = 10;
+
+    @Test
+    public void test0010_mapManySymbolsInPool() {
+        // Given
+        List<String> symbols = IntStream.range(0, 1000).mapToObj(i -> "S" + i).toList();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        // When
+        List<String> results;
+        try (SymbolFanOut fanOut = new SymbolFanOut(PARALLELISM, THRESHOLD)) {
+            results = fanOut.map(symbols, symbol -> {
+                threads.add(Thread.currentThread());
+                return symbol.toLowerCase();
+            });
+        }
+
+        // Then
+        assertEquals(symbols.stream().map(String::toLowerCase).toList(), results);
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertTrue(threads.size() <= PARALLELISM);
+    }
+
+    @Test
+    public void test0020_mapFewSymbolsInCallingThread() {
+        // Given
+        List<String> symbols = List.of("BTC", "ETH");
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        // When
+        List<String> results;
+        try (SymbolFanOut fanOut = new SymbolFanOut(PARALLELISM, THRESHOLD)) {
+            results = fanOut.map(symbols, symbol -> {
+                threads.add(Thread.currentThread());
+                return symbol.toLowerCase();
+            });
+        }
+
+        // Then
+        assertEquals(List.of("btc", "eth"), results);
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+}
@@ -0,0 +1,73 @@
+package com.epam.crypto.service;
+
+import org.testng.annotations.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Test
+public class VersionedCacheTest {
+
+    private static final int MAX_SIZE = 2;
+
+    private static final long VERSION = 1L;
+    private static final long VERSION_NEXT = 2L;
+
+    @Test
+    public void test0010_getCachedValueOfSameVersion() {
+        // Given
+        var cache = new VersionedCache<String, String>(MAX_SIZE);
+        cache.get("a", VERSION, () -> "first");
+
+        // When
+        var found = cache.get("a", VERSION, () -> "second");
+
+        // Then
+        assertEquals("first", found);
+    }
+
+    @Test
+    public void test0020_getComputedValueOfOtherVersion() {
+        // Given
+        var cache = new VersionedCache<String, String>(MAX_SIZE);
+        cache.get("a", VERSION, () -> "first");
+
+        // When
+        var found = cache.get("a", VERSION_NEXT, () -> "second");
+        var cached = cache.get("a", VERSION_NEXT, () -> "third");
+
+        // Then
+        assertEquals("second", found);
+        assertEquals("second", cached);
+    }
+
+    @Test
+    public void test0030_evictLeastRecentlyUsedValue() {
+        // Given
+        var cache = new VersionedCache<String, String>(MAX_SIZE);
+        cache.get("a", VERSION, () -> "a");
+        cache.get("b", VERSION, () -> "b");
+        cache.get("a", VERSION, () -> "a2");
+
+        // When
+        cache.get("c", VERSION, () -> "c");
+
+        // Then
+        assertEquals(MAX_SIZE, cache.size());
+        assertEquals("a", cache.get("a", VERSION, () -> "a3"));
+        assertEquals("b2", cache.get("b", VERSION, () -> "b2"));
+    }
+
+    @Test
+    public void test0040_disabledCache() {
+        // Given
+        var cache = new VersionedCache<String, String>(0);
+        cache.get("a", VERSION, () -> "first");
+
+        // When
+        var found = cache.get("a", VERSION, () -> "second");
+
+        // Then
+        assertEquals("second", found);
+        assertEquals(0, cache.size());
+    }
+}